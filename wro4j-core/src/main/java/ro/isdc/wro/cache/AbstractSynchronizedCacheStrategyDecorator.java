@@ -2,6 +2,7 @@ package ro.isdc.wro.cache;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -23,6 +24,21 @@ public abstract class AbstractSynchronizedCacheStrategyDecorator<K, V>
     extends CacheStrategyDecorator<K, V> {
   private static final Logger LOG = LoggerFactory.getLogger(AbstractSynchronizedCacheStrategyDecorator.class);
   private ConcurrentMap<K, ReadWriteLock> locks = new ConcurrentHashMap<K, ReadWriteLock>();
+  /**
+   * Keys whose cached values are stale. A stale value is still returned by {@link #get(Object)} until it is replaced
+   * by {@link #revalidate(Object)}.
+   */
+  private final ConcurrentMap<K, Boolean> staleKeys = new ConcurrentHashMap<K, Boolean>();
+  /**
+   * Keys whose values were put in the cache and not removed since.
+   */
+  private final ConcurrentMap<K, Boolean> cachedKeys = new ConcurrentHashMap<K, Boolean>();
+  /**
+   * The version of each key, incremented when the value of the key is removed (by {@link #remove(Object)} or
+   * {@link #clear()}), this way a value reloaded meanwhile by {@link #revalidate(Object)} doesn't replace the outcome of
+   * the removal. The removal of a key doesn't affect the revalidation of other keys.
+   */
+  private final ConcurrentMap<K, AtomicLong> versions = new ConcurrentHashMap<K, AtomicLong>();
   
   public AbstractSynchronizedCacheStrategyDecorator(final CacheStrategy<K, V> decorated) {
     super(decorated);
@@ -51,6 +67,7 @@ public abstract class AbstractSynchronizedCacheStrategyDecorator<K, V>
           LOG.debug("Cache is empty. Loading new value...");
           value = loadValue(key);
           put(key, value);
+          staleKeys.remove(key);
         } 
       } finally {
         lock.writeLock().unlock();
@@ -67,11 +84,106 @@ public abstract class AbstractSynchronizedCacheStrategyDecorator<K, V>
     lock.writeLock().lock();
     try {
       getDecoratedObject().put(key, value);
+      cachedKeys.put(key, Boolean.TRUE);
     } finally {
       lock.writeLock().unlock();
     }
   }
   
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void remove(final K key) {
+    final ReadWriteLock lock = getLockForKey(key);
+    lock.writeLock().lock();
+    try {
+      getVersionForKey(key).incrementAndGet();
+      staleKeys.remove(key);
+      cachedKeys.remove(key);
+      getDecoratedObject().remove(key);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Marks all cached values as stale without removing them. Unlike {@link #clear()}, the stale values are still served
+   * until each one is replaced by a fresh value using {@link #revalidate(Object)}. This way the cache never goes cold
+   * at once and the requests are not blocked while the values are recomputed.
+   */
+  public void markStale() {
+    for (final K key : cachedKeys.keySet()) {
+      staleKeys.put(key, Boolean.TRUE);
+    }
+    LOG.debug("Marked as stale {} keys", staleKeys.size());
+  }
+
+  /**
+   * @return true if the value associated with provided key is stale.
+   */
+  public boolean isStale(final K key) {
+    return staleKeys.containsKey(key);
+  }
+
+  /**
+   * Reloads the value associated with the key if it is stale and swaps it in place of the stale value. When invoked
+   * concurrently for the same key, only one caller will reload the value, while others return immediately. If the
+   * reload fails, the stale value is kept.
+   * <p/>
+   * The value is loaded without holding the lock of the key, so the stale value is served meanwhile. The swap is
+   * performed under the write lock of the key and only if the value of the key was not removed from the cache during
+   * the reload (otherwise the reloaded value could be computed from an outdated model). In this case the key is marked
+   * as stale again, to be revalidated later.
+   *
+   * @return true if the value was reloaded.
+   */
+  public boolean revalidate(final K key) {
+    Validate.notNull(key);
+    if (staleKeys.remove(key) != null) {
+      LOG.debug("Revalidating stale value for key: {}", key);
+      final AtomicLong version = getVersionForKey(key);
+      final long versionBefore = version.get();
+      try {
+        final V value = loadValue(key);
+        final ReadWriteLock lock = getLockForKey(key);
+        lock.writeLock().lock();
+        try {
+          // probe without retrieving the value, which could prevent the decorated strategy to reuse its memory
+          if (version.get() == versionBefore && cachedKeys.containsKey(key)) {
+            put(key, value);
+            if (version.get() == versionBefore) {
+              return true;
+            }
+            // cleared concurrently, since clear() doesn't take the lock of each key.
+            cachedKeys.remove(key);
+            getDecoratedObject().remove(key);
+          }
+        } finally {
+          lock.writeLock().unlock();
+        }
+        LOG.debug("The cache was modified while revalidating the key: {}. The reloaded value is discarded.", key);
+        staleKeys.put(key, Boolean.TRUE);
+      } catch (final RuntimeException e) {
+        LOG.error("Cannot revalidate stale value for key: " + key + ". The stale value is kept.", e);
+      }
+    }
+    return false;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void clear() {
+    for (final AtomicLong version : versions.values()) {
+      version.incrementAndGet();
+    }
+    staleKeys.clear();
+    cachedKeys.clear();
+    super.clear();
+  }
+
   /**
    * Ensure that the returned lock will never be null.
    */
@@ -80,6 +192,14 @@ public abstract class AbstractSynchronizedCacheStrategyDecorator<K, V>
     return lock == null ? locks.get(key) : lock;
   }
   
+  /**
+   * @return the version of the key, never null.
+   */
+  private AtomicLong getVersionForKey(final K key) {
+    final AtomicLong version = versions.putIfAbsent(key, new AtomicLong());
+    return version == null ? versions.get(key) : version;
+  }
+
   /**
    * Loads the value associated with the key. This is a potential slow operation which will be prevented to be called
    * multiple times for the same key.
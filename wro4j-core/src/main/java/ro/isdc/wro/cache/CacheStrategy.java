@@ -32,6 +32,14 @@ public interface CacheStrategy<K, V> {
    */
   V get(final K key);
 
+  /**
+   * Remove the value associated with the key, if any.
+   *
+   * @param key
+   *          Object
+   */
+  void remove(final K key);
+
   /**
    * Clear all cache contents.
    */
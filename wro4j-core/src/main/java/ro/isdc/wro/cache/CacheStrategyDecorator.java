@@ -30,6 +30,13 @@ public class CacheStrategyDecorator<K, V> extends AbstractDecorator<CacheStrateg
     return getDecoratedObject().get(key);
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  public void remove(K key) {
+    getDecoratedObject().remove(key);
+  }
+
   /**
    * {@inheritDoc}
    */
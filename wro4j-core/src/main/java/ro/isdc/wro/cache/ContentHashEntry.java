@@ -3,15 +3,19 @@
  */
 package ro.isdc.wro.cache;
 
-import java.io.BufferedOutputStream;
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.Serializable;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
 import java.util.zip.GZIPOutputStream;
 
-import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -20,7 +24,18 @@ import ro.isdc.wro.config.Context;
 
 
 /**
- * Entry holding a resource content along with its associated hash.
+ * Entry holding a resource content along with its associated hash. The content is held only encoded with the
+ * configured encoding, in order to avoid encoding it each time it is served, and is decoded when the raw content is
+ * requested. The gzipped and deflated variants of the content are also computed (using the best compression level)
+ * when the entry is created, so serving any of them is a plain copy of bytes. Only when the cacheGzippedContent flag is
+ * disabled, the compressed variants are computed for each request using the default compression level, which is much
+ * faster.
+ * <p>
+ * An entry can also be backed by buffers holding the encoded and compressed content (possibly allocated outside of the
+ * heap by a {@link CacheStrategy}). Such entry holds no content on the heap; the accessors returning arrays or strings
+ * create a copy of the buffer content, while the buffer accessors don't. The {@link CacheStrategy} can be notified when
+ * the entry it returned is not used anymore (see {@link #release()}), in order to reuse the memory of an evicted entry
+ * right away.
  *
  * @author Alex Objelean
  */
@@ -28,32 +43,95 @@ import ro.isdc.wro.config.Context;
 public final class ContentHashEntry
   implements Serializable {
   private static final Logger LOG = LoggerFactory.getLogger(ContentHashEntry.class);
-  private String rawContent;
+  private byte[] encodedContent;
   private byte[] gzippedContent;
+  private byte[] deflatedContent;
   private String hash;
+  private final String encoding;
+  private transient ByteBuffer encodedBuffer;
+  private transient ByteBuffer gzippedBuffer;
+  private transient ByteBuffer deflatedBuffer;
+  private transient Runnable releaseCallback;
 
   private ContentHashEntry(final String rawContent, final String hash) {
-    this.rawContent = rawContent;
+    this(rawContent, hash, Context.get().getConfig().getEncoding());
+  }
+
+  private ContentHashEntry(final String rawContent, final String hash, final String encoding) {
+    this.encoding = encoding;
     this.hash = hash;
-    //the trade-off between the memory and processing time
-    if (Context.get().getConfig().isCacheGzippedContent()) {
-      gzippedContent = computeGzippedContent(rawContent);
+    setRawContent(rawContent);
+  }
+
+  private ContentHashEntry(final ByteBuffer encodedContent, final ByteBuffer gzippedContent,
+    final ByteBuffer deflatedContent, final String hash, final String encoding, final Runnable releaseCallback) {
+    this.encoding = encoding;
+    this.hash = hash;
+    this.releaseCallback = releaseCallback;
+    this.encodedBuffer = encodedContent.asReadOnlyBuffer();
+    this.gzippedBuffer = gzippedContent.asReadOnlyBuffer();
+    this.deflatedBuffer = deflatedContent.asReadOnlyBuffer();
+  }
+
+  private byte[] encode(final String content) {
+    if (content == null) {
+      return null;
+    }
+    try {
+      return content.getBytes(encoding);
+    } catch (final UnsupportedEncodingException e) {
+      throw new WroRuntimeException("Unsupported encoding: " + encoding, e).logError();
     }
   }
 
-  private byte[] computeGzippedContent(final String content) {
+  /**
+   * @param level
+   *          the compression level, {@link Deflater#BEST_COMPRESSION} when the result is cached.
+   */
+  private byte[] computeGzippedContent(final int level) {
     LOG.debug("Gzipping the content....");
     try {
       final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-      final OutputStream os = new GZIPOutputStream(new BufferedOutputStream(baos));
-      IOUtils.copy(new ByteArrayInputStream(content.getBytes(Context.get().getConfig().getEncoding())), os);
-      os.close();
-      return baos.toByteArray();
+      return compress(baos, new GZIPOutputStream(baos) {
+        {
+          def.setLevel(level);
+        }
+      });
     } catch (final IOException e) {
       throw new WroRuntimeException("Problem while computing gzipped content", e).logError();
     }
-  };
+  }
 
+  /**
+   * @param level
+   *          the compression level, {@link Deflater#BEST_COMPRESSION} when the result is cached.
+   */
+  private byte[] computeDeflatedContent(final int level) {
+    LOG.debug("Deflating the content....");
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    final Deflater deflater = new Deflater(level);
+    try {
+      return compress(baos, new DeflaterOutputStream(baos, deflater));
+    } catch (final IOException e) {
+      throw new WroRuntimeException("Problem while computing deflated content", e).logError();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  /**
+   * Writes the encoded content to the compressing stream.
+   *
+   * @return the bytes collected by the target stream.
+   */
+  private byte[] compress(final ByteArrayOutputStream target, final OutputStream os)
+    throws IOException {
+    if (encodedContent != null) {
+      os.write(encodedContent);
+    }
+    os.close();
+    return target.toByteArray();
+  }
 
   /**
    * Factory method.
@@ -65,10 +143,52 @@ public final class ContentHashEntry
   }
 
   /**
-   * @return the content
+   * Factory method creating an entry backed by buffers. The buffers content is not copied, thus the buffers must not be
+   * modified or reused while the created entry is reachable.
+   *
+   * @param encodedContent
+   *          the content encoded with the provided encoding.
+   * @param gzippedContent
+   *          the gzipped encoded content.
+   * @param deflatedContent
+   *          the deflated encoded content.
+   * @return {@link ContentHashEntry} based on supplied values.
+   */
+  public static final ContentHashEntry valueOf(final ByteBuffer encodedContent, final ByteBuffer gzippedContent,
+    final ByteBuffer deflatedContent, final String hash, final String encoding) {
+    return valueOf(encodedContent, gzippedContent, deflatedContent, hash, encoding, null);
+  }
+
+  /**
+   * Same as {@link #valueOf(ByteBuffer, ByteBuffer, ByteBuffer, String, String)}, notifying the provided callback each
+   * time the entry is released by one of its users.
+   *
+   * @param releaseCallback
+   *          invoked by {@link #release()}, can be null.
+   * @return {@link ContentHashEntry} based on supplied values.
+   */
+  public static final ContentHashEntry valueOf(final ByteBuffer encodedContent, final ByteBuffer gzippedContent,
+    final ByteBuffer deflatedContent, final String hash, final String encoding, final Runnable releaseCallback) {
+    Validate.notNull(encodedContent);
+    Validate.notNull(gzippedContent);
+    Validate.notNull(deflatedContent);
+    Validate.notNull(encoding);
+    return new ContentHashEntry(encodedContent, gzippedContent, deflatedContent, hash, encoding, releaseCallback);
+  }
+
+  /**
+   * @return the content, decoded each time this method is invoked.
    */
   public String getRawContent() {
-    return this.rawContent;
+    final byte[] content = getEncodedContent();
+    if (content == null) {
+      return null;
+    }
+    try {
+      return new String(content, encoding);
+    } catch (final UnsupportedEncodingException e) {
+      throw new WroRuntimeException("Unsupported encoding: " + encoding, e).logError();
+    }
   }
 
 
@@ -76,7 +196,17 @@ public final class ContentHashEntry
    * @param rawContent the content to set
    */
   public void setRawContent(final String rawContent) {
-    this.rawContent = rawContent;
+    this.encodedBuffer = null;
+    this.gzippedBuffer = null;
+    this.deflatedBuffer = null;
+    this.encodedContent = encode(rawContent);
+    this.gzippedContent = null;
+    this.deflatedContent = null;
+    //the trade-off between the memory and processing time, the compressed variants are cached by default
+    if (!Context.isContextSet() || Context.get().getConfig().isCacheGzippedContent()) {
+      gzippedContent = computeGzippedContent(Deflater.BEST_COMPRESSION);
+      deflatedContent = computeDeflatedContent(Deflater.BEST_COMPRESSION);
+    }
   }
 
 
@@ -95,16 +225,157 @@ public final class ContentHashEntry
     this.hash = hash;
   }
 
+  /**
+   * @return the content encoded using the encoding configured when this entry was created.
+   */
+  public byte[] getEncodedContent() {
+    if (encodedBuffer != null) {
+      return copyOf(encodedBuffer);
+    }
+    return this.encodedContent;
+  }
+
   /**
    * @return the gzippedContent
    */
   public byte[] getGzippedContent() {
+    if (gzippedBuffer != null) {
+      return copyOf(gzippedBuffer);
+    }
     if (gzippedContent == null) {
-      return computeGzippedContent(rawContent);
+      return computeGzippedContent(Deflater.DEFAULT_COMPRESSION);
     }
     return this.gzippedContent;
   }
 
+  /**
+   * @return the content compressed with deflate algorithm.
+   */
+  public byte[] getDeflatedContent() {
+    if (deflatedBuffer != null) {
+      return copyOf(deflatedBuffer);
+    }
+    if (deflatedContent == null) {
+      return computeDeflatedContent(Deflater.DEFAULT_COMPRESSION);
+    }
+    return this.deflatedContent;
+  }
+
+  /**
+   * @return a read-only buffer holding the encoded content or null if there is no content.
+   */
+  public ByteBuffer getEncodedContentBuffer() {
+    if (encodedBuffer != null) {
+      return encodedBuffer.duplicate();
+    }
+    return encodedContent == null ? null : ByteBuffer.wrap(encodedContent).asReadOnlyBuffer();
+  }
+
+  /**
+   * @return a read-only buffer holding the gzipped content.
+   */
+  public ByteBuffer getGzippedContentBuffer() {
+    if (gzippedBuffer != null) {
+      return gzippedBuffer.duplicate();
+    }
+    return ByteBuffer.wrap(getGzippedContent()).asReadOnlyBuffer();
+  }
+
+  /**
+   * @return a read-only buffer holding the deflated content.
+   */
+  public ByteBuffer getDeflatedContentBuffer() {
+    if (deflatedBuffer != null) {
+      return deflatedBuffer.duplicate();
+    }
+    return ByteBuffer.wrap(getDeflatedContent()).asReadOnlyBuffer();
+  }
+
+  /**
+   * Writes the remaining content of a buffer obtained from this entry to the stream, without copying the whole content
+   * on the heap, then releases this entry (see {@link #release()}). Prefer this method to writing the buffer directly,
+   * since the memory backing the buffer cannot be reused by the {@link CacheStrategy} until the write is complete. Must
+   * be invoked at most once for each retrieval of the entry from the cache.
+   */
+  public void write(final ByteBuffer buffer, final OutputStream os)
+    throws IOException {
+    try {
+      final WritableByteChannel channel = Channels.newChannel(os);
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    } finally {
+      keepReachable();
+      release();
+    }
+  }
+
+  /**
+   * Notifies the {@link CacheStrategy} which returned this entry that the caller doesn't use its buffers anymore. Must
+   * be invoked at most once for each retrieval, only by the callers which don't invoke
+   * {@link #write(ByteBuffer, OutputStream)}. The entries which are never released are reclaimed after they are garbage
+   * collected. Does nothing when no strategy asked to be notified.
+   */
+  public void release() {
+    if (releaseCallback != null) {
+      releaseCallback.run();
+    }
+  }
+
+  /**
+   * @return the encoding used to encode the content.
+   */
+  public String getEncoding() {
+    return encoding;
+  }
+
+  /**
+   * @return true if the content of this entry is held by buffers instead of arrays.
+   */
+  public boolean isBufferBacked() {
+    return encodedBuffer != null;
+  }
+
+  private byte[] copyOf(final ByteBuffer buffer) {
+    final ByteBuffer source = buffer.duplicate();
+    final byte[] bytes = new byte[source.remaining()];
+    source.get(bytes);
+    keepReachable();
+    return bytes;
+  }
+
+  /**
+   * Ensures that this entry is strongly reachable until this method is invoked. Cache strategies holding the content
+   * outside of the heap reuse the memory of an entry which was not released only after it is garbage collected.
+   */
+  private void keepReachable() {
+    synchronized (this) {
+      // nothing to do
+    }
+  }
+
+  /**
+   * Replaces a buffer backed entry with an equivalent entry holding its content on the heap, since buffers are not
+   * serializable.
+   */
+  private Object writeReplace() {
+    if (encodedBuffer != null) {
+      return new ContentHashEntry(getRawContent(), hash, encoding);
+    }
+    return this;
+  }
+
+  /**
+   * @return the approximate number of bytes retained by this entry, used to bound the cache by memory.
+   */
+  public long getWeight() {
+    return lengthOf(encodedContent) + lengthOf(gzippedContent) + lengthOf(deflatedContent);
+  }
+
+  private long lengthOf(final byte[] bytes) {
+    return bytes == null ? 0 : bytes.length;
+  }
+
   /**
    * Used by unit test to prove that gzipped content is cached only when required.
    */
@@ -112,6 +383,13 @@ public final class ContentHashEntry
     return this.gzippedContent;
   }
 
+  /**
+   * Used by unit test to prove that deflated content is cached only when required.
+   */
+  byte[] getDeflatedContentInternal() {
+    return this.deflatedContent;
+  }
+
   /**
    * {@inheritDoc}
    */
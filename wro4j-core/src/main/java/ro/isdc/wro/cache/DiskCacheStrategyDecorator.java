@@ -0,0 +1,391 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.Adler32;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ro.isdc.wro.model.factory.WroModelFactory;
+import ro.isdc.wro.model.group.Group;
+import ro.isdc.wro.model.group.Inject;
+import ro.isdc.wro.model.resource.Resource;
+import ro.isdc.wro.model.resource.locator.factory.UriLocatorFactory;
+import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
+import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.model.resource.processor.factory.ProcessorsFactory;
+import ro.isdc.wro.model.resource.util.HashBuilder;
+
+
+/**
+ * A decorator persisting the cached entries in a local directory, in order to reuse them after a restart instead of
+ * processing the groups again. The file of an entry is identified by the {@link CacheEntry} and a fingerprint of the
+ * group (its resources, their content, the processors used and their configuration). Thus, a persisted entry is reused
+ * only if nothing it depends on has changed. The resources referred by other resources (ex: css imports) are not part of
+ * the fingerprint. The configuration of a processor is described by its fields holding primitives, strings or enums
+ * (including the fields of the decorated processors); the configuration held by other objects (ex: the properties
+ * provided by a factory or the compiler options) is not part of the fingerprint, thus the cache must be cleared when it
+ * changes.
+ * <p>
+ * The persisted files are read using memory mapping and the returned {@link ContentHashEntry} is backed by the mapped
+ * buffers. Each file holds a checksum, which is verified before the content is reused. The entries are persisted when
+ * they are put into the cache; the previous files of the same {@link CacheEntry} are deleted. Removing an entry or
+ * clearing the cache (ex: when the cache is reloaded) deletes the persisted files as well, so that the next lookup
+ * processes the group again. The files are kept when the cache is destroyed, in order to be reused after a restart.
+ * </p>
+ * <p>
+ * Usage: <code>new DiskCacheStrategyDecorator(new LruMemoryCacheStrategy<CacheEntry, ContentHashEntry>(), directory)</code>
+ * returned by {@link ro.isdc.wro.manager.factory.BaseWroManagerFactory#newCacheStrategy()}.
+ * </p>
+ *
+ * @since 1.4.7
+ */
+public class DiskCacheStrategyDecorator
+  extends CacheStrategyDecorator<CacheEntry, ContentHashEntry> {
+  private static final Logger LOG = LoggerFactory.getLogger(DiskCacheStrategyDecorator.class);
+  /**
+   * Identifies the format of the persisted files.
+   */
+  private static final int MAGIC = 0x57524F31;
+  private static final String EXTENSION = ".wro";
+  private static final String UTF_8 = "UTF-8";
+  private static final int CHUNK_SIZE = 8192;
+  /**
+   * How deep the decorated processors are described in the fingerprint.
+   */
+  private static final int MAX_DESCRIPTION_DEPTH = 8;
+  @Inject
+  private WroModelFactory modelFactory;
+  @Inject
+  private UriLocatorFactory uriLocatorFactory;
+  @Inject
+  private ProcessorsFactory processorsFactory;
+  @Inject
+  private HashBuilder hashBuilder;
+  private final File directory;
+  /**
+   * The fingerprints computed when the lookup missed both the memory and the disk, used when the processed entry is put
+   * into the cache. This way the fingerprint describes the resources before they were processed.
+   */
+  private final ConcurrentMap<CacheEntry, String> fingerprints = new ConcurrentHashMap<CacheEntry, String>();
+
+  /**
+   * @param decorated
+   *          the strategy holding the entries in memory.
+   * @param directory
+   *          where the entries are persisted. Created if it doesn't exist.
+   */
+  public DiskCacheStrategyDecorator(final CacheStrategy<CacheEntry, ContentHashEntry> decorated, final File directory) {
+    super(decorated);
+    Validate.notNull(directory);
+    this.directory = directory;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public ContentHashEntry get(final CacheEntry key) {
+    ContentHashEntry value = super.get(key);
+    if (value == null) {
+      final String fingerprint = computeFingerprint(key);
+      if (fingerprint != null) {
+        value = read(getFile(key, fingerprint));
+        if (value != null) {
+          LOG.debug("Reusing persisted entry of {}", key);
+          super.put(key, value);
+        } else {
+          // kept only for the put of the processed entry, a later put must compute the fingerprint of its resources
+          fingerprints.put(key, fingerprint);
+        }
+      }
+    }
+    return value;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void put(final CacheEntry key, final ContentHashEntry value) {
+    super.put(key, value);
+    String fingerprint = fingerprints.remove(key);
+    if (fingerprint == null) {
+      fingerprint = computeFingerprint(key);
+    }
+    if (fingerprint != null && value != null && value.getEncodedContentBuffer() != null) {
+      write(key, getFile(key, fingerprint), value);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void remove(final CacheEntry key) {
+    super.remove(key);
+    fingerprints.remove(key);
+    deleteFiles(key);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void clear() {
+    super.clear();
+    fingerprints.clear();
+    final File[] files = directory.listFiles(new FilenameFilter() {
+      public boolean accept(final File dir, final String name) {
+        return name.endsWith(EXTENSION);
+      }
+    });
+    if (files != null) {
+      for (final File file : files) {
+        FileUtils.deleteQuietly(file);
+      }
+    }
+  }
+
+  /**
+   * @return the fingerprint of the group, or null if it cannot be computed.
+   */
+  private String computeFingerprint(final CacheEntry key) {
+    try {
+      final ByteArrayOutputStream description = new ByteArrayOutputStream();
+      final DataOutputStream os = new DataOutputStream(description);
+      os.writeUTF(key.toString());
+      for (final ResourcePreProcessor processor : processorsFactory.getPreProcessors()) {
+        describeProcessor(os, processor, 0);
+      }
+      for (final ResourcePostProcessor processor : processorsFactory.getPostProcessors()) {
+        describeProcessor(os, processor, 0);
+      }
+      final Group group = modelFactory.create().getGroupByName(key.getGroupName());
+      for (final Resource resource : group.collectResourcesOfType(key.getType()).getResources()) {
+        os.writeUTF(resource.getUri());
+        os.writeBoolean(resource.isMinimize());
+        os.writeUTF(computeContentHash(resource));
+      }
+      os.close();
+      return hashBuilder.getHash(new ByteArrayInputStream(description.toByteArray()));
+    } catch (final Exception e) {
+      LOG.debug("Cannot compute the fingerprint of " + key, e);
+      return null;
+    }
+  }
+
+  /**
+   * Writes the class of the processor and the values of its fields holding primitives, strings or enums. The processors
+   * referred by its fields (decorated processors) are described the same way. The injected fields are skipped, since
+   * they hold services rather than configuration.
+   */
+  private void describeProcessor(final DataOutputStream os, final Object processor, final int depth)
+    throws IOException, IllegalAccessException {
+    os.writeUTF(processor.getClass().getName());
+    for (Class<?> type = processor.getClass(); type != null && type != Object.class; type = type.getSuperclass()) {
+      for (final Field field : type.getDeclaredFields()) {
+        final int modifiers = field.getModifiers();
+        if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isAnnotationPresent(Inject.class)) {
+          continue;
+        }
+        field.setAccessible(true);
+        final Object value = field.get(processor);
+        if (value == null || isSimpleValue(value)) {
+          os.writeUTF(field.getName() + "=" + value);
+        } else if (depth < MAX_DESCRIPTION_DEPTH && value != processor
+          && (value instanceof ResourcePreProcessor || value instanceof ResourcePostProcessor)) {
+          os.writeUTF(field.getName());
+          describeProcessor(os, value, depth + 1);
+        }
+      }
+    }
+  }
+
+  private boolean isSimpleValue(final Object value) {
+    return value instanceof String || value instanceof Number || value instanceof Boolean
+      || value instanceof Character || value instanceof Enum<?>;
+  }
+
+  private String computeContentHash(final Resource resource)
+    throws IOException {
+    InputStream is = null;
+    try {
+      is = uriLocatorFactory.locate(resource.getUri());
+      return hashBuilder.getHash(is);
+    } catch (final IOException e) {
+      LOG.debug("Cannot locate resource: {}", resource.getUri());
+      return "";
+    } finally {
+      IOUtils.closeQuietly(is);
+    }
+  }
+
+  /**
+   * Reads the persisted entry using memory mapping.
+   *
+   * @return the persisted entry or null if the file doesn't exist or is not valid.
+   */
+  private ContentHashEntry read(final File file) {
+    if (!file.isFile()) {
+      return null;
+    }
+    RandomAccessFile randomAccessFile = null;
+    try {
+      randomAccessFile = new RandomAccessFile(file, "r");
+      final FileChannel channel = randomAccessFile.getChannel();
+      final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.getInt() != MAGIC) {
+        LOG.warn("Ignoring invalid file: {}", file);
+        return null;
+      }
+      final long checksum = buffer.getLong();
+      final String hash = readString(buffer);
+      final String encoding = readString(buffer);
+      final ByteBuffer[] contents = new ByteBuffer[3];
+      final int[] lengths = new int[contents.length];
+      for (int i = 0; i < lengths.length; i++) {
+        lengths[i] = buffer.getInt();
+      }
+      final ByteBuffer payload = buffer.slice();
+      if (payload.remaining() != lengths[0] + lengths[1] + lengths[2] || checksum != computeChecksum(payload)) {
+        LOG.warn("Ignoring corrupted file: {}", file);
+        return null;
+      }
+      for (int i = 0; i < contents.length; i++) {
+        payload.limit(payload.position() + lengths[i]);
+        contents[i] = payload.slice();
+        payload.position(payload.limit());
+      }
+      return ContentHashEntry.valueOf(contents[0], contents[1], contents[2], hash, encoding);
+    } catch (final Exception e) {
+      LOG.warn("Cannot read persisted entry: " + file, e);
+      return null;
+    } finally {
+      // the mapping remains valid after the file is closed
+      IOUtils.closeQuietly(randomAccessFile);
+    }
+  }
+
+  /**
+   * Writes the entry to a temporary file, renamed when complete. The files of previous fingerprints are deleted.
+   */
+  private void write(final CacheEntry key, final File file, final ContentHashEntry value) {
+    final byte[][] contents = {
+      value.getEncodedContent(), value.getGzippedContent(), value.getDeflatedContent()
+    };
+    File tempFile = null;
+    DataOutputStream os = null;
+    try {
+      FileUtils.forceMkdir(directory);
+      tempFile = File.createTempFile("wro", ".tmp", directory);
+      os = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+      os.writeInt(MAGIC);
+      os.writeLong(computeChecksum(contents));
+      writeString(os, value.getHash());
+      writeString(os, value.getEncoding());
+      for (final byte[] content : contents) {
+        os.writeInt(content.length);
+      }
+      for (final byte[] content : contents) {
+        os.write(content);
+      }
+      os.close();
+      deleteFiles(key);
+      if (!tempFile.renameTo(file)) {
+        throw new IOException("Cannot rename " + tempFile + " to " + file);
+      }
+      LOG.debug("Persisted {} to {}", key, file);
+    } catch (final IOException e) {
+      LOG.warn("Cannot persist entry: " + key, e);
+      IOUtils.closeQuietly(os);
+      FileUtils.deleteQuietly(tempFile);
+    }
+  }
+
+  /**
+   * Deletes all files persisted for the provided key.
+   */
+  private void deleteFiles(final CacheEntry key) {
+    final String prefix = getFilePrefix(key);
+    final File[] files = directory.listFiles(new FilenameFilter() {
+      public boolean accept(final File dir, final String name) {
+        return name.startsWith(prefix) && name.endsWith(EXTENSION);
+      }
+    });
+    if (files != null) {
+      for (final File file : files) {
+        FileUtils.deleteQuietly(file);
+      }
+    }
+  }
+
+  private File getFile(final CacheEntry key, final String fingerprint) {
+    return new File(directory, getFilePrefix(key) + fingerprint.replaceAll("[^\\w]", "_") + EXTENSION);
+  }
+
+  private String getFilePrefix(final CacheEntry key) {
+    final String name = String.format("%s-%s-%s-", key.getGroupName(), key.getType(), key.isMinimize() ? "min"
+      : "max");
+    return name.replaceAll("[^\\w\\-]", "_");
+  }
+
+  private long computeChecksum(final byte[][] contents) {
+    final Adler32 checksum = new Adler32();
+    for (final byte[] content : contents) {
+      checksum.update(content, 0, content.length);
+    }
+    return checksum.getValue();
+  }
+
+  /**
+   * Computes the checksum without copying the whole buffer on the heap.
+   */
+  private long computeChecksum(final ByteBuffer buffer) {
+    final ByteBuffer source = buffer.duplicate();
+    final Adler32 checksum = new Adler32();
+    final byte[] chunk = new byte[CHUNK_SIZE];
+    while (source.hasRemaining()) {
+      final int length = Math.min(chunk.length, source.remaining());
+      source.get(chunk, 0, length);
+      checksum.update(chunk, 0, length);
+    }
+    return checksum.getValue();
+  }
+
+  private void writeString(final DataOutputStream os, final String value)
+    throws IOException {
+    final byte[] bytes = value == null ? new byte[0] : value.getBytes(UTF_8);
+    os.writeInt(bytes.length);
+    os.write(bytes);
+  }
+
+  private String readString(final ByteBuffer buffer)
+    throws IOException {
+    final byte[] bytes = new byte[buffer.getInt()];
+    buffer.get(bytes);
+    return new String(bytes, UTF_8);
+  }
+}
@@ -0,0 +1,19 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.cache;
+
+/**
+ * Computes the weight of a cached value. Used by size-aware {@link CacheStrategy} implementations to bound the cache by
+ * memory rather than by the number of entries.
+ *
+ * @since 1.4.7
+ */
+public interface Weigher<V> {
+  /**
+   * @param value
+   *          the cached value, never null.
+   * @return the weight of the value. Must not be negative.
+   */
+  long weigh(final V value);
+}
@@ -59,6 +59,13 @@ public class MemoryCacheStrategy<K, V> implements CacheStrategy<K, V> {
     map.put(key, value);
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  public void remove(final K key) {
+    map.remove(key);
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -0,0 +1,486 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.cache.impl;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ro.isdc.wro.cache.CacheEntry;
+import ro.isdc.wro.cache.CacheStrategy;
+import ro.isdc.wro.cache.ContentHashEntry;
+
+
+/**
+ * A {@link CacheStrategy} holding the content of the bundles outside of the heap, in order to reduce the garbage
+ * collection pauses caused by large cached content. The encoded, gzipped and deflated content of each bundle is copied
+ * into direct {@link ByteBuffer} slabs, managed by an allocator of this strategy. Only the index (keys, hashes and buffer
+ * views) is kept on the heap. The cached {@link ContentHashEntry} instances are backed by these buffers, thus the
+ * content can be written to the response without being copied back on the heap.
+ * <p>
+ * When there is no room for a new entry, the least recently used entries are evicted. Each retrieved entry is counted
+ * as used until it is released (by {@link ContentHashEntry#write(ByteBuffer, java.io.OutputStream)} or
+ * {@link ContentHashEntry#release()}), thus the requests still serving an evicted entry are not affected. The memory of
+ * an evicted entry is reused as soon as it is released by all its users, or after it is garbage collected if some users
+ * never release it.
+ * </p>
+ * <p>
+ * The entries which cannot be held outside of the heap (larger than the slab size, or when all the memory is still in
+ * use) are kept on the heap, as provided. These entries are bounded by a separate capacity, the least recently used
+ * being evicted first. This class is thread-safe.
+ * </p>
+ *
+ * @since 1.4.7
+ */
+public class OffHeapCacheStrategy
+  implements CacheStrategy<CacheEntry, ContentHashEntry> {
+  private static final Logger LOG = LoggerFactory.getLogger(OffHeapCacheStrategy.class);
+  /**
+   * Default maximum number of bytes allocated outside of the heap.
+   */
+  public static final long DEFAULT_CAPACITY = 256 * 1024 * 1024;
+  /**
+   * Default size of a slab. This is also the maximum size of a cached bundle.
+   */
+  public static final int DEFAULT_SLAB_SIZE = 16 * 1024 * 1024;
+  /**
+   * Default maximum number of bytes of the entries kept on the heap.
+   */
+  public static final long DEFAULT_HEAP_CAPACITY = 16 * 1024 * 1024;
+  // fields below are guarded by this instance
+  /**
+   * The entries held outside of the heap, in access order.
+   */
+  private final Map<CacheEntry, Region> regions = new LinkedHashMap<CacheEntry, Region>(16, 0.75f, true);
+  /**
+   * The entries kept on the heap, in access order.
+   */
+  private final Map<CacheEntry, ContentHashEntry> heapEntries = new LinkedHashMap<CacheEntry, ContentHashEntry>(16,
+    0.75f, true);
+  private final long heapCapacity;
+  private long heapSize;
+  private final SlabAllocator allocator;
+  private final ReferenceQueue<ContentHashEntry> releasedEntries = new ReferenceQueue<ContentHashEntry>();
+  private final Set<RetiredRegion> retiredRegions = new HashSet<RetiredRegion>();
+
+  /**
+   * Creates a strategy using {@link #DEFAULT_CAPACITY}, {@link #DEFAULT_SLAB_SIZE} and {@link #DEFAULT_HEAP_CAPACITY}.
+   */
+  public OffHeapCacheStrategy() {
+    this(DEFAULT_CAPACITY, DEFAULT_SLAB_SIZE);
+  }
+
+  /**
+   * Creates a strategy using {@link #DEFAULT_HEAP_CAPACITY}.
+   *
+   * @param capacity
+   *          maximum number of bytes allocated outside of the heap.
+   * @param slabSize
+   *          the number of bytes allocated at once. Must not be greater than capacity.
+   */
+  public OffHeapCacheStrategy(final long capacity, final int slabSize) {
+    this(capacity, slabSize, DEFAULT_HEAP_CAPACITY);
+  }
+
+  /**
+   * @param capacity
+   *          maximum number of bytes allocated outside of the heap.
+   * @param slabSize
+   *          the number of bytes allocated at once. Must not be greater than capacity.
+   * @param heapCapacity
+   *          maximum number of bytes of the entries which cannot be held outside of the heap. When 0, such entries are
+   *          not cached.
+   */
+  public OffHeapCacheStrategy(final long capacity, final int slabSize, final long heapCapacity) {
+    Validate.isTrue(slabSize > 0, "slabSize must be greater than 0");
+    Validate.isTrue(capacity >= slabSize, "capacity cannot be smaller than slabSize");
+    Validate.isTrue(heapCapacity >= 0, "heapCapacity cannot be negative");
+    allocator = new SlabAllocator(capacity, slabSize);
+    this.heapCapacity = heapCapacity;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public synchronized ContentHashEntry get(final CacheEntry key) {
+    final Region region = regions.get(key);
+    if (region != null) {
+      region.users++;
+      return region.entry;
+    }
+    return heapEntries.get(key);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public synchronized void put(final CacheEntry key, final ContentHashEntry value) {
+    Validate.notNull(key);
+    Validate.notNull(value);
+    reclaimReleasedRegions();
+    remove(key);
+    if (value.getEncodedContentBuffer() == null) {
+      // nothing to move outside of the heap
+      putOnHeap(key, value);
+      return;
+    }
+    final byte[][] contents = {
+      value.getEncodedContent(), value.getGzippedContent(), value.getDeflatedContent()
+    };
+    final List<Block> blocks = allocate(contents);
+    if (blocks == null) {
+      LOG.debug("Not enough memory outside of the heap for {}, the entry is kept on the heap", key);
+      putOnHeap(key, value);
+      return;
+    }
+    final ByteBuffer[] buffers = new ByteBuffer[contents.length];
+    for (int i = 0; i < contents.length; i++) {
+      buffers[i] = allocator.write(blocks.get(i), contents[i]);
+    }
+    final Region region = new Region(blocks);
+    region.entry = ContentHashEntry.valueOf(buffers[0], buffers[1], buffers[2], value.getHash(), value.getEncoding(),
+      new Runnable() {
+        public void run() {
+          release(region);
+        }
+      });
+    regions.put(key, region);
+  }
+
+  /**
+   * Keeps the entry on the heap, evicting the least recently used entries kept on the heap if the heap capacity is
+   * exceeded. The entry larger than the heap capacity is not cached.
+   */
+  private void putOnHeap(final CacheEntry key, final ContentHashEntry value) {
+    final long weight = value.getWeight();
+    if (weight > heapCapacity) {
+      LOG.debug("The entry {} is too large to be cached", key);
+      return;
+    }
+    heapEntries.put(key, value);
+    heapSize += weight;
+    final Iterator<ContentHashEntry> eldest = heapEntries.values().iterator();
+    while (heapSize > heapCapacity && eldest.hasNext()) {
+      heapSize -= eldest.next().getWeight();
+      eldest.remove();
+    }
+  }
+
+  /**
+   * Allocates a block for each content. When there is not enough memory, the least recently used entries are evicted
+   * until the allocation succeeds.
+   *
+   * @return the allocated blocks or null if the allocation is not possible.
+   */
+  private List<Block> allocate(final byte[][] contents) {
+    for (final byte[] content : contents) {
+      if (content.length > allocator.slabSize) {
+        return null;
+      }
+    }
+    List<Block> blocks = tryAllocate(contents);
+    final Iterator<Map.Entry<CacheEntry, Region>> eldest = regions.entrySet().iterator();
+    while (blocks == null && eldest.hasNext()) {
+      final Map.Entry<CacheEntry, Region> entry = eldest.next();
+      LOG.debug("Evicting {}", entry.getKey());
+      eldest.remove();
+      retire(entry.getValue());
+      blocks = tryAllocate(contents);
+    }
+    return blocks;
+  }
+
+  /**
+   * @return the allocated blocks or null if the allocation is not possible without evicting entries.
+   */
+  private List<Block> tryAllocate(final byte[][] contents) {
+    final List<Block> blocks = new ArrayList<Block>();
+    for (final byte[] content : contents) {
+      final Block block = allocator.allocate(content.length);
+      if (block == null) {
+        allocator.free(blocks);
+        return null;
+      }
+      blocks.add(block);
+    }
+    return blocks;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public synchronized void remove(final CacheEntry key) {
+    final Region region = regions.remove(key);
+    if (region != null) {
+      retire(region);
+    }
+    final ContentHashEntry value = heapEntries.remove(key);
+    if (value != null) {
+      heapSize -= value.getWeight();
+    }
+    reclaimReleasedRegions();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public synchronized void clear() {
+    for (final Region region : regions.values()) {
+      retire(region);
+    }
+    regions.clear();
+    heapEntries.clear();
+    heapSize = 0;
+    reclaimReleasedRegions();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public void destroy() {
+    clear();
+  }
+
+  /**
+   * @return the number of bytes allocated for the cached content, including the content of the evicted entries which
+   *         are still in use.
+   */
+  public synchronized long getAllocatedSize() {
+    reclaimReleasedRegions();
+    return allocator.getAllocatedSize();
+  }
+
+  /**
+   * @return the number of bytes of the entries kept on the heap.
+   */
+  public synchronized long getHeapSize() {
+    return heapSize;
+  }
+
+  /**
+   * Invoked when a user of the region's entry doesn't use it anymore.
+   */
+  private synchronized void release(final Region region) {
+    if (region.users > 0) {
+      region.users--;
+      if (region.users == 0 && region.retired) {
+        free(region);
+      }
+    }
+  }
+
+  /**
+   * Marks the region, already removed from the index, as evicted. Its memory is reused right away if the entry is not in
+   * use, otherwise when it is released by all its users or garbage collected.
+   */
+  private void retire(final Region region) {
+    region.retired = true;
+    if (region.users == 0) {
+      free(region);
+    } else {
+      region.reference = new RetiredRegion(region, releasedEntries);
+      retiredRegions.add(region.reference);
+    }
+  }
+
+  private void free(final Region region) {
+    if (region.reference == null || retiredRegions.remove(region.reference)) {
+      allocator.free(region.blocks);
+    }
+  }
+
+  /**
+   * Reuses the memory of the retired regions whose entry was garbage collected, even if it was not released.
+   */
+  private void reclaimReleasedRegions() {
+    Reference<? extends ContentHashEntry> reference;
+    while ((reference = releasedEntries.poll()) != null) {
+      final RetiredRegion retired = (RetiredRegion) reference;
+      if (retiredRegions.remove(retired)) {
+        allocator.free(retired.blocks);
+      }
+    }
+  }
+
+  /**
+   * The cached entry along with the memory backing it.
+   */
+  private static final class Region {
+    private final List<Block> blocks;
+    private ContentHashEntry entry;
+    /**
+     * The number of retrievals of the entry which were not released yet.
+     */
+    private int users;
+    private boolean retired;
+    /**
+     * Tracks the entry once the region is retired while in use.
+     */
+    private RetiredRegion reference;
+
+    Region(final List<Block> blocks) {
+      this.blocks = blocks;
+    }
+  }
+
+  /**
+   * Tracks the entry of an evicted region. Enqueued once the entry is not reachable anymore.
+   */
+  private static final class RetiredRegion
+    extends WeakReference<ContentHashEntry> {
+    private final List<Block> blocks;
+
+    RetiredRegion(final Region region, final ReferenceQueue<ContentHashEntry> queue) {
+      super(region.entry, queue);
+      this.blocks = region.blocks;
+    }
+  }
+
+  /**
+   * A contiguous memory area of a slab.
+   */
+  private static final class Block {
+    private final int slab;
+    private final int offset;
+    private final int size;
+
+    Block(final int slab, final int offset, final int size) {
+      this.slab = slab;
+      this.offset = offset;
+      this.size = size;
+    }
+  }
+
+  /**
+   * Allocates blocks from direct buffers (slabs) using a first-fit policy. Adjacent free blocks are merged. Not
+   * thread-safe.
+   */
+  private static final class SlabAllocator {
+    private final long capacity;
+    private final int slabSize;
+    private final List<ByteBuffer> slabs = new ArrayList<ByteBuffer>();
+    /**
+     * For each slab, maps the offset of the free blocks to their size.
+     */
+    private final List<TreeMap<Integer, Integer>> freeBlocks = new ArrayList<TreeMap<Integer, Integer>>();
+    private long allocatedSize;
+
+    SlabAllocator(final long capacity, final int slabSize) {
+      this.capacity = capacity;
+      this.slabSize = slabSize;
+    }
+
+    /**
+     * @return the allocated block or null if there is no free block large enough.
+     */
+    Block allocate(final int size) {
+      if (size == 0) {
+        return new Block(-1, 0, 0);
+      }
+      if (size > slabSize) {
+        return null;
+      }
+      for (int slab = 0; slab < slabs.size(); slab++) {
+        final Block block = allocate(slab, size);
+        if (block != null) {
+          return block;
+        }
+      }
+      if ((long) (slabs.size() + 1) * slabSize <= capacity) {
+        LOG.debug("Allocating slab #{}", slabs.size());
+        slabs.add(ByteBuffer.allocateDirect(slabSize));
+        final TreeMap<Integer, Integer> free = new TreeMap<Integer, Integer>();
+        free.put(0, slabSize);
+        freeBlocks.add(free);
+        return allocate(slabs.size() - 1, size);
+      }
+      return null;
+    }
+
+    private Block allocate(final int slab, final int size) {
+      final TreeMap<Integer, Integer> free = freeBlocks.get(slab);
+      for (final Map.Entry<Integer, Integer> entry : free.entrySet()) {
+        if (entry.getValue() >= size) {
+          final int offset = entry.getKey();
+          final int remaining = entry.getValue() - size;
+          free.remove(offset);
+          if (remaining > 0) {
+            free.put(offset + size, remaining);
+          }
+          allocatedSize += size;
+          return new Block(slab, offset, size);
+        }
+      }
+      return null;
+    }
+
+    void free(final List<Block> blocks) {
+      for (final Block block : blocks) {
+        free(block);
+      }
+    }
+
+    private void free(final Block block) {
+      allocatedSize -= block.size;
+      if (block.size == 0) {
+        return;
+      }
+      final TreeMap<Integer, Integer> free = freeBlocks.get(block.slab);
+      int offset = block.offset;
+      int size = block.size;
+      final SortedMap<Integer, Integer> head = free.headMap(offset);
+      if (!head.isEmpty()) {
+        final int previousOffset = head.lastKey();
+        final int previousSize = head.get(previousOffset);
+        if (previousOffset + previousSize == offset) {
+          free.remove(previousOffset);
+          offset = previousOffset;
+          size += previousSize;
+        }
+      }
+      final Integer nextSize = free.get(offset + size);
+      if (nextSize != null) {
+        free.remove(offset + size);
+        size += nextSize;
+      }
+      free.put(offset, size);
+    }
+
+    /**
+     * Copies the content into the block.
+     *
+     * @return the buffer viewing the block.
+     */
+    ByteBuffer write(final Block block, final byte[] content) {
+      if (block.size == 0) {
+        return ByteBuffer.allocate(0);
+      }
+      final ByteBuffer buffer = slabs.get(block.slab).duplicate();
+      buffer.position(block.offset);
+      buffer.limit(block.offset + block.size);
+      final ByteBuffer view = buffer.slice();
+      view.put(content);
+      view.rewind();
+      return view;
+    }
+
+    long getAllocatedSize() {
+      return allocatedSize;
+    }
+  }
+}
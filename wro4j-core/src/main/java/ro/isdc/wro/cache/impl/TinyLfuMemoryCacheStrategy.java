@@ -0,0 +1,490 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.cache.impl;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ro.isdc.wro.cache.CacheStrategy;
+import ro.isdc.wro.cache.Weigher;
+
+
+/**
+ * A size-aware cache strategy using the W-TinyLFU policy. The cache is bounded by the total weight of the values (as
+ * computed by a {@link Weigher}) instead of the number of entries.
+ * <p>
+ * New entries are added to a small LRU window. The entries leaving the window are admitted into the main space (a
+ * segmented LRU) only if they were requested more frequently than the entry which would be evicted instead. The
+ * frequency of the keys is estimated with a compact count-min sketch, which is periodically halved in order to forget
+ * the old history. This way, a few large and rarely used values cannot evict many small and frequently used ones.
+ * </p>
+ * <p>
+ * Reads are lock-free: the lookup is performed on a {@link ConcurrentHashMap} and the access is recorded in a buffer,
+ * which is drained by the thread holding the eviction lock. When the buffer is full, the access is not recorded. All
+ * writes are performed under the eviction lock. This cache is thread-safe.
+ * </p>
+ *
+ * @since 1.4.7
+ */
+public class TinyLfuMemoryCacheStrategy<K, V>
+  implements CacheStrategy<K, V> {
+  private static final Logger LOG = LoggerFactory.getLogger(TinyLfuMemoryCacheStrategy.class);
+  /**
+   * The percentage of the maximum weight used by the admission window.
+   */
+  private static final int WINDOW_PERCENTAGE = 1;
+  /**
+   * The percentage of the main space used by the protected segment.
+   */
+  private static final int PROTECTED_PERCENTAGE = 80;
+  /**
+   * Maximum number of recorded reads waiting to be applied.
+   */
+  private static final int READ_BUFFER_SIZE = 128;
+  /**
+   * Number of counters of each row of the frequency sketch.
+   */
+  private static final int SKETCH_WIDTH = 1024;
+  /**
+   * Weigher used when no weigher is provided: each entry has the same weight, bounding the cache by the number of
+   * entries.
+   */
+  private static final Weigher<Object> SINGLETON_WEIGHER = new Weigher<Object>() {
+    public long weigh(final Object value) {
+      return 1;
+    }
+  };
+  private final ConcurrentMap<K, Node<K, V>> map = new ConcurrentHashMap<K, Node<K, V>>();
+  private final Weigher<? super V> weigher;
+  private final long maximumWeight;
+  private final long windowMaximum;
+  private final long protectedMaximum;
+  private final Lock evictionLock = new ReentrantLock();
+  private final Queue<K> readBuffer = new ConcurrentLinkedQueue<K>();
+  private final AtomicInteger readBufferSize = new AtomicInteger();
+  /**
+   * Fields below are guarded by the evictionLock.
+   */
+  private final FrequencySketch sketch = new FrequencySketch(SKETCH_WIDTH);
+  private final AccessOrderDeque<K, V> window = new AccessOrderDeque<K, V>();
+  private final AccessOrderDeque<K, V> probation = new AccessOrderDeque<K, V>();
+  private final AccessOrderDeque<K, V> protectedSegment = new AccessOrderDeque<K, V>();
+  private long weightedSize;
+  private long windowWeight;
+  private long protectedWeight;
+
+  /**
+   * Constructs a cache holding at most {@link LruMemoryCacheStrategy#DEFAULT_SIZE} entries.
+   */
+  public TinyLfuMemoryCacheStrategy() {
+    this(LruMemoryCacheStrategy.DEFAULT_SIZE, SINGLETON_WEIGHER);
+  }
+
+  /**
+   * @param maximumWeight
+   *          the maximum total weight of the cached values. Must be greater than 0.
+   * @param weigher
+   *          computes the weight of each cached value.
+   */
+  public TinyLfuMemoryCacheStrategy(final long maximumWeight, final Weigher<? super V> weigher) {
+    Validate.isTrue(maximumWeight > 0, "maximumWeight must be greater than 0");
+    Validate.notNull(weigher);
+    this.maximumWeight = maximumWeight;
+    this.weigher = weigher;
+    this.windowMaximum = Math.max(1, maximumWeight * WINDOW_PERCENTAGE / 100);
+    this.protectedMaximum = (maximumWeight - windowMaximum) * PROTECTED_PERCENTAGE / 100;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public V get(final K key) {
+    final Node<K, V> node = map.get(key);
+    recordRead(key);
+    return node == null ? null : node.value;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public void put(final K key, final V value) {
+    Validate.notNull(key);
+    Validate.notNull(value);
+    final long weight = weigher.weigh(value);
+    Validate.isTrue(weight >= 0, "weight cannot be negative");
+    evictionLock.lock();
+    try {
+      drainReadBuffer();
+      sketch.increment(key);
+      final Node<K, V> existing = map.get(key);
+      if (existing != null) {
+        unlink(existing);
+      }
+      if (weight > maximumWeight) {
+        LOG.debug("The value of {} is too large to be cached: {}", key, weight);
+        return;
+      }
+      final Node<K, V> node = new Node<K, V>(key, value, weight);
+      map.put(key, node);
+      node.segment = Segment.WINDOW;
+      window.addFirst(node);
+      windowWeight += weight;
+      weightedSize += weight;
+      evict();
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public void remove(final K key) {
+    evictionLock.lock();
+    try {
+      final Node<K, V> node = map.get(key);
+      if (node != null) {
+        unlink(node);
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public void clear() {
+    evictionLock.lock();
+    try {
+      map.clear();
+      window.clear();
+      probation.clear();
+      protectedSegment.clear();
+      weightedSize = 0;
+      windowWeight = 0;
+      protectedWeight = 0;
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public void destroy() {
+    clear();
+  }
+
+  /**
+   * @return the total weight of the cached values.
+   */
+  public long getWeightedSize() {
+    evictionLock.lock();
+    try {
+      return weightedSize;
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * Records the read of the key without blocking. The buffer is drained only if the lock is not held by other thread.
+   */
+  private void recordRead(final K key) {
+    if (key == null) {
+      return;
+    }
+    if (readBufferSize.incrementAndGet() <= READ_BUFFER_SIZE) {
+      readBuffer.offer(key);
+    } else {
+      readBufferSize.decrementAndGet();
+    }
+    if (evictionLock.tryLock()) {
+      try {
+        drainReadBuffer();
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Applies the recorded reads. Must be invoked while holding the evictionLock.
+   */
+  private void drainReadBuffer() {
+    K key;
+    while ((key = readBuffer.poll()) != null) {
+      readBufferSize.decrementAndGet();
+      sketch.increment(key);
+      final Node<K, V> node = map.get(key);
+      if (node != null) {
+        onAccess(node);
+      }
+    }
+  }
+
+  /**
+   * Updates the position of the accessed node. An entry accessed while being in probation is promoted to the protected
+   * segment.
+   */
+  private void onAccess(final Node<K, V> node) {
+    switch (node.segment) {
+      case WINDOW:
+        window.moveToFront(node);
+        break;
+      case PROBATION:
+        probation.remove(node);
+        node.segment = Segment.PROTECTED;
+        protectedSegment.addFirst(node);
+        protectedWeight += node.weight;
+        while (protectedWeight > protectedMaximum) {
+          final Node<K, V> demoted = protectedSegment.removeLast();
+          protectedWeight -= demoted.weight;
+          demoted.segment = Segment.PROBATION;
+          probation.addFirst(demoted);
+        }
+        break;
+      case PROTECTED:
+        protectedSegment.moveToFront(node);
+        break;
+    }
+  }
+
+  /**
+   * Moves the entries overflowing the window into the main space and evicts the entries until the maximum weight is
+   * respected.
+   */
+  private void evict() {
+    while (windowWeight > windowMaximum) {
+      final Node<K, V> candidate = window.removeLast();
+      windowWeight -= candidate.weight;
+      candidate.segment = Segment.PROBATION;
+      probation.addFirst(candidate);
+      admit(candidate);
+    }
+    while (weightedSize > maximumWeight) {
+      Node<K, V> victim = probation.peekLast();
+      if (victim == null) {
+        victim = protectedSegment.peekLast();
+      }
+      if (victim == null) {
+        victim = window.peekLast();
+      }
+      unlink(victim);
+    }
+  }
+
+  /**
+   * Compares the frequency of the candidate with the frequency of the entries which would be evicted in its favor. The
+   * loser is evicted.
+   */
+  private void admit(final Node<K, V> candidate) {
+    while (weightedSize > maximumWeight) {
+      Node<K, V> victim = probation.peekLast();
+      if (victim == candidate) {
+        victim = protectedSegment.peekLast();
+      }
+      if (victim == null) {
+        return;
+      }
+      if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+        unlink(victim);
+      } else {
+        unlink(candidate);
+        return;
+      }
+    }
+  }
+
+  /**
+   * Removes the node from the map and from the segment holding it.
+   */
+  private void unlink(final Node<K, V> node) {
+    map.remove(node.key, node);
+    switch (node.segment) {
+      case WINDOW:
+        window.remove(node);
+        windowWeight -= node.weight;
+        break;
+      case PROBATION:
+        probation.remove(node);
+        break;
+      case PROTECTED:
+        protectedSegment.remove(node);
+        protectedWeight -= node.weight;
+        break;
+    }
+    weightedSize -= node.weight;
+  }
+
+  private static enum Segment {
+    WINDOW, PROBATION, PROTECTED
+  }
+
+  /**
+   * A cache entry, which is also an element of a doubly linked list.
+   */
+  private static final class Node<K, V> {
+    private final K key;
+    private final V value;
+    private final long weight;
+    private Segment segment;
+    private Node<K, V> previous;
+    private Node<K, V> next;
+
+    Node(final K key, final V value, final long weight) {
+      this.key = key;
+      this.value = value;
+      this.weight = weight;
+    }
+  }
+
+  /**
+   * Doubly linked list of nodes, the most recently used node being the first one. All operations are performed in
+   * constant time.
+   */
+  private static final class AccessOrderDeque<K, V> {
+    private Node<K, V> first;
+    private Node<K, V> last;
+
+    void addFirst(final Node<K, V> node) {
+      node.previous = null;
+      node.next = first;
+      if (first == null) {
+        last = node;
+      } else {
+        first.previous = node;
+      }
+      first = node;
+    }
+
+    void remove(final Node<K, V> node) {
+      if (node.previous == null) {
+        first = node.next;
+      } else {
+        node.previous.next = node.next;
+      }
+      if (node.next == null) {
+        last = node.previous;
+      } else {
+        node.next.previous = node.previous;
+      }
+      node.previous = null;
+      node.next = null;
+    }
+
+    void moveToFront(final Node<K, V> node) {
+      if (node != first) {
+        remove(node);
+        addFirst(node);
+      }
+    }
+
+    Node<K, V> peekLast() {
+      return last;
+    }
+
+    Node<K, V> removeLast() {
+      final Node<K, V> node = last;
+      remove(node);
+      return node;
+    }
+
+    void clear() {
+      first = null;
+      last = null;
+    }
+  }
+
+  /**
+   * Count-min sketch estimating the frequency of the keys using 4 rows of 4-bit counters, packed 16 per long. When the
+   * number of increments reaches the sample size, all counters are halved.
+   */
+  private static final class FrequencySketch {
+    private static final int[] SEEDS = {
+      0x9E3779B1, 0x85EBCA77, 0xC2B2AE3D, 0x27D4EB2F
+    };
+    private static final int MAX_COUNT = 15;
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private final long[] table;
+    private final int width;
+    private final int mask;
+    private final int sampleSize;
+    private int size;
+
+    FrequencySketch(final int width) {
+      table = new long[Math.max(1, SEEDS.length * width / 16)];
+      this.width = width;
+      mask = width - 1;
+      sampleSize = 10 * width;
+    }
+
+    int frequency(final Object key) {
+      final int hash = spread(key.hashCode());
+      int frequency = MAX_COUNT;
+      for (int i = 0; i < SEEDS.length; i++) {
+        frequency = Math.min(frequency, getCount(counterOf(hash, i)));
+      }
+      return frequency;
+    }
+
+    void increment(final Object key) {
+      final int hash = spread(key.hashCode());
+      boolean added = false;
+      for (int i = 0; i < SEEDS.length; i++) {
+        final int counter = counterOf(hash, i);
+        if (getCount(counter) < MAX_COUNT) {
+          table[counter >>> 4] += 1L << shiftOf(counter);
+          added = true;
+        }
+      }
+      if (added && ++size >= sampleSize) {
+        reset();
+      }
+    }
+
+    private void reset() {
+      for (int i = 0; i < table.length; i++) {
+        table[i] = (table[i] >>> 1) & RESET_MASK;
+      }
+      size /= 2;
+    }
+
+    private int getCount(final int counter) {
+      return (int) (table[counter >>> 4] >>> shiftOf(counter)) & MAX_COUNT;
+    }
+
+    private int shiftOf(final int counter) {
+      return (counter & 15) << 2;
+    }
+
+    /**
+     * @return the position of the counter of the given row among all the counters of the sketch.
+     */
+    private int counterOf(final int hash, final int row) {
+      return row * width + indexOf(hash, row);
+    }
+
+    private int indexOf(final int hash, final int row) {
+      int result = (hash + SEEDS[row]) * SEEDS[row];
+      result += result >>> 16;
+      return result & mask;
+    }
+
+    private int spread(final int hashCode) {
+      final int hash = hashCode * 0x45D9F3B;
+      return hash ^ (hash >>> 16);
+    }
+  }
+}
@@ -59,8 +59,13 @@ public class PropertyWroConfigurationFactory
     config.setWroManagerClassName(valueAsString(properties.get(ConfigConstants.managerFactoryClassName.name())));
     config.setMbeanName(valueAsString(properties.get(ConfigConstants.mbeanName.name())));
     config.setHeader(valueAsString(properties.get(ConfigConstants.header.name())));
-    config.setCacheGzippedContent(valueAsBoolean(properties.get(ConfigConstants.cacheGzippedContent.name()), false));
+    config.setCacheGzippedContent(valueAsBoolean(properties.get(ConfigConstants.cacheGzippedContent.name()), true));
     config.setParallelPreprocessing(valueAsBoolean(properties.get(ConfigConstants.parallelPreprocessing.name()), false));
+    config.setPreProcessingCacheSize(valueAsLong(properties.get(ConfigConstants.preProcessingCacheSize.name()), 0));
+    config.setStaleWhileRevalidate(valueAsBoolean(properties.get(ConfigConstants.staleWhileRevalidate.name()), false));
+    config.setWarmUpEnabled(valueAsBoolean(properties.get(ConfigConstants.warmUpEnabled.name()), false));
+    config.setWarmUpTimeout(valueAsLong(properties.get(ConfigConstants.warmUpTimeout.name()), 0));
+    config.setWarmUpFolder(valueAsString(properties.get(ConfigConstants.warmUpFolder.name())));
     config.setConnectionTimeout((int) valueAsLong(properties.get(ConfigConstants.connectionTimeout.name()),
         WroConfiguration.DEFAULT_CONNECTION_TIMEOUT));
     LOG.debug("WroConfiguration created: {}", config);
@@ -42,11 +42,35 @@ public enum ConfigConstants {
    */
   parallelPreprocessing,
   /**
-   * When this flag is enabled, the raw processed content will be gzipped only the first time and all subsequent
-   * requests will use the cached gzipped content. Otherwise, the gzip operation will be performed for each request.
-   * This flag allow to control the memory vs processing power trade-off.
+   * The maximum number of characters of pre processed resources content to keep in memory, allowing unchanged resources
+   * to skip pre processing when the group is processed again. Zero (default) disables the cache.
+   */
+  preProcessingCacheSize,
+  /**
+   * When this flag is enabled (default), the raw processed content will be gzipped and deflated only once, when it is
+   * cached, and all subsequent requests will use the cached compressed content. Otherwise, the compression will be
+   * performed for each request. This flag allow to control the memory vs processing power trade-off.
    */
   cacheGzippedContent,
+  /**
+   * When true, the scheduled cache reload marks the cached content as stale instead of clearing it. The stale content
+   * is served until it is replaced by the freshly processed content.
+   */
+  staleWhileRevalidate,
+  /**
+   * When true, all groups are processed in parallel when the filter is initialized, before serving any request.
+   */
+  warmUpEnabled,
+  /**
+   * Timeout (milliseconds) a request waits for the warm-up to complete before being processed. Zero (default) means
+   * that the requests do not wait.
+   */
+  warmUpTimeout,
+  /**
+   * The folder the css bundles are served from, relative to the context path (the folder of the filter mapping, ex:
+   * /wro/). Required by the warm-up when the model contains css groups.
+   */
+  warmUpFolder,
   /**
    * Instructs wro4j to not throw an exception when a resource is missing.
    */
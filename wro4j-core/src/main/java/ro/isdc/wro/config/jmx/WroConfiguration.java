@@ -14,6 +14,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ro.isdc.wro.manager.factory.WroManagerFactory;
+import ro.isdc.wro.model.resource.processor.Uncacheable;
 
 
 /**
@@ -60,11 +61,34 @@ public final class WroConfiguration
   private boolean disableCache = false;
 
   /**
-   * When this flag is enabled, the raw processed content will be gzipped only the first time and all subsequent
-   * requests will use the cached gzipped content. Otherwise, the gzip operation will be performed for each request.
-   * This flag allow to control the memory vs processing power trade-off.
+   * When this flag is enabled (default), the raw processed content will be gzipped and deflated only once, when it is
+   * cached, and all subsequent requests will use the cached compressed content. Otherwise, the compression will be
+   * performed for each request. This flag allow to control the memory vs processing power trade-off.
    */
-  private boolean cacheGzippedContent = false;
+  private boolean cacheGzippedContent = true;
+  /**
+   * When this flag is enabled, the scheduled cache reload marks the cached content as stale instead of clearing it.
+   * The stale content is served until it is replaced by the freshly processed content, avoiding the latency spike
+   * caused by all groups being reprocessed at once. By default this value is false.
+   */
+  private boolean staleWhileRevalidate = false;
+  /**
+   * When this flag is enabled, all groups are processed in parallel when the filter is initialized, before serving any
+   * request. By default this value is false.
+   */
+  private boolean warmUpEnabled = false;
+  /**
+   * Timeout (milliseconds) a request waits for the warm-up to complete. When the warm-up is not completed after this
+   * timeout, the request is processed anyway (a group being warmed up is not processed twice). By default this value
+   * is 0, meaning that the requests do not wait.
+   */
+  private long warmUpTimeout = 0;
+  /**
+   * The folder the css bundles are served from, relative to the context path (the folder of the filter mapping, ex:
+   * /wro/). Required by the warm-up when the model contains css groups, because the rewritten urls of the css resources
+   * depend on it.
+   */
+  private String warmUpFolder;
   /**
    * Allow to turn jmx on or off. By default this value is true.
    */
@@ -95,6 +119,12 @@ public final class WroConfiguration
    * By default this flag is false, because this feature is experimental.
    */
   private boolean parallelPreprocessing = false;
+  /**
+   * The maximum number of characters of pre processed resources content to keep in memory. When a group is processed
+   * again, the resources which did not change reuse their cached pre processed content. The result of processors
+   * annotated with {@link Uncacheable} is never cached. By default this value is 0, meaning that the cache is disabled.
+   */
+  private long preProcessingCacheSize = 0;
   /**
    * When a group is empty and this flag is false, the processing will fail. This is useful for runtime solution to
    * allow filter chaining when there is nothing to process for a given request.
@@ -332,6 +362,70 @@ public final class WroConfiguration
   }
 
 
+  /**
+   * @return the staleWhileRevalidate flag.
+   */
+  public boolean isStaleWhileRevalidate() {
+    return this.staleWhileRevalidate;
+  }
+
+
+  /**
+   * @param staleWhileRevalidate the staleWhileRevalidate to set
+   */
+  public void setStaleWhileRevalidate(final boolean staleWhileRevalidate) {
+    this.staleWhileRevalidate = staleWhileRevalidate;
+  }
+
+
+  /**
+   * @return the warmUpEnabled flag.
+   */
+  public boolean isWarmUpEnabled() {
+    return this.warmUpEnabled;
+  }
+
+
+  /**
+   * @param warmUpEnabled the warmUpEnabled to set
+   */
+  public void setWarmUpEnabled(final boolean warmUpEnabled) {
+    this.warmUpEnabled = warmUpEnabled;
+  }
+
+
+  /**
+   * @return the timeout (milliseconds) a request waits for the warm-up to complete.
+   */
+  public long getWarmUpTimeout() {
+    return this.warmUpTimeout;
+  }
+
+
+  /**
+   * @param warmUpTimeout the warmUpTimeout to set
+   */
+  public void setWarmUpTimeout(final long warmUpTimeout) {
+    this.warmUpTimeout = warmUpTimeout;
+  }
+
+
+  /**
+   * @return the folder the css bundles are served from, used by the warm-up.
+   */
+  public String getWarmUpFolder() {
+    return this.warmUpFolder;
+  }
+
+
+  /**
+   * @param warmUpFolder the warmUpFolder to set
+   */
+  public void setWarmUpFolder(final String warmUpFolder) {
+    this.warmUpFolder = warmUpFolder;
+  }
+
+
   /**
    * Perform the cleanup, clear the listeners.
    */
@@ -437,6 +531,23 @@ public final class WroConfiguration
     this.parallelPreprocessing = parallelPreprocessing;
   }
 
+  /**
+   * @return the maximum number of characters of pre processed content to cache.
+   */
+  public long getPreProcessingCacheSize() {
+    return this.preProcessingCacheSize;
+  }
+
+
+  /**
+   * @param preProcessingCacheSize
+   *          the maximum number of characters of pre processed content to cache. Zero or less disables the cache. The
+   *          new value is applied to the existing cache as well.
+   */
+  public void setPreProcessingCacheSize(final long preProcessingCacheSize) {
+    this.preProcessingCacheSize = preProcessingCacheSize;
+  }
+
   /**
    * @return value of the flag responsible for handling empty group behavior.
    */
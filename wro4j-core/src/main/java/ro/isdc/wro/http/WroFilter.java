@@ -12,6 +12,7 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import javax.management.JMException;
 import javax.management.MBeanServer;
@@ -40,6 +41,7 @@ import ro.isdc.wro.http.handler.RequestHandler;
 import ro.isdc.wro.http.handler.RequestHandlerFactory;
 import ro.isdc.wro.http.support.HttpHeader;
 import ro.isdc.wro.http.support.ServletContextAttributeHelper;
+import ro.isdc.wro.manager.CacheWarmUp;
 import ro.isdc.wro.manager.factory.DefaultWroManagerFactory;
 import ro.isdc.wro.manager.factory.WroManagerFactory;
 import ro.isdc.wro.model.group.processor.Injector;
@@ -82,6 +84,14 @@ public class WroFilter
    * Used to create the collection of requestHandlers to apply
    */
   private RequestHandlerFactory requestHandlerFactory = new DefaultRequestHandlerFactory();
+  /**
+   * Populates the cache before serving requests. Null when the warm-up is not enabled.
+   */
+  private CacheWarmUp cacheWarmUp;
+  /**
+   * Injects the requestHandlers. Created once for the wroManagerFactory, because building it is expensive.
+   */
+  private volatile Injector injector;
 
   /**
    * Map containing header values used to control caching. The keys from this values are trimmed and lower-cased when
@@ -122,6 +132,26 @@ public class WroFilter
     registerChangeListeners();
     initJMX();
     doInit(config);
+    initWarmUp();
+  }
+
+  /**
+   * Starts the warm-up in background if it is enabled.
+   */
+  private void initWarmUp() {
+    if (wroConfiguration.isWarmUpEnabled()) {
+      cacheWarmUp = newCacheWarmUp();
+      cacheWarmUp.start();
+    }
+  }
+
+  /**
+   * Override this method to configure the warm-up (ex: the folder of css bundles or the number of threads).
+   *
+   * @return the {@link CacheWarmUp} used when {@link WroConfiguration#isWarmUpEnabled()} is true.
+   */
+  protected CacheWarmUp newCacheWarmUp() {
+    return new CacheWarmUp(wroManagerFactory, wroConfiguration, filterConfig);
   }
 
   /**
@@ -306,8 +336,9 @@ public class WroFilter
       Context.set(Context.webContext(request, response, filterConfig), wroConfiguration);
 
       if (!handledWithRequestHandler(request, response)) {
-        processRequest(request, response);
-        onRequestProcessed();
+        awaitWarmUp();
+        processRequest(request, response);
+        onRequestProcessed();
       }
     } catch (final RuntimeException e) {
       onRuntimeException(e, response, chain);
@@ -320,9 +351,7 @@ public class WroFilter
       throws ServletException, IOException {
     final Collection<RequestHandler> handlers = requestHandlerFactory.create();
     Validate.notNull(handlers, "requestHandlers cannot be null!");
-    //create injector used for process injectable fields from each requestHandler.
-    final Injector injector = InjectorBuilder.create(wroManagerFactory).build();
-    
+    final Injector injector = getInjector();
     for (final RequestHandler requestHandler : handlers) {
       injector.inject(requestHandler);
       if (requestHandler.isEnabled() && requestHandler.accept(request)) {
@@ -333,6 +362,38 @@ public class WroFilter
     return false;
   }
 
+  /**
+   * @return the injector used to process injectable fields from each requestHandler.
+   */
+  private Injector getInjector() {
+    if (injector == null) {
+      synchronized (this) {
+        if (injector == null) {
+          injector = InjectorBuilder.create(wroManagerFactory).build();
+        }
+      }
+    }
+    return injector;
+  }
+
+  /**
+   * Waits for the warm-up to complete, at most {@link WroConfiguration#getWarmUpTimeout()} milliseconds. The request is
+   * processed afterwards even if the warm-up is still in progress: the cache strategy is synchronized, so a group being
+   * processed by the warm-up is not processed again by the request, which waits for the result instead.
+   */
+  private void awaitWarmUp() {
+    if (cacheWarmUp == null || cacheWarmUp.isCompleted()) {
+      return;
+    }
+    try {
+      if (!cacheWarmUp.awaitCompletion(wroConfiguration.getWarmUpTimeout(), TimeUnit.MILLISECONDS)) {
+        LOG.debug("Warm-up in progress. Processing the request.");
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
   /**
    * Useful for unit tests to check the post processing.
    */
@@ -396,6 +457,7 @@ public class WroFilter
    */
   public void setWroManagerFactory(final WroManagerFactory wroManagerFactory) {
     this.wroManagerFactory = wroManagerFactory;
+    this.injector = null;
   }
 
   /**
@@ -445,6 +507,9 @@ public class WroFilter
    * {@inheritDoc}
    */
   public void destroy() {
+    if (cacheWarmUp != null) {
+      cacheWarmUp.stop();
+    }
     if (wroManagerFactory != null) {
       wroManagerFactory.destroy();
     }
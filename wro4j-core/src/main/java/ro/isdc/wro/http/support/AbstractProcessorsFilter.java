@@ -40,6 +40,10 @@ public abstract class AbstractProcessorsFilter
     implements Filter {
   private static final Logger LOG = LoggerFactory.getLogger(AbstractProcessorsFilter.class);
   private FilterConfig filterConfig;
+  /**
+   * Injects the processors. Created once, because building it is expensive.
+   */
+  private volatile Injector injector;
   /**
    * {@inheritDoc}
    */
@@ -92,7 +96,7 @@ public abstract class AbstractProcessorsFilter
     Writer output = null;
     try {
       final StopWatch stopWatch = new StopWatch();
-      Injector injector = InjectorBuilder.create(new BaseWroManagerFactory()).build();
+      final Injector injector = getInjector();
       final List<ResourcePreProcessor> processors = getProcessorsList();
       if (processors == null || processors.isEmpty()) {
         IOUtils.copy(reader, writer);
@@ -117,6 +121,20 @@ public abstract class AbstractProcessorsFilter
     }
   }
 
+  /**
+   * @return the injector used to inject the processors.
+   */
+  private Injector getInjector() {
+    if (injector == null) {
+      synchronized (this) {
+        if (injector == null) {
+          injector = InjectorBuilder.create(new BaseWroManagerFactory()).build();
+        }
+      }
+    }
+    return injector;
+  }
+
   /**
    * Invoked when a {@link RuntimeException} is thrown. Allows custom exception handling. The default implementation
    * redirects to 404 for a specific {@link WroRuntimeException} exception when in DEPLOYMENT mode.
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.http.support;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+
+
+/**
+ * Creates a copy of the request, holding the paths and the headers of the original request. The container can recycle
+ * the original request once the response is completed, so a task processing the resources after the request (ex: in a
+ * background thread) must use a copy instead. The other methods of the copy return null (or 0 and false for the
+ * primitive types).
+ *
+ * @since 1.4.7
+ */
+public final class RequestSnapshot
+  implements InvocationHandler {
+  private final Map<String, Object> values = new HashMap<String, Object>();
+  private final Map<String, String> headers = new HashMap<String, String>();
+
+
+  private RequestSnapshot(final HttpServletRequest request) {
+    values.put("getRequestURI", request.getRequestURI());
+    values.put("getContextPath", request.getContextPath());
+    values.put("getServletPath", request.getServletPath());
+    values.put("getPathInfo", request.getPathInfo());
+    values.put("getQueryString", request.getQueryString());
+    values.put("getMethod", request.getMethod());
+    final StringBuffer requestUrl = request.getRequestURL();
+    values.put("getRequestURL", requestUrl == null ? null : requestUrl.toString());
+    final Enumeration<?> headerNames = request.getHeaderNames();
+    if (headerNames != null) {
+      while (headerNames.hasMoreElements()) {
+        final String name = (String) headerNames.nextElement();
+        headers.put(name.toLowerCase(), request.getHeader(name));
+      }
+    }
+  }
+
+
+  /**
+   * @param request
+   *          the request to copy, can be null.
+   * @return a copy of the request or null if the request is null.
+   */
+  public static HttpServletRequest create(final HttpServletRequest request) {
+    if (request == null) {
+      return null;
+    }
+    return (HttpServletRequest) Proxy.newProxyInstance(RequestSnapshot.class.getClassLoader(), new Class<?>[] {
+      HttpServletRequest.class
+    }, new RequestSnapshot(request));
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  public Object invoke(final Object proxy, final Method method, final Object[] args) {
+    final String name = method.getName();
+    if ("getRequestURL".equals(name)) {
+      final String requestUrl = (String) values.get(name);
+      // a new buffer for each call, since the caller can modify it.
+      return requestUrl == null ? null : new StringBuffer(requestUrl);
+    }
+    if (values.containsKey(name)) {
+      return values.get(name);
+    }
+    if ("getHeader".equals(name)) {
+      return args[0] == null ? null : headers.get(((String) args[0]).toLowerCase());
+    }
+    if ("getHeaderNames".equals(name)) {
+      return Collections.enumeration(headers.keySet());
+    }
+    if ("equals".equals(name)) {
+      return proxy == args[0];
+    }
+    if ("hashCode".equals(name)) {
+      return System.identityHashCode(proxy);
+    }
+    if ("toString".equals(name)) {
+      return "RequestSnapshot[" + values.get("getRequestURI") + "]";
+    }
+    return defaultValue(method.getReturnType());
+  }
+
+
+  private Object defaultValue(final Class<?> type) {
+    if (type == boolean.class) {
+      return Boolean.FALSE;
+    }
+    if (type == int.class) {
+      return 0;
+    }
+    if (type == long.class) {
+      return 0L;
+    }
+    return null;
+  }
+}
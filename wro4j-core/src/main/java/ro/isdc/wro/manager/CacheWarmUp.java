@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.manager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.FilterConfig;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ro.isdc.wro.WroRuntimeException;
+import ro.isdc.wro.cache.CacheEntry;
+import ro.isdc.wro.cache.ContentHashEntry;
+import ro.isdc.wro.config.Context;
+import ro.isdc.wro.config.jmx.ConfigConstants;
+import ro.isdc.wro.config.jmx.WroConfiguration;
+import ro.isdc.wro.manager.factory.WroManagerFactory;
+import ro.isdc.wro.model.WroModel;
+import ro.isdc.wro.model.group.Group;
+import ro.isdc.wro.model.resource.ResourceType;
+import ro.isdc.wro.util.StopWatch;
+import ro.isdc.wro.util.WroUtil;
+
+
+/**
+ * Populates the cache before the application serves any traffic, by processing every group for each
+ * {@link ResourceType} it contains and for both minimized and non minimized versions. The groups are processed in
+ * parallel using a bounded pool of daemon threads and the progress is logged.
+ * <p/>
+ * The folder the css bundles are served from must be known when the model contains css groups (see
+ * {@link WroConfiguration#setWarmUpFolder(String)} or {@link #setAggregatedFolderPath(String)}), because the rewritten
+ * urls of css resources depend on it. Otherwise the warm-up fails without processing any group.
+ *
+ * @since 1.4.7
+ */
+public class CacheWarmUp {
+  private static final Logger LOG = LoggerFactory.getLogger(CacheWarmUp.class);
+  private final WroManagerFactory managerFactory;
+  private final WroConfiguration config;
+  /**
+   * Used to create the context of the warm-up threads. Can be null when running outside of a servlet container.
+   */
+  private final FilterConfig filterConfig;
+  private int threadsCount = Runtime.getRuntime().availableProcessors();
+  private String aggregatedFolderPath;
+  private final CountDownLatch completion = new CountDownLatch(1);
+  private final AtomicInteger processedCount = new AtomicInteger();
+  private final AtomicInteger failedCount = new AtomicInteger();
+  private volatile boolean stopped;
+  private volatile Thread thread;
+  private volatile ExecutorService executor;
+
+
+  public CacheWarmUp(final WroManagerFactory managerFactory, final WroConfiguration config,
+    final FilterConfig filterConfig) {
+    Validate.notNull(managerFactory);
+    Validate.notNull(config);
+    this.managerFactory = managerFactory;
+    this.config = config;
+    this.filterConfig = filterConfig;
+    this.aggregatedFolderPath = config.getWarmUpFolder();
+  }
+
+
+  /**
+   * Starts the warm-up in a background thread and returns immediately.
+   */
+  public void start() {
+    thread = WroUtil.createDaemonThreadFactory("warmUp").newThread(new Runnable() {
+      public void run() {
+        CacheWarmUp.this.run();
+      }
+    });
+    thread.start();
+  }
+
+
+  /**
+   * Stops the warm-up in progress: the groups not processed yet are skipped and the threads processing the groups are
+   * interrupted. Must be invoked when the application is destroyed, in order to not keep processing with a destroyed
+   * {@link WroManagerFactory}.
+   */
+  public void stop() {
+    stopped = true;
+    final ExecutorService workers = executor;
+    if (workers != null) {
+      workers.shutdownNow();
+    }
+    final Thread warmUpThread = thread;
+    if (warmUpThread != null) {
+      warmUpThread.interrupt();
+    }
+  }
+
+
+  /**
+   * Performs the warm-up in the current thread, returning when all groups are processed.
+   */
+  public void run() {
+    final StopWatch stopWatch = new StopWatch("warmUp");
+    try {
+      stopWatch.start("collect cache entries");
+      final List<CacheEntry> entries = collectEntries();
+      stopWatch.stop();
+      LOG.info("Warming up {} cache entries using {} threads", entries.size(), threadsCount);
+      stopWatch.start("process groups");
+      processAll(entries);
+      stopWatch.stop();
+      LOG.info("Warm-up {}: {} processed, {} failed", new Object[] {
+        stopped ? "stopped" : "completed", processedCount.get(), failedCount.get()
+      });
+      LOG.debug(stopWatch.prettyPrint());
+    } catch (final Exception e) {
+      if (stopped) {
+        // interrupted or rejected by the stopped workers
+        LOG.info("Warm-up stopped");
+      } else {
+        LOG.error("Warm-up failed", e);
+      }
+    } finally {
+      completion.countDown();
+    }
+  }
+
+
+  private List<CacheEntry> collectEntries() {
+    final List<CacheEntry> entries = new ArrayList<CacheEntry>();
+    final WroModel model = runInContext(new Task<WroModel>() {
+      public WroModel execute() {
+        return managerFactory.create().getModelFactory().create();
+      }
+    });
+    for (final Group group : model.getGroups()) {
+      for (final ResourceType type : ResourceType.values()) {
+        if (group.hasResourcesOfType(type)) {
+          if (ResourceType.CSS == type && aggregatedFolderPath == null) {
+            throw new WroRuntimeException("Cannot warm up the css of group " + group.getName()
+              + ", because the folder of the css bundles is unknown. Configure the "
+              + ConfigConstants.warmUpFolder.name() + " property.");
+          }
+          entries.add(new CacheEntry(group.getName(), type, true));
+          entries.add(new CacheEntry(group.getName(), type, false));
+        }
+      }
+    }
+    return entries;
+  }
+
+
+  private void processAll(final List<CacheEntry> entries)
+    throws InterruptedException {
+    final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threadsCount),
+      WroUtil.createDaemonThreadFactory("warmUpWorker"));
+    this.executor = executor;
+    if (stopped) {
+      // stopped before the workers were published
+      executor.shutdownNow();
+      return;
+    }
+    final int total = entries.size();
+    try {
+      for (final CacheEntry entry : entries) {
+        executor.execute(new Runnable() {
+          public void run() {
+            process(entry, total);
+          }
+        });
+      }
+    } finally {
+      executor.shutdown();
+    }
+    executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+  }
+
+
+  private void process(final CacheEntry entry, final int total) {
+    if (stopped) {
+      return;
+    }
+    final long start = System.currentTimeMillis();
+    try {
+      runInContext(new Task<Void>() {
+        public Void execute() {
+          final ContentHashEntry value = managerFactory.create().getCacheStrategy().get(entry);
+          if (value != null) {
+            // only the processing matters, let the cache strategy reuse the memory of a replaced entry
+            value.release();
+          }
+          return null;
+        }
+      });
+      LOG.debug("Warmed up {} in {}ms ({}/{})", new Object[] {
+        entry, System.currentTimeMillis() - start, processedCount.incrementAndGet() + failedCount.get(), total
+      });
+    } catch (final Exception e) {
+      failedCount.incrementAndGet();
+      LOG.warn("Cannot warm up " + entry, e);
+    }
+  }
+
+
+  /**
+   * Executes the task with a context set for the current thread. There is no request associated with this context.
+   */
+  private <T> T runInContext(final Task<T> task) {
+    Context.set(Context.webContext(null, null, filterConfig), config);
+    try {
+      if (aggregatedFolderPath != null) {
+        Context.get().setAggregatedFolderPath(aggregatedFolderPath);
+      }
+      return task.execute();
+    } finally {
+      Context.unset();
+    }
+  }
+
+
+  /**
+   * Waits for the warm-up to complete.
+   *
+   * @return true if the warm-up completed before the timeout elapsed.
+   */
+  public boolean awaitCompletion(final long timeout, final TimeUnit unit)
+    throws InterruptedException {
+    return completion.await(timeout, unit);
+  }
+
+
+  /**
+   * @return true if the warm-up completed (even if some groups failed).
+   */
+  public boolean isCompleted() {
+    return completion.getCount() == 0;
+  }
+
+
+  /**
+   * @return the number of cache entries processed successfully so far.
+   */
+  public int getProcessedCount() {
+    return processedCount.get();
+  }
+
+
+  /**
+   * @return the number of cache entries which failed to be processed so far.
+   */
+  public int getFailedCount() {
+    return failedCount.get();
+  }
+
+
+  /**
+   * @param threadsCount
+   *          the maximum number of groups processed in parallel.
+   */
+  public CacheWarmUp setThreadsCount(final int threadsCount) {
+    Validate.isTrue(threadsCount > 0, "threadsCount must be positive");
+    this.threadsCount = threadsCount;
+    return this;
+  }
+
+
+  /**
+   * @param aggregatedFolderPath
+   *          the folder the css bundles are served from, relative to the context path (ex: "/wro/"). Overrides the
+   *          {@link WroConfiguration#getWarmUpFolder()}.
+   * @see Context#setAggregatedFolderPath(String)
+   */
+  public CacheWarmUp setAggregatedFolderPath(final String aggregatedFolderPath) {
+    this.aggregatedFolderPath = aggregatedFolderPath;
+    return this;
+  }
+
+
+  private static interface Task<T> {
+    T execute();
+  }
+}
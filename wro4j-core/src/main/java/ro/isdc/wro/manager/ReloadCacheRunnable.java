@@ -8,9 +8,16 @@ import java.lang.ref.WeakReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import ro.isdc.wro.cache.AbstractSynchronizedCacheStrategyDecorator;
+import ro.isdc.wro.cache.CacheEntry;
+import ro.isdc.wro.cache.CacheStrategy;
+import ro.isdc.wro.cache.ContentHashEntry;
+import ro.isdc.wro.config.jmx.WroConfiguration;
+
 
 /**
- * A {@link Runnable} executed by scheduler to clear the cache.
+ * A {@link Runnable} executed by scheduler to clear the cache. When {@link WroConfiguration#isStaleWhileRevalidate()}
+ * is true, the cached values are only marked as stale and are reloaded one by one by the {@link WroManager}.
  *
  * @author Alex Objelean
  * @created 24 Oct 2011
@@ -29,7 +36,15 @@ public final class ReloadCacheRunnable
   public void run() {
     LOG.debug("Reloading Cache....");
     try {
-      wroManagerReference.get().getCacheStrategy().clear();
+      final WroManager wroManager = wroManagerReference.get();
+      final CacheStrategy<CacheEntry, ContentHashEntry> cacheStrategy = wroManager.getCacheStrategy();
+      final WroConfiguration config = wroManager.getConfiguration();
+      if (config != null && config.isStaleWhileRevalidate()
+        && cacheStrategy instanceof AbstractSynchronizedCacheStrategyDecorator) {
+        ((AbstractSynchronizedCacheStrategyDecorator<CacheEntry, ContentHashEntry>) cacheStrategy).markStale();
+      } else {
+        cacheStrategy.clear();
+      }
     } catch (final Exception e) {
       LOG.error("Exception occured during cache reload: ", e);
     }
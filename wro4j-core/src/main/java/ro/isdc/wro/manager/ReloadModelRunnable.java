@@ -10,7 +10,9 @@ import org.slf4j.LoggerFactory;
 
 
 /**
- * A {@link Runnable} executed by scheduler to clear the model cache.
+ * A {@link Runnable} executed by scheduler to reload the model. The {@link WroManager} is only notified about the
+ * reload, which is performed during the next request: the new model is created first and only the groups which are
+ * changed are removed from the cache.
  *
  * @author Alex Objelean
  * @created 24 Oct 2011
@@ -30,11 +32,9 @@ public final class ReloadModelRunnable
   public void run() {
     LOG.debug("Reloading Model....");
     try {
-      // TODO: do not destroy, until the creation is done and the new model is different than the new one
-      wroManagerReference.get().getModelFactory().destroy();
-      wroManagerReference.get().getCacheStrategy().clear();
+      wroManagerReference.get().requestModelReload();
     } catch (final Exception e) {
-      LOG.error("Exception occured during cache reload: ", e);
+      LOG.error("Exception occured during model reload: ", e);
     }
   }
 }
\ No newline at end of file
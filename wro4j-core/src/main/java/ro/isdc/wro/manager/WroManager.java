@@ -6,9 +6,17 @@ package ro.isdc.wro.manager;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.List;
-
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.servlet.FilterConfig;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
@@ -22,6 +30,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ro.isdc.wro.WroRuntimeException;
+import ro.isdc.wro.cache.AbstractSynchronizedCacheStrategyDecorator;
 import ro.isdc.wro.cache.CacheEntry;
 import ro.isdc.wro.cache.CacheStrategy;
 import ro.isdc.wro.cache.ContentHashEntry;
@@ -29,11 +38,13 @@ import ro.isdc.wro.config.Context;
 import ro.isdc.wro.config.WroConfigurationChangeListener;
 import ro.isdc.wro.config.jmx.WroConfiguration;
 import ro.isdc.wro.http.support.HttpHeader;
+import ro.isdc.wro.http.support.RequestSnapshot;
 import ro.isdc.wro.http.support.UnauthorizedRequestException;
 import ro.isdc.wro.manager.callback.LifecycleCallback;
 import ro.isdc.wro.manager.callback.LifecycleCallbackRegistry;
 import ro.isdc.wro.manager.factory.WroManagerFactory;
 import ro.isdc.wro.model.WroModel;
+import ro.isdc.wro.model.factory.InMemoryCacheableWroModelFactory;
 import ro.isdc.wro.model.factory.WroModelFactory;
 import ro.isdc.wro.model.group.GroupExtractor;
 import ro.isdc.wro.model.group.Inject;
@@ -46,6 +57,7 @@ import ro.isdc.wro.model.resource.processor.impl.css.CssUrlRewritingProcessor;
 import ro.isdc.wro.model.resource.util.HashBuilder;
 import ro.isdc.wro.model.resource.util.NamingStrategy;
 import ro.isdc.wro.util.LazyInitializer;
+import ro.isdc.wro.util.ObjectDecorator;
 import ro.isdc.wro.util.SchedulerHelper;
 import ro.isdc.wro.util.Transformer;
 import ro.isdc.wro.util.WroUtil;
@@ -103,6 +115,21 @@ public class WroManager
    * Schedules the model update.
    */
   private final SchedulerHelper modelSchedulerHelper;
+  /**
+   * Set by {@link ReloadModelRunnable} when the model should be reloaded. The reload is performed by the next request,
+   * because the model creation may need the {@link Context}, which is not available in the scheduler thread.
+   */
+  private final AtomicBoolean modelReloadRequested = new AtomicBoolean();
+  /**
+   * Reloads the stale cached values after they are served, this way the requests don't wait for the processing.
+   */
+  private final ExecutorService revalidationExecutor = Executors.newSingleThreadExecutor(
+    WroUtil.createDaemonThreadFactory("revalidation"));
+  /**
+   * The keys whose revalidation is scheduled and not completed yet. The requests served meanwhile with the stale value
+   * don't schedule it again.
+   */
+  private final ConcurrentMap<CacheEntry, Boolean> pendingRevalidations = new ConcurrentHashMap<CacheEntry, Boolean>();
   
   public WroManager() {
     cacheSchedulerHelper = SchedulerHelper.create(new LazyInitializer<Runnable>() {
@@ -150,6 +177,17 @@ public class WroManager
   }
 
 
+  private boolean isDeflateAllowed() {
+    return config.isGzipEnabled() && WroUtil.isDeflateSupported(Context.get().getRequest());
+  }
+
+
+  private void setContentEncodingHeaders(final HttpServletResponse response, final String contentEncoding) {
+    response.setHeader(HttpHeader.CONTENT_ENCODING.toString(), contentEncoding);
+    response.setHeader("Vary", "Accept-Encoding");
+  }
+
+
   /**
    * Write to stream the content of the processed resource bundle.
    *
@@ -164,6 +202,9 @@ public class WroManager
     final HttpServletResponse response = context.getResponse();
 
     OutputStream os = null;
+    ContentHashEntry cacheValue = null;
+    // the entry is released by write, otherwise it must be released when the request is served
+    boolean released = false;
     try {
       // find names & type
       final ResourceType type = groupExtractor.getResourceType(request);
@@ -177,9 +218,11 @@ public class WroManager
       // reschedule cache & model updates
       cacheSchedulerHelper.scheduleWithPeriod(configuration.getCacheUpdatePeriod());
       modelSchedulerHelper.scheduleWithPeriod(configuration.getModelUpdatePeriod());
+      reloadModelIfRequested();
 
       final CacheEntry cacheKey = new CacheEntry(groupName, type, minimize);
-      final ContentHashEntry cacheValue = cacheStrategy.get(cacheKey);
+      cacheValue = cacheStrategy.get(cacheKey);
+      scheduleRevalidation(cacheKey);
 
       // TODO move ETag check in wroManagerFactory
       final String ifNoneMatch = request.getHeader(HttpHeader.IF_NONE_MATCH.toString());
@@ -208,26 +251,139 @@ public class WroManager
       response.setHeader(HttpHeader.ETAG.toString(), etagValue);
 
       os = response.getOutputStream();
-      if (cacheValue.getRawContent() != null) {
-        // use gziped response if supported & Set content length based on gzip flag
+      final ByteBuffer encodedContent = cacheValue.getEncodedContentBuffer();
+      if (encodedContent != null) {
+        // use compressed response if supported & Set content length based on the bytes actually written
+        final ByteBuffer content;
         if (isGzipAllowed()) {
-          response.setContentLength(cacheValue.getGzippedContent().length);
-          // add gzip header and gzip response
-          response.setHeader(HttpHeader.CONTENT_ENCODING.toString(), "gzip");
-          response.setHeader("Vary", "Accept-Encoding");
-          IOUtils.write(cacheValue.getGzippedContent(), os);
+          content = cacheValue.getGzippedContentBuffer();
+          setContentEncodingHeaders(response, "gzip");
+        } else if (isDeflateAllowed()) {
+          content = cacheValue.getDeflatedContentBuffer();
+          setContentEncodingHeaders(response, "deflate");
         } else {
-          IOUtils.write(cacheValue.getRawContent(), os, configuration.getEncoding());
-          response.setContentLength(cacheValue.getRawContent().length());
+          content = encodedContent;
         }
+        response.setContentLength(content.remaining());
+        // the buffer can be held outside of the heap, write it without copying its content
+        released = true;
+        cacheValue.write(content, os);
       }
     } finally {
+      if (cacheValue != null && !released) {
+        // the content is not written, let the cache strategy reuse its memory
+        cacheValue.release();
+      }
       if(os != null)
         IOUtils.closeQuietly(os);
     }
   }
 
 
+  /**
+   * Request the reload of the model. The reload will be performed by the next request.
+   */
+  final void requestModelReload() {
+    modelReloadRequested.set(true);
+  }
+
+
+  /**
+   * Performs the reload of the model if it was requested. Only one request will perform the reload.
+   */
+  private void reloadModelIfRequested() {
+    if (modelReloadRequested.compareAndSet(true, false)) {
+      reloadModel();
+    }
+  }
+
+
+  /**
+   * Creates a new model and removes from the cache only the groups which are different compared to the previous model.
+   * When the model is cached by an {@link InMemoryCacheableWroModelFactory}, the previous model is used by the
+   * concurrent requests until the new one is created and is kept if the creation fails. Otherwise, the model factory is
+   * destroyed before creating the new model.
+   */
+  private void reloadModel() {
+    LOG.debug("Reloading model...");
+    final WroModel oldModel = modelFactory.create();
+    final InMemoryCacheableWroModelFactory cacheableModelFactory = findCacheableModelFactory();
+    if (cacheableModelFactory == null) {
+      modelFactory.destroy();
+    } else if (!cacheableModelFactory.reload()) {
+      return;
+    }
+    final WroModel newModel = modelFactory.create();
+    for (final String groupName : oldModel.getChangedGroupNames(newModel)) {
+      LOG.debug("Evicting changed group: {}", groupName);
+      for (final ResourceType resourceType : ResourceType.values()) {
+        cacheStrategy.remove(new CacheEntry(groupName, resourceType, true));
+        cacheStrategy.remove(new CacheEntry(groupName, resourceType, false));
+      }
+    }
+  }
+
+
+  /**
+   * @return the {@link InMemoryCacheableWroModelFactory} from the decorators chain of the model factory or null if there
+   *         is none.
+   */
+  @SuppressWarnings("unchecked")
+  private InMemoryCacheableWroModelFactory findCacheableModelFactory() {
+    WroModelFactory factory = modelFactory;
+    while (factory instanceof ObjectDecorator) {
+      if (factory instanceof InMemoryCacheableWroModelFactory) {
+        return (InMemoryCacheableWroModelFactory) factory;
+      }
+      factory = ((ObjectDecorator<WroModelFactory>) factory).getDecoratedObject();
+    }
+    return null;
+  }
+
+
+  /**
+   * Reloads in background the stale cached value (if any) associated with the cacheKey, thus the client is served with
+   * the stale content without waiting for the processing to complete. The background task uses a copy of the current
+   * context, because the request and its context are not available anymore when the task runs. A key is revalidated
+   * by a single task, scheduled by the first request served with the stale value.
+   */
+  private void scheduleRevalidation(final CacheEntry cacheKey) {
+    if (!(cacheStrategy instanceof AbstractSynchronizedCacheStrategyDecorator)) {
+      return;
+    }
+    final AbstractSynchronizedCacheStrategyDecorator<CacheEntry, ContentHashEntry> cache =
+      (AbstractSynchronizedCacheStrategyDecorator<CacheEntry, ContentHashEntry>) cacheStrategy;
+    if (!cache.isStale(cacheKey) || pendingRevalidations.putIfAbsent(cacheKey, Boolean.TRUE) != null) {
+      return;
+    }
+    final Context context = Context.get();
+    final HttpServletRequest request = RequestSnapshot.create(context.getRequest());
+    final FilterConfig filterConfig = context.getFilterConfig();
+    final WroConfiguration configuration = context.getConfig();
+    final String aggregatedFolderPath = context.getAggregatedFolderPath();
+    try {
+      revalidationExecutor.execute(new Runnable() {
+        public void run() {
+          try {
+            Context.set(Context.webContext(request, null, filterConfig), configuration);
+            try {
+              Context.get().setAggregatedFolderPath(aggregatedFolderPath);
+              cache.revalidate(cacheKey);
+            } finally {
+              Context.unset();
+            }
+          } finally {
+            pendingRevalidations.remove(cacheKey);
+          }
+        }
+      });
+    } catch (final RejectedExecutionException e) {
+      pendingRevalidations.remove(cacheKey);
+      LOG.debug("The manager is destroyed, cannot revalidate: {}", cacheKey);
+    }
+  }
+
+
   /**
    * Set the aggregatedFolderPath if required.
    */
@@ -250,9 +406,13 @@ public class WroManager
     final boolean minimize) {
     final CacheEntry key = new CacheEntry(groupName, resourceType, minimize);
     final ContentHashEntry cacheValue = cacheStrategy.get(key);
-    final String groupUrl = groupExtractor.encodeGroupUrl(groupName, resourceType, minimize);
-    // encode the fingerprint of the resource into the resource path
-    return formatVersionedResource(cacheValue.getHash(), groupUrl);
+    try {
+      final String groupUrl = groupExtractor.encodeGroupUrl(groupName, resourceType, minimize);
+      // encode the fingerprint of the resource into the resource path
+      return formatVersionedResource(cacheValue.getHash(), groupUrl);
+    } finally {
+      cacheValue.release();
+    }
   }
 
 
@@ -325,6 +485,7 @@ public class WroManager
    */
   public final void destroy() {
     try {
+      revalidationExecutor.shutdownNow();
       cacheSchedulerHelper.destroy();
       modelSchedulerHelper.destroy();
       cacheStrategy.destroy();
@@ -470,6 +631,13 @@ public class WroManager
     return this.groupsProcessor;
   }
 
+  /**
+   * @return the injected {@link WroConfiguration}.
+   */
+  public final WroConfiguration getConfiguration() {
+    return this.config;
+  }
+
   /**
    * Registers a callback.
    *
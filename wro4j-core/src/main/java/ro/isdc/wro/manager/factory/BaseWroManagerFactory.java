@@ -15,7 +15,8 @@ import ro.isdc.wro.WroRuntimeException;
 import ro.isdc.wro.cache.CacheEntry;
 import ro.isdc.wro.cache.CacheStrategy;
 import ro.isdc.wro.cache.ContentHashEntry;
-import ro.isdc.wro.cache.impl.LruMemoryCacheStrategy;
+import ro.isdc.wro.cache.Weigher;
+import ro.isdc.wro.cache.impl.TinyLfuMemoryCacheStrategy;
 import ro.isdc.wro.manager.WroManager;
 import ro.isdc.wro.model.WroModel;
 import ro.isdc.wro.model.factory.WroModelFactory;
@@ -47,6 +48,10 @@ import ro.isdc.wro.util.Transformer;
 public class BaseWroManagerFactory
   implements WroManagerFactory {
   private static final Logger LOG = LoggerFactory.getLogger(BaseWroManagerFactory.class);
+  /**
+   * The maximum number of bytes retained by the default cache strategy.
+   */
+  public static final long DEFAULT_CACHE_MAXIMUM_WEIGHT = 64 * 1024 * 1024;
 
   private GroupExtractor groupExtractor;
   private WroModelFactory modelFactory;
@@ -214,7 +219,12 @@ public class BaseWroManagerFactory
    * @return {@link CacheStrategy} instance for resources' group caching.
    */
   protected CacheStrategy<CacheEntry, ContentHashEntry> newCacheStrategy() {
-    return new LruMemoryCacheStrategy<CacheEntry, ContentHashEntry>();
+    return new TinyLfuMemoryCacheStrategy<CacheEntry, ContentHashEntry>(DEFAULT_CACHE_MAXIMUM_WEIGHT,
+      new Weigher<ContentHashEntry>() {
+        public long weigh(final ContentHashEntry value) {
+          return value.getWeight();
+        }
+      });
   }
 
 
@@ -21,6 +21,7 @@ import org.slf4j.LoggerFactory;
 import ro.isdc.wro.WroRuntimeException;
 import ro.isdc.wro.model.group.Group;
 import ro.isdc.wro.model.group.InvalidGroupNameException;
+import ro.isdc.wro.model.resource.Resource;
 
 /**
  * The resource model encapsulates the information about all existing groups.
@@ -140,6 +141,51 @@ public final class WroModel {
     return this;
   }
 
+  /**
+   * Compares this model with another model and finds out which groups are different. A group is considered changed
+   * when it exists only in one of the models or when its resources (uri, type, minimize flag or order) are different.
+   *
+   * @param otherModel the model to compare with.
+   * @return a set of names of the changed groups.
+   */
+  public Set<String> getChangedGroupNames(final WroModel otherModel) {
+    Validate.notNull(otherModel);
+    final Set<String> changedGroupNames = new HashSet<String>();
+    for (final Group group : groups) {
+      if (!otherModel.groups.contains(group)
+        || !hasSameResources(group, otherModel.getGroupByName(group.getName()))) {
+        changedGroupNames.add(group.getName());
+      }
+    }
+    for (final Group otherGroup : otherModel.groups) {
+      if (!groups.contains(otherGroup)) {
+        changedGroupNames.add(otherGroup.getName());
+      }
+    }
+    LOG.debug("changed groups: {}", changedGroupNames);
+    return changedGroupNames;
+  }
+
+  /**
+   * @return true if both groups have the same resources in the same order.
+   */
+  private boolean hasSameResources(final Group group, final Group otherGroup) {
+    final List<Resource> resources = group.getResources();
+    final List<Resource> otherResources = otherGroup.getResources();
+    if (resources.size() != otherResources.size()) {
+      return false;
+    }
+    for (int i = 0; i < resources.size(); i++) {
+      final Resource resource = resources.get(i);
+      final Resource otherResource = otherResources.get(i);
+      // Resource#equals doesn't take into account the minimize flag
+      if (!resource.equals(otherResource) || resource.isMinimize() != otherResource.isMinimize()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -3,6 +3,9 @@
  */
 package ro.isdc.wro.model.factory;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import ro.isdc.wro.manager.WroManager;
 import ro.isdc.wro.model.WroModel;
 import ro.isdc.wro.util.DestroyableLazyInitializer;
@@ -17,6 +20,7 @@ import ro.isdc.wro.util.DestroyableLazyInitializer;
  * @since 1.4.2
  */
 public class InMemoryCacheableWroModelFactory extends WroModelFactoryDecorator {
+  private static final Logger LOG = LoggerFactory.getLogger(InMemoryCacheableWroModelFactory.class);
   /**
    * Reference to cached model instance. 
    */
@@ -26,13 +30,7 @@ public class InMemoryCacheableWroModelFactory extends WroModelFactoryDecorator {
     super(decorated);
   }
 
-  private DestroyableLazyInitializer<WroModel> modelInitializer = new DestroyableLazyInitializer<WroModel>() {
-    @Override
-    protected WroModel initialize() {
-      model = InMemoryCacheableWroModelFactory.super.create();
-      return model;
-    }
-  };
+  private ModelInitializer modelInitializer = new ModelInitializer();
 
   /**
    * {@inheritDoc}
@@ -42,6 +40,22 @@ public class InMemoryCacheableWroModelFactory extends WroModelFactoryDecorator {
     return modelInitializer.get();
   }
 
+  /**
+   * Creates a new model and replaces the cached one when the creation is complete. Unlike {@link #destroy()}, the
+   * previous model is returned by {@link #create()} while the new one is created and is kept if the creation fails.
+   *
+   * @return true if the cached model was replaced.
+   */
+  public boolean reload() {
+    try {
+      modelInitializer.replace(super.create());
+      return true;
+    } catch (final RuntimeException e) {
+      LOG.error("Couldn't reload the model, the previous model is kept", e);
+      return false;
+    }
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -49,4 +63,19 @@ public class InMemoryCacheableWroModelFactory extends WroModelFactoryDecorator {
   public void destroy() {
     modelInitializer.destroy();
   }
+
+  private class ModelInitializer extends DestroyableLazyInitializer<WroModel> {
+    @Override
+    protected WroModel initialize() {
+      model = InMemoryCacheableWroModelFactory.super.create();
+      return model;
+    }
+
+    void replace(final WroModel newModel) {
+      synchronized (this) {
+        model = newModel;
+        object = newModel;
+      }
+    }
+  }
 }
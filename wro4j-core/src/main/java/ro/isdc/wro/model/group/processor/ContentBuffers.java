@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.model.group.processor;
+
+import org.apache.commons.io.output.StringBuilderWriter;
+
+
+/**
+ * Two buffers used alternately by a chain of processors: the result written by a processor is the content read by the
+ * next one, while the other buffer is cleared and reused for the next result. This way, the content is not copied
+ * between the processors of the chain. Not thread safe.
+ *
+ * @since 1.4.7
+ */
+final class ContentBuffers {
+  private StringBuilderWriter first;
+  private StringBuilderWriter second;
+
+
+  /**
+   * @param content
+   *          the content the next processor reads. It may be held by one of the buffers.
+   * @return an empty writer which doesn't hold the provided content.
+   */
+  public StringBuilderWriter newWriter(final CharSequence content) {
+    if (first == null) {
+      first = new StringBuilderWriter(content.length());
+    }
+    final StringBuilderWriter writer = first.getBuilder() == content ? getSecond(content) : first;
+    writer.getBuilder().setLength(0);
+    return writer;
+  }
+
+
+  private StringBuilderWriter getSecond(final CharSequence content) {
+    if (second == null) {
+      second = new StringBuilderWriter(content.length());
+    }
+    return second;
+  }
+}
@@ -4,13 +4,10 @@
 package ro.isdc.wro.model.group.processor;
 
 import java.io.IOException;
-import java.io.Reader;
-import java.io.StringReader;
-import java.io.StringWriter;
-import java.io.Writer;
 import java.util.Collection;
+import java.util.List;
 
-import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.StringBuilderWriter;
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,7 +20,6 @@ import ro.isdc.wro.model.WroModel;
 import ro.isdc.wro.model.factory.WroModelFactory;
 import ro.isdc.wro.model.group.Group;
 import ro.isdc.wro.model.group.Inject;
-import ro.isdc.wro.model.resource.processor.ProcessorsUtils;
 import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
 import ro.isdc.wro.model.resource.processor.decorator.ExceptionHandlingProcessorDecorator;
 import ro.isdc.wro.model.resource.processor.factory.ProcessorsFactory;
@@ -55,6 +51,16 @@ public class GroupsProcessor {
    */
   @Inject
   private transient PreProcessorExecutor preProcessorExecutor;
+  /**
+   * The decorated postProcessors to apply for each resource type and minimize flag.
+   */
+  private final ProcessorChains<ResourcePostProcessor> postProcessorChains =
+      new ProcessorChains<ResourcePostProcessor>() {
+        @Override
+        protected ExceptionHandlingProcessorDecorator decorate(final ResourcePostProcessor processor) {
+          return new ExceptionHandlingProcessorDecorator(processor);
+        }
+      };
   
   /**
    * @param cacheKey
@@ -97,53 +103,45 @@ public class GroupsProcessor {
     if (allPostProcessors.isEmpty() && processorsFactory.getPreProcessors().isEmpty()) {
       LOG.warn("No processors defined. Please, check if your configuration is correct.");
     }
-    final Collection<ResourcePostProcessor> processors = ProcessorsUtils.filterProcessorsToApply(
-        cacheEntry.isMinimize(), cacheEntry.getType(), allPostProcessors);
-    return applyPostProcessors(processors, content);
+    final ProcessorChains.Chain<ResourcePostProcessor> chain = postProcessorChains.get(allPostProcessors,
+        cacheEntry.getType(), cacheEntry.isMinimize());
+    chain.inject(injector);
+    return applyPostProcessors(chain, content);
   }
   
   /**
    * Apply resourcePostProcessors.
    * 
-   * @param processors
-   *          a collection of processors to apply on the content from the supplied writer.
+   * @param chain
+   *          the processors to apply on the content.
    * @param content
    *          to process with all postProcessors.
    * @return the post processed content.
    */
-  private String applyPostProcessors(final Collection<ResourcePostProcessor> processors, final String content)
+  private String applyPostProcessors(final ProcessorChains.Chain<ResourcePostProcessor> chain, final String content)
       throws IOException {
-    LOG.debug("postProcessors: {}", processors);
-    if (processors.isEmpty()) {
+    LOG.debug("postProcessors: {}", chain.getProcessors());
+    if (chain.isEmpty()) {
       return content;
     }
-    Reader reader = new StringReader(content.toString());
-    Writer writer = null;
+    // the result of each processor is the input of the next one, without being copied
+    final ContentBuffers buffers = new ContentBuffers();
+    CharSequence result = content;
     final StopWatch stopWatch = new StopWatch();
-    for (final ResourcePostProcessor processor : processors) {
-      stopWatch.start("Using " + processor.getClass().getSimpleName());
-      writer = new StringWriter();
+    final List<ExceptionHandlingProcessorDecorator> processors = chain.getDecoratedProcessors();
+    for (int i = 0; i < processors.size(); i++) {
+      stopWatch.start("Using " + chain.getProcessors().get(i).getClass().getSimpleName());
+      final StringBuilderWriter writer = buffers.newWriter(result);
       try {
         callbackRegistry.onBeforePostProcess();
-        decorateProcessor(processor).process(reader, writer);
+        processors.get(i).process(null, result, writer);
       } finally {
         stopWatch.stop();
         callbackRegistry.onAfterPostProcess();
-        IOUtils.closeQuietly(reader);
-        IOUtils.closeQuietly(writer);
       }
-      reader = new StringReader(writer.toString());
+      result = writer.getBuilder();
     }
     LOG.debug(stopWatch.prettyPrint());
-    return writer.toString();
-  }
-  
-  /**
-   * @return a decorated postProcessor.
-   */
-  private ResourcePostProcessor decorateProcessor(final ResourcePostProcessor processor) {
-    ResourcePostProcessor decorated = new ExceptionHandlingProcessorDecorator(processor);
-    injector.inject(decorated);
-    return decorated;
+    return result.toString();
   }
 }
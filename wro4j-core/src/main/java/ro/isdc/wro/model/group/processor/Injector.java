@@ -5,9 +5,10 @@ package ro.isdc.wro.model.group.processor;
 
 import java.lang.reflect.Field;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
@@ -29,6 +30,12 @@ import ro.isdc.wro.util.ObjectDecorator;
 public final class Injector {
   private static final Logger LOG = LoggerFactory.getLogger(Injector.class);
   private Map<Class<?>, Object> map;
+  /**
+   * The fields to inject for each class of the injected objects. Scanning the class hierarchy is done only once per
+   * class, since it is much slower than setting the fields.
+   */
+  private final ConcurrentMap<Class<?>, InjectedField[]> injectedFieldsMap =
+    new ConcurrentHashMap<Class<?>, InjectedField[]>();
 
   /**
    * Mapping of classes to be annotated and the corresponding injected object.
@@ -50,23 +57,14 @@ public final class Injector {
 
 
   /**
-   * Check for each field from the passed object if @Inject annotation is present & inject the required field if
-   * supported, otherwise warns about invalid usage.
+   * Inject the required fields of the passed object, otherwise warns about invalid usage.
    *
    * @param object to check for annotation presence.
    */
   private void processInjectAnnotation(final Object object) {
-    LOG.debug("processInjectAnnotation for: {}", object.getClass().getSimpleName());
     try {
-      final Collection<Field> fields = getAllFields(object);
-      for (final Field field : fields) {
-        if (field.isAnnotationPresent(Inject.class)) {
-          if (!acceptAnnotatedField(object, field)) {
-            final String message = "@Inject cannot be applied to field of type: " + field.getType();
-            LOG.error(message + ". Supported types are: {}", map.keySet());
-            throw new WroRuntimeException(message);
-          }
-        }
+      for (final InjectedField injectedField : getInjectedFields(object.getClass())) {
+        injectedField.inject(object);
       }
       //handle special cases like decorators. Perform recursive injection 
       if (object instanceof ObjectDecorator) {
@@ -80,51 +78,74 @@ public final class Injector {
 
 
   /**
-   * Return all fields for given object, also those from the super classes.
+   * @return the fields of the class having @Inject annotation, computed only once for each class.
    */
-  private Collection<Field> getAllFields(final Object object) {
-    final Collection<Field> fields = new ArrayList<Field>();
-    fields.addAll(Arrays.asList(object.getClass().getDeclaredFields()));
-    // inspect super classes
-    Class<?> superClass = object.getClass().getSuperclass();
-    do {
-      fields.addAll(Arrays.asList(superClass.getDeclaredFields()));
-      superClass = superClass.getSuperclass();
-    } while (superClass != null);
-    return fields;
+  private InjectedField[] getInjectedFields(final Class<?> clazz) {
+    InjectedField[] injectedFields = injectedFieldsMap.get(clazz);
+    if (injectedFields == null) {
+      injectedFields = findInjectedFields(clazz);
+      injectedFieldsMap.putIfAbsent(clazz, injectedFields);
+    }
+    return injectedFields;
   }
 
+
   /**
-   * Analyze the field containing {@link Inject} annotation and set its value to appropriate value. Override this method
-   * if you want to inject something else but uriLocatorFactory.
-   *
-   * @param object an object containing @Inject annotation.
-   * @param field {@link Field} object containing {@link Inject} annotation.
-   * @return true if field was injected with some not null value.
-   * @throws IllegalAccessException
+   * Check for each field of the class (also those from the super classes) if @Inject annotation is present and
+   * find the object to inject.
    */
-  private boolean acceptAnnotatedField(final Object object, final Field field)
-    throws IllegalAccessException {
-    boolean accept = false;
-    try {
-      // accept private modifiers
-      field.setAccessible(true);
-      for (final Map.Entry<Class<?>, Object> entry : map.entrySet()) {
-        if (entry.getKey().isAssignableFrom(field.getType())) {
-          Object value = entry.getValue();
-          //treat factories as a special case for lazy load of the objects.
-          if (value instanceof InjectorObjectFactory) {
-            value = ((InjectorObjectFactory<?>) value).create();
-          }
-          field.set(object, value);
-          return accept = true;
+  private InjectedField[] findInjectedFields(final Class<?> clazz) {
+    LOG.debug("processInjectAnnotation for: {}", clazz.getSimpleName());
+    final List<InjectedField> injectedFields = new ArrayList<InjectedField>();
+    for (Class<?> current = clazz; current != null; current = current.getSuperclass()) {
+      for (final Field field : current.getDeclaredFields()) {
+        if (field.isAnnotationPresent(Inject.class)) {
+          injectedFields.add(acceptAnnotatedField(clazz, field));
         }
       }
-      return accept;
-    } finally {
-      if (accept) {
-        LOG.debug("\t[OK] Injected {} -> {}", object.getClass().getName(), field.getType().getSimpleName());
+    }
+    return injectedFields.toArray(new InjectedField[injectedFields.size()]);
+  }
+
+  /**
+   * Analyze the field containing {@link Inject} annotation and find the value to set.
+   *
+   * @param clazz the class containing @Inject annotation.
+   * @param field {@link Field} object containing {@link Inject} annotation.
+   * @return the field along with the value to inject.
+   */
+  private InjectedField acceptAnnotatedField(final Class<?> clazz, final Field field) {
+    for (final Map.Entry<Class<?>, Object> entry : map.entrySet()) {
+      if (entry.getKey().isAssignableFrom(field.getType())) {
+        // accept private modifiers
+        field.setAccessible(true);
+        LOG.debug("\t[OK] Injected {} -> {}", clazz.getName(), field.getType().getSimpleName());
+        return new InjectedField(field, entry.getValue());
       }
     }
+    final String message = "@Inject cannot be applied to field of type: " + field.getType();
+    LOG.error(message + ". Supported types are: {}", map.keySet());
+    throw new WroRuntimeException(message);
+  }
+
+  /**
+   * A field having @Inject annotation and the object to inject into it.
+   */
+  private static final class InjectedField {
+    private final Field field;
+    private final Object value;
+
+    InjectedField(final Field field, final Object value) {
+      this.field = field;
+      this.value = value;
+    }
+
+    void inject(final Object object)
+      throws IllegalAccessException {
+      //treat factories as a special case for lazy load of the objects.
+      final Object injected = value instanceof InjectorObjectFactory ? ((InjectorObjectFactory<?>) value).create()
+        : value;
+      field.set(object, injected);
+    }
   }
 }
@@ -0,0 +1,199 @@
+/*
+ * Copyright Alex Objelean
+ */
+package ro.isdc.wro.model.group.processor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ro.isdc.wro.model.resource.Resource;
+import ro.isdc.wro.model.resource.ResourceType;
+import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+
+
+/**
+ * Holds the result of applying a chain of preProcessors on a resource. The entries are identified by the resource, the
+ * fingerprint of the content before processing, the minimize flag and the processors which were applied. Since the
+ * fingerprint is a part of the key, the cached entries never become stale. The memory is bounded by the total number of
+ * characters of the cached content, the least recently used entries being evicted first. This class is thread-safe.
+ *
+ * @since 1.4.7
+ */
+public class PreProcessedContentCache {
+  private static final Logger LOG = LoggerFactory.getLogger(PreProcessedContentCache.class);
+  /**
+   * Maximum number of characters of all cached entries.
+   */
+  private long maxSize;
+  /**
+   * Number of characters of all cached entries.
+   */
+  private long size = 0;
+  /**
+   * Access ordered map, used to evict the least recently used entries.
+   */
+  private final Map<Key, String> map = new LinkedHashMap<Key, String>(16, 0.75f, true);
+
+  /**
+   * @param maxSize
+   *          maximum number of characters of all cached content. Must be greater than 0.
+   */
+  public PreProcessedContentCache(final long maxSize) {
+    Validate.isTrue(maxSize > 0, "maxSize must be greater than 0");
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * @return the cached content associated with the key or null if there is no such entry.
+   */
+  public synchronized String get(final Key key) {
+    return map.get(key);
+  }
+
+  /**
+   * Store the content associated with the key. The content which is larger than the maximum size is not cached.
+   */
+  public synchronized void put(final Key key, final String content) {
+    Validate.notNull(key);
+    Validate.notNull(content);
+    if (content.length() > maxSize) {
+      LOG.debug("Content of resource {} is too large to be cached", key.uri);
+      return;
+    }
+    final String previous = map.put(key, content);
+    if (previous != null) {
+      size -= previous.length();
+    }
+    size += content.length();
+    evict();
+  }
+
+  /**
+   * Remove the least recently used entries until the size of the cached content is not greater than the maximum size.
+   */
+  private void evict() {
+    final Iterator<String> iterator = map.values().iterator();
+    while (size > maxSize && iterator.hasNext()) {
+      size -= iterator.next().length();
+      iterator.remove();
+    }
+  }
+
+  /**
+   * @return maximum number of characters of all cached content.
+   */
+  public synchronized long getMaxSize() {
+    return maxSize;
+  }
+
+  /**
+   * Changes the maximum size of the cache, evicting the least recently used entries if the cache became too large.
+   *
+   * @param maxSize
+   *          maximum number of characters of all cached content. Must be greater than 0.
+   */
+  public synchronized void setMaxSize(final long maxSize) {
+    Validate.isTrue(maxSize > 0, "maxSize must be greater than 0");
+    this.maxSize = maxSize;
+    evict();
+  }
+
+  /**
+   * Remove all cached entries.
+   */
+  public synchronized void clear() {
+    map.clear();
+    size = 0;
+  }
+
+  /**
+   * @return the number of characters of all cached entries.
+   */
+  public synchronized long getSize() {
+    return size;
+  }
+
+  /**
+   * Identifies the result of applying a chain of processors on a resource content.
+   */
+  public static final class Key {
+    private final String uri;
+    private final ResourceType type;
+    private final boolean resourceMinimize;
+    private final boolean minimize;
+    private final String fingerprint;
+    /**
+     * Processors are compared by identity, since a new processor instance can have a different configuration.
+     */
+    private final List<ResourcePreProcessor> processors;
+
+    /**
+     * @param resource
+     *          the processed resource.
+     * @param minimize
+     *          the minimize flag of the processing.
+     * @param fingerprint
+     *          the fingerprint of the content before processing.
+     * @param processors
+     *          the processors applied on the content.
+     */
+    public Key(final Resource resource, final boolean minimize, final String fingerprint,
+      final Collection<ResourcePreProcessor> processors) {
+      Validate.notNull(resource);
+      Validate.notNull(fingerprint);
+      Validate.notNull(processors);
+      this.uri = resource.getUri();
+      this.type = resource.getType();
+      this.resourceMinimize = resource.isMinimize();
+      this.minimize = minimize;
+      this.fingerprint = fingerprint;
+      this.processors = new ArrayList<ResourcePreProcessor>(processors);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(final Object obj) {
+      if (obj instanceof Key) {
+        final Key key = (Key) obj;
+        return uri.equals(key.uri) && type == key.type && resourceMinimize == key.resourceMinimize
+          && minimize == key.minimize
+          && fingerprint.equals(key.fingerprint) && processors.equals(key.processors);
+      }
+      return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+      int hash = 7;
+      hash = 31 * hash + uri.hashCode();
+      hash = 31 * hash + (type != null ? type.hashCode() : 0);
+      hash = 31 * hash + fingerprint.hashCode();
+      hash = 31 * hash + Boolean.valueOf(resourceMinimize).hashCode();
+      hash = 31 * hash + Boolean.valueOf(minimize).hashCode();
+      hash = 31 * hash + processors.hashCode();
+      return hash;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+      return new ToStringBuilder("").append(uri).append(fingerprint).append(minimize).toString();
+    }
+  }
+}
@@ -1,13 +1,9 @@
 package ro.isdc.wro.model.group.processor;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.Reader;
-import java.io.StringReader;
-import java.io.StringWriter;
-import java.io.Writer;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
@@ -16,6 +12,7 @@ import java.util.concurrent.Future;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.input.BOMInputStream;
+import org.apache.commons.io.output.StringBuilderWriter;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
@@ -28,11 +25,12 @@ import ro.isdc.wro.manager.callback.LifecycleCallbackRegistry;
 import ro.isdc.wro.model.group.Inject;
 import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.locator.factory.UriLocatorFactory;
-import ro.isdc.wro.model.resource.processor.ProcessorsUtils;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
 import ro.isdc.wro.model.resource.processor.decorator.ExceptionHandlingProcessorDecorator;
 import ro.isdc.wro.model.resource.processor.decorator.MinimizeAwareProcessorDecorator;
 import ro.isdc.wro.model.resource.processor.factory.ProcessorsFactory;
+import ro.isdc.wro.model.resource.processor.support.ProcessingContext;
+import ro.isdc.wro.model.resource.util.HashBuilder;
 import ro.isdc.wro.util.StopWatch;
 import ro.isdc.wro.util.WroUtil;
 
@@ -57,10 +55,26 @@ public class PreProcessorExecutor {
   private LifecycleCallbackRegistry callbackRegistry;  
   @Inject
   private Injector injector;
+  @Inject
+  private HashBuilder hashBuilder;
+  /**
+   * Holds the result of pre processing, created only when {@link WroConfiguration#getPreProcessingCacheSize()} is
+   * greater than 0.
+   */
+  private volatile PreProcessedContentCache contentCache;
   /**
    * Runs the preProcessing in parallel.
    */
   private ExecutorService executor;
+  /**
+   * The decorated preProcessors to apply for each resource type and minimize flag.
+   */
+  private final ProcessorChains<ResourcePreProcessor> preProcessorChains = new ProcessorChains<ResourcePreProcessor>() {
+    @Override
+    protected ExceptionHandlingProcessorDecorator decorate(final ResourcePreProcessor processor) {
+      return new ExceptionHandlingProcessorDecorator(new MinimizeAwareProcessorDecorator(processor));
+    }
+  };
   
   /**
    * Apply preProcessors on resources and merge them.
@@ -163,46 +177,164 @@ public class PreProcessorExecutor {
    */
   private String applyPreProcessors(final Resource resource, final boolean minimize)
       throws IOException {
-    //TODO: apply filtering inside a specialized decorator
-    final Collection<ResourcePreProcessor> processors = ProcessorsUtils.filterProcessorsToApply(minimize,
-        resource.getType(), processorsFactory.getPreProcessors());
-    LOG.debug("applying preProcessors: {}", processors);
-    String resourceContent = getResourceContent(resource);
-    if (processors.isEmpty()) {
+    return applyPreProcessors(resource, getResourceContent(resource), minimize);
+  }
+
+  /**
+   * Applies the pre processors on a resource whose content was already read by the caller (ex: a css imported by the
+   * processed css), this way the resource is not located and read again.
+   *
+   * @param resource
+   *          the {@link Resource} on which processors will be applied.
+   * @param resourceContent
+   *          the content of the resource.
+   * @param minimize
+   *          whether minimize aware processors must be applied or not.
+   * @return the pre processed content.
+   */
+  public String process(final Resource resource, final String resourceContent, final boolean minimize)
+      throws IOException {
+    Validate.notNull(resource);
+    Validate.notNull(resourceContent);
+    return applyPreProcessors(resource, resourceContent, minimize);
+  }
+
+  private String applyPreProcessors(final Resource resource, final String resourceContent, final boolean minimize)
+      throws IOException {
+    final ProcessorChains.Chain<ResourcePreProcessor> chain = preProcessorChains.get(
+        processorsFactory.getPreProcessors(), resource.getType(), minimize);
+    LOG.debug("applying preProcessors: {}", chain.getProcessors());
+    if (chain.isEmpty()) {
       return resourceContent;
     }
-    Writer writer = null;
+    chain.inject(injector);
     final StopWatch stopWatch = new StopWatch();
-    for (final ResourcePreProcessor processor : processors) {
-      stopWatch.start("Processor: " + processor.getClass().getSimpleName());
-      
-      callbackRegistry.onBeforePreProcess();
-      
-      writer = new StringWriter();
-      final Reader reader = new StringReader(resourceContent);
+    // the result of each processor is the input of the next one, without being copied
+    final ContentBuffers buffers = new ContentBuffers();
+    CharSequence content = resourceContent;
+    // consecutive processors whose result can be cached are applied together
+    final int size = chain.getProcessors().size();
+    int cacheableFrom = 0;
+    for (int i = 0; i < size; i++) {
+      if (!isCacheable(chain, i)) {
+        content = applyCacheablePreProcessors(resource, minimize, chain, cacheableFrom, i, content, buffers, stopWatch);
+        content = applyPreProcessor(chain, i, resource, content, buffers, stopWatch);
+        cacheableFrom = i + 1;
+      }
+    }
+    content = applyCacheablePreProcessors(resource, minimize, chain, cacheableFrom, size, content, buffers, stopWatch);
+    LOG.debug(stopWatch.prettyPrint());
+    return content.toString();
+  }
+
+  /**
+   * Apply the processors of the chain between the provided indexes (the end is exclusive), whose result can be cached.
+   * If the result of applying these processors on the same content was already computed, it is reused from the
+   * {@link PreProcessedContentCache}.
+   */
+  private CharSequence applyCacheablePreProcessors(final Resource resource, final boolean minimize,
+      final ProcessorChains.Chain<ResourcePreProcessor> chain, final int from, final int to, final CharSequence content,
+      final ContentBuffers buffers, final StopWatch stopWatch)
+      throws IOException {
+    if (from >= to) {
+      return content;
+    }
+    // the cache can be disabled at runtime, after the processors were found cacheable
+    final PreProcessedContentCache cache = getContentCache();
+    final PreProcessedContentCache.Key key = cache == null ? null : new PreProcessedContentCache.Key(resource,
+        minimize, computeFingerprint(content.toString()), chain.getProcessors().subList(from, to));
+    String result = cache == null ? null : cache.get(key);
+    if (result == null) {
+      boolean failureIgnored = false;
+      final ProcessingContext context = ProcessingContext.open(resource);
       try {
-        //decorate and process
-        decoratePreProcessor(processor).process(resource, reader, writer);
-        //use the outcome for next input
-        resourceContent = writer.toString();
+        CharSequence processedContent = content;
+        for (int i = from; i < to; i++) {
+          processedContent = applyPreProcessor(chain, i, resource, processedContent, buffers, stopWatch);
+        }
+        result = processedContent.toString();
+        // the unchanged content written by an ignored failing processor must not be reused
+        failureIgnored = context.getAttribute(ExceptionHandlingProcessorDecorator.ATTR_FAILURE_IGNORED) != null;
+        if (failureIgnored) {
+          LOG.debug("A processor failed, the pre processed content of resource: {} is not cached", resource);
+        } else if (cache != null) {
+          cache.put(key, result);
+        }
       } finally {
-        stopWatch.stop();
-        callbackRegistry.onAfterPreProcess();
-        reader.close();
-        writer.close();
+        context.close();
       }
+      // the enclosing invocation (ex: a processor pre processing other resources) must not reuse the result either
+      if (failureIgnored && ProcessingContext.isContextOpened()) {
+        ProcessingContext.get().setAttribute(ExceptionHandlingProcessorDecorator.ATTR_FAILURE_IGNORED, Boolean.TRUE);
+      }
+    } else {
+      LOG.debug("Using cached pre processed content of resource: {}", resource);
     }
-    LOG.debug(stopWatch.prettyPrint());
-    return writer.toString();
+    return result;
   }
-  
+
+  /**
+   * Apply a single preProcessor of the chain on the content of the resource.
+   *
+   * @return the processed content, held by one of the buffers.
+   */
+  private CharSequence applyPreProcessor(final ProcessorChains.Chain<ResourcePreProcessor> chain, final int index,
+      final Resource resource, final CharSequence content, final ContentBuffers buffers, final StopWatch stopWatch)
+      throws IOException {
+    stopWatch.start("Processor: " + chain.getProcessors().get(index).getClass().getSimpleName());
+
+    callbackRegistry.onBeforePreProcess();
+
+    final StringBuilderWriter writer = buffers.newWriter(content);
+    try {
+      chain.getDecoratedProcessors().get(index).process(resource, content, writer);
+      //use the outcome for next input
+      return writer.getBuilder();
+    } finally {
+      stopWatch.stop();
+      callbackRegistry.onAfterPreProcess();
+    }
+  }
+
   /**
-   * Decorates preProcessor with mandatory decorators.
+   * @return true if the result of the processor can be stored in {@link PreProcessedContentCache}.
    */
-  private ResourcePreProcessor decoratePreProcessor(final ResourcePreProcessor processor) {
-    ResourcePreProcessor decorated = new ExceptionHandlingProcessorDecorator(new MinimizeAwareProcessorDecorator(processor)); 
-    injector.inject(decorated);
-    return decorated;
+  private boolean isCacheable(final ProcessorChains.Chain<ResourcePreProcessor> chain, final int index) {
+    return getContentCache() != null && !chain.isUncacheable(index);
+  }
+
+  /**
+   * @return the {@link PreProcessedContentCache} or null if the cache is disabled. The changes of
+   *         {@link WroConfiguration#getPreProcessingCacheSize()} made at runtime are applied to the existing cache.
+   */
+  private PreProcessedContentCache getContentCache() {
+    final long cacheSize = config.getPreProcessingCacheSize();
+    if (cacheSize <= 0) {
+      // release the cached content when the cache is disabled at runtime
+      contentCache = null;
+      return null;
+    }
+    PreProcessedContentCache cache = contentCache;
+    if (cache == null) {
+      synchronized (this) {
+        cache = contentCache;
+        if (cache == null) {
+          contentCache = cache = new PreProcessedContentCache(cacheSize);
+        }
+      }
+    }
+    if (cache.getMaxSize() != cacheSize) {
+      cache.setMaxSize(cacheSize);
+    }
+    return cache;
+  }
+
+  /**
+   * @return the fingerprint of the content, used to identify the cached pre processed content.
+   */
+  private String computeFingerprint(final String content)
+      throws IOException {
+    return hashBuilder.getHash(new ByteArrayInputStream(content.getBytes(config.getEncoding())));
   }
   
   /**
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.model.group.processor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.commons.lang3.Validate;
+
+import ro.isdc.wro.config.Context;
+import ro.isdc.wro.model.resource.ResourceType;
+import ro.isdc.wro.model.resource.processor.ProcessorsUtils;
+import ro.isdc.wro.model.resource.processor.Uncacheable;
+import ro.isdc.wro.model.resource.processor.decorator.ExceptionHandlingProcessorDecorator;
+import ro.isdc.wro.model.resource.processor.factory.ProcessorsFactory;
+import ro.isdc.wro.util.AbstractDecorator;
+
+
+/**
+ * Holds the processors to apply for each {@link ResourceType} and minimize flag, already filtered and decorated. A
+ * chain is computed once for each combination and reused for all resources, until the processors provided by the
+ * {@link ProcessorsFactory} change. Thread safe.
+ *
+ * @param <T>
+ *          the type of processors (pre or post processors).
+ * @since 1.4.7
+ */
+abstract class ProcessorChains<T> {
+  /**
+   * The chains built from the last known processors.
+   */
+  private volatile State<T> state;
+
+
+  /**
+   * @param processors
+   *          all the processors provided by the {@link ProcessorsFactory}.
+   * @return the chain of processors to apply on resources of the provided type.
+   */
+  public final Chain<T> get(final Collection<T> processors, final ResourceType type, final boolean minimize) {
+    Validate.notNull(processors);
+    Validate.notNull(type);
+    State<T> current = state;
+    if (current == null || !current.isBuiltFrom(processors)) {
+      current = new State<T>(processors);
+      state = current;
+    }
+    final int index = type.ordinal() * 2 + (minimize ? 1 : 0);
+    Chain<T> chain = current.chains.get(index);
+    if (chain == null) {
+      current.chains.compareAndSet(index, null, newChain(current.processors, type, minimize));
+      chain = current.chains.get(index);
+    }
+    return chain;
+  }
+
+
+  private Chain<T> newChain(final List<T> processors, final ResourceType type, final boolean minimize) {
+    final List<T> filtered = new ArrayList<T>(ProcessorsUtils.filterProcessorsToApply(minimize, type, processors));
+    final List<ExceptionHandlingProcessorDecorator> decorated = new ArrayList<ExceptionHandlingProcessorDecorator>();
+    for (final T processor : filtered) {
+      decorated.add(decorate(processor));
+    }
+    return new Chain<T>(filtered, decorated);
+  }
+
+
+  /**
+   * Decorates the processor with mandatory decorators.
+   */
+  protected abstract ExceptionHandlingProcessorDecorator decorate(final T processor);
+
+
+  /**
+   * The chains built from a snapshot of processors.
+   */
+  private static final class State<T> {
+    private final List<T> processors;
+    private final AtomicReferenceArray<Chain<T>> chains;
+
+
+    State(final Collection<T> processors) {
+      this.processors = new ArrayList<T>(processors);
+      this.chains = new AtomicReferenceArray<Chain<T>>(ResourceType.values().length * 2);
+    }
+
+
+    /**
+     * @return true if the provided processors are the same instances, in the same order, as the snapshot.
+     */
+    boolean isBuiltFrom(final Collection<T> other) {
+      if (other.size() != processors.size()) {
+        return false;
+      }
+      final Iterator<T> iterator = other.iterator();
+      for (final T processor : processors) {
+        if (processor != iterator.next()) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+
+  /**
+   * The processors to apply for a {@link ResourceType} and minimize flag, along with their decorated version.
+   */
+  static final class Chain<T> {
+    private final List<T> processors;
+    private final List<ExceptionHandlingProcessorDecorator> decoratedProcessors;
+    private final boolean[] uncacheable;
+    /**
+     * The injector and the context used for the last injection. The processors hold the objects of the
+     * {@link Context}, so they are injected again only when it changes (usually once per request).
+     */
+    private volatile Injector injectedBy;
+    private volatile Context injectedContext;
+
+
+    Chain(final List<T> processors, final List<ExceptionHandlingProcessorDecorator> decoratedProcessors) {
+      this.processors = Collections.unmodifiableList(processors);
+      this.decoratedProcessors = Collections.unmodifiableList(decoratedProcessors);
+      this.uncacheable = new boolean[processors.size()];
+      for (int i = 0; i < uncacheable.length; i++) {
+        uncacheable[i] = AbstractDecorator.getOriginalDecoratedObject(processors.get(i)).getClass().isAnnotationPresent(
+            Uncacheable.class);
+      }
+    }
+
+
+    /**
+     * Injects the decorated processors, unless they were already injected using the same injector in the current
+     * context.
+     */
+    public void inject(final Injector injector) {
+      final Context context = Context.isContextSet() ? Context.get() : null;
+      if (injectedBy != injector || injectedContext != context) {
+        for (final ExceptionHandlingProcessorDecorator processor : decoratedProcessors) {
+          injector.inject(processor);
+        }
+        injectedContext = context;
+        injectedBy = injector;
+      }
+    }
+
+
+    /**
+     * @return the processors of this chain, as provided by the {@link ProcessorsFactory}.
+     */
+    public List<T> getProcessors() {
+      return processors;
+    }
+
+
+    /**
+     * @return the processors to apply, in the same order as {@link #getProcessors()}.
+     */
+    public List<ExceptionHandlingProcessorDecorator> getDecoratedProcessors() {
+      return decoratedProcessors;
+    }
+
+
+    /**
+     * @return true if the processor at the provided index is annotated with {@link Uncacheable}.
+     */
+    public boolean isUncacheable(final int index) {
+      return uncacheable[index];
+    }
+
+
+    public boolean isEmpty() {
+      return processors.isEmpty();
+    }
+  }
+}
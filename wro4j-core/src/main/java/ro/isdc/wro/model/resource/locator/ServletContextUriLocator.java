@@ -184,6 +184,10 @@ public class ServletContextUriLocator
       throws IOException {
     final HttpServletRequest request = context.getRequest();
     final HttpServletResponse response = context.getResponse();
+    if (request == null || response == null) {
+      // happens when the resources are processed before any request (ex: during warm-up)
+      throw new IOException("Cannot dispatch " + uri + " outside of the request cycle");
+    }
     // The order of stream retrieval is important. We are trying to get the dispatcherStreamLocator in order to handle
     // jsp resources (if such exist). Switching the order would cause jsp to not be interpreted by the container.
     return dispatcherStreamLocator.getInputStream(request, response, uri);
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.model.resource.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import ro.isdc.wro.config.jmx.WroConfiguration;
+import ro.isdc.wro.model.resource.Resource;
+
+
+/**
+ * A processor which doesn't need the content to process as a {@link String}. The content is supplied as a
+ * {@link CharSequence}, usually the buffer holding the result of the previous processor in the chain, and the result is
+ * written incrementally to the {@link Writer}. This way, the processing chain doesn't create a copy of the whole content
+ * for each processor.
+ * <p/>
+ * This interface is implemented together with {@link ResourcePreProcessor} and/or {@link ResourcePostProcessor}. When
+ * the processors are applied by wro4j, this method is preferred over the one using a {@link java.io.Reader}. Both
+ * methods must produce the same result.
+ *
+ * @since 1.4.7
+ */
+public interface StreamingProcessor {
+  /**
+   * Process the supplied content and write the result to the writer. The content must not be modified or retained after
+   * this method returns, because its buffer is reused. When the processing fails, the behavior is controlled by
+   * {@link WroConfiguration#isIgnoreFailingProcessor()}, the same way as for {@link ResourcePreProcessor}.
+   * <br/>
+   * It is not required to close the writer, because it will be closed for you.
+   *
+   * @param resource
+   *          the original resource as it found in the model. Can be null when used as a post processor.
+   * @param content
+   *          the content to process.
+   * @param writer
+   *          {@link Writer} used to write processed results.
+   */
+  void process(final Resource resource, final CharSequence content, final Writer writer)
+      throws IOException;
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright Alex Objelean
+ */
+package ro.isdc.wro.model.resource.processor;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import ro.isdc.wro.model.group.processor.PreProcessedContentCache;
+
+
+/**
+ * Used to identify processors whose result doesn't depend only on the processed content and the processed resource
+ * (ex: it depends on the request, on other resources or on external configuration). The result of such processors is
+ * never stored in the {@link PreProcessedContentCache}. This annotation is inherited, because classes which extend a
+ * super class having this annotation will also depend on the same external state.
+ *
+ * @since 1.4.7
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Documented
+@Inherited
+public @interface Uncacheable {
+}
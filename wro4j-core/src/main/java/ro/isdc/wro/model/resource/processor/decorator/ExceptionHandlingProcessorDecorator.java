@@ -7,6 +7,7 @@ import java.io.StringWriter;
 import java.io.Writer;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.StringBuilderWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -14,6 +15,7 @@ import ro.isdc.wro.WroRuntimeException;
 import ro.isdc.wro.config.jmx.WroConfiguration;
 import ro.isdc.wro.model.group.Inject;
 import ro.isdc.wro.model.resource.Resource;
+import ro.isdc.wro.model.resource.processor.support.ProcessingContext;
 
 /**
  * Responsible for handling exception thrown by decorated processor. If the processing fails, the behavior will vary based on the {@link WroConfiguration#isIgnoreFailingProcessor()} flag:
@@ -29,6 +31,12 @@ import ro.isdc.wro.model.resource.Resource;
 public class ExceptionHandlingProcessorDecorator
     extends ProcessorDecorator {
   private static final Logger LOG = LoggerFactory.getLogger(ExceptionHandlingProcessorDecorator.class);
+  /**
+   * Attribute set on the opened {@link ProcessingContext} (if any) when a failure is ignored, because the unchanged
+   * content written instead is not the result of the processing.
+   */
+  public static final String ATTR_FAILURE_IGNORED = ExceptionHandlingProcessorDecorator.class.getName()
+    + ".failureIgnored";
   @Inject
   private WroConfiguration config;
   
@@ -55,22 +63,57 @@ public class ExceptionHandlingProcessorDecorator
       super.process(resource, innerReader, innerWriter);
       writer.write(innerWriter.toString());
     } catch (final Exception e) {
-      final String processorName = getOriginalDecoratedObject().getClass().getSimpleName();
-      LOG.debug("Failed to process the resource: {} using processor: {}", resource, processorName);
-      if (isIgnoreFailingProcessor()) {
-        writer.write(resourceContent);
-        // don't wrap exception unless required
-      } else if (e instanceof RuntimeException) {
-        throw (RuntimeException) e;
-      } else {
-        throw new WroRuntimeException("The processor: " + processorName + " failed", e);
-      }
+      onProcessingFailure(e, resource, resourceContent, writer);
     } finally {
       reader.close();
       writer.close();
     }
   }
 
+  /**
+   * When the writer holds its content in a buffer, the decorated processor writes directly into it and the partial
+   * result is discarded if the processing fails. This way, neither the content nor the result is copied.
+   */
+  @Override
+  public void process(final Resource resource, final CharSequence content, final Writer writer)
+      throws IOException {
+    if (!(writer instanceof StringBuilderWriter)) {
+      super.process(resource, content, writer);
+      return;
+    }
+    final StringBuilder buffer = ((StringBuilderWriter) writer).getBuilder();
+    final int initialLength = buffer.length();
+    try {
+      processDecorated(resource, content, writer);
+    } catch (final Exception e) {
+      buffer.setLength(initialLength);
+      onProcessingFailure(e, resource, content, writer);
+    } finally {
+      writer.close();
+    }
+  }
+
+  /**
+   * Writes the unchanged content if the failure should be ignored, otherwise propagates the exception.
+   */
+  private void onProcessingFailure(final Exception e, final Resource resource, final CharSequence content,
+      final Writer writer)
+      throws IOException {
+    final String processorName = getOriginalDecoratedObject().getClass().getSimpleName();
+    LOG.debug("Failed to process the resource: {} using processor: {}", resource, processorName);
+    if (isIgnoreFailingProcessor()) {
+      writer.append(content);
+      if (ProcessingContext.isContextOpened()) {
+        ProcessingContext.get().setAttribute(ATTR_FAILURE_IGNORED, Boolean.TRUE);
+      }
+      // don't wrap exception unless required
+    } else if (e instanceof RuntimeException) {
+      throw (RuntimeException) e;
+    } else {
+      throw new WroRuntimeException("The processor: " + processorName + " failed", e);
+    }
+  }
+
   /**
    * @return true if the failure should be ignored. By default uses the {@link WroConfiguration} to get the flag value.
    */
@@ -4,8 +4,11 @@ import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
 
+import org.apache.commons.io.input.CharSequenceReader;
+
 import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.model.resource.processor.StreamingProcessor;
 import ro.isdc.wro.util.LazyInitializer;
 
 
@@ -16,7 +19,7 @@ import ro.isdc.wro.util.LazyInitializer;
  * @since 1.4.6
  */
 public final class LazyProcessorDecorator
-    extends AbstractProcessorDecoratorSupport {
+    extends AbstractProcessorDecoratorSupport implements StreamingProcessor {
   private LazyInitializer<ResourcePreProcessor> processorInitializer;
   
   public LazyProcessorDecorator(final LazyInitializer<ResourcePreProcessor> processor) {
@@ -38,4 +41,17 @@ public final class LazyProcessorDecorator
       throws IOException {
     processorInitializer.get().process(resource, reader, writer);
   }
+
+  /**
+   * {@inheritDoc}
+   */
+  public void process(final Resource resource, final CharSequence content, final Writer writer)
+      throws IOException {
+    final ResourcePreProcessor processor = processorInitializer.get();
+    if (processor instanceof StreamingProcessor) {
+      ((StreamingProcessor) processor).process(resource, content, writer);
+    } else {
+      processor.process(resource, new CharSequenceReader(content), writer);
+    }
+  }
 }
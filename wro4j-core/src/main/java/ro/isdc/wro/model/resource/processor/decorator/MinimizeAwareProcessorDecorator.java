@@ -54,10 +54,7 @@ public class MinimizeAwareProcessorDecorator
   public void process(final Resource resource, final Reader reader, final Writer writer)
       throws IOException {
     final ResourcePreProcessor processor = getDecoratedObject();
-    // apply processor only when minimize is required or the processor is not minimize aware
-    final boolean applyProcessor = (resource != null && resource.isMinimize() && minimize)
-        || (resource == null && minimize) || !isMinimize();
-    if (applyProcessor) {
+    if (isApplicable(resource)) {
       LOG.debug("Using Processor: {}", processor);
       processor.process(resource, reader, writer);
     } else {
@@ -65,4 +62,26 @@ public class MinimizeAwareProcessorDecorator
       IOUtils.copy(reader, writer);
     }
   }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void process(final Resource resource, final CharSequence content, final Writer writer)
+      throws IOException {
+    if (isApplicable(resource)) {
+      LOG.debug("Using Processor: {}", getDecoratedObject());
+      processDecorated(resource, content, writer);
+    } else {
+      LOG.debug("Skipping processor: {}", getDecoratedObject());
+      writer.append(content);
+    }
+  }
+
+  /**
+   * @return true if the processor should be applied: when minimize is required or the processor is not minimize aware.
+   */
+  private boolean isApplicable(final Resource resource) {
+    return (resource != null && resource.isMinimize() && minimize) || (resource == null && minimize) || !isMinimize();
+  }
 }
@@ -7,6 +7,7 @@ import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
 
+import org.apache.commons.io.input.CharSequenceReader;
 import org.apache.commons.lang3.Validate;
 
 import ro.isdc.wro.model.resource.Resource;
@@ -14,6 +15,7 @@ import ro.isdc.wro.model.resource.ResourceType;
 import ro.isdc.wro.model.resource.SupportedResourceType;
 import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.model.resource.processor.StreamingProcessor;
 
 
 /**
@@ -25,11 +27,15 @@ import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
  * @since 1.4.1
  */
 public class ProcessorDecorator
-  extends AbstractProcessorDecoratorSupport {
+  extends AbstractProcessorDecoratorSupport implements StreamingProcessor {
   /**
    * Decorated processor.
    */
   private final ResourcePreProcessor decoratedProcessor;
+  /**
+   * The decorated processor, if it is a {@link StreamingProcessor}. Otherwise null.
+   */
+  private final StreamingProcessor streamingProcessor;
 
   /**
    * Hides the postProcessor adaptation logic. This exist due to differences between pre & post processor interface.
@@ -42,6 +48,7 @@ public class ProcessorDecorator
     } else if (processor instanceof ResourcePostProcessor) {
       this.decoratedProcessor = toPreProcessor((ResourcePostProcessor) processor);
     } else throw new IllegalArgumentException("Invalid processor: " + processor); 
+    this.streamingProcessor = processor instanceof StreamingProcessor ? (StreamingProcessor) processor : null;
   }
 
   /**
@@ -83,6 +90,29 @@ public class ProcessorDecorator
     decoratedProcessor.process(resource, reader, writer);
   }
 
+  /**
+   * Default implementation reads the content using {@link #process(Resource, Reader, Writer)}, in order to preserve the
+   * behavior of the subclasses overriding it. Subclasses which do not need to change the content before it reaches the
+   * decorated processor should override this method and use {@link #processDecorated(Resource, CharSequence, Writer)}.
+   */
+  public void process(final Resource resource, final CharSequence content, final Writer writer)
+      throws IOException {
+    process(resource, new CharSequenceReader(content), writer);
+  }
+
+  /**
+   * Apply the decorated processor on the content without copying it, if the decorated processor is a
+   * {@link StreamingProcessor}.
+   */
+  protected final void processDecorated(final Resource resource, final CharSequence content, final Writer writer)
+      throws IOException {
+    if (streamingProcessor != null) {
+      streamingProcessor.process(resource, content, writer);
+    } else {
+      decoratedProcessor.process(resource, new CharSequenceReader(content), writer);
+    }
+  }
+
   /**
    * Indicates if the processor is eligible for usage based on provided criteria.
    * 
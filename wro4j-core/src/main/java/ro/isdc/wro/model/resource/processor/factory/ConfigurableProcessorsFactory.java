@@ -5,6 +5,7 @@ package ro.isdc.wro.model.resource.processor.factory;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -50,6 +51,11 @@ public class ConfigurableProcessorsFactory implements ProcessorsFactory {
   private Properties properties;
   private Map<String, ResourcePreProcessor> preProcessorsMap;
   private Map<String, ResourcePostProcessor> postProcessorsMap;
+  /**
+   * The processors parsed from the properties, reused as long as the property value and the map are the same.
+   */
+  private volatile ParsedItems<ResourcePreProcessor> parsedPreProcessors;
+  private volatile ParsedItems<ResourcePostProcessor> parsedPostProcessors;
 
   /**
    * @return default implementation of {@link Properties} containing the list of pre & post processors.
@@ -94,7 +100,13 @@ public class ConfigurableProcessorsFactory implements ProcessorsFactory {
    */
   public final Collection<ResourcePreProcessor> getPreProcessors() {
     final String processorsAsString = getProperties().getProperty(PARAM_PRE_PROCESSORS);
-    return getListOfItems(processorsAsString, getPreProcessorsMap());
+    final Map<String, ResourcePreProcessor> map = getPreProcessorsMap();
+    ParsedItems<ResourcePreProcessor> parsed = parsedPreProcessors;
+    if (parsed == null || !parsed.isParsedFrom(processorsAsString, map)) {
+      parsed = new ParsedItems<ResourcePreProcessor>(processorsAsString, map);
+      parsedPreProcessors = parsed;
+    }
+    return parsed.items;
   }
 
   /**
@@ -102,7 +114,13 @@ public class ConfigurableProcessorsFactory implements ProcessorsFactory {
    */
   public final Collection<ResourcePostProcessor> getPostProcessors() {
     final String processorsAsString = getProperties().getProperty(PARAM_POST_PROCESSORS);
-    return getListOfItems(processorsAsString, getPostProcessorsMap());
+    final Map<String, ResourcePostProcessor> map = getPostProcessorsMap();
+    ParsedItems<ResourcePostProcessor> parsed = parsedPostProcessors;
+    if (parsed == null || !parsed.isParsedFrom(processorsAsString, map)) {
+      parsed = new ParsedItems<ResourcePostProcessor>(processorsAsString, map);
+      parsedPostProcessors = parsed;
+    }
+    return parsed.items;
   }
 
   /**
@@ -207,4 +225,24 @@ public class ConfigurableProcessorsFactory implements ProcessorsFactory {
     }
     return this.postProcessorsMap;
   }
+
+  /**
+   * The unmodifiable list of processors parsed from a comma separated list of items. Parsing the same value again
+   * would create new decorator instances, so the result is reused in order to be stable across calls.
+   */
+  private static final class ParsedItems<T> {
+    private final String itemsAsString;
+    private final Map<String, T> map;
+    private final List<T> items;
+
+    ParsedItems(final String itemsAsString, final Map<String, T> map) {
+      this.itemsAsString = itemsAsString;
+      this.map = map;
+      this.items = Collections.unmodifiableList(getListOfItems(itemsAsString, map));
+    }
+
+    boolean isParsedFrom(final String itemsAsString, final Map<String, T> map) {
+      return this.map == map && StringUtils.equals(this.itemsAsString, itemsAsString);
+    }
+  }
 }
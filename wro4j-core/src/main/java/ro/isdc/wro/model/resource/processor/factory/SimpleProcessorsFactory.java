@@ -35,13 +35,20 @@ public class SimpleProcessorsFactory
    * a list of post processors.
    */
   private final Collection<ResourcePostProcessor> postProcessors = new ArrayList<ResourcePostProcessor>();
+  /**
+   * The read-only views returned by getters, created once in order to return the same instance on each call.
+   */
+  private final Collection<ResourcePreProcessor> readOnlyPreProcessors =
+      Collections.unmodifiableCollection(preProcessors);
+  private final Collection<ResourcePostProcessor> readOnlyPostProcessors =
+      Collections.unmodifiableCollection(postProcessors);
 
 
   /**
    * {@inheritDoc}
    */
   public Collection<ResourcePreProcessor> getPreProcessors() {
-    return Collections.unmodifiableCollection(preProcessors);
+    return readOnlyPreProcessors;
   }
 
 
@@ -49,7 +56,7 @@ public class SimpleProcessorsFactory
    * {@inheritDoc}
    */
   public Collection<ResourcePostProcessor> getPostProcessors() {
-    return Collections.unmodifiableCollection(postProcessors);
+    return readOnlyPostProcessors;
   }
 
 
@@ -12,6 +12,7 @@ import org.apache.commons.io.IOUtils;
 import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.model.resource.processor.StreamingProcessor;
 import ro.isdc.wro.util.WroUtil;
 
 
@@ -22,20 +23,14 @@ import ro.isdc.wro.util.WroUtil;
  * @created Created on Nov 28, 2008
  */
 public class CommentStripperProcessor
-  implements ResourcePreProcessor, ResourcePostProcessor {
+  implements ResourcePreProcessor, ResourcePostProcessor, StreamingProcessor {
   /**
    * {@inheritDoc}
    */
   public void process(final Resource resource, final Reader reader, final Writer writer)
     throws IOException {
     try {
-      final String content = IOUtils.toString(reader);
-      // apply single line comment stripper processor first
-      String result = SingleLineCommentStripperProcessor.PATTERN.matcher(content).replaceAll("");
-      // apply multi line comment stripper processor after
-      result = MultiLineCommentStripperProcessor.PATTERN.matcher(result).replaceAll("");
-      result = WroUtil.EMTPY_LINE_PATTERN.matcher(result).replaceAll("");
-      writer.write(result);
+      process(resource, IOUtils.toString(reader), writer);
     } finally {
       reader.close();
       writer.close();
@@ -43,6 +38,21 @@ public class CommentStripperProcessor
   }
 
 
+  /**
+   * {@inheritDoc}
+   */
+  public void process(final Resource resource, final CharSequence content, final Writer writer)
+    throws IOException {
+    // apply single line comment stripper processor first
+    final StringBuilder withoutSingleLine = new StringBuilder(content.length());
+    WroUtil.removeAll(SingleLineCommentStripperProcessor.PATTERN, content, withoutSingleLine);
+    // apply multi line comment stripper processor after
+    final StringBuilder result = new StringBuilder(withoutSingleLine.length());
+    WroUtil.removeAll(MultiLineCommentStripperProcessor.PATTERN, withoutSingleLine, result);
+    WroUtil.removeAll(WroUtil.EMTPY_LINE_PATTERN, result, writer);
+  }
+
+
   /**
    * {@inheritDoc}
    */
@@ -13,6 +13,7 @@ import org.apache.commons.io.IOUtils;
 import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.model.resource.processor.StreamingProcessor;
 import ro.isdc.wro.util.WroUtil;
 
 
@@ -23,7 +24,7 @@ import ro.isdc.wro.util.WroUtil;
  * @created Created on Nov 28, 2008
  */
 public class MultiLineCommentStripperProcessor
-  implements ResourcePreProcessor, ResourcePostProcessor {
+  implements ResourcePreProcessor, ResourcePostProcessor, StreamingProcessor {
   /**
    * Pattern containing a regex matching multiline comments & empty new lines.
    */
@@ -37,10 +38,7 @@ public class MultiLineCommentStripperProcessor
   public void process(final Resource resource, final Reader source, final Writer destination)
     throws IOException {
     try {
-      final String content = IOUtils.toString(source);
-      String result = PATTERN.matcher(content).replaceAll("");
-      result = WroUtil.EMTPY_LINE_PATTERN.matcher(result).replaceAll("");
-      destination.write(result);
+      process(resource, IOUtils.toString(source), destination);
     } finally {
       source.close();
       destination.close();
@@ -48,6 +46,17 @@ public class MultiLineCommentStripperProcessor
   }
 
 
+  /**
+   * {@inheritDoc}
+   */
+  public void process(final Resource resource, final CharSequence content, final Writer writer)
+    throws IOException {
+    final StringBuilder result = new StringBuilder(content.length());
+    WroUtil.removeAll(PATTERN, content, result);
+    WroUtil.removeAll(WroUtil.EMTPY_LINE_PATTERN, result, writer);
+  }
+
+
   /**
    * {@inheritDoc}
    */
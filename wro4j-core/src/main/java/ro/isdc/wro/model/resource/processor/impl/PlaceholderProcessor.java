@@ -19,6 +19,7 @@ import ro.isdc.wro.WroRuntimeException;
 import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.model.resource.processor.Uncacheable;
 import ro.isdc.wro.util.ObjectFactory;
 
 
@@ -30,6 +31,7 @@ import ro.isdc.wro.util.ObjectFactory;
  * @since 1.3.8
  * @created 15 Jun 2011
  */
+@Uncacheable
 public class PlaceholderProcessor
   implements ResourcePreProcessor, ResourcePostProcessor {
   private static final Logger LOG = LoggerFactory.getLogger(PlaceholderProcessor.class);
@@ -13,6 +13,7 @@ import org.apache.commons.io.IOUtils;
 import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.model.resource.processor.StreamingProcessor;
 import ro.isdc.wro.util.WroUtil;
 
 
@@ -24,7 +25,7 @@ import ro.isdc.wro.util.WroUtil;
  * @created Created on Nov 28, 2008
  */
 public class SingleLineCommentStripperProcessor
-  implements ResourcePreProcessor, ResourcePostProcessor {
+  implements ResourcePreProcessor, ResourcePostProcessor, StreamingProcessor {
   /**
    * Pattern containing a regex matching singleline comments & preceding empty spaces & tabs.
    */
@@ -37,10 +38,7 @@ public class SingleLineCommentStripperProcessor
   public void process(final Resource resource, final Reader reader, final Writer writer)
     throws IOException {
     try {
-      final String content = IOUtils.toString(reader);
-      String result = PATTERN.matcher(content).replaceAll("");
-      result = WroUtil.EMTPY_LINE_PATTERN.matcher(result).replaceAll("");
-      writer.write(result);
+      process(resource, IOUtils.toString(reader), writer);
     } finally {
       reader.close();
       writer.close();
@@ -48,6 +46,17 @@ public class SingleLineCommentStripperProcessor
   }
 
 
+  /**
+   * {@inheritDoc}
+   */
+  public void process(final Resource resource, final CharSequence content, final Writer writer)
+    throws IOException {
+    final StringBuilder result = new StringBuilder(content.length());
+    WroUtil.removeAll(PATTERN, content, result);
+    WroUtil.removeAll(WroUtil.EMTPY_LINE_PATTERN, result, writer);
+  }
+
+
   /**
    * {@inheritDoc}
    */
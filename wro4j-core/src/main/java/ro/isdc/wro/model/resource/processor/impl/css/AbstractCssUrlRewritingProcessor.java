@@ -6,12 +6,9 @@ package ro.isdc.wro.model.resource.processor.impl.css;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -22,29 +19,28 @@ import ro.isdc.wro.model.resource.SupportedResourceType;
 import ro.isdc.wro.model.resource.locator.UrlUriLocator;
 import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.model.resource.processor.Uncacheable;
+import ro.isdc.wro.model.resource.processor.support.CssUrlScanner;
+import ro.isdc.wro.model.resource.processor.support.CssUrlScanner.UrlHandler;
 import ro.isdc.wro.model.resource.processor.support.DataUriGenerator;
+import ro.isdc.wro.model.resource.processor.support.ProcessingContext;
 
 
 /**
  * A processor responsible for rewriting url's from inside the css resources.
+ * <p/>
+ * Each invocation opens a {@link ProcessingContext}, so the hooks invoked while the css is parsed can keep their state
+ * in {@link ProcessingContext#get()} instead of the processor fields, which are shared by all the threads.
  *
  * @author Alex Objelean
  * @created Created on 9 May, 2010
  */
 @SupportedResourceType(ResourceType.CSS)
+@Uncacheable
 public abstract class AbstractCssUrlRewritingProcessor
   implements ResourcePreProcessor, ResourcePostProcessor {
   private static final Logger LOG = LoggerFactory.getLogger(AbstractCssUrlRewritingProcessor.class);
 
-  /**
-   * Pattern used to identify the placeholders where the url rewriting will be performed.
-   */
-  private static final String PATTERN_PATH = "url\\s*\\((\\s*['\"]?((?:.*?|\\s*?))['\"]?\\s*)\\)|src\\s*=\\s*['\"]((?:.|\\s)*?)['\"]";
-  /**
-   * Compiled pattern.
-   */
-  private static final Pattern PATTERN = Pattern.compile(PATTERN_PATH, Pattern.CASE_INSENSITIVE);
-
   /**
    * {@inheritDoc}
    */
@@ -58,6 +54,7 @@ public abstract class AbstractCssUrlRewritingProcessor
    */
   public final void process(final Resource resource, final Reader reader, final Writer writer)
     throws IOException {
+    final ProcessingContext context = ProcessingContext.open(resource);
     try {
       final String cssUri = resource.getUri();
       LOG.debug("cssUri: {}", cssUri);
@@ -66,6 +63,7 @@ public abstract class AbstractCssUrlRewritingProcessor
       writer.write(result);
       onProcessCompleted();
     } finally {
+      context.close();
       reader.close();
       writer.close();
     }
@@ -80,36 +78,26 @@ public abstract class AbstractCssUrlRewritingProcessor
 
 
   /**
-   * Perform actual css parsing logic.
+   * Perform actual css parsing logic. The urls are found by {@link CssUrlScanner}, which takes a time proportional to
+   * the size of the css.
    *
    * @param cssContent to parse.
    * @param cssUri Uri of the css to parse.
    * @return parsed css.
    */
   private String parseCss(final String cssContent, final String cssUri) {
-    final Matcher matcher = PATTERN.matcher(cssContent);
-    final StringBuffer sb = new StringBuffer();
-    while (matcher.find()) {
-      final String oldMatch = matcher.group();
-
-      final String urlGroup = matcher.group(3) != null ? matcher.group(3) : matcher.group(2);
-      LOG.debug("urlGroup: {}", urlGroup);
-      //use urlContent to get rid of trailing spaces inside the url() construction
-      final String urlContent = matcher.group(1) != null ? matcher.group(1) : urlGroup;
-
-      Validate.notNull(urlGroup);
-      if (isReplaceNeeded(urlGroup)) {
-        final String replacedUrl = replaceImageUrl(cssUri, urlGroup);
-        LOG.debug("replaced old Url: [{}] with: [{}].", urlContent, StringUtils.abbreviate(replacedUrl, 40));
-        //prevent the IllegalArgumentException because of invalid characters like $ (@see issue381) The solution is
-        //from stackoverflow: @see http://stackoverflow.com/questions/947116/matcher-appendreplacement-with-literal-text
-        final String newReplacement = Matcher.quoteReplacement(oldMatch.replace(urlContent, replacedUrl));
+    return CssUrlScanner.rewrite(cssContent, new UrlHandler() {
+      public String replace(final String url) {
+        LOG.debug("urlGroup: {}", url);
+        if (!isReplaceNeeded(url)) {
+          return null;
+        }
+        final String replacedUrl = replaceImageUrl(cssUri, url);
+        LOG.debug("replaced old Url: [{}] with: [{}].", url, StringUtils.abbreviate(replacedUrl, 40));
         onUrlReplaced(replacedUrl);
-        matcher.appendReplacement(sb, newReplacement);
+        return replacedUrl;
       }
-    }
-    matcher.appendTail(sb);
-    return sb.toString();
+    });
   }
 
 
@@ -3,24 +3,35 @@
  */
 package ro.isdc.wro.model.resource.processor.impl.css;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
+import java.io.InputStream;
 
 import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.StringBuilderWriter;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import ro.isdc.wro.cache.CacheStrategy;
+import ro.isdc.wro.cache.Weigher;
+import ro.isdc.wro.cache.impl.TinyLfuMemoryCacheStrategy;
 import ro.isdc.wro.model.group.Inject;
 import ro.isdc.wro.model.resource.locator.factory.UriLocatorFactory;
 import ro.isdc.wro.model.resource.processor.support.DataUriGenerator;
+import ro.isdc.wro.model.resource.util.CRC32HashBuilder;
 
 
 /**
  * Rewrites background images by replacing the url with data uri of the image. If the replacement is not successful, it
  * is left unchanged.
  * <p/>
+ * The generated dataUris are cached and shared by all the instances, this way an image used by many stylesheets or
+ * groups is encoded only once. The entries are identified by the location and the fingerprint of the image, so a
+ * changed image is encoded again.
+ * <p/>
  * For more details, @see http://en.wikipedia.org/wiki/Data_URI_scheme
  *
  * @author Alex Objelean
@@ -33,11 +44,25 @@ public class CssDataUriPreProcessor
   /**
    * The size limit. Images larger than this limit won't be transformed (due to IE8 limitation).
    */
-  private static final int SIZE_LIMIT = 32 * 1024;;
+  private static final int SIZE_LIMIT = 32 * 1024;
+  /**
+   * Maximum number of chars of all the cached dataUris.
+   */
+  private static final long CACHE_SIZE = 4 * 1024 * 1024;
+  /**
+   * The generated dataUris, identified by the location and the fingerprint of the image.
+   */
+  private static final CacheStrategy<String, String> DATA_URI_CACHE = new TinyLfuMemoryCacheStrategy<String, String>(
+    CACHE_SIZE, new Weigher<String>() {
+      public long weigh(final String value) {
+        return value.length();
+      }
+    });
   /**
-   * Generates dataUri based on inputStream of the url's found inside the css resource.
+   * Generates dataUri based on inputStream of the url's found inside the css resource. It is not modified after its
+   * creation, so it is shared by all the threads.
    */
-  private DataUriGenerator dataUriGenerator;
+  private final DataUriGenerator dataUriGenerator = new DataUriGenerator();
   /**
    * Contains a {@link UriLocatorFactory} reference injected externally.
    */
@@ -72,10 +97,12 @@ public class CssDataUriPreProcessor
     }
     String result = imageUrl;
     try {
-      final String dataUri = getDataUriGenerator().generateDataURI(uriLocatorFactory.locate(fullPath), fileName);
-      if (replaceWithDataUri(dataUri)) {
-        result = dataUri;
-        LOG.debug("dataUri replacement: {}", StringUtils.abbreviate(dataUri, 30));
+      final byte[] bytes = getBytes(fullPath);
+      // the size is checked before encoding the image.
+      final int dataUriLength = getDataUriGenerator().getDataUriLength(bytes.length, fileName);
+      if (replaceWithDataUri(dataUriLength)) {
+        result = getDataUri(fullPath, bytes, fileName, dataUriLength);
+        LOG.debug("dataUri replacement: {}", StringUtils.abbreviate(result, 30));
       }
     } catch (final IOException e) {
       LOG.warn("Couldn't extract dataUri from:" + fullPath + ", because: " + e.getMessage());
@@ -83,24 +110,48 @@ public class CssDataUriPreProcessor
     return result;
   }
 
-  private DataUriGenerator getDataUriGenerator() {
-    if (dataUriGenerator == null) {
-      dataUriGenerator = new DataUriGenerator();
+  private byte[] getBytes(final String fullPath)
+    throws IOException {
+    final InputStream inputStream = uriLocatorFactory.locate(fullPath);
+    try {
+      return IOUtils.toByteArray(inputStream);
+    } finally {
+      inputStream.close();
     }
+  }
+
+  /**
+   * @return the cached dataUri of the image or a new one if the image wasn't encoded yet.
+   */
+  private String getDataUri(final String fullPath, final byte[] bytes, final String fileName, final int dataUriLength)
+    throws IOException {
+    final String key = fullPath + "|" + new CRC32HashBuilder().getHash(new ByteArrayInputStream(bytes));
+    String dataUri = DATA_URI_CACHE.get(key);
+    if (dataUri == null) {
+      final StringBuilderWriter writer = new StringBuilderWriter(dataUriLength);
+      getDataUriGenerator().generateDataURI(bytes, writer, fileName);
+      dataUri = writer.toString();
+      DATA_URI_CACHE.put(key, dataUri);
+    }
+    return dataUri;
+  }
+
+  private DataUriGenerator getDataUriGenerator() {
     return dataUriGenerator;
   }
 
   /**
-   * Decides whether the computed dataUri should replace the image url. It is useful when you want to limit the dataUri size.
-   * By default the size of dataUri is limited to 32KB (because IE8 has a 32KB limitation).
+   * Decides whether the dataUri should replace the image url. It is useful when you want to limit the dataUri size.
+   * By default the size of dataUri is limited to 32KB (because IE8 has a 32KB limitation). The decision is taken before
+   * encoding the image.
    *
-   * @param dataUri base64 encoded stream.
+   * @param dataUriSize the size of the dataUri, computed from the size of the image. Since a dataUri contains only ASCII
+   *          chars, this is both the number of chars and the number of bytes.
    * @return true if dataUri should replace original image url.
    */
-  protected boolean replaceWithDataUri(final String dataUri) throws UnsupportedEncodingException {
-    final byte[] bytes = dataUri.getBytes("UTF8");
-    final boolean exceedLimit = bytes.length >= SIZE_LIMIT;
-    LOG.debug("dataUri size: {}KB, limit exceeded: {}", bytes.length/1024, exceedLimit);
+  protected boolean replaceWithDataUri(final int dataUriSize) {
+    final boolean exceedLimit = dataUriSize >= SIZE_LIMIT;
+    LOG.debug("dataUri size: {}KB, limit exceeded: {}", dataUriSize / 1024, exceedLimit);
     return !exceedLimit;
   }
 
@@ -3,20 +3,33 @@
  */
 package ro.isdc.wro.model.resource.processor.impl.css;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
 import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BOMInputStream;
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import ro.isdc.wro.cache.CacheStrategy;
+import ro.isdc.wro.cache.impl.LruMemoryCacheStrategy;
+import ro.isdc.wro.config.Context;
 import ro.isdc.wro.config.jmx.WroConfiguration;
 import ro.isdc.wro.model.group.Inject;
 import ro.isdc.wro.model.group.processor.PreProcessorExecutor;
@@ -25,6 +38,10 @@ import ro.isdc.wro.model.resource.ResourceType;
 import ro.isdc.wro.model.resource.SupportedResourceType;
 import ro.isdc.wro.model.resource.locator.factory.UriLocatorFactory;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.model.resource.processor.Uncacheable;
+import ro.isdc.wro.model.resource.processor.decorator.ExceptionHandlingProcessorDecorator;
+import ro.isdc.wro.model.resource.processor.support.ProcessingContext;
+import ro.isdc.wro.model.resource.util.CRC32HashBuilder;
 import ro.isdc.wro.util.StringUtils;
 
 
@@ -32,14 +49,45 @@ import ro.isdc.wro.util.StringUtils;
  * CssImport Processor responsible for handling css <code>@import</code> statement. It is implemented as both:
  * preProcessor & postProcessor. It is necessary because preProcessor is responsible for updating model with found
  * imported resources, while post processor removes import occurrences.
+ * <p/>
+ * The whole tree of imports is resolved once for each processed resource: each imported resource is included only once
+ * (before the resource importing it first) and the recursive imports are ignored. The imports found in a css are cached
+ * by uri and content fingerprint, this way the css is not parsed again to find them. Each imported css is read once:
+ * the content read while resolving the tree is the one pre processed.
+ * <p/>
+ * The content and the pre processed content of an imported css are reused by all the resources of the group importing
+ * it. They are kept only while the group is processed (for the current {@link Context}), because the result of some
+ * pre processors (ex: the css url rewriting) depends on the request. The state of an invocation is not kept by the processor, so it can be
+ * used safely when the resources are pre processed in parallel.
  *
  * @author Alex Objelean
  */
 @SupportedResourceType(ResourceType.CSS)
+@Uncacheable
 public class CssImportPreProcessor
   implements ResourcePreProcessor {
   private static final Logger LOG = LoggerFactory.getLogger(CssImportPreProcessor.class);
   public static final String ALIAS = "cssImport";
+  /**
+   * Maximum number of css files whose imports are cached.
+   */
+  private static final int IMPORTS_CACHE_SIZE = 1024;
+  /**
+   * Attribute of the {@link ProcessingContext} opened while an imported resource is pre processed. Its value is the
+   * imported resource, whose own imports were already included by the resource importing it.
+   */
+  private static final String ATTR_IMPORTS_INCLUDED = CssImportPreProcessor.class.getName() + ".importsIncluded";
+  /**
+   * The absolute uris of the resources imported by a css, identified by its uri and the fingerprint of its content.
+   */
+  private final CacheStrategy<String, List<String>> importsCache = new LruMemoryCacheStrategy<String, List<String>>(
+    IMPORTS_CACHE_SIZE);
+  /**
+   * The imported resources read and pre processed for each {@link Context}, the entries of a finished request being
+   * garbage collected.
+   */
+  private final Map<Context, RequestImports> requestImports = Collections.synchronizedMap(
+    new WeakHashMap<Context, RequestImports>());
   /**
    * Contains a {@link UriLocatorFactory} reference injected externally.
    */
@@ -49,10 +97,6 @@ public class CssImportPreProcessor
   private PreProcessorExecutor preProcessorExecutor;
   @Inject
   private WroConfiguration configuration;
-  /**
-   * List of processed resources, useful for detecting deep recursion.
-   */
-  private final List<Resource> processed = new ArrayList<Resource>();
   /** The url pattern */
   private static final Pattern PATTERN = Pattern.compile("@import\\s*(?:url\\()?[\"']?([^\"')]+)[\"')]?\\)?;?", Pattern.CASE_INSENSITIVE);
 
@@ -63,9 +107,11 @@ public class CssImportPreProcessor
     throws IOException {
     validate();
     try {
-      final String result = parseCss(resource, reader);
-      writer.write(result);
-      processed.clear();
+      final String css = IOUtils.toString(reader);
+      if (!isImportsIncluded(resource)) {
+        writer.write(processImports(resource, css));
+      }
+      writer.write(removeImportStatements(css));
     } finally {
       reader.close();
       writer.close();
@@ -81,30 +127,158 @@ public class CssImportPreProcessor
   }
 
 
+  /**
+   * @return true if the resource is an imported resource being pre processed, whose imports were already included.
+   */
+  private boolean isImportsIncluded(final Resource resource) {
+    // this processor is uncacheable, so it uses the context opened by processImport, not a nested one.
+    return resource != null && ProcessingContext.isContextOpened()
+      && ProcessingContext.get().getAttribute(ATTR_IMPORTS_INCLUDED) == resource;
+  }
+
+
   /**
    * @param resource {@link Resource} to process.
-   * @param reader Reader for processed resource.
-   * @return css content with all imports processed.
+   * @param css the content of the processed resource.
+   * @return the merged content of all the resources imported (directly or not) by the processed resource.
    */
-  private String parseCss(final Resource resource, final Reader reader)
+  private String processImports(final Resource resource, final String css)
     throws IOException {
-    if (processed.contains(resource)) {
-      LOG.warn("Recursive import detected: " + resource);
+    final Map<String, String> imports = new LinkedHashMap<String, String>();
+    collectImports(resource.getUri(), css, new HashSet<String>(), new HashSet<String>(), imports);
+    if (imports.isEmpty()) {
       return "";
     }
-    processed.add(resource);
-    final StringBuffer sb = new StringBuffer();
-    final List<Resource> importsCollector = getImportedResources(resource);
-    // for now, minimize always
-    // TODO: find a way to get minimize property dynamically.
-    //groupExtractor.isMinimized(Context.get().getRequest())
-    sb.append(preProcessorExecutor.processAndMerge(importsCollector, true));
-    if (!importsCollector.isEmpty()) {
-      LOG.debug("Imported resources found : {}", importsCollector.size());
+    LOG.debug("Imported resources found : {}", imports.keySet());
+    final RequestImports requestImports = getRequestImports();
+    final Map<String, String> processed = requestImports == null ? null : requestImports.processed;
+    final StringBuffer result = new StringBuffer();
+    for (final Map.Entry<String, String> entry : imports.entrySet()) {
+      result.append(processImport(entry.getKey(), entry.getValue(), processed));
+    }
+    return result.toString();
+  }
+
+
+  /**
+   * @return the imports of the current request or null if there is no {@link Context}.
+   */
+  private RequestImports getRequestImports() {
+    if (!Context.isContextSet()) {
+      return null;
+    }
+    synchronized (requestImports) {
+      final Context context = Context.get();
+      RequestImports imports = requestImports.get(context);
+      if (imports == null) {
+        imports = new RequestImports();
+        requestImports.put(context, imports);
+      }
+      return imports;
+    }
+  }
+
+
+  /**
+   * Pre processes an imported css, unless it was already pre processed for the current request.
+   *
+   * @param uri the uri of the imported css.
+   * @param css the content of the imported css or null if it cannot be read.
+   * @param processed the pre processed imports of the current request, can be null.
+   * @return the pre processed content of the imported css.
+   */
+  private String processImport(final String uri, final String css, final Map<String, String> processed)
+    throws IOException {
+    final Resource importedResource = Resource.create(uri, ResourceType.CSS);
+    if (css == null) {
+      // the executor handles the missing resource, as configured.
+      return preProcessorExecutor.processAndMerge(Collections.singletonList(importedResource), true);
+    }
+    // the rewritten urls depend on the aggregated folder path
+    final String key = processed == null ? null : getKey(uri, css) + "|" + Context.get().getAggregatedFolderPath();
+    String result = processed == null ? null : processed.get(key);
+    if (result == null) {
+      boolean failureIgnored = false;
+      final ProcessingContext context = ProcessingContext.open(importedResource);
+      try {
+        context.setAttribute(ATTR_IMPORTS_INCLUDED, importedResource);
+        // for now, minimize always
+        // TODO: find a way to get minimize property dynamically.
+        //groupExtractor.isMinimized(Context.get().getRequest())
+        result = preProcessorExecutor.process(importedResource, css, true);
+        failureIgnored = context.getAttribute(ExceptionHandlingProcessorDecorator.ATTR_FAILURE_IGNORED) != null;
+      } finally {
+        context.close();
+      }
+      if (failureIgnored) {
+        // the unchanged content written by an ignored failing processor must not be reused
+        if (ProcessingContext.isContextOpened()) {
+          ProcessingContext.get().setAttribute(ExceptionHandlingProcessorDecorator.ATTR_FAILURE_IGNORED, Boolean.TRUE);
+        }
+      } else if (processed != null) {
+        processed.put(key, result);
+      }
+    } else {
+      LOG.debug("Using pre processed imported resource: {}", uri);
+    }
+    return result;
+  }
+
+
+  /**
+   * Adds the resources imported by a css to the imports, each one after its own imports.
+   *
+   * @param uri the uri of the css.
+   * @param css the content of the css.
+   * @param visited the uris of all the css found so far.
+   * @param ancestors the uris of the css importing this one, used for detecting recursion.
+   * @param imports collects the uri and the content (null if it cannot be read) of the imported resources.
+   */
+  private void collectImports(final String uri, final String css, final Set<String> visited,
+    final Set<String> ancestors, final Map<String, String> imports)
+    throws IOException {
+    visited.add(uri);
+    ancestors.add(uri);
+    for (final String importUri : getImportedUris(uri, css)) {
+      if (ancestors.contains(importUri)) {
+        LOG.warn("Recursive import detected: " + importUri);
+      } else if (visited.contains(importUri)) {
+        LOG.debug("Resource already imported: {}", importUri);
+      } else {
+        final String importedCss = readImportedCss(importUri);
+        collectImports(importUri, importedCss == null ? "" : importedCss, visited, ancestors, imports);
+        imports.put(importUri, importedCss);
+      }
+    }
+    ancestors.remove(uri);
+  }
+
+
+  /**
+   * @return the content of an imported css or null if it cannot be read. The error is handled when the imported
+   *         resource is pre processed. A css imported by many resources is read once for the current request.
+   */
+  private String readImportedCss(final String uri) {
+    final RequestImports imports = getRequestImports();
+    final String cachedCss = imports == null ? null : imports.contents.get(uri);
+    if (cachedCss != null) {
+      return cachedCss;
+    }
+    try {
+      final InputStream is = new BOMInputStream(uriLocatorFactory.locate(uri));
+      try {
+        final String css = IOUtils.toString(is, configuration.getEncoding());
+        if (imports != null) {
+          imports.contents.put(uri, css);
+        }
+        return css;
+      } finally {
+        is.close();
+      }
+    } catch (final IOException e) {
+      LOG.debug("Cannot read imported resource: {}", uri);
+      return null;
     }
-    sb.append(IOUtils.toString(reader));
-    LOG.debug("importsCollector: {}", importsCollector);
-    return removeImportStatements(sb.toString());
   }
 
 
@@ -123,46 +297,67 @@ public class CssImportPreProcessor
   }
 
   /**
-   * Find a set of imported resources inside a given resource.
+   * Find the absolute uris of the resources imported by a css.
    */
-  private List<Resource> getImportedResources(final Resource resource)
+  private List<String> getImportedUris(final String uri, final String css)
     throws IOException {
-    // it should be sorted
-    final List<Resource> imports = new ArrayList<Resource>();
-    final String css = IOUtils.toString(uriLocatorFactory.locate(resource.getUri()),
-      configuration.getEncoding());
-    final Matcher m = PATTERN.matcher(css);
-    while (m.find()) {
-      final Resource importedResource = buildImportedResource(resource, m.group(1));
-      // check if already exist
-      if (imports.contains(importedResource)) {
-        LOG.warn("Duplicate imported resource: " + importedResource);
-      } else {
-        imports.add(importedResource);
+    final String key = getKey(uri, css);
+    List<String> imports = importsCache.get(key);
+    if (imports == null) {
+      // it should be sorted
+      imports = new ArrayList<String>();
+      final Matcher m = PATTERN.matcher(css);
+      while (m.find()) {
+        final String importUri = computeAbsoluteUrl(uri, m.group(1));
+        // check if already exist
+        if (imports.contains(importUri)) {
+          LOG.warn("Duplicate imported resource: " + importUri);
+        } else {
+          imports.add(importUri);
+        }
       }
+      imports = Collections.unmodifiableList(imports);
+      importsCache.put(key, imports);
     }
     return imports;
   }
 
 
   /**
-   * Build a {@link Resource} object from a found importedResource inside a given resource.
+   * @return the key identifying a css by its uri and the fingerprint of its content.
+   */
+  private String getKey(final String uri, final String css)
+    throws IOException {
+    final String fingerprint = new CRC32HashBuilder().getHash(
+      new ByteArrayInputStream(css.getBytes(configuration.getEncoding())));
+    return uri + "|" + fingerprint;
+  }
+
+
+  /**
+   * The imported resources of a single request. The resources of a group don't change while the group is processed.
    */
-  private Resource buildImportedResource(final Resource resource, final String importUrl) {
-    final String absoluteUrl = computeAbsoluteUrl(resource, importUrl);
-    return Resource.create(absoluteUrl, ResourceType.CSS);
+  private static final class RequestImports {
+    /**
+     * The content of the imported resources, by uri.
+     */
+    private final Map<String, String> contents = Collections.synchronizedMap(new HashMap<String, String>());
+    /**
+     * The pre processed content of the imported resources, by uri, content fingerprint and aggregated folder path.
+     */
+    private final Map<String, String> processed = Collections.synchronizedMap(new HashMap<String, String>());
   }
 
 
   /**
    * Computes absolute url of the imported resource.
    *
-   * @param relativeResource {@link Resource} where the import statement is found.
+   * @param relativeUri uri of the resource where the import statement is found.
    * @param importUrl found import url.
    * @return absolute url of the resource to import.
    */
-  private String computeAbsoluteUrl(final Resource relativeResource, final String importUrl) {
-    final String folder = FilenameUtils.getFullPath(relativeResource.getUri());
+  private String computeAbsoluteUrl(final String relativeUri, final String importUrl) {
+    final String folder = FilenameUtils.getFullPath(relativeUri);
     // remove '../' & normalize the path.
     final String absoluteImportUrl = StringUtils.cleanPath(folder + importUrl);
     return absoluteImportUrl;
@@ -125,26 +125,9 @@ public class CssUrlRewritingProcessor
    * A set of allowed url's.
    */
   private final Set<String> allowedUrls = Collections.synchronizedSet(new HashSet<String>());
-  /**
-   * Prefix of the path to the overwritten image url. This will be of the following type: "../" or "../.." depending on
-   * the depth of the aggregatedFolderPath.
-   */
-  private String aggregatedPathPrefix;
   @Inject
   private Context context;
   
-  /**
-   * The folder where the final css is located. This is important for computing image location after url rewriting.
-   * 
-   * @param aggregatedFolderPath
-   *          the aggregatedFolder to set
-   */
-  private CssUrlRewritingProcessor setAggregatedFolderPath(final String aggregatedFolderPath) {
-    aggregatedPathPrefix = computeAggregationPathPrefix(aggregatedFolderPath);
-    LOG.debug("computed aggregatedPathPrefix {}", aggregatedPathPrefix);
-    return this;
-  }
-  
   /**
    * {@inheritDoc}
    */
@@ -182,10 +165,10 @@ public class CssUrlRewritingProcessor
       if (ServletContextUriLocator.isProtectedResource(cssUri)) {
         return getUrlPrefix() + computeNewImageLocation(cssUri, imageUrl);
       }
-      // ensure the folder path is set
-      setAggregatedFolderPath(context.getAggregatedFolderPath());
-      LOG.debug("aggregatedPathPrefix: {}", this.aggregatedPathPrefix);
-      return computeNewImageLocation(this.aggregatedPathPrefix + cssUri, imageUrl);
+      // computed for each url, because the folder where the final css is located depends on the request.
+      final String aggregatedPathPrefix = computeAggregationPathPrefix(context.getAggregatedFolderPath());
+      LOG.debug("aggregatedPathPrefix: {}", aggregatedPathPrefix);
+      return computeNewImageLocation(aggregatedPathPrefix + cssUri, imageUrl);
     }
     if (UrlUriLocator.isValid(cssUri)) {
       return computeNewImageLocation(cssUri, imageUrl);
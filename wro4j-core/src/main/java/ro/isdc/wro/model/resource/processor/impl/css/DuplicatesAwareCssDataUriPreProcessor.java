@@ -3,12 +3,14 @@
  */
 package ro.isdc.wro.model.resource.processor.impl.css;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import ro.isdc.wro.model.resource.processor.support.ProcessingContext;
+
 
 /**
  * Similar to {@link CssDataUriPreProcessor} which instead of replacing a url blindly with dataUri, is is smart enough to
@@ -21,7 +23,10 @@ public class DuplicatesAwareCssDataUriPreProcessor
   extends CssDataUriPreProcessor {
   private static final Logger LOG = LoggerFactory.getLogger(DuplicatesAwareCssDataUriPreProcessor.class);
   public static final String ALIAS_DUPLICATE = "duplicateAwareCssDataUri";
-  private final List<String> imageUrls = new ArrayList<String>();
+  /**
+   * The attribute of the {@link ProcessingContext} holding the image urls found so far in the processed css.
+   */
+  private static final String ATTR_IMAGE_URLS = DuplicatesAwareCssDataUriPreProcessor.class.getName() + ".imageUrls";
 
   /**
    * Replace provided url with the new url if needed.
@@ -32,8 +37,7 @@ public class DuplicatesAwareCssDataUriPreProcessor
    */
   @Override
   protected final String replaceImageUrl(final String cssUri, final String imageUrl) {
-    if (!imageUrls.contains(imageUrl)) {
-      imageUrls.add(imageUrl);
+    if (getImageUrls().add(imageUrl)) {
       return super.replaceImageUrl(cssUri, imageUrl);
     }
     LOG.debug("duplicate Image url detected: '{}', skipping dataUri replacement", imageUrl);
@@ -41,10 +45,15 @@ public class DuplicatesAwareCssDataUriPreProcessor
   }
 
   /**
-   * {@inheritDoc}
+   * @return the image urls found so far in the css being processed by the current thread.
    */
-  @Override
-  protected void onProcessCompleted() {
-    imageUrls.clear();
+  private Set<String> getImageUrls() {
+    final ProcessingContext context = ProcessingContext.get();
+    Set<String> imageUrls = context.getAttribute(ATTR_IMAGE_URLS);
+    if (imageUrls == null) {
+      imageUrls = new HashSet<String>();
+      context.setAttribute(ATTR_IMAGE_URLS, imageUrls);
+    }
+    return imageUrls;
   }
 }
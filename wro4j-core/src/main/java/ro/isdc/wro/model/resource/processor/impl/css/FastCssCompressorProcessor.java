@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.model.resource.processor.impl.css;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+
+import org.apache.commons.io.IOUtils;
+
+import ro.isdc.wro.model.group.processor.Minimize;
+import ro.isdc.wro.model.resource.Resource;
+import ro.isdc.wro.model.resource.ResourceType;
+import ro.isdc.wro.model.resource.SupportedResourceType;
+import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
+import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.model.resource.processor.StreamingProcessor;
+import ro.isdc.wro.model.resource.processor.support.FastCssCompressor;
+import ro.isdc.wro.util.BoundedObjectPool;
+import ro.isdc.wro.util.ObjectFactory;
+
+
+/**
+ * A processor producing the same result as {@link CssCompressorProcessor}, using the single pass
+ * {@link FastCssCompressor} instead of the regular expressions of the YUI css compressor. This processor is annotated
+ * with {@link Minimize} because it performs minimization.
+ * <p/>
+ * The processor keeps a few idle {@link FastCssCompressor} instances, this way the buffers are not allocated again for
+ * each stylesheet.
+ *
+ * @since 1.4.7
+ */
+@Minimize
+@SupportedResourceType(ResourceType.CSS)
+public class FastCssCompressorProcessor
+  implements ResourcePreProcessor, ResourcePostProcessor, StreamingProcessor {
+  public static final String ALIAS = "fastCssCompressor";
+  /**
+   * The stylesheets larger than this number of chars are minified by a new {@link FastCssCompressor}, in order to not
+   * keep their buffers for the lifetime of the processor.
+   */
+  private static final int MAX_REUSED_LENGTH = 512 * 1024;
+  private final BoundedObjectPool<FastCssCompressor> enginePool = new BoundedObjectPool<FastCssCompressor>(
+    new ObjectFactory<FastCssCompressor>() {
+      public FastCssCompressor create() {
+        return new FastCssCompressor();
+      }
+    }, Runtime.getRuntime().availableProcessors());
+
+  /**
+   * {@inheritDoc}
+   */
+  public void process(final Resource resource, final Reader reader, final Writer writer)
+    throws IOException {
+    try {
+      process(resource, IOUtils.toString(reader), writer);
+    } finally {
+      reader.close();
+      writer.close();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public void process(final Resource resource, final CharSequence content, final Writer writer)
+    throws IOException {
+    if (content.length() > MAX_REUSED_LENGTH) {
+      new FastCssCompressor().compress(content, writer);
+      return;
+    }
+    final FastCssCompressor compressor = enginePool.getObject();
+    try {
+      compressor.compress(content, writer);
+    } finally {
+      enginePool.returnObject(compressor);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public void process(final Reader reader, final Writer writer)
+    throws IOException {
+    process(null, reader, writer);
+  }
+}
@@ -11,6 +11,8 @@ import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.ResourceType;
 import ro.isdc.wro.model.resource.SupportedResourceType;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.model.resource.processor.StreamingProcessor;
+import ro.isdc.wro.util.WroUtil;
 
 /**
  * A preProcessor, responsible for removing console.log(..) and console.debug(..) statements.
@@ -19,7 +21,7 @@ import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
  */
 @SupportedResourceType(ResourceType.JS)
 public class ConsoleStripperProcessor
-  implements ResourcePreProcessor {
+  implements ResourcePreProcessor, StreamingProcessor {
   public static final String ALIAS = "consoleStripper";
 
   /**
@@ -33,12 +35,18 @@ public class ConsoleStripperProcessor
   public void process(final Resource resource, final Reader reader, final Writer writer) 
     throws IOException {
     try {
-      final String content = IOUtils.toString(reader);
-      String result = ConsoleStripperProcessor.PATTERN.matcher(content).replaceAll("");
-      writer.write(result);
+      process(resource, IOUtils.toString(reader), writer);
     } finally {
       reader.close();
       writer.close();
     }
   }
+
+  /**
+   * {@inheritDoc}
+   */
+  public void process(final Resource resource, final CharSequence content, final Writer writer)
+    throws IOException {
+    WroUtil.removeAll(PATTERN, content, writer);
+  }
 }
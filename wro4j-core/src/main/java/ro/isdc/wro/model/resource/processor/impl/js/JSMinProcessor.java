@@ -4,30 +4,29 @@
 package ro.isdc.wro.model.resource.processor.impl.js;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.io.Reader;
 import java.io.Writer;
 
-import org.apache.commons.io.input.ProxyInputStream;
-import org.apache.commons.io.input.ReaderInputStream;
-import org.apache.commons.io.output.ProxyOutputStream;
-import org.apache.commons.io.output.WriterOutputStream;
+import org.apache.commons.io.IOUtils;
 
-import ro.isdc.wro.config.jmx.WroConfiguration;
-import ro.isdc.wro.model.group.Inject;
 import ro.isdc.wro.model.group.processor.Minimize;
 import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.ResourceType;
 import ro.isdc.wro.model.resource.SupportedResourceType;
 import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
-import ro.isdc.wro.model.resource.processor.support.JSMin;
+import ro.isdc.wro.model.resource.processor.StreamingProcessor;
+import ro.isdc.wro.model.resource.processor.support.FastJSMin;
+import ro.isdc.wro.util.BoundedObjectPool;
+import ro.isdc.wro.util.ObjectFactory;
 
 
 /**
  * Use JSMin utility for js compression. This processor is annotated with {@link Minimize} because it performs
  * minimization.
+ * <p/>
+ * The scripts are minified by {@link FastJSMin}. The processor keeps a few idle instances, this way the buffers are not
+ * allocated again for each script.
  *
  * @author Alex Objelean
  * @created Created on Nov 28, 2008
@@ -35,55 +34,67 @@ import ro.isdc.wro.model.resource.processor.support.JSMin;
 @Minimize
 @SupportedResourceType(ResourceType.JS)
 public class JSMinProcessor implements ResourcePreProcessor,
-    ResourcePostProcessor {
+    ResourcePostProcessor, StreamingProcessor {
   public static final String ALIAS = "jsMin";
-  @Inject
-  private WroConfiguration config;
-  private String encoding;
-  
+  /**
+   * The scripts larger than this number of chars are minified by a new {@link FastJSMin}, in order to not keep their
+   * buffers for the lifetime of the processor.
+   */
+  private static final int MAX_REUSED_LENGTH = 512 * 1024;
+  private final BoundedObjectPool<FastJSMin> enginePool = new BoundedObjectPool<FastJSMin>(
+      new ObjectFactory<FastJSMin>() {
+        public FastJSMin create() {
+          return new FastJSMin();
+        }
+      }, Runtime.getRuntime().availableProcessors());
+
   /**
    * {@inheritDoc}
    */
   public void process(final Resource resource, final Reader reader, final Writer writer)
       throws IOException {
     try {
-      final InputStream is = new ProxyInputStream(new ReaderInputStream(reader, getEncoding())) {};
-      final OutputStream os = new ProxyOutputStream(new WriterOutputStream(writer, getEncoding()));
-      
-      new JSMin(is, os).jsmin();
-      
-      is.close();
-      os.close();
-		} catch (final Exception e) {
-      throw new IOException(e);
-    } 
+      process(resource, IOUtils.toString(reader), writer);
+    } finally {
+      reader.close();
+      writer.close();
+    }
   }
 
   /**
    * {@inheritDoc}
    */
-  public void process(final Reader reader,
-      final Writer writer) throws IOException {
-    // resource Uri doesn't matter.
-    process(null, reader, writer);
+  public void process(final Resource resource, final CharSequence content, final Writer writer)
+      throws IOException {
+    if (content.length() > MAX_REUSED_LENGTH) {
+      new FastJSMin().minify(content).writeTo(writer);
+      return;
+    }
+    final FastJSMin jsMin = enginePool.getObject();
+    try {
+      jsMin.minify(content).writeTo(writer);
+    } finally {
+      enginePool.returnObject(jsMin);
+    }
   }
 
   /**
-   * @return the encoding
+   * {@inheritDoc}
    */
-  private String getEncoding() {
-    if (encoding == null) {
-      //use config is available to get encoding
-      this.encoding = config == null ? WroConfiguration.DEFAULT_ENCODING : config.getEncoding();
-    }
-    return encoding;
+  public void process(final Reader reader,
+      final Writer writer) throws IOException {
+    // resource Uri doesn't matter.
+    process(null, reader, writer);
   }
 
   /**
+   * The content is minified as characters, so the encoding is not used anymore.
+   *
    * @param encoding the encoding to set
+   * @deprecated the encoding is ignored.
    */
+  @Deprecated
   public JSMinProcessor setEncoding(final String encoding) {
-    this.encoding = encoding;
     return this;
   }
 }
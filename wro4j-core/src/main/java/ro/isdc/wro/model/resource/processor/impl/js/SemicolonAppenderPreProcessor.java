@@ -7,13 +7,11 @@ import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
 
-import org.apache.commons.io.IOUtils;
-import org.apache.commons.lang3.StringUtils;
-
 import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.ResourceType;
 import ro.isdc.wro.model.resource.SupportedResourceType;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.model.resource.processor.StreamingProcessor;
 
 
 /**
@@ -24,22 +22,30 @@ import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
  */
 @SupportedResourceType(ResourceType.JS)
 public class SemicolonAppenderPreProcessor
-  implements ResourcePreProcessor {
+  implements ResourcePreProcessor, StreamingProcessor {
   public static final String ALIAS = "semicolonAppender";
-  /**
-   * check if the last character is a semicolon and append only if one is missing.
-   */
-  private static final String PATTERN = "(?is).*;[\\s\\r\\n]*$";
+  private static final int BUFFER_SIZE = 4096;
 
   /**
-   * {@inheritDoc}
+   * Copies the content using a small buffer, without reading the whole script in memory.
    */
   public void process(final Resource resource, final Reader reader, final Writer writer)
     throws IOException {
     try {
-      final String script = IOUtils.toString(reader);
-      writer.write(script);
-      if (isSemicolonNeeded(script)) {
+      final char[] buffer = new char[BUFFER_SIZE];
+      boolean empty = true;
+      char lastChar = ' ';
+      int count;
+      while ((count = reader.read(buffer)) != -1) {
+        writer.write(buffer, 0, count);
+        for (int i = 0; i < count; i++) {
+          if (!isWhitespace(buffer[i])) {
+            lastChar = buffer[i];
+          }
+        }
+        empty = false;
+      }
+      if (isSemicolonNeeded(empty, lastChar)) {
         writer.write(';');
       }
     } finally {
@@ -49,10 +55,30 @@ public class SemicolonAppenderPreProcessor
   }
 
   /**
-   * @param script script to process.
+   * {@inheritDoc}
+   */
+  public void process(final Resource resource, final CharSequence content, final Writer writer)
+    throws IOException {
+    writer.append(content);
+    char lastChar = ' ';
+    for (int i = content.length() - 1; i >= 0 && isWhitespace(lastChar); i--) {
+      lastChar = content.charAt(i);
+    }
+    if (isSemicolonNeeded(content.length() == 0, lastChar)) {
+      writer.write(';');
+    }
+  }
+
+  /**
+   * @param empty true if the script is empty.
+   * @param lastChar the last non whitespace character of the script, or a whitespace if there is no such character.
    * @return true if the processed content requires semicolon.
    */
-  private boolean isSemicolonNeeded(final String script) {
-    return !(script.matches(PATTERN) || StringUtils.isEmpty(script));
+  private boolean isSemicolonNeeded(final boolean empty, final char lastChar) {
+    return !empty && lastChar != ';';
+  }
+
+  private boolean isWhitespace(final char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
   }
 }
@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.model.resource.processor.support;
+
+import org.apache.commons.lang3.Validate;
+
+
+/**
+ * Finds the urls referred by a css, in url(...) declarations and in the src='...' attributes of IE filters, and
+ * replaces them. It replaces a regular expression whose lazy alternation was backtracking badly on long single line
+ * (minimized) stylesheets: the css is scanned once and each closing char (parenthesis or quote) is searched only once,
+ * so the time is proportional to the size of the css whatever its content. The result is written into a single
+ * builder.
+ * <p/>
+ * The whole content of the url(...) declaration (including the quotes) is replaced, while only the value between the
+ * quotes of the src attribute is replaced.
+ *
+ * @since 1.4.7
+ */
+public class CssUrlScanner {
+  private static final int NOT_SEARCHED = -2;
+  private static final int NOT_FOUND = -1;
+
+  /**
+   * Decides how each url found in the css is replaced.
+   */
+  public static interface UrlHandler {
+    /**
+     * @param url
+     *          the url found in the css, without the surrounding quotes and whitespaces.
+     * @return the replacement of the url or null if the url must be left unchanged.
+     */
+    String replace(String url);
+  }
+
+  private final CharSequence css;
+  private final int length;
+  /**
+   * The index of the next closing char, reused by all the candidates found before it.
+   */
+  private int nextParenthesis = NOT_SEARCHED;
+  private int nextSingleQuote = NOT_SEARCHED;
+  private int nextDoubleQuote = NOT_SEARCHED;
+  /**
+   * The limits of the last match: the replaced content, the url and the end of the declaration.
+   */
+  private int contentStart;
+  private int contentEnd;
+  private int urlStart;
+  private int urlEnd;
+  private int matchEnd;
+
+
+  private CssUrlScanner(final CharSequence css) {
+    this.css = css;
+    this.length = css.length();
+  }
+
+
+  /**
+   * Replaces the urls of the css.
+   *
+   * @param css
+   *          the content of the css.
+   * @param handler
+   *          computes the replacement of each url.
+   * @return the css with the urls replaced.
+   */
+  public static String rewrite(final CharSequence css, final UrlHandler handler) {
+    Validate.notNull(css);
+    Validate.notNull(handler);
+    return new CssUrlScanner(css).rewrite(handler);
+  }
+
+
+  private String rewrite(final UrlHandler handler) {
+    final StringBuilder result = new StringBuilder(length + 16);
+    int copied = 0;
+    int i = 0;
+    while (i < length) {
+      final char c = css.charAt(i);
+      if (!((c == 'u' || c == 'U') && matchUrl(i)) && !((c == 's' || c == 'S') && matchSrc(i))) {
+        i++;
+        continue;
+      }
+      final String replacement = handler.replace(css.subSequence(urlStart, urlEnd).toString());
+      if (replacement != null) {
+        result.append(css, copied, contentStart).append(replacement);
+        copied = contentEnd;
+      }
+      i = matchEnd;
+    }
+    return result.append(css, copied, length).toString();
+  }
+
+
+  /**
+   * Matches the url(...) declaration starting at the supplied index.
+   */
+  private boolean matchUrl(final int start) {
+    if (!regionMatchesIgnoreCase(start, "url")) {
+      return false;
+    }
+    final int parenthesis = skipWhitespaces(start + 3);
+    if (parenthesis >= length || css.charAt(parenthesis) != '(') {
+      return false;
+    }
+    contentStart = parenthesis + 1;
+    final int quote = skipWhitespaces(contentStart);
+    if (quote < length && isQuote(css.charAt(quote))) {
+      final int closingQuote = indexOfQuote(css.charAt(quote), quote + 1);
+      if (closingQuote >= 0) {
+        final int closingParenthesis = skipWhitespaces(closingQuote + 1);
+        if (closingParenthesis < length && css.charAt(closingParenthesis) == ')') {
+          urlStart = quote + 1;
+          urlEnd = closingQuote;
+          contentEnd = closingParenthesis;
+          matchEnd = closingParenthesis + 1;
+          return true;
+        }
+      }
+    }
+    // unquoted url or unbalanced quotes: the url ends at the first closing parenthesis.
+    final int closingParenthesis = indexOfParenthesis(contentStart);
+    if (closingParenthesis < 0) {
+      return false;
+    }
+    urlStart = Math.min(quote < length && isQuote(css.charAt(quote)) ? quote + 1 : quote, closingParenthesis);
+    urlEnd = closingParenthesis;
+    while (urlEnd > urlStart && isWhitespace(css.charAt(urlEnd - 1))) {
+      urlEnd--;
+    }
+    if (urlEnd > urlStart && isQuote(css.charAt(urlEnd - 1))) {
+      urlEnd--;
+    }
+    contentEnd = closingParenthesis;
+    matchEnd = closingParenthesis + 1;
+    return true;
+  }
+
+
+  /**
+   * Matches the src='...' attribute starting at the supplied index.
+   */
+  private boolean matchSrc(final int start) {
+    if (!regionMatchesIgnoreCase(start, "src")) {
+      return false;
+    }
+    final int equals = skipWhitespaces(start + 3);
+    if (equals >= length || css.charAt(equals) != '=') {
+      return false;
+    }
+    final int quote = skipWhitespaces(equals + 1);
+    if (quote >= length || !isQuote(css.charAt(quote))) {
+      return false;
+    }
+    final int singleQuote = indexOfQuote('\'', quote + 1);
+    final int doubleQuote = indexOfQuote('"', quote + 1);
+    final int closingQuote = singleQuote < 0 || (doubleQuote >= 0 && doubleQuote < singleQuote) ? doubleQuote
+        : singleQuote;
+    if (closingQuote < 0) {
+      return false;
+    }
+    contentStart = urlStart = quote + 1;
+    contentEnd = urlEnd = closingQuote;
+    matchEnd = closingQuote + 1;
+    return true;
+  }
+
+
+  private int indexOfParenthesis(final int from) {
+    if (nextParenthesis == NOT_SEARCHED || (nextParenthesis != NOT_FOUND && nextParenthesis < from)) {
+      nextParenthesis = indexOf(')', from);
+    }
+    return nextParenthesis;
+  }
+
+
+  private int indexOfQuote(final char quote, final int from) {
+    if (quote == '\'') {
+      if (nextSingleQuote == NOT_SEARCHED || (nextSingleQuote != NOT_FOUND && nextSingleQuote < from)) {
+        nextSingleQuote = indexOf(quote, from);
+      }
+      return nextSingleQuote;
+    }
+    if (nextDoubleQuote == NOT_SEARCHED || (nextDoubleQuote != NOT_FOUND && nextDoubleQuote < from)) {
+      nextDoubleQuote = indexOf(quote, from);
+    }
+    return nextDoubleQuote;
+  }
+
+
+  private int indexOf(final char c, final int from) {
+    for (int i = from; i < length; i++) {
+      if (css.charAt(i) == c) {
+        return i;
+      }
+    }
+    return NOT_FOUND;
+  }
+
+
+  private int skipWhitespaces(final int from) {
+    int i = from;
+    while (i < length && isWhitespace(css.charAt(i))) {
+      i++;
+    }
+    return i;
+  }
+
+
+  private boolean regionMatchesIgnoreCase(final int from, final String lowerCaseRegion) {
+    if (from + lowerCaseRegion.length() > length) {
+      return false;
+    }
+    for (int i = 0; i < lowerCaseRegion.length(); i++) {
+      if (Character.toLowerCase(css.charAt(from + i)) != lowerCaseRegion.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+
+  private static boolean isQuote(final char c) {
+    return c == '\'' || c == '"';
+  }
+
+
+  private static boolean isWhitespace(final char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == '\u000B';
+  }
+}
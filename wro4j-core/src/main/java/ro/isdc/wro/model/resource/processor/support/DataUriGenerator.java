@@ -27,6 +27,7 @@ import ro.isdc.wro.util.Base64;
 public class DataUriGenerator {
   private static final Logger LOG = LoggerFactory.getLogger(DataUriGenerator.class);
   private static final String DATA_URI_PREFIX = "data:";
+  private static final String BASE64_SEPARATOR = ";base64,";
   private final Map<String, String> binaryTypes = new HashMap<String, String>();
   private final Map<String, String> textTypes = new HashMap<String, String>();
 
@@ -48,6 +49,29 @@ public class DataUriGenerator {
     return writer.toString();
   }
 
+  /**
+   * Generate the dataUri associated to the passed bytes with type based on provided fileName. The Base64 encoded bytes
+   * are written directly to the writer.
+   */
+  public void generateDataURI(final byte[] bytes, final Writer writer, final String fileName)
+    throws IOException {
+    writeDataURI(bytes, writer, getMimeType(fileName, null));
+  }
+
+  /**
+   * Computes the length of the dataUri without encoding anything. Useful to check a size limit before generating the
+   * dataUri.
+   *
+   * @param byteLength the number of bytes to encode.
+   * @param fileName used to guess the type.
+   * @return the number of chars of the dataUri associated to that many bytes.
+   */
+  public int getDataUriLength(final int byteLength, final String fileName)
+    throws IOException {
+    return DATA_URI_PREFIX.length() + getMimeType(fileName, null).length() + BASE64_SEPARATOR.length()
+      + Base64.encodedLength(byteLength);
+  }
+
   /**
    * Check if the url is actually a dataUri (base64 encoded value).
    * @param url to check
@@ -87,7 +111,7 @@ public class DataUriGenerator {
     // verify MIME type and charset
     mimeType = getMimeType(fileName, mimeType);
     // actually write
-    generateDataURI(bytes, out, mimeType);
+    writeDataURI(bytes, out, mimeType);
   }
 
   /**
@@ -100,28 +124,22 @@ public class DataUriGenerator {
 
 
   /**
-   * Generates a data URI from a byte array and outputs to the given writer.
+   * Generates a data URI from a byte array and outputs to the given writer. The Base64 encoded bytes are written
+   * directly to the writer, without any intermediate buffer.
    *
    * @param bytes The array of bytes to output to the data URI.
    * @param out Where to output the data URI.
    * @param mimeType The MIME type to specify in the data URI.
    * @throws java.io.IOException
    */
-  private void generateDataURI(final byte[] bytes, final Writer out, final String mimeType)
+  private void writeDataURI(final byte[] bytes, final Writer out, final String mimeType)
     throws IOException {
-    // create the output
-    final StringBuffer buffer = new StringBuffer();
-    buffer.append(DATA_URI_PREFIX);
-
+    out.write(DATA_URI_PREFIX);
     // add MIME type
-    buffer.append(mimeType);
-
+    out.write(mimeType);
     // output base64-encoding
-    buffer.append(";base64,");
-    buffer.append(Base64.encodeBytes(bytes));
-
-    // output to writer
-    out.write(buffer.toString());
+    out.write(BASE64_SEPARATOR);
+    Base64.encode(bytes, 0, bytes.length, out);
   }
 
 
@@ -0,0 +1,762 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.model.resource.processor.support;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+
+
+/**
+ * A css minifier producing the same output as {@link CssCompressor}, but using a single hand-written tokenizer pass
+ * instead of many regular expressions applied on the whole stylesheet. The tokenizer removes the comments and the
+ * useless whitespaces, while the values are compressed declaration by declaration: the units of zero values, the
+ * leading zero of decimals, the rgb colors converted to hex and the #AABBCC colors shortened to #ABC. Finally, the
+ * rules having the same declarations are merged, as {@link CssCompressor} does.
+ * <p/>
+ * Because it knows where the strings, the urls and the at-rule blocks are, it differs from {@link CssCompressor} in a
+ * few cases where the later breaks the stylesheet:
+ * <ul>
+ * <li>the content of strings and urls is left unchanged;</li>
+ * <li>the rules nested in at-rule blocks (ex: @media) are kept in their block and are not merged;</li>
+ * <li>the space before a parenthesis is kept in at-rule preludes (ex: "@media screen and (max-width:100px)");</li>
+ * <li>colors are not shortened in selectors and hex colors are never replaced with an invalid named color;</li>
+ * <li>the border and margin values are shortened only when made of four identical values (!important is kept).</li>
+ * </ul>
+ * An instance is not thread-safe, but it can be reused for many stylesheets.
+ *
+ * @since 1.4.7
+ */
+public class FastCssCompressor {
+  private static final int EOF = -1;
+  private static final char[] EMPTY = new char[0];
+  /**
+   * The whitespace before these chars is removed.
+   */
+  private static final String NO_SPACE_BEFORE = "!{};:>+()],";
+  /**
+   * The whitespace after these chars is removed.
+   */
+  private static final String NO_SPACE_AFTER = "!{}:;>+([,";
+  private static final String[] ZERO_UNITS = {
+    "px", "em", "%", "in", "cm", "mm", "pc", "pt", "ex"
+  };
+  /**
+   * The text before a block, where the space before a colon (pseudo class) is kept.
+   */
+  private static final int SELECTOR = 0;
+  /**
+   * The text before an at-rule block, where the space before a parenthesis is also kept.
+   */
+  private static final int AT_RULE = 1;
+  private static final int DECLARATION = 2;
+
+  private char[] input = EMPTY;
+  private int position;
+  private int end;
+  /**
+   * True when a whitespace was found since the last written char.
+   */
+  private boolean pendingSpace;
+  /**
+   * True when the next comment must be kept because of the IE Mac hack.
+   */
+  private boolean keepNextComment;
+  /**
+   * True when the prelude read by the last {@link #minifyUntilDelimiter(StringBuilder, boolean)} call is an at-rule.
+   */
+  private boolean atRule;
+  private final StringBuilder prelude = new StringBuilder();
+  private final StringBuilder declaration = new StringBuilder();
+  private final StringBuilder value = new StringBuilder();
+
+
+  /**
+   * A top level item of the stylesheet: either a rule, which can be merged with the rules having the same
+   * declarations, or a text written as is (at-rules and comments).
+   */
+  private static final class Item {
+    private final StringBuilder selectors;
+    private final String body;
+
+
+    Item(final String selectors, final String body) {
+      this.selectors = new StringBuilder(selectors);
+      this.body = body;
+    }
+
+
+    Item(final String text) {
+      this.selectors = null;
+      this.body = text;
+    }
+  }
+
+
+  /**
+   * Minifies the supplied stylesheet.
+   *
+   * @param css
+   *          the stylesheet to minify.
+   * @param writer
+   *          where the minified stylesheet is written.
+   */
+  public void compress(final CharSequence css, final Writer writer)
+    throws IOException {
+    Validate.notNull(css);
+    Validate.notNull(writer);
+    final int length = css.length();
+    if (input.length < length) {
+      input = new char[length];
+    }
+    if (css instanceof String) {
+      ((String) css).getChars(0, length, input, 0);
+    } else if (css instanceof StringBuilder) {
+      ((StringBuilder) css).getChars(0, length, input, 0);
+    } else {
+      for (int i = 0; i < length; i++) {
+        input[i] = css.charAt(i);
+      }
+    }
+    position = 0;
+    end = length;
+    keepNextComment = false;
+    final List<Item> items = new ArrayList<Item>();
+    parseRules(items, new HashMap<String, Item>(), false);
+    for (final Item item : items) {
+      if (item.selectors == null) {
+        writer.write(item.body);
+      } else {
+        writer.append(item.selectors).append('{').append(item.body).append('}');
+      }
+    }
+  }
+
+
+  /**
+   * @param css
+   *          the stylesheet to minify.
+   * @return the minified stylesheet.
+   */
+  public String compress(final CharSequence css)
+    throws IOException {
+    final StringWriter writer = new StringWriter(css.length());
+    compress(css, writer);
+    return writer.toString();
+  }
+
+
+  /**
+   * Parses the rules until the end of the enclosing block.
+   *
+   * @param items
+   *          where the parsed rules are added.
+   * @param rulesByBody
+   *          the rules which can be merged, identified by their declarations, or null if the rules must not be merged.
+   * @param nested
+   *          true if the rules are in an at-rule block, in which case the parsing stops at the closing brace.
+   */
+  private void parseRules(final List<Item> items, final Map<String, Item> rulesByBody, final boolean nested) {
+    while (position < end) {
+      final int delimiter = minifyUntilDelimiter(prelude, false);
+      final String text = prelude.toString();
+      final boolean isAtRule = atRule;
+      if (delimiter == '{') {
+        position++;
+        if (isAtRule && isRuleBlock(text)) {
+          final List<Item> nestedItems = new ArrayList<Item>();
+          parseRules(nestedItems, null, true);
+          if (!nestedItems.isEmpty()) {
+            final StringBuilder block = new StringBuilder(text).append('{');
+            for (final Item item : nestedItems) {
+              block.append(item.body);
+            }
+            if (block.charAt(block.length() - 1) == ';') {
+              block.setLength(block.length() - 1);
+            }
+            items.add(new Item(block.append('}').toString()));
+          }
+        } else {
+          final String body = parseDeclarations();
+          if (body.length() > 0) {
+            addRule(items, isAtRule ? null : rulesByBody, text, body);
+          }
+        }
+      } else if (delimiter == ';') {
+        position++;
+        if (text.length() > 0) {
+          items.add(new Item(text + ';'));
+        }
+      } else {
+        if (text.length() > 0) {
+          items.add(new Item(text));
+        }
+        if (delimiter == '}') {
+          position++;
+          if (nested) {
+            return;
+          }
+        }
+      }
+    }
+  }
+
+
+  private void addRule(final List<Item> items, final Map<String, Item> rulesByBody, final String selectors,
+    final String body) {
+    if (rulesByBody == null) {
+      items.add(new Item(selectors + '{' + body + '}'));
+    } else {
+      final Item rule = rulesByBody.get(body);
+      if (rule == null) {
+        final Item newRule = new Item(selectors, body);
+        rulesByBody.put(body, newRule);
+        items.add(newRule);
+      } else {
+        rule.selectors.append(',').append(selectors);
+      }
+    }
+  }
+
+
+  /**
+   * @return true if the block of the at-rule contains rules instead of declarations.
+   */
+  private static boolean isRuleBlock(final String atRule) {
+    int keywordEnd = atRule.indexOf('@') + 1;
+    while (keywordEnd < atRule.length()
+        && (Character.isLetterOrDigit(atRule.charAt(keywordEnd)) || atRule.charAt(keywordEnd) == '-')) {
+      keywordEnd++;
+    }
+    final String keyword = atRule.substring(atRule.indexOf('@') + 1, keywordEnd).toLowerCase();
+    return keyword.equals("media") || keyword.equals("supports") || keyword.endsWith("document")
+        || keyword.endsWith("keyframes");
+  }
+
+
+  /**
+   * Parses the declarations until the end of the block.
+   *
+   * @return the compressed declarations separated by semicolons.
+   */
+  private String parseDeclarations() {
+    final StringBuilder body = new StringBuilder();
+    while (position < end) {
+      final int delimiter = minifyUntilDelimiter(declaration, true);
+      if (delimiter == '{') {
+        // a nested block (ex: the margin boxes of @page), kept as is.
+        position++;
+        final String nestedPrelude = declaration.toString();
+        final String nestedBody = parseDeclarations();
+        if (body.length() > 0) {
+          body.append(';');
+        }
+        body.append(nestedPrelude).append('{').append(nestedBody).append('}');
+        continue;
+      }
+      appendDeclaration(body, declaration);
+      position++;
+      if (delimiter != ';') {
+        break;
+      }
+    }
+    return body.toString();
+  }
+
+
+  /**
+   * Reads the input until the next '{', '}' or ';' (the delimiter is not consumed) and writes the minified text.
+   *
+   * @return the delimiter or {@link #EOF}.
+   */
+  private int minifyUntilDelimiter(final StringBuilder out, final boolean isDeclaration) {
+    out.setLength(0);
+    pendingSpace = false;
+    atRule = false;
+    int mode = isDeclaration ? DECLARATION : SELECTOR;
+    while (position < end) {
+      final char c = input[position];
+      switch (c) {
+        case '{':
+        case '}':
+        case ';':
+          return c;
+        case ' ':
+        case '\t':
+        case '\n':
+        case '\r':
+        case '\f':
+        case '\u000B':
+          pendingSpace = true;
+          position++;
+          break;
+        case '"':
+        case '\'':
+          copyString(out, mode);
+          break;
+        case '\\':
+          // an escaped char (ex: .a\:hover) is never a delimiter.
+          write(out, c, mode);
+          position++;
+          if (position < end) {
+            out.append(input[position++]);
+          }
+          break;
+        case '$':
+          write(out, c, mode);
+          position++;
+          if (position < end && input[position] == '{') {
+            copyPlaceholder(out);
+          }
+          break;
+        case '/':
+          if (position + 1 < end && input[position + 1] == '*') {
+            copyComment(out, mode);
+          } else {
+            write(out, c, mode);
+            position++;
+          }
+          break;
+        case '(':
+          write(out, c, mode);
+          position++;
+          if (endsWithUrl(out)) {
+            copyUrl(out);
+          }
+          break;
+        case '@':
+          if (mode == SELECTOR && !atRule && isFirstSignificantChar(out)) {
+            atRule = true;
+            mode = AT_RULE;
+          }
+          write(out, c, mode);
+          position++;
+          break;
+        default:
+          write(out, c, mode);
+          position++;
+      }
+    }
+    return EOF;
+  }
+
+
+  /**
+   * @return true if nothing but comments were written.
+   */
+  private static boolean isFirstSignificantChar(final StringBuilder out) {
+    return out.length() == 0 || out.charAt(out.length() - 1) == '/';
+  }
+
+
+  /**
+   * Writes the char, preceded by a space if a whitespace was found before it and the space is significant.
+   */
+  private void write(final StringBuilder out, final char c, final int mode) {
+    if (pendingSpace) {
+      pendingSpace = false;
+      if (out.length() > 0 && NO_SPACE_AFTER.indexOf(out.charAt(out.length() - 1)) < 0 && !isNoSpaceBefore(c, mode)) {
+        out.append(' ');
+      }
+    }
+    out.append(c);
+  }
+
+
+  private static boolean isNoSpaceBefore(final char c, final int mode) {
+    if (c == ':' && mode != DECLARATION) {
+      // a pseudo class: "p :link" is not the same as "p:link"
+      return false;
+    }
+    if (c == '(' && mode == AT_RULE) {
+      return false;
+    }
+    return NO_SPACE_BEFORE.indexOf(c) >= 0;
+  }
+
+
+  private void copyString(final StringBuilder out, final int mode) {
+    final char quote = input[position++];
+    write(out, quote, mode);
+    while (position < end) {
+      final char c = input[position++];
+      out.append(c);
+      if (c == quote) {
+        return;
+      }
+      if (c == '\\' && position < end) {
+        out.append(input[position++]);
+      }
+    }
+  }
+
+
+  /**
+   * Copies a placeholder (ex: ${variable}) as is, the braces being part of the placeholder.
+   */
+  private void copyPlaceholder(final StringBuilder out) {
+    while (position < end) {
+      final char c = input[position++];
+      out.append(c);
+      if (c == '}') {
+        return;
+      }
+    }
+  }
+
+
+  private static boolean endsWithUrl(final CharSequence out) {
+    final int length = out.length();
+    return length >= 4 && (out.charAt(length - 4) == 'u' || out.charAt(length - 4) == 'U')
+        && (out.charAt(length - 3) == 'r' || out.charAt(length - 3) == 'R')
+        && (out.charAt(length - 2) == 'l' || out.charAt(length - 2) == 'L');
+  }
+
+
+  /**
+   * Copies the unquoted url as is, without the surrounding whitespaces. A quoted url is handled as any other string.
+   */
+  private void copyUrl(final StringBuilder out) {
+    while (position < end && Character.isWhitespace(input[position])) {
+      position++;
+    }
+    if (position < end && (input[position] == '"' || input[position] == '\'')) {
+      return;
+    }
+    while (position < end && input[position] != ')') {
+      out.append(input[position++]);
+    }
+    int length = out.length();
+    while (Character.isWhitespace(out.charAt(length - 1))) {
+      length--;
+    }
+    out.setLength(length);
+  }
+
+
+  /**
+   * Removes the comment, unless it starts with "/*!" or is part of the IE Mac hack.
+   */
+  private void copyComment(final StringBuilder out, final int mode) {
+    final boolean preserve = position + 2 < end && input[position + 2] == '!';
+    int commentEnd = position + 2;
+    while (commentEnd < end - 1 && !(input[commentEnd] == '*' && input[commentEnd + 1] == '/')) {
+      commentEnd++;
+    }
+    if (commentEnd >= end - 1) {
+      // unterminated comment
+      if (preserve) {
+        copyCommentText(out, mode, end);
+      }
+      position = end;
+      return;
+    }
+    commentEnd += 2;
+    boolean keep = preserve;
+    if (input[commentEnd - 3] == '\\' && commentEnd - 3 > position + 1) {
+      // Looks like a comment to hide rules from IE Mac. Leave this comment, and the following one, alone...
+      keep = true;
+      keepNextComment = true;
+    } else if (keepNextComment) {
+      keep = true;
+      keepNextComment = false;
+    }
+    if (keep) {
+      copyCommentText(out, mode, commentEnd);
+    }
+    position = commentEnd;
+  }
+
+
+  private void copyCommentText(final StringBuilder out, final int mode, final int commentEnd) {
+    while (position < commentEnd) {
+      final char c = input[position++];
+      if (Character.isWhitespace(c)) {
+        pendingSpace = true;
+      } else {
+        write(out, c, mode);
+      }
+    }
+  }
+
+
+  /**
+   * Compresses the value of the declaration and appends it to the body.
+   */
+  private void appendDeclaration(final StringBuilder body, final StringBuilder decl) {
+    if (decl.length() == 0) {
+      return;
+    }
+    if (body.length() > 0) {
+      body.append(';');
+    }
+    final int colon = decl.indexOf(":");
+    if (colon < 0) {
+      body.append(decl);
+      return;
+    }
+    value.setLength(0);
+    compressValue(decl, colon + 1, value);
+    // Replace 0 0 0 0; with 0.
+    if (contentEquals(value, "0 0 0 0") || contentEquals(value, "0 0 0") || contentEquals(value, "0 0")) {
+      value.setLength(1);
+    }
+    // Replace background-position:0; with background-position:0 0;
+    if (contentEquals(value, "0") && endsWith(decl, colon, "background-position")) {
+      value.append(" 0");
+    }
+    if (endsWith(decl, colon, "border") || endsWith(decl, colon, "margin")) {
+      compressDimensions(value);
+    }
+    body.append(decl, 0, colon + 1).append(value);
+  }
+
+
+  /**
+   * Copies the value, removing the units of zero values and the leading zeros of decimals, and shortening the colors.
+   */
+  private static void compressValue(final StringBuilder decl, final int from, final StringBuilder out) {
+    final int length = decl.length();
+    char previous = ':';
+    int i = from;
+    while (i < length) {
+      final char c = decl.charAt(i);
+      if (c == '"' || c == '\'') {
+        final int stringEnd = skipString(decl, i);
+        out.append(decl, i, stringEnd);
+        previous = c;
+        i = stringEnd;
+        continue;
+      }
+      if (c == '(' && endsWithUrl(decl.subSequence(from, i + 1))) {
+        // the unquoted url is copied as is.
+        out.append(c);
+        i++;
+        final int urlEnd = decl.indexOf(")", i);
+        if (urlEnd > 0 && decl.charAt(i) != '"' && decl.charAt(i) != '\'') {
+          out.append(decl, i, urlEnd);
+          i = urlEnd;
+        }
+        previous = c;
+        continue;
+      }
+      if (c == '0' && (previous == ':' || previous == ' ')) {
+        int zerosEnd = i;
+        while (zerosEnd < length && decl.charAt(zerosEnd) == '0') {
+          zerosEnd++;
+        }
+        if (zerosEnd + 1 < length && decl.charAt(zerosEnd) == '.' && Character.isDigit(decl.charAt(zerosEnd + 1))) {
+          // Replace 0.6 to .6
+          i = zerosEnd;
+          previous = '0';
+          continue;
+        }
+        final int unitLength = getZeroUnitLength(decl, i + 1);
+        if (unitLength > 0) {
+          // Replace 0(px,em,%) with 0.
+          out.append('0');
+          i += 1 + unitLength;
+          previous = decl.charAt(i - 1);
+          continue;
+        }
+      }
+      if (c == 'r' && regionMatches(decl, i, "rgb(")) {
+        final int rgbEnd = appendRgbAsHex(decl, i, out);
+        if (rgbEnd > 0) {
+          i = rgbEnd;
+          previous = ')';
+          continue;
+        }
+      }
+      if (c == '#' && i + 6 < length && isHex(decl, i + 1, 6) && isColorContext(decl, i)) {
+        out.append(c);
+        appendShortHex(decl, i + 1, out);
+        i += 7;
+        previous = decl.charAt(i - 1);
+        continue;
+      }
+      out.append(c);
+      previous = c;
+      i++;
+    }
+  }
+
+
+  private static int skipString(final CharSequence text, final int start) {
+    final char quote = text.charAt(start);
+    int i = start + 1;
+    while (i < text.length()) {
+      final char c = text.charAt(i++);
+      if (c == quote) {
+        break;
+      }
+      if (c == '\\') {
+        i++;
+      }
+    }
+    return Math.min(i, text.length());
+  }
+
+
+  private static int getZeroUnitLength(final CharSequence text, final int from) {
+    for (final String unit : ZERO_UNITS) {
+      if (regionMatches(text, from, unit)) {
+        return unit.length();
+      }
+    }
+    return 0;
+  }
+
+
+  /**
+   * Shortens the colors from rgb(51,102,153) to #336699, or #369 if possible.
+   *
+   * @return the index following the rgb color or -1 if the rgb color cannot be converted.
+   */
+  private static int appendRgbAsHex(final StringBuilder decl, final int start, final StringBuilder out) {
+    final int from = start + "rgb(".length();
+    final int rgbEnd = decl.indexOf(")", from);
+    if (rgbEnd < 0) {
+      return -1;
+    }
+    final StringBuilder hex = new StringBuilder();
+    int componentStart = from;
+    for (int i = from; i <= rgbEnd; i++) {
+      if (i == rgbEnd || decl.charAt(i) == ',') {
+        if (i == componentStart || i - componentStart > 9) {
+          return -1;
+        }
+        final int component = Integer.parseInt(decl.substring(componentStart, i));
+        if (component < 16) {
+          hex.append('0');
+        }
+        hex.append(Integer.toHexString(component));
+        componentStart = i + 1;
+      } else if (!Character.isDigit(decl.charAt(i))) {
+        return -1;
+      }
+    }
+    out.append('#');
+    if (hex.length() >= 6 && isColorContext(decl, start)) {
+      appendShortHex(hex, 0, out);
+      out.append(hex, 6, hex.length());
+    } else {
+      out.append(hex);
+    }
+    return rgbEnd + 1;
+  }
+
+
+  /**
+   * The color is not shortened when preceded by a quote or by =. Indeed, the property filter: chroma(color="#FFFFFF");
+   * would become filter: chroma(color="#FFF"); which makes the filter break in IE.
+   */
+  private static boolean isColorContext(final CharSequence text, final int colorStart) {
+    int i = colorStart - 1;
+    while (i >= 0 && text.charAt(i) == ' ') {
+      i--;
+    }
+    if (i < 0) {
+      return false;
+    }
+    final char c = text.charAt(i);
+    return c != '"' && c != '\'' && c != '=';
+  }
+
+
+  /**
+   * Appends the six hex digits found at the supplied index (the # is already written), shortened from AABBCC to ABC when possible.
+   */
+  private static void appendShortHex(final CharSequence text, final int from, final StringBuilder out) {
+    if (equalsIgnoreCase(text.charAt(from), text.charAt(from + 1))
+        && equalsIgnoreCase(text.charAt(from + 2), text.charAt(from + 3))
+        && equalsIgnoreCase(text.charAt(from + 4), text.charAt(from + 5))) {
+      out.append(text.charAt(from)).append(text.charAt(from + 2)).append(text.charAt(from + 4));
+    } else {
+      out.append(text, from, from + 6);
+    }
+  }
+
+
+  /**
+   * Replaces the four identical border or margin values with one: 1px 1px 1px 1px becomes 1px.
+   */
+  private static void compressDimensions(final StringBuilder value) {
+    final int length = value.length();
+    int digits = 0;
+    while (digits < length && Character.isDigit(value.charAt(digits))) {
+      digits++;
+    }
+    int letters = 0;
+    while (digits + letters < length && isAsciiLetter(value.charAt(digits + letters))) {
+      letters++;
+    }
+    final int size = digits + letters;
+    if (digits == 0 || length != 4 * size + 3) {
+      return;
+    }
+    for (int i = 1; i < 4; i++) {
+      final int offset = i * (size + 1);
+      if (value.charAt(offset - 1) != ' ') {
+        return;
+      }
+      for (int j = 0; j < size; j++) {
+        if (value.charAt(offset + j) != value.charAt(j)) {
+          return;
+        }
+      }
+    }
+    value.setLength(size);
+  }
+
+
+  private static boolean isAsciiLetter(final char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+  }
+
+
+  private static boolean isHex(final CharSequence text, final int from, final int count) {
+    for (int i = from; i < from + count; i++) {
+      final char c = text.charAt(i);
+      if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F'))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+
+  private static boolean equalsIgnoreCase(final char first, final char second) {
+    return Character.toLowerCase(first) == Character.toLowerCase(second);
+  }
+
+
+  private static boolean regionMatches(final CharSequence text, final int from, final String region) {
+    if (from + region.length() > text.length()) {
+      return false;
+    }
+    for (int i = 0; i < region.length(); i++) {
+      if (text.charAt(from + i) != region.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+
+  private static boolean contentEquals(final StringBuilder text, final String expected) {
+    return text.length() == expected.length() && regionMatches(text, 0, expected);
+  }
+
+
+  private static boolean endsWith(final CharSequence text, final int end, final String suffix) {
+    return end >= suffix.length() && regionMatches(text, end - suffix.length(), suffix);
+  }
+}
@@ -0,0 +1,348 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.model.resource.processor.support;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+
+import org.apache.commons.lang3.Validate;
+
+
+/**
+ * A single pass implementation of jsmin producing the same output as {@link JSMin}. Unlike {@link JSMin}, it works on
+ * characters instead of encoded bytes: the input is a char array (or a {@link CharSequence} copied into a reusable
+ * array) and the output is written into a reusable char array. No stream wrapper, pushback or encoding is involved, so
+ * minifying a script doesn't allocate anything once the buffers are large enough.
+ * <p/>
+ * An instance is not thread-safe, but it can be reused for many scripts. Call {@link #writeTo(Writer)} or
+ * {@link #toString()} to get the result of the last {@link #minify(CharSequence)} call.
+ * <p>
+ * http://www.crockford.com/javascript/jsmin.html
+ *
+ * @since 1.4.7
+ */
+public class FastJSMin {
+  private static final int EOF = -1;
+  private static final char[] EMPTY = new char[0];
+  /**
+   * The script being minified, between position and end.
+   */
+  private char[] input;
+  private int position;
+  private int end;
+  /**
+   * Holds the scripts supplied as {@link CharSequence}.
+   */
+  private char[] inputBuffer = EMPTY;
+  private char[] output = EMPTY;
+  private int outputLength;
+  private int theA;
+  private int theB;
+
+
+  /**
+   * Minifies the supplied script. The result is available until the next call.
+   *
+   * @param content
+   *          the script to minify.
+   * @throws IOException
+   *           if the script contains an unterminated comment, string or regular expression literal.
+   */
+  public FastJSMin minify(final CharSequence content)
+    throws IOException {
+    Validate.notNull(content);
+    final int length = content.length();
+    if (content instanceof CharBuffer && ((CharBuffer) content).hasArray()) {
+      final CharBuffer buffer = (CharBuffer) content;
+      return minify(buffer.array(), buffer.arrayOffset() + buffer.position(), length);
+    }
+    if (inputBuffer.length < length) {
+      inputBuffer = new char[length];
+    }
+    if (content instanceof String) {
+      ((String) content).getChars(0, length, inputBuffer, 0);
+    } else if (content instanceof StringBuilder) {
+      ((StringBuilder) content).getChars(0, length, inputBuffer, 0);
+    } else if (content instanceof StringBuffer) {
+      ((StringBuffer) content).getChars(0, length, inputBuffer, 0);
+    } else {
+      for (int i = 0; i < length; i++) {
+        inputBuffer[i] = content.charAt(i);
+      }
+    }
+    return minify(inputBuffer, 0, length);
+  }
+
+
+  /**
+   * Minifies the script found in the supplied array. The array is not modified nor retained. The result is available
+   * until the next call.
+   *
+   * @param chars
+   *          the array holding the script to minify.
+   * @param offset
+   *          the index of the first char of the script.
+   * @param length
+   *          the number of chars of the script.
+   * @throws IOException
+   *           if the script contains an unterminated comment, string or regular expression literal.
+   */
+  public FastJSMin minify(final char[] chars, final int offset, final int length)
+    throws IOException {
+    Validate.notNull(chars);
+    Validate.isTrue(offset >= 0 && length >= 0 && offset + length <= chars.length, "Invalid offset or length");
+    // the output is never much longer than the input (leading new line).
+    if (output.length < length + 1) {
+      output = new char[length + 1];
+    }
+    input = chars;
+    position = offset;
+    end = offset + length;
+    outputLength = 0;
+    try {
+      jsmin();
+    } finally {
+      input = null;
+    }
+    return this;
+  }
+
+
+  /**
+   * @return the length of the minified script.
+   */
+  public int length() {
+    return outputLength;
+  }
+
+
+  /**
+   * Writes the minified script to the supplied writer.
+   */
+  public void writeTo(final Writer writer)
+    throws IOException {
+    writer.write(output, 0, outputLength);
+  }
+
+
+  /**
+   * @return the minified script.
+   */
+  @Override
+  public String toString() {
+    return new String(output, 0, outputLength);
+  }
+
+
+  /**
+   * isAlphanum -- return true if the character is a letter, digit, underscore, dollar sign, or non-ASCII character.
+   */
+  private static boolean isAlphanum(final int c) {
+    return ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || (c >= 'A' && c <= 'Z') || c == '_' || c == '$'
+        || c == '\\' || c > 126);
+  }
+
+
+  /**
+   * get -- return the next character. If the character is a control character, translate it to a space or linefeed.
+   */
+  private int get() {
+    if (position >= end) {
+      return EOF;
+    }
+    final char c = input[position++];
+    if (c >= ' ' || c == '\n') {
+      return c;
+    }
+    if (c == '\r') {
+      return '\n';
+    }
+    return ' ';
+  }
+
+
+  /**
+   * Get the next character without getting it.
+   */
+  private int peek() {
+    return position < end ? input[position] : EOF;
+  }
+
+
+  /**
+   * next -- get the next character, excluding comments. peek() is used to see if a '/' is followed by a '/' or '*'.
+   */
+  private int next()
+    throws IOException {
+    int c = get();
+    if (c == '/') {
+      switch (peek()) {
+        case '/':
+          for (;;) {
+            c = get();
+            if (c <= '\n') {
+              return c;
+            }
+          }
+        case '*':
+          get();
+          for (;;) {
+            switch (get()) {
+              case '*':
+                if (peek() == '/') {
+                  get();
+                  return ' ';
+                }
+                break;
+              case EOF:
+                throw new IOException("Unterminated comment at position: " + position);
+            }
+          }
+        default:
+          return c;
+      }
+    }
+    return c;
+  }
+
+
+  private void write(final int c) {
+    if (outputLength == output.length) {
+      final char[] newOutput = new char[output.length * 2 + 16];
+      System.arraycopy(output, 0, newOutput, 0, outputLength);
+      output = newOutput;
+    }
+    output[outputLength++] = (char) c;
+  }
+
+
+  /**
+   * action -- do something! What you do is determined by the argument: 1 Output A. Copy B to A. Get the next B. 2 Copy
+   * B to A. Get the next B. (Delete A). 3 Get the next B. (Delete B). action treats a string as a single character.
+   * action recognizes a regular expression if it is preceded by ( or , or =.
+   */
+  private void action(final int d)
+    throws IOException {
+    switch (d) {
+      case 1:
+        write(theA);
+      case 2:
+        theA = theB;
+        if (theA == '\'' || theA == '"') {
+          for (;;) {
+            write(theA);
+            theA = get();
+            if (theA == theB) {
+              break;
+            }
+            if (theA <= '\n') {
+              throw new IOException("Unterminated string literal at position: " + position);
+            }
+            if (theA == '\\') {
+              write(theA);
+              theA = get();
+            }
+          }
+        }
+      case 3:
+        theB = next();
+        if (theB == '/'
+            && (theA == '(' || theA == ',' || theA == '=' || theA == ':' || theA == '[' || theA == '!'
+                || theA == '&' || theA == '|' || theA == '?' || theA == '{' || theA == '}' || theA == ';'
+                || theA == '\n')) {
+          write(theA);
+          write(theB);
+          for (;;) {
+            theA = get();
+            if (theA == '/') {
+              break;
+            } else if (theA == '\\') {
+              write(theA);
+              theA = get();
+            } else if (theA <= '\n') {
+              throw new IOException("Unterminated regular expression literal at position: " + position);
+            }
+            write(theA);
+          }
+          theB = next();
+        }
+    }
+  }
+
+
+  /**
+   * jsmin -- Copy the input to the output, deleting the characters which are insignificant to JavaScript. Comments
+   * will be removed. Tabs will be replaced with spaces. Carriage returns will be replaced with linefeeds. Most spaces
+   * and linefeeds will be removed.
+   */
+  private void jsmin()
+    throws IOException {
+    theA = '\n';
+    action(3);
+    while (theA != EOF) {
+      switch (theA) {
+        case ' ':
+          if (isAlphanum(theB)) {
+            action(1);
+          } else {
+            action(2);
+          }
+          break;
+        case '\n':
+          switch (theB) {
+            case '{':
+            case '[':
+            case '(':
+            case '+':
+            case '-':
+              action(1);
+              break;
+            case ' ':
+              action(3);
+              break;
+            default:
+              if (isAlphanum(theB)) {
+                action(1);
+              } else {
+                action(2);
+              }
+          }
+          break;
+        default:
+          switch (theB) {
+            case ' ':
+              if (isAlphanum(theA)) {
+                action(1);
+                break;
+              }
+              action(3);
+              break;
+            case '\n':
+              switch (theA) {
+                case '}':
+                case ']':
+                case ')':
+                case '+':
+                case '-':
+                case '"':
+                case '\'':
+                  action(1);
+                  break;
+                default:
+                  if (isAlphanum(theA)) {
+                    action(1);
+                  } else {
+                    action(3);
+                  }
+              }
+              break;
+            default:
+              action(1);
+              break;
+          }
+      }
+    }
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.model.resource.processor.support;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import ro.isdc.wro.WroRuntimeException;
+import ro.isdc.wro.model.resource.Resource;
+
+
+/**
+ * Holds the state of a single invocation of a processor. The same processor instance is used concurrently by all the
+ * requests and by the threads pre processing the resources in parallel (when parallelPreprocessing is enabled), so a
+ * processor must not keep the state of an invocation in its own fields. Instead, it opens a context when the invocation
+ * starts and closes it when the invocation ends:
+ *
+ * <pre>
+ * final ProcessingContext context = ProcessingContext.open(resource);
+ * try {
+ *   // the hooks invoked meanwhile can use ProcessingContext.get()
+ * } finally {
+ *   context.close();
+ * }
+ * </pre>
+ *
+ * The context is bound to the thread which opened it and contexts can be nested (ex: a processor invoking other
+ * processors), the previous context being restored when the nested one is closed.
+ *
+ * @since 1.4.7
+ */
+public final class ProcessingContext {
+  private static final ThreadLocal<ProcessingContext> CURRENT = new ThreadLocal<ProcessingContext>();
+  /**
+   * The processed resource, can be null when the processor is used as a post processor.
+   */
+  private final Resource resource;
+  /**
+   * The context opened before this one by the same thread, restored when this context is closed.
+   */
+  private final ProcessingContext previous;
+  private final Map<String, Object> attributes = new HashMap<String, Object>();
+  private boolean closed;
+
+
+  private ProcessingContext(final Resource resource, final ProcessingContext previous) {
+    this.resource = resource;
+    this.previous = previous;
+  }
+
+
+  /**
+   * Opens a new context and binds it to the current thread.
+   *
+   * @param resource
+   *          the processed resource, can be null.
+   * @return the opened context, which must be closed by the same thread.
+   */
+  public static ProcessingContext open(final Resource resource) {
+    final ProcessingContext context = new ProcessingContext(resource, CURRENT.get());
+    CURRENT.set(context);
+    return context;
+  }
+
+
+  /**
+   * @return the context of the invocation in progress on the current thread.
+   */
+  public static ProcessingContext get() {
+    final ProcessingContext context = CURRENT.get();
+    if (context == null) {
+      throw new WroRuntimeException("No processing context opened by the current thread!");
+    }
+    return context;
+  }
+
+
+  /**
+   * @return true if a processing context is opened by the current thread.
+   */
+  public static boolean isContextOpened() {
+    return CURRENT.get() != null;
+  }
+
+
+  /**
+   * Unbinds this context from the current thread and restores the previously opened context, if any.
+   */
+  public void close() {
+    if (closed) {
+      return;
+    }
+    if (CURRENT.get() != this) {
+      throw new WroRuntimeException("Only the last processing context opened by the current thread can be closed!");
+    }
+    closed = true;
+    attributes.clear();
+    if (previous == null) {
+      CURRENT.remove();
+    } else {
+      CURRENT.set(previous);
+    }
+  }
+
+
+  /**
+   * @return the processed resource, null when the processor is used as a post processor.
+   */
+  public Resource getResource() {
+    return resource;
+  }
+
+
+  /**
+   * @param name
+   *          the name of the attribute. Use a name prefixed with the processor class name, in order to avoid conflicts.
+   * @return the value of the attribute or null if it was not set.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T getAttribute(final String name) {
+    return (T) attributes.get(name);
+  }
+
+
+  /**
+   * Sets the value of an attribute, available until this context is closed.
+   */
+  public void setAttribute(final String name, final Object value) {
+    attributes.put(name, value);
+  }
+}
@@ -93,6 +93,9 @@ public class Base64 {
   /** Maximum line length (76) of Base64 output. */
   private final static int MAX_LINE_LENGTH = 76;
 
+  /** Number of chars (a multiple of 4) written at once by {@link #encode(byte[], int, int, java.io.Writer)}. */
+  private final static int WRITE_BUFFER_SIZE = 1024;
+
   /** The equals sign (=) as a byte. */
   private final static byte EQUALS_SIGN = (byte)'=';
 
@@ -431,6 +434,56 @@ public class Base64 {
   }
 
 
+  /**
+   * Encodes a byte array into Base64 notation and writes the result directly to the writer, without building an
+   * intermediate String. Does not GZip-compress data nor break lines.
+   *
+   * @param source The data to convert
+   * @param off Offset in array where conversion should begin
+   * @param len Length of data to convert
+   * @param writer Where the Base64-encoded data is written
+   * @throws java.io.IOException if the data cannot be written
+   * @throws NullPointerException if source array or writer is null
+   * @throws IllegalArgumentException if source array, offset, or length are invalid
+   */
+  public static void encode(final byte[] source, final int off, final int len, final java.io.Writer writer)
+    throws java.io.IOException {
+    if (source == null) {
+      throw new NullPointerException("Cannot serialize a null array.");
+    }
+    if (writer == null) {
+      throw new NullPointerException("Cannot write to a null writer.");
+    }
+    if (off < 0 || len < 0 || off + len > source.length) {
+      throw new IllegalArgumentException(String.format(
+        "Cannot have offset of %d and length of %d with array of length %d", off, len, source.length));
+    }
+    final byte[] enc4 = new byte[4];
+    final char[] buffer = new char[WRITE_BUFFER_SIZE];
+    int bufferLength = 0;
+    for (int i = 0; i < len; i += 3) {
+      encode3to4(source, off + i, Math.min(3, len - i), enc4, 0, NO_OPTIONS);
+      if (bufferLength == buffer.length) {
+        writer.write(buffer, 0, bufferLength);
+        bufferLength = 0;
+      }
+      for (int j = 0; j < 4; j++) {
+        buffer[bufferLength++] = (char)(enc4[j] & 0xFF);
+      }
+    }
+    writer.write(buffer, 0, bufferLength);
+  }
+
+
+  /**
+   * @param len the number of bytes to encode.
+   * @return the number of chars of the Base64 notation (without line breaks) of that many bytes.
+   */
+  public static int encodedLength(final int len) {
+    return 4 * ((len + 2) / 3);
+  }
+
+
   /**
    * Serializes an object and returns the Base64-encoded version of that serialized object.
    *
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.apache.commons.lang3.Validate;
+
+
+/**
+ * A minimal pool of reusable objects, used to avoid allocating the buffers of a processor engine for each processed
+ * resource. An object is created when the pool has no idle object and is discarded when returned to a pool which
+ * already has the maximum number of idle objects, so the pool never blocks nor limits the number of objects in use.
+ * <p/>
+ * Unlike a {@link ThreadLocal}, the objects are owned by the pool instance, so they are garbage collected with it and
+ * the number of kept objects doesn't depend on the number of threads of the container.
+ *
+ * @since 1.4.7
+ * @param <T>
+ *          the type of the pooled objects.
+ */
+public class BoundedObjectPool<T> {
+  private final ObjectFactory<T> objectFactory;
+  private final BlockingQueue<T> idleObjects;
+
+
+  /**
+   * @param objectFactory
+   *          creates the objects when there is no idle object.
+   * @param maxIdle
+   *          the maximum number of idle objects kept by the pool.
+   */
+  public BoundedObjectPool(final ObjectFactory<T> objectFactory, final int maxIdle) {
+    Validate.notNull(objectFactory);
+    Validate.isTrue(maxIdle > 0, "maxIdle must be positive");
+    this.objectFactory = objectFactory;
+    this.idleObjects = new ArrayBlockingQueue<T>(maxIdle);
+  }
+
+
+  /**
+   * @return an idle object or a new one if there is no idle object. Never blocks.
+   */
+  public T getObject() {
+    final T object = idleObjects.poll();
+    return object == null ? objectFactory.create() : object;
+  }
+
+
+  /**
+   * Makes the object available to the next {@link #getObject()} call. The object is discarded when the pool already
+   * has the maximum number of idle objects.
+   *
+   * @param object
+   *          an object no longer used by the caller.
+   */
+  public void returnObject(final T object) {
+    Validate.notNull(object);
+    idleObjects.offer(object);
+  }
+
+
+  /**
+   * @return the number of idle objects.
+   */
+  public int getNumIdle() {
+    return idleObjects.size();
+  }
+}
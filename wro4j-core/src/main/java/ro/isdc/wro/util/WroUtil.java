@@ -55,6 +55,12 @@ public final class WroUtil {
     "(?im)^(Accept-Encoding|Accept-EncodXng|X-cept-Encoding|X{15}|~{15}|-{15})$");
   private static final Pattern PATTERN_GZIP = Pattern.compile(
     "(?im)^((gzip|deflate)\\s?,?\\s?(gzip|deflate)?.*|X{4,13}|~{4,13}|-{4,13})$");
+  /**
+   * Matches deflate encoding, unless it is explicitly refused with a zero quality value.
+   */
+  private static final Pattern PATTERN_DEFLATE = Pattern.compile(
+    "(?i)\\bdeflate\\b(?!\\s*;\\s*q\\s*=\\s*0(\\.0*)?\\s*(,|$))");
+  private static final String ACCEPT_ENCODING = "Accept-Encoding";
 
   private static final AtomicInteger threadFactoryNumber = new AtomicInteger(1);
 
@@ -210,6 +216,35 @@ public final class WroUtil {
     return false;
   }
 
+  /**
+   * Checks the value of the "Accept-Encoding" header. Unlike gzip, the mangled variations of the header are not
+   * considered, since there is no way to identify which encoding is accepted.
+   *
+   * @return true if this request support deflate encoding.
+   */
+  public static boolean isDeflateSupported(final HttpServletRequest request) {
+    if (request != null) {
+      final String headerValue = request.getHeader(ACCEPT_ENCODING);
+      return headerValue != null && PATTERN_DEFLATE.matcher(headerValue).find();
+    }
+    return false;
+  }
+
+  /**
+   * Writes the input to the output, except the regions matched by the pattern. This is equivalent to
+   * <code>output.append(pattern.matcher(input).replaceAll(""))</code>, without creating intermediate strings.
+   */
+  public static void removeAll(final Pattern pattern, final CharSequence input, final Appendable output)
+    throws IOException {
+    final Matcher matcher = pattern.matcher(input);
+    int position = 0;
+    while (matcher.find()) {
+      output.append(input, position, matcher.start());
+      position = matcher.end();
+    }
+    output.append(input, position, input.length());
+  }
+
   /**
    * Transforms a java multi-line string into javascript multi-line string.
    * This technique was found at {@link http://stackoverflow.com/questions/805107/multiline-strings-in-javascript/}
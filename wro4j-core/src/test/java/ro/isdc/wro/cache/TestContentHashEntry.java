@@ -3,8 +3,14 @@
  */
 package ro.isdc.wro.cache;
 
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
 import junit.framework.Assert;
 
+import org.apache.commons.io.IOUtils;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -24,12 +30,13 @@ public class TestContentHashEntry {
   }
 
   @Test
-  public void byDefaultCacheGzippedContentShouldBeDisabled() {
-    Assert.assertFalse(Context.get().getConfig().isCacheGzippedContent());
+  public void byDefaultCacheGzippedContentShouldBeEnabled() {
+    Assert.assertTrue(Context.get().getConfig().isCacheGzippedContent());
   }
 
   @Test
-  public void shouldNotCacheGzippedContentByDefault() {
+  public void shouldNotCacheGzippedContentWhenDisabled() {
+    Context.get().getConfig().setCacheGzippedContent(false);
     final ContentHashEntry entry = ContentHashEntry.valueOf(RAW_CONTENT, "hash");
     Assert.assertEquals(RAW_CONTENT, entry.getRawContent());
     Assert.assertNull(entry.getGzippedContentInternal());
@@ -38,12 +45,19 @@ public class TestContentHashEntry {
 
   @Test
   public void shouldCacheGzippedContentByDefault() {
-    Context.get().getConfig().setCacheGzippedContent(true);
     final ContentHashEntry entry = ContentHashEntry.valueOf(RAW_CONTENT, "hash");
     Assert.assertNotNull(null, entry.getGzippedContentInternal());
     Assert.assertNotNull(entry.getGzippedContent());
   }
 
+  @Test
+  public void shouldServeTheCachedCompressedContentByDefault() {
+    final ContentHashEntry entry = ContentHashEntry.valueOf(RAW_CONTENT, "hash");
+    Assert.assertNotNull(entry.getDeflatedContentInternal());
+    Assert.assertSame(entry.getGzippedContentInternal(), entry.getGzippedContent());
+    Assert.assertSame(entry.getDeflatedContentInternal(), entry.getDeflatedContent());
+  }
+
   @Test
   public void changingFlagShouldHaveNoEffect() {
     final WroConfiguration config = Context.get().getConfig();
@@ -57,6 +71,54 @@ public class TestContentHashEntry {
     Assert.assertNotNull(entry.getGzippedContent());
   }
 
+  @Test
+  public void shouldEncodeContentUsingConfiguredEncoding()
+    throws Exception {
+    final String content = "\u0103\u00ee\u0219";
+    final ContentHashEntry entry = ContentHashEntry.valueOf(content, "hash");
+    Assert.assertTrue(Arrays.equals(content.getBytes(Context.get().getConfig().getEncoding()),
+      entry.getEncodedContent()));
+  }
+
+  @Test
+  public void shouldCacheDeflatedContentWhenGzippedContentIsCached() {
+    Context.get().getConfig().setCacheGzippedContent(true);
+    final ContentHashEntry entry = ContentHashEntry.valueOf(RAW_CONTENT, "hash");
+    Assert.assertNotNull(entry.getDeflatedContentInternal());
+  }
+
+  @Test
+  public void shouldDecompressToOriginalContent()
+    throws Exception {
+    Context.get().getConfig().setCacheGzippedContent(true);
+    final ContentHashEntry entry = ContentHashEntry.valueOf(RAW_CONTENT, "hash");
+    final String encoding = Context.get().getConfig().getEncoding();
+    Assert.assertEquals(RAW_CONTENT,
+      IOUtils.toString(new GZIPInputStream(new ByteArrayInputStream(entry.getGzippedContent())), encoding));
+    Assert.assertEquals(RAW_CONTENT,
+      IOUtils.toString(new InflaterInputStream(new ByteArrayInputStream(entry.getDeflatedContent())), encoding));
+  }
+
+  @Test
+  public void shouldDecompressContentCompressedForEachRequest()
+    throws Exception {
+    Context.get().getConfig().setCacheGzippedContent(false);
+    final ContentHashEntry entry = ContentHashEntry.valueOf(RAW_CONTENT, "hash");
+    final String encoding = Context.get().getConfig().getEncoding();
+    Assert.assertEquals(RAW_CONTENT,
+      IOUtils.toString(new GZIPInputStream(new ByteArrayInputStream(entry.getGzippedContent())), encoding));
+    Assert.assertEquals(RAW_CONTENT,
+      IOUtils.toString(new InflaterInputStream(new ByteArrayInputStream(entry.getDeflatedContent())), encoding));
+  }
+
+  @Test
+  public void shouldHoldOnlyEncodedContentWhenCompressedContentIsNotCached() {
+    Context.get().getConfig().setCacheGzippedContent(false);
+    final ContentHashEntry entry = ContentHashEntry.valueOf(RAW_CONTENT, "hash");
+    Assert.assertEquals(entry.getEncodedContent().length, entry.getWeight());
+    Assert.assertEquals(RAW_CONTENT, entry.getRawContent());
+  }
+
   @After
   public void tearDown() {
     Context.unset();
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.Assert;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ro.isdc.wro.cache.impl.MemoryCacheStrategy;
+import ro.isdc.wro.config.Context;
+import ro.isdc.wro.manager.factory.BaseWroManagerFactory;
+import ro.isdc.wro.manager.factory.WroManagerFactory;
+import ro.isdc.wro.model.WroModel;
+import ro.isdc.wro.model.group.Group;
+import ro.isdc.wro.model.group.processor.InjectorBuilder;
+import ro.isdc.wro.model.resource.Resource;
+import ro.isdc.wro.model.resource.ResourceType;
+import ro.isdc.wro.model.resource.locator.UriLocator;
+import ro.isdc.wro.model.resource.locator.factory.SimpleUriLocatorFactory;
+import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.model.resource.processor.factory.SimpleProcessorsFactory;
+import ro.isdc.wro.model.resource.processor.impl.PlaceholderProcessor;
+import ro.isdc.wro.util.WroTestUtils;
+
+
+/**
+ * Tests the {@link DiskCacheStrategyDecorator} class.
+ */
+public class TestDiskCacheStrategyDecorator {
+  private static final CacheEntry KEY = new CacheEntry("group", ResourceType.JS, true);
+  private File directory;
+  private WroManagerFactory managerFactory;
+  /**
+   * The content of the resources located by uri.
+   */
+  private final Map<String, String> resources = new HashMap<String, String>();
+
+  @Before
+  public void setUp() {
+    Context.set(Context.standaloneContext());
+    directory = new File(FileUtils.getTempDirectory(), "wro4j-" + System.nanoTime());
+    resources.put("/a.js", "alert(1);");
+    managerFactory = createManagerFactory();
+  }
+
+  private BaseWroManagerFactory createManagerFactory() {
+    final Group group = new Group("group").addResource(Resource.create("/a.js", ResourceType.JS));
+    return new BaseWroManagerFactory().setModelFactory(
+      WroTestUtils.simpleModelFactory(new WroModel().addGroup(group))).setUriLocatorFactory(
+      new SimpleUriLocatorFactory().addUriLocator(new UriLocator() {
+        public boolean accept(final String uri) {
+          return true;
+        }
+
+        public InputStream locate(final String uri)
+          throws IOException {
+          final String content = resources.get(uri);
+          if (content == null) {
+            throw new IOException("Cannot locate " + uri);
+          }
+          return new ByteArrayInputStream(content.getBytes());
+        }
+      }));
+  }
+
+  @After
+  public void tearDown() {
+    managerFactory.destroy();
+    FileUtils.deleteQuietly(directory);
+    Context.unset();
+  }
+
+  private DiskCacheStrategyDecorator createDecorator() {
+    final DiskCacheStrategyDecorator decorator = new DiskCacheStrategyDecorator(
+      new MemoryCacheStrategy<CacheEntry, ContentHashEntry>(), directory);
+    InjectorBuilder.create(managerFactory).build().inject(decorator);
+    return decorator;
+  }
+
+  @Test
+  public void shouldReusePersistedEntryAfterRestart() {
+    createDecorator().put(KEY, ContentHashEntry.valueOf("processed", "hash"));
+
+    final ContentHashEntry entry = createDecorator().get(KEY);
+    Assert.assertNotNull(entry);
+    Assert.assertTrue(entry.isBufferBacked());
+    Assert.assertEquals("processed", entry.getRawContent());
+    Assert.assertEquals("hash", entry.getHash());
+  }
+
+  @Test
+  public void shouldNotReusePersistedEntryWhenResourceChanged() {
+    createDecorator().put(KEY, ContentHashEntry.valueOf("processed", "hash"));
+    resources.put("/a.js", "alert(2);");
+
+    Assert.assertNull(createDecorator().get(KEY));
+  }
+
+  @Test
+  public void shouldIgnoreCorruptedFile()
+    throws Exception {
+    createDecorator().put(KEY, ContentHashEntry.valueOf("processed", "hash"));
+    final File[] files = directory.listFiles();
+    Assert.assertEquals(1, files.length);
+    FileUtils.writeStringToFile(files[0], "corrupted");
+
+    Assert.assertNull(createDecorator().get(KEY));
+  }
+
+  @Test
+  public void shouldDeletePreviousFilesOfTheSameEntry() {
+    final DiskCacheStrategyDecorator decorator = createDecorator();
+    decorator.put(KEY, ContentHashEntry.valueOf("processed", "hash"));
+    resources.put("/a.js", "alert(2);");
+    decorator.put(KEY, ContentHashEntry.valueOf("processed2", "hash2"));
+
+    Assert.assertEquals(1, directory.listFiles().length);
+    Assert.assertEquals("processed2", createDecorator().get(KEY).getRawContent());
+  }
+
+  @Test
+  public void shouldPersistEntryPutAfterReuseWithTheCurrentFingerprint() {
+    createDecorator().put(KEY, ContentHashEntry.valueOf("processed", "hash"));
+    final DiskCacheStrategyDecorator decorator = createDecorator();
+    Assert.assertNotNull(decorator.get(KEY));
+    resources.put("/a.js", "alert(2);");
+    decorator.put(KEY, ContentHashEntry.valueOf("processed2", "hash2"));
+
+    Assert.assertEquals("processed2", createDecorator().get(KEY).getRawContent());
+    resources.put("/a.js", "alert(1);");
+    Assert.assertNull(createDecorator().get(KEY));
+  }
+
+  @Test
+  public void shouldDeleteFilesWhenCleared() {
+    final DiskCacheStrategyDecorator decorator = createDecorator();
+    decorator.put(KEY, ContentHashEntry.valueOf("processed", "hash"));
+    decorator.clear();
+
+    Assert.assertNull(decorator.get(KEY));
+    Assert.assertEquals(0, directory.listFiles().length);
+  }
+
+  @Test
+  public void shouldDeleteFilesOfRemovedEntry() {
+    final DiskCacheStrategyDecorator decorator = createDecorator();
+    decorator.put(KEY, ContentHashEntry.valueOf("processed", "hash"));
+    decorator.remove(KEY);
+
+    Assert.assertNull(decorator.get(KEY));
+  }
+
+  @Test
+  public void shouldNotReusePersistedEntryWhenProcessorConfigurationChanged() {
+    useProcessor(new PlaceholderProcessor().setIgnoreMissingVariables(true));
+    createDecorator().put(KEY, ContentHashEntry.valueOf("processed", "hash"));
+    Assert.assertNotNull(createDecorator().get(KEY));
+
+    useProcessor(new PlaceholderProcessor().setIgnoreMissingVariables(false));
+    Assert.assertNull(createDecorator().get(KEY));
+  }
+
+  private void useProcessor(final ResourcePreProcessor processor) {
+    managerFactory.destroy();
+    final BaseWroManagerFactory factory = createManagerFactory();
+    factory.setProcessorsFactory(new SimpleProcessorsFactory().addPreProcessor(processor));
+    managerFactory = factory;
+  }
+}
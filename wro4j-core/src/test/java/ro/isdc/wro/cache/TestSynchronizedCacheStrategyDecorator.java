@@ -64,6 +64,131 @@ public class TestSynchronizedCacheStrategyDecorator {
     Assert.assertEquals(2, count.get());
   }
 
+  @Test
+  public void shouldServeStaleValueUntilRevalidated() {
+    final AtomicInteger count = createSlowCountingDecorator();
+    final String key = "key";
+    Assert.assertEquals("value-key", victim.get(key));
+    victim.markStale();
+    Assert.assertTrue(victim.isStale(key));
+    Assert.assertEquals("value-key", victim.get(key));
+    Assert.assertEquals(1, count.get());
+    Assert.assertTrue(victim.revalidate(key));
+    Assert.assertFalse(victim.isStale(key));
+    Assert.assertEquals(2, count.get());
+  }
+
+  @Test
+  public void shouldNotRevalidateFreshValue() {
+    final AtomicInteger count = createSlowCountingDecorator();
+    final String key = "key";
+    victim.get(key);
+    Assert.assertFalse(victim.revalidate(key));
+    Assert.assertEquals(1, count.get());
+  }
+
+  @Test
+  public void shouldRevalidateOnlyOnceWhenInvokedConcurrently() throws Exception {
+    final AtomicInteger count = createSlowCountingDecorator();
+    final String key = "key";
+    victim.get(key);
+    victim.markStale();
+    for (int i = 0; i < 5; i++) {
+      executor.execute(new Runnable() {
+        public void run() {
+          victim.revalidate(key);
+        }
+      });
+    }
+    awaitTermination();
+    Assert.assertEquals(2, count.get());
+  }
+
+  @Test
+  public void shouldNotOverwriteValueRemovedDuringRevalidation() throws Exception {
+    createSlowCountingDecorator();
+    final String key = "key";
+    victim.get(key);
+    victim.markStale();
+    executor.execute(new Runnable() {
+      public void run() {
+        victim.revalidate(key);
+      }
+    });
+    Thread.sleep(100);
+    victim.remove(key);
+    awaitTermination();
+    Assert.assertNull(decorated.get(key));
+  }
+
+  @Test
+  public void shouldNotRetrieveValueWhenRevalidating() {
+    final AtomicInteger retrievals = new AtomicInteger();
+    decorated = new MemoryCacheStrategy<String, String>() {
+      @Override
+      public String get(final String key) {
+        retrievals.incrementAndGet();
+        return super.get(key);
+      }
+    };
+    createSlowCountingDecorator();
+    final String key = "key";
+    victim.get(key);
+    victim.markStale();
+    retrievals.set(0);
+    Assert.assertTrue(victim.revalidate(key));
+    Assert.assertEquals(0, retrievals.get());
+    Assert.assertEquals("value-key", decorated.get(key));
+  }
+
+  @Test
+  public void shouldKeepValueRevalidatedWhileAnotherKeyIsRemoved() throws Exception {
+    final AtomicInteger count = createSlowCountingDecorator();
+    final String key = "key";
+    victim.get(key);
+    victim.get("other");
+    victim.markStale();
+    executor.execute(new Runnable() {
+      public void run() {
+        victim.revalidate(key);
+      }
+    });
+    Thread.sleep(100);
+    victim.remove("other");
+    awaitTermination();
+    Assert.assertEquals(3, count.get());
+    Assert.assertFalse(victim.isStale(key));
+    Assert.assertEquals("value-key", decorated.get(key));
+  }
+
+  @Test
+  public void shouldNotOverwriteValueClearedDuringRevalidation() throws Exception {
+    createSlowCountingDecorator();
+    final String key = "key";
+    victim.get(key);
+    victim.markStale();
+    executor.execute(new Runnable() {
+      public void run() {
+        victim.revalidate(key);
+      }
+    });
+    Thread.sleep(100);
+    victim.clear();
+    awaitTermination();
+    Assert.assertNull(decorated.get(key));
+  }
+
+  @Test
+  public void shouldMarkStaleOnlyCachedKeys() {
+    createSlowCountingDecorator();
+    victim.get("key1");
+    victim.get("key2");
+    victim.remove("key2");
+    victim.markStale();
+    Assert.assertTrue(victim.isStale("key1"));
+    Assert.assertFalse(victim.isStale("key2"));
+  }
+
   protected AtomicInteger createSlowCountingDecorator() {
     final AtomicInteger count = new AtomicInteger();
     victim = new AbstractSynchronizedCacheStrategyDecorator<String, String>(decorated) {
@@ -57,6 +57,21 @@ public class TestMemoryCacheStrategy {
     cache.destroy();
     Assert.assertNull(cache.get(key));
   }
+
+  @Test
+  public void shouldRemoveOnlyProvidedKey() throws IOException {
+    final CacheEntry key1 = new CacheEntry("testGroup01", ResourceType.JS, false);
+    final CacheEntry key2 = new CacheEntry("testGroup02", ResourceType.JS, false);
+    final String content = "var foo = 'Hello World';";
+    final String hash = new CRC32HashBuilder().getHash(new ByteArrayInputStream(content.getBytes()));
+
+    cache.put(key1, ContentHashEntry.valueOf(content, hash));
+    cache.put(key2, ContentHashEntry.valueOf(content, hash));
+    cache.remove(key1);
+
+    Assert.assertNull(cache.get(key1));
+    Assert.assertNotNull(cache.get(key2));
+  }
   
 
   @After
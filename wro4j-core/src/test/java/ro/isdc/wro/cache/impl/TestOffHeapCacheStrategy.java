@@ -0,0 +1,176 @@
+package ro.isdc.wro.cache.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.GZIPInputStream;
+
+import junit.framework.Assert;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ro.isdc.wro.cache.CacheEntry;
+import ro.isdc.wro.cache.ContentHashEntry;
+import ro.isdc.wro.config.Context;
+import ro.isdc.wro.model.resource.ResourceType;
+
+
+/**
+ * Tests the {@link OffHeapCacheStrategy} class.
+ */
+public class TestOffHeapCacheStrategy {
+  private OffHeapCacheStrategy cache;
+
+  @Before
+  public void setUp() {
+    Context.set(Context.standaloneContext());
+    cache = new OffHeapCacheStrategy(8192, 4096);
+  }
+
+  @After
+  public void tearDown() {
+    cache.destroy();
+    Context.unset();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void cannotCreateStrategyWithSlabLargerThanCapacity() {
+    new OffHeapCacheStrategy(100, 200);
+  }
+
+  @Test
+  public void shouldHoldContentOutsideOfTheHeap()
+    throws Exception {
+    final CacheEntry key = new CacheEntry("g1", ResourceType.JS, true);
+    cache.put(key, ContentHashEntry.valueOf("alert(1);", "hash"));
+
+    final ContentHashEntry entry = cache.get(key);
+    Assert.assertTrue(entry.isBufferBacked());
+    Assert.assertEquals("alert(1);", entry.getRawContent());
+    Assert.assertEquals("hash", entry.getHash());
+    Assert.assertEquals("alert(1);",
+      IOUtils.toString(new GZIPInputStream(new ByteArrayInputStream(entry.getGzippedContent())), "UTF-8"));
+    Assert.assertTrue(cache.getAllocatedSize() > 0);
+  }
+
+  @Test
+  public void shouldWriteBufferToStream()
+    throws Exception {
+    final CacheEntry key = new CacheEntry("g1", ResourceType.CSS, false);
+    cache.put(key, ContentHashEntry.valueOf("body {}", "hash"));
+
+    final ContentHashEntry entry = cache.get(key);
+    final ByteBuffer buffer = entry.getEncodedContentBuffer();
+    Assert.assertEquals(7, buffer.remaining());
+    final ByteArrayOutputStream os = new ByteArrayOutputStream();
+    entry.write(buffer, os);
+    Assert.assertEquals("body {}", new String(os.toByteArray(), "UTF-8"));
+  }
+
+  @Test
+  public void shouldKeepOnTheHeapContentLargerThanSlab() {
+    final CacheEntry key = new CacheEntry("g1", ResourceType.JS, true);
+    final String content = RandomStringUtils.randomAlphanumeric(5000);
+    cache.put(key, ContentHashEntry.valueOf(content, "hash"));
+
+    final ContentHashEntry entry = cache.get(key);
+    Assert.assertFalse(entry.isBufferBacked());
+    Assert.assertEquals(content, entry.getRawContent());
+    Assert.assertEquals(0, cache.getAllocatedSize());
+  }
+
+  @Test
+  public void shouldNotReuseMemoryOfEvictedEntryStillInUse()
+    throws Exception {
+    final String content = RandomStringUtils.randomAlphanumeric(1500);
+    cache.put(createKey(0), ContentHashEntry.valueOf(content, "hash"));
+    final ContentHashEntry inUse = cache.get(createKey(0));
+    final ByteBuffer buffer = inUse.getEncodedContentBuffer();
+    // each entry needs a slab, thus both previous entries are evicted
+    cache.put(createKey(1), ContentHashEntry.valueOf(RandomStringUtils.randomAlphanumeric(1500), "hash"));
+    cache.put(createKey(2), ContentHashEntry.valueOf(RandomStringUtils.randomAlphanumeric(1500), "hash"));
+    Assert.assertNull(cache.get(createKey(0)));
+    Assert.assertNull(cache.get(createKey(1)));
+    final long allocatedSize = cache.getAllocatedSize();
+
+    final ByteArrayOutputStream os = new ByteArrayOutputStream();
+    inUse.write(buffer, os);
+    Assert.assertEquals(content, new String(os.toByteArray(), "UTF-8"));
+    Assert.assertTrue(cache.getAllocatedSize() < allocatedSize);
+  }
+
+  @Test
+  public void shouldReuseMemoryOfEvictedEntryAsSoonAsReleased() {
+    cache = new OffHeapCacheStrategy(4096, 4096);
+    cache.put(createKey(0), ContentHashEntry.valueOf(RandomStringUtils.randomAlphanumeric(1500), "hash"));
+    final ContentHashEntry inUse = cache.get(createKey(0));
+    cache.put(createKey(1), ContentHashEntry.valueOf(RandomStringUtils.randomAlphanumeric(1500), "hash"));
+    // the memory of the evicted entry is still in use
+    Assert.assertFalse(cache.get(createKey(1)).isBufferBacked());
+
+    inUse.release();
+    Assert.assertEquals(0, cache.getAllocatedSize());
+    cache.put(createKey(2), ContentHashEntry.valueOf(RandomStringUtils.randomAlphanumeric(1500), "hash"));
+    Assert.assertTrue(cache.get(createKey(2)).isBufferBacked());
+  }
+
+  @Test
+  public void shouldReuseMemoryOfRemovedEntryOnceReleased() {
+    cache.put(createKey(0), ContentHashEntry.valueOf("content", "hash"));
+    final ContentHashEntry inUse = cache.get(createKey(0));
+    cache.remove(createKey(0));
+    Assert.assertTrue(cache.getAllocatedSize() > 0);
+    inUse.release();
+    Assert.assertEquals(0, cache.getAllocatedSize());
+  }
+
+  @Test
+  public void shouldEvictLeastRecentlyUsedEntriesKeptOnTheHeap() {
+    // only the encoded content is kept on the heap
+    Context.get().getConfig().setCacheGzippedContent(false);
+    cache = new OffHeapCacheStrategy(4096, 4096, 12000);
+    cache.put(createKey(0), ContentHashEntry.valueOf(RandomStringUtils.randomAlphanumeric(5000), "hash"));
+    cache.put(createKey(1), ContentHashEntry.valueOf(RandomStringUtils.randomAlphanumeric(5000), "hash"));
+    cache.get(createKey(0));
+    cache.put(createKey(2), ContentHashEntry.valueOf(RandomStringUtils.randomAlphanumeric(5000), "hash"));
+
+    Assert.assertNotNull(cache.get(createKey(0)));
+    Assert.assertNull(cache.get(createKey(1)));
+    Assert.assertNotNull(cache.get(createKey(2)));
+    Assert.assertEquals(10000, cache.getHeapSize());
+  }
+
+  @Test
+  public void shouldNotCacheEntryLargerThanHeapCapacity() {
+    cache = new OffHeapCacheStrategy(4096, 4096, 0);
+    cache.put(createKey(0), ContentHashEntry.valueOf(RandomStringUtils.randomAlphanumeric(5000), "hash"));
+    Assert.assertNull(cache.get(createKey(0)));
+  }
+
+  private CacheEntry createKey(final int index) {
+    return new CacheEntry("g" + index, ResourceType.JS, true);
+  }
+
+  @Test
+  public void shouldRemoveOnlyProvidedKey() {
+    final CacheEntry key1 = new CacheEntry("g1", ResourceType.JS, true);
+    final CacheEntry key2 = new CacheEntry("g2", ResourceType.JS, true);
+    cache.put(key1, ContentHashEntry.valueOf("content1", "hash"));
+    cache.put(key2, ContentHashEntry.valueOf("content2", "hash"));
+    cache.remove(key1);
+    Assert.assertNull(cache.get(key1));
+    Assert.assertEquals("content2", cache.get(key2).getRawContent());
+  }
+
+  @Test
+  public void shouldRemoveAllEntriesOnClear() {
+    final CacheEntry key = new CacheEntry("g1", ResourceType.JS, true);
+    cache.put(key, ContentHashEntry.valueOf("content", "hash"));
+    cache.clear();
+    Assert.assertNull(cache.get(key));
+  }
+}
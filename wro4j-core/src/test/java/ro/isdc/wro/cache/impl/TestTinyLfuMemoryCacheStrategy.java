@@ -0,0 +1,159 @@
+package ro.isdc.wro.cache.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import junit.framework.Assert;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import ro.isdc.wro.cache.Weigher;
+
+
+/**
+ * Tests the {@link TinyLfuMemoryCacheStrategy} class.
+ */
+public class TestTinyLfuMemoryCacheStrategy {
+  private static final Weigher<String> LENGTH_WEIGHER = new Weigher<String>() {
+    public long weigh(final String value) {
+      return value.length();
+    }
+  };
+  private TinyLfuMemoryCacheStrategy<String, String> cache;
+
+  @Before
+  public void setUp() {
+    cache = new TinyLfuMemoryCacheStrategy<String, String>(100, LENGTH_WEIGHER);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void cannotCreateCacheWithInvalidMaximumWeight() {
+    new TinyLfuMemoryCacheStrategy<String, String>(0, LENGTH_WEIGHER);
+  }
+
+  @Test
+  public void shouldRetrieveCachedValue() {
+    cache.put("key", "value");
+    Assert.assertEquals("value", cache.get("key"));
+    Assert.assertEquals(5, cache.getWeightedSize());
+  }
+
+  @Test
+  public void shouldReplaceExistingValue() {
+    cache.put("key", "value");
+    cache.put("key", "other value");
+    Assert.assertEquals("other value", cache.get("key"));
+    Assert.assertEquals(11, cache.getWeightedSize());
+  }
+
+  @Test
+  public void shouldNotCacheValueHeavierThanMaximumWeight() {
+    cache.put("key", StringUtils.repeat('a', 101));
+    Assert.assertNull(cache.get("key"));
+    Assert.assertEquals(0, cache.getWeightedSize());
+  }
+
+  @Test
+  public void shouldNotExceedMaximumWeight() {
+    for (int i = 0; i < 100; i++) {
+      cache.put("key" + i, "0123456789");
+      Assert.assertTrue(cache.getWeightedSize() <= 100);
+    }
+  }
+
+  @Test
+  public void largeRarelyUsedValueShouldNotEvictFrequentlyUsedValues() {
+    for (int i = 0; i < 10; i++) {
+      cache.put("key" + i, "012345678");
+    }
+    for (int round = 0; round < 5; round++) {
+      for (int i = 0; i < 10; i++) {
+        cache.get("key" + i);
+      }
+    }
+    cache.put("large", StringUtils.repeat('a', 60));
+    Assert.assertNull(cache.get("large"));
+    for (int i = 0; i < 10; i++) {
+      Assert.assertNotNull(cache.get("key" + i));
+    }
+  }
+
+  @Test
+  public void frequentlyUsedValueShouldBeAdmitted() {
+    for (int i = 0; i < 10; i++) {
+      cache.put("key" + i, "012345678");
+    }
+    final String large = StringUtils.repeat('a', 60);
+    for (int round = 0; round < 5; round++) {
+      cache.get("large");
+    }
+    cache.put("large", large);
+    Assert.assertEquals(large, cache.get("large"));
+    Assert.assertTrue(cache.getWeightedSize() <= 100);
+  }
+
+  @Test
+  public void shouldRemoveOnlyProvidedKey() {
+    cache.put("key1", "value1");
+    cache.put("key2", "value2");
+    cache.remove("key1");
+    Assert.assertNull(cache.get("key1"));
+    Assert.assertEquals("value2", cache.get("key2"));
+    Assert.assertEquals(6, cache.getWeightedSize());
+  }
+
+  @Test
+  public void shouldRemoveAllEntriesOnClear() {
+    cache.put("key1", "value1");
+    cache.put("key2", "value2");
+    cache.clear();
+    Assert.assertNull(cache.get("key1"));
+    Assert.assertNull(cache.get("key2"));
+    Assert.assertEquals(0, cache.getWeightedSize());
+  }
+
+  @Test
+  public void shouldBoundByNumberOfEntriesByDefault() {
+    final TinyLfuMemoryCacheStrategy<Integer, String> countCache = new TinyLfuMemoryCacheStrategy<Integer, String>();
+    for (int i = 0; i < LruMemoryCacheStrategy.DEFAULT_SIZE * 2; i++) {
+      countCache.put(i, "value");
+    }
+    Assert.assertEquals(LruMemoryCacheStrategy.DEFAULT_SIZE, countCache.getWeightedSize());
+  }
+
+  @Test
+  public void shouldBeThreadSafe()
+    throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+    for (int i = 0; i < 8; i++) {
+      futures.add(executor.submit(new Callable<Void>() {
+        public Void call() {
+          final Random random = new Random();
+          for (int j = 0; j < 10000; j++) {
+            final String key = "key" + random.nextInt(50);
+            if (cache.get(key) == null) {
+              cache.put(key, "0123456789");
+            }
+            if (j % 100 == 0) {
+              cache.remove(key);
+            }
+          }
+          return null;
+        }
+      }));
+    }
+    for (final Future<Void> future : futures) {
+      future.get();
+    }
+    executor.shutdown();
+    Assert.assertTrue(cache.getWeightedSize() <= 100);
+  }
+}
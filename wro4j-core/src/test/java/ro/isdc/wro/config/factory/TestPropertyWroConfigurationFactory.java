@@ -46,8 +46,13 @@ public class TestPropertyWroConfigurationFactory {
     Assert.assertEquals(true, config.isIgnoreEmptyGroup());
     Assert.assertEquals(false, config.isIgnoreFailingProcessor());
     Assert.assertEquals(true, config.isJmxEnabled());
-    Assert.assertEquals(false, config.isCacheGzippedContent());
+    Assert.assertEquals(true, config.isCacheGzippedContent());
     Assert.assertEquals(false, config.isParallelPreprocessing());
+    Assert.assertEquals(false, config.isStaleWhileRevalidate());
+    Assert.assertEquals(0, config.getPreProcessingCacheSize());
+    Assert.assertEquals(false, config.isWarmUpEnabled());
+    Assert.assertEquals(0, config.getWarmUpTimeout());
+    Assert.assertNull(config.getWarmUpFolder());
     Assert.assertEquals(WroConfiguration.DEFAULT_CONNECTION_TIMEOUT, config.getConnectionTimeout());
     Assert.assertEquals(WroConfiguration.DEFAULT_ENCODING, config.getEncoding());
     Assert.assertEquals(WroConfiguration.DEFAULT_CONNECTION_TIMEOUT, config.getConnectionTimeout());
@@ -56,12 +61,12 @@ public class TestPropertyWroConfigurationFactory {
   @Test
   public void invalidBooleanFallbacksToFalse() {
     final Properties props = new Properties();
-    props.setProperty(ConfigConstants.cacheGzippedContent.name(), "INVALID_BOOLEAN");
+    props.setProperty(ConfigConstants.parallelPreprocessing.name(), "INVALID_BOOLEAN");
     
     factory = new PropertyWroConfigurationFactory(props);
     final WroConfiguration config = factory.create();
 
-    Assert.assertEquals(false, config.isCacheGzippedContent());
+    Assert.assertEquals(false, config.isParallelPreprocessing());
   }
 
   @Test
@@ -71,11 +76,16 @@ public class TestPropertyWroConfigurationFactory {
     props.setProperty(ConfigConstants.modelUpdatePeriod.name(), "20");
     props.setProperty(ConfigConstants.disableCache.name(), "true");
     props.setProperty(ConfigConstants.gzipResources.name(), "false");
-    props.setProperty(ConfigConstants.cacheGzippedContent.name(), "true");
+    props.setProperty(ConfigConstants.cacheGzippedContent.name(), "false");
     props.setProperty(ConfigConstants.parallelPreprocessing.name(), "true");
     props.setProperty(ConfigConstants.ignoreEmptyGroup.name(), "false");
     props.setProperty(ConfigConstants.ignoreFailingProcessor.name(), "true");
     props.setProperty(ConfigConstants.connectionTimeout.name(), "5000");
+    props.setProperty(ConfigConstants.staleWhileRevalidate.name(), "true");
+    props.setProperty(ConfigConstants.preProcessingCacheSize.name(), "100000");
+    props.setProperty(ConfigConstants.warmUpEnabled.name(), "true");
+    props.setProperty(ConfigConstants.warmUpTimeout.name(), "3000");
+    props.setProperty(ConfigConstants.warmUpFolder.name(), "/wro/");
     
     factory = new PropertyWroConfigurationFactory(props);
 
@@ -85,11 +95,16 @@ public class TestPropertyWroConfigurationFactory {
     Assert.assertEquals(20, config.getModelUpdatePeriod());
     Assert.assertEquals(true, config.isDisableCache());
     Assert.assertEquals(false, config.isGzipEnabled());
-    Assert.assertEquals(true, config.isCacheGzippedContent());
+    Assert.assertEquals(false, config.isCacheGzippedContent());
     Assert.assertEquals(true, config.isParallelPreprocessing());
     Assert.assertEquals(false, config.isIgnoreEmptyGroup());
     Assert.assertEquals(true, config.isIgnoreFailingProcessor());
     Assert.assertEquals(5000, config.getConnectionTimeout());
+    Assert.assertEquals(true, config.isStaleWhileRevalidate());
+    Assert.assertEquals(100000, config.getPreProcessingCacheSize());
+    Assert.assertEquals(true, config.isWarmUpEnabled());
+    Assert.assertEquals(3000, config.getWarmUpTimeout());
+    Assert.assertEquals("/wro/", config.getWarmUpFolder());
   }
 
 
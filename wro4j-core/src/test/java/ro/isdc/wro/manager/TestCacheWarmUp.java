@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.manager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ro.isdc.wro.cache.CacheEntry;
+import ro.isdc.wro.config.Context;
+import ro.isdc.wro.config.jmx.WroConfiguration;
+import ro.isdc.wro.manager.factory.BaseWroManagerFactory;
+import ro.isdc.wro.manager.factory.WroManagerFactory;
+import ro.isdc.wro.model.WroModel;
+import ro.isdc.wro.model.group.Group;
+import ro.isdc.wro.model.resource.Resource;
+import ro.isdc.wro.model.resource.ResourceType;
+import ro.isdc.wro.model.resource.locator.UriLocator;
+import ro.isdc.wro.model.resource.locator.factory.SimpleUriLocatorFactory;
+import ro.isdc.wro.util.WroTestUtils;
+
+
+/**
+ * Tests the {@link CacheWarmUp} class.
+ */
+public class TestCacheWarmUp {
+  private WroManagerFactory managerFactory;
+  private WroConfiguration config;
+  /**
+   * The uri of located resources.
+   */
+  private final List<String> locatedUris = new CopyOnWriteArrayList<String>();
+
+  @Before
+  public void setUp() {
+    config = new WroConfiguration();
+    final WroModel model = new WroModel();
+    model.addGroup(new Group("g1").addResource(Resource.create("/g1.js", ResourceType.JS)).addResource(
+      Resource.create("/g1.css", ResourceType.CSS)));
+    model.addGroup(new Group("g2").addResource(Resource.create("/g2.js", ResourceType.JS)));
+    managerFactory = new BaseWroManagerFactory().setModelFactory(WroTestUtils.simpleModelFactory(model)).setUriLocatorFactory(
+      new SimpleUriLocatorFactory().addUriLocator(new UriLocator() {
+        public boolean accept(final String uri) {
+          return true;
+        }
+
+        public InputStream locate(final String uri)
+          throws IOException {
+          locatedUris.add(uri);
+          // a comment is valid content for both js and css processors
+          return new ByteArrayInputStream(("/* " + uri + " */").getBytes());
+        }
+      }));
+  }
+
+  @After
+  public void tearDown() {
+    managerFactory.destroy();
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void cannotCreateWithNullManagerFactory() {
+    new CacheWarmUp(null, config, null);
+  }
+
+  @Test
+  public void shouldProcessAllGroups() {
+    config.setWarmUpFolder("/wro/");
+    final CacheWarmUp warmUp = new CacheWarmUp(managerFactory, config, null).setThreadsCount(2);
+    warmUp.run();
+
+    Assert.assertTrue(warmUp.isCompleted());
+    Assert.assertEquals(6, warmUp.getProcessedCount());
+    Assert.assertEquals(0, warmUp.getFailedCount());
+    assertServedFromCache(new CacheEntry("g2", ResourceType.JS, true));
+    assertServedFromCache(new CacheEntry("g1", ResourceType.CSS, true));
+  }
+
+  @Test
+  public void shouldNotWarmUpWhenFolderOfCssBundlesIsUnknown() {
+    final CacheWarmUp warmUp = new CacheWarmUp(managerFactory, config, null);
+    warmUp.run();
+
+    Assert.assertTrue(warmUp.isCompleted());
+    Assert.assertEquals(0, warmUp.getProcessedCount());
+    Assert.assertEquals(Collections.emptyList(), locatedUris);
+  }
+
+  @Test
+  public void shouldProcessCssGroupsWhenAggregatedFolderPathIsKnown() {
+    final CacheWarmUp warmUp = new CacheWarmUp(managerFactory, config, null).setAggregatedFolderPath("/wro/");
+    warmUp.run();
+
+    Assert.assertEquals(6, warmUp.getProcessedCount());
+    Assert.assertTrue(locatedUris.contains("/g1.css"));
+    assertServedFromCache(new CacheEntry("g1", ResourceType.CSS, false));
+  }
+
+  @Test
+  public void shouldCompleteInBackground()
+    throws Exception {
+    final CacheWarmUp warmUp = new CacheWarmUp(managerFactory, config, null).setAggregatedFolderPath("/wro/");
+    warmUp.start();
+
+    Assert.assertTrue(warmUp.awaitCompletion(10, TimeUnit.SECONDS));
+    Assert.assertEquals(6, warmUp.getProcessedCount());
+  }
+
+  @Test
+  public void shouldNotProcessGroupsWhenStopped()
+    throws Exception {
+    final CacheWarmUp warmUp = new CacheWarmUp(managerFactory, config, null);
+    warmUp.stop();
+    warmUp.start();
+
+    Assert.assertTrue(warmUp.awaitCompletion(10, TimeUnit.SECONDS));
+    Assert.assertEquals(0, warmUp.getProcessedCount());
+    Assert.assertEquals(Collections.emptyList(), locatedUris);
+  }
+
+  /**
+   * Checks that retrieving the entry doesn't locate any resource.
+   */
+  private void assertServedFromCache(final CacheEntry entry) {
+    locatedUris.clear();
+    Context.set(Context.standaloneContext(), config);
+    try {
+      Assert.assertNotNull(managerFactory.create().getCacheStrategy().get(entry));
+    } finally {
+      Context.unset();
+    }
+    Assert.assertEquals(Collections.emptyList(), locatedUris);
+  }
+}
@@ -1,12 +1,15 @@
 package ro.isdc.wro.model.factory;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import ro.isdc.wro.WroRuntimeException;
 import ro.isdc.wro.config.Context;
 import ro.isdc.wro.config.jmx.WroConfiguration;
 import ro.isdc.wro.model.WroModel;
@@ -54,4 +57,35 @@ public class TestInMemoryCacheableWroModelFactory {
     assertSame(third, cacheableModelFactory.create());
   }
 
+  @Test
+  public void reloadReplacesModelOnlyWhenTheNewOneIsCreated() throws Exception {
+    final WroModel first = new WroModel();
+    final WroModel second = new WroModel();
+
+    final WroModelFactory underlyingModelFactory = Mockito.mock(WroModelFactory.class);
+    Mockito.when(underlyingModelFactory.create()).thenReturn(first, second);
+
+    final InMemoryCacheableWroModelFactory factory = new InMemoryCacheableWroModelFactory(underlyingModelFactory);
+    cacheableModelFactory = factory;
+
+    assertSame(first, factory.create());
+    assertTrue(factory.reload());
+    assertSame(second, factory.create());
+    assertSame(second, factory.create());
+  }
+
+  @Test
+  public void reloadKeepsPreviousModelWhenCreationFails() throws Exception {
+    final WroModel first = new WroModel();
+
+    final WroModelFactory underlyingModelFactory = Mockito.mock(WroModelFactory.class);
+    Mockito.when(underlyingModelFactory.create()).thenReturn(first).thenThrow(new WroRuntimeException("invalid model"));
+
+    final InMemoryCacheableWroModelFactory factory = new InMemoryCacheableWroModelFactory(underlyingModelFactory);
+    cacheableModelFactory = factory;
+
+    assertSame(first, factory.create());
+    assertFalse(factory.reload());
+    assertSame(first, factory.create());
+  }
 }
@@ -6,7 +6,9 @@ package ro.isdc.wro.model.factory;
 import java.io.InputStream;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import junit.framework.Assert;
 
@@ -18,6 +20,8 @@ import ro.isdc.wro.config.Context;
 import ro.isdc.wro.model.WroModel;
 import ro.isdc.wro.model.group.Group;
 import ro.isdc.wro.model.group.InvalidGroupNameException;
+import ro.isdc.wro.model.resource.Resource;
+import ro.isdc.wro.model.resource.ResourceType;
 
 /**
  * Test class for WroModel..
@@ -62,6 +66,29 @@ public class TestWroModel {
     model.getGroupByName("INVALID_GROUP");
   }
 
+  @Test
+  public void shouldDetectNoChangesForSameModel() {
+    Assert.assertTrue(model.getChangedGroupNames(buildValidModel()).isEmpty());
+  }
+
+  @Test
+  public void shouldDetectChangedGroups() {
+    final WroModel newModel = buildValidModel();
+    newModel.getGroupByName("g1").addResource(Resource.create("/added.js", ResourceType.JS));
+    newModel.addGroup(new Group("newGroup"));
+    final Set<String> changedGroupNames = model.getChangedGroupNames(newModel);
+    Assert.assertEquals(new HashSet<String>(Arrays.asList("g1", "newGroup")), changedGroupNames);
+  }
+
+  @Test
+  public void shouldDetectChangedMinimizeFlag() {
+    final WroModel newModel = buildValidModel();
+    final Group group = newModel.getGroupByName("g1");
+    final Resource resource = group.getResources().get(0);
+    resource.setMinimize(!resource.isMinimize());
+    Assert.assertEquals(Collections.singleton("g1"), model.getChangedGroupNames(newModel));
+  }
+
   /**
    * @return a valid {@link WroModel} pre populated with some valid resources.
    */
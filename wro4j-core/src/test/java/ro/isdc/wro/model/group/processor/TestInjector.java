@@ -130,6 +130,27 @@ public class TestInjector {
   }
 
 
+  @Test
+  public void shouldInjectCurrentValuesWhenInjectingSameClassAgain() {
+    initializeValidInjector();
+    final TestProcessor first = new TestProcessor();
+    injector.inject(first);
+    Assert.assertSame(Context.get(), first.context);
+
+    Context.set(Context.standaloneContext());
+    final TestProcessor second = new TestProcessor();
+    injector.inject(second);
+    Assert.assertSame(Context.get(), second.context);
+    Assert.assertNotSame(first.context, second.context);
+  }
+
+  @Test
+  public void shouldInjectObjectWithoutInjectableFields() {
+    initializeValidInjector();
+    injector.inject(new Object());
+  }
+
+
   @After
   public void tearDown() {
     Context.unset();
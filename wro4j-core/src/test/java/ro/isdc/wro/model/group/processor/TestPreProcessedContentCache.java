@@ -0,0 +1,117 @@
+/*
+ * Copyright Alex Objelean
+ */
+package ro.isdc.wro.model.group.processor;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import junit.framework.Assert;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ro.isdc.wro.model.group.processor.PreProcessedContentCache.Key;
+import ro.isdc.wro.model.resource.Resource;
+import ro.isdc.wro.model.resource.ResourceType;
+import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.model.resource.processor.impl.css.CssCompressorProcessor;
+import ro.isdc.wro.model.resource.processor.impl.js.JSMinProcessor;
+
+
+/**
+ * Tests the {@link PreProcessedContentCache} class.
+ */
+public class TestPreProcessedContentCache {
+  private PreProcessedContentCache cache;
+  private Resource resource;
+
+  @Before
+  public void setUp() {
+    cache = new PreProcessedContentCache(10);
+    resource = Resource.create("/a.js", ResourceType.JS);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void cannotCreateCacheWithInvalidSize() {
+    new PreProcessedContentCache(0);
+  }
+
+  @Test
+  public void shouldRetrieveCachedContent() {
+    cache.put(createKey(resource, "hash"), "content");
+    Assert.assertEquals("content", cache.get(createKey(resource, "hash")));
+    Assert.assertEquals(7, cache.getSize());
+  }
+
+  @Test
+  public void shouldNotFindContentWithDifferentFingerprint() {
+    cache.put(createKey(resource, "hash"), "content");
+    Assert.assertNull(cache.get(createKey(resource, "otherHash")));
+  }
+
+  @Test
+  public void shouldNotFindContentProcessedWithOtherProcessors() {
+    final ResourcePreProcessor processor = new JSMinProcessor();
+    cache.put(new Key(resource, true, "hash", Arrays.asList(processor)), "content");
+    Assert.assertEquals("content", cache.get(new Key(resource, true, "hash", Arrays.asList(processor))));
+    Assert.assertNull(cache.get(new Key(resource, true, "hash", Arrays.<ResourcePreProcessor> asList(new JSMinProcessor()))));
+    Assert.assertNull(cache.get(new Key(resource, true, "hash",
+      Arrays.<ResourcePreProcessor> asList(processor, new CssCompressorProcessor()))));
+    Assert.assertNull(cache.get(new Key(resource, false, "hash", Arrays.asList(processor))));
+  }
+
+  @Test
+  public void shouldNotCacheContentLargerThanMaxSize() {
+    cache.put(createKey(resource, "hash"), "very large content");
+    Assert.assertNull(cache.get(createKey(resource, "hash")));
+    Assert.assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  public void shouldEvictLeastRecentlyUsedEntries() {
+    final Resource other = Resource.create("/b.js", ResourceType.JS);
+    final Resource third = Resource.create("/c.js", ResourceType.JS);
+    cache.put(createKey(resource, "hash"), "1234");
+    cache.put(createKey(other, "hash"), "1234");
+    // access the first entry, so that the second one becomes the eldest
+    cache.get(createKey(resource, "hash"));
+    cache.put(createKey(third, "hash"), "1234");
+
+    Assert.assertEquals("1234", cache.get(createKey(resource, "hash")));
+    Assert.assertNull(cache.get(createKey(other, "hash")));
+    Assert.assertEquals("1234", cache.get(createKey(third, "hash")));
+    Assert.assertEquals(8, cache.getSize());
+  }
+
+  @Test
+  public void shouldEvictEntriesWhenMaxSizeIsDecreased() {
+    final Resource other = Resource.create("/b.js", ResourceType.JS);
+    cache.put(createKey(resource, "hash"), "1234");
+    cache.put(createKey(other, "hash"), "1234");
+    cache.setMaxSize(4);
+    Assert.assertEquals(4, cache.getMaxSize());
+    Assert.assertNull(cache.get(createKey(resource, "hash")));
+    Assert.assertEquals("1234", cache.get(createKey(other, "hash")));
+    Assert.assertEquals(4, cache.getSize());
+  }
+
+  @Test
+  public void shouldUpdateSizeWhenReplacingEntry() {
+    cache.put(createKey(resource, "hash"), "1234");
+    cache.put(createKey(resource, "hash"), "12");
+    Assert.assertEquals(2, cache.getSize());
+  }
+
+  @Test
+  public void shouldRemoveAllEntriesOnClear() {
+    cache.put(createKey(resource, "hash"), "content");
+    cache.clear();
+    Assert.assertNull(cache.get(createKey(resource, "hash")));
+    Assert.assertEquals(0, cache.getSize());
+  }
+
+  private Key createKey(final Resource resource, final String fingerprint) {
+    return new Key(resource, true, fingerprint, Collections.<ResourcePreProcessor> emptyList());
+  }
+}
@@ -13,6 +13,7 @@ import java.io.Reader;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.servlet.FilterConfig;
 import javax.servlet.ServletContext;
@@ -275,6 +276,38 @@ public class TestPreProcessorExecutor {
     executor.processAndMerge(resources, true);
   }
 
+  @Test
+  public void shouldNotCacheContentWhenFailingProcessorIsIgnored()
+      throws Exception {
+    Context.get().getConfig().setPreProcessingCacheSize(100);
+    final AtomicBoolean failed = new AtomicBoolean();
+    final ResourcePreProcessor processorFailingOnce = new ResourcePreProcessor() {
+      public void process(final Resource resource, final Reader reader, final Writer writer)
+          throws IOException {
+        if (failed.compareAndSet(false, true)) {
+          throw new WroRuntimeException("Boom!");
+        }
+        writer.write(IOUtils.toString(reader).toUpperCase());
+      }
+    };
+    final UriLocator locator = new UriLocator() {
+      public boolean accept(final String uri) {
+        return true;
+      }
+      public InputStream locate(final String uri)
+          throws IOException {
+        return new ByteArrayInputStream("content".getBytes());
+      }
+    };
+    final BaseWroManagerFactory managerFactory = (BaseWroManagerFactory) createWroManager(processorFailingOnce);
+    managerFactory.setUriLocatorFactory(new SimpleUriLocatorFactory().addUriLocator(locator));
+    InjectorBuilder.create(managerFactory).build().inject(executor);
+
+    final List<Resource> resources = createResources(Resource.create("/script.js", ResourceType.JS));
+    Assert.assertEquals("content", executor.processAndMerge(resources, true));
+    Assert.assertEquals("CONTENT", executor.processAndMerge(resources, true));
+  }
+
   /**
    * When an empty resource is processed, the processing should not fail (warn only).
    */
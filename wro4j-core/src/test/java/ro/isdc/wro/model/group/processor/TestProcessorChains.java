@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.model.group.processor;
+
+import java.util.Arrays;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ro.isdc.wro.config.Context;
+import ro.isdc.wro.manager.factory.BaseWroManagerFactory;
+import ro.isdc.wro.model.group.Inject;
+import ro.isdc.wro.model.group.processor.ProcessorChains.Chain;
+import ro.isdc.wro.model.resource.ResourceType;
+import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.model.resource.processor.decorator.ExceptionHandlingProcessorDecorator;
+import ro.isdc.wro.model.resource.processor.factory.SimpleProcessorsFactory;
+import ro.isdc.wro.model.resource.processor.impl.css.CssImportPreProcessor;
+import ro.isdc.wro.model.resource.processor.impl.css.CssVariablesProcessor;
+import ro.isdc.wro.model.resource.processor.impl.js.JSMinProcessor;
+
+
+/**
+ * Tests the {@link ProcessorChains} class.
+ */
+public class TestProcessorChains {
+  private ProcessorChains<ResourcePreProcessor> chains;
+  private SimpleProcessorsFactory processorsFactory;
+
+  @Before
+  public void setUp() {
+    Context.set(Context.standaloneContext());
+    chains = new ProcessorChains<ResourcePreProcessor>() {
+      @Override
+      protected ExceptionHandlingProcessorDecorator decorate(final ResourcePreProcessor processor) {
+        return new ExceptionHandlingProcessorDecorator(processor);
+      }
+    };
+    processorsFactory = new SimpleProcessorsFactory();
+    processorsFactory.addPreProcessor(new JSMinProcessor()).addPreProcessor(new CssVariablesProcessor()).addPreProcessor(
+      new CssImportPreProcessor());
+  }
+
+  @After
+  public void tearDown() {
+    Context.unset();
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void cannotGetChainOfNullProcessors() {
+    chains.get(null, ResourceType.JS, true);
+  }
+
+  @Test
+  public void shouldContainOnlyProcessorsToApply() {
+    Assert.assertEquals(1, getChain(ResourceType.JS, true).getProcessors().size());
+    Assert.assertTrue(getChain(ResourceType.JS, false).isEmpty());
+    final Chain<ResourcePreProcessor> cssChain = getChain(ResourceType.CSS, true);
+    Assert.assertEquals(2, cssChain.getDecoratedProcessors().size());
+    Assert.assertFalse(cssChain.isUncacheable(0));
+    Assert.assertTrue(cssChain.isUncacheable(1));
+  }
+
+  @Test
+  public void shouldReuseChainWhenProcessorsDoNotChange() {
+    Assert.assertSame(getChain(ResourceType.CSS, true), getChain(ResourceType.CSS, true));
+    Assert.assertNotSame(getChain(ResourceType.CSS, true), getChain(ResourceType.CSS, false));
+  }
+
+  @Test
+  public void shouldRebuildChainWhenProcessorsChange() {
+    final Chain<ResourcePreProcessor> chain = getChain(ResourceType.JS, true);
+    processorsFactory.setResourcePreProcessors(Arrays.<ResourcePreProcessor> asList(new JSMinProcessor()));
+    final Chain<ResourcePreProcessor> rebuilt = getChain(ResourceType.JS, true);
+    Assert.assertNotSame(chain, rebuilt);
+    Assert.assertNotSame(chain.getProcessors().get(0), rebuilt.getProcessors().get(0));
+  }
+
+  @Test
+  public void shouldInjectAgainOnlyWhenContextChanges() {
+    final ContextAwareProcessor processor = new ContextAwareProcessor();
+    processorsFactory.setResourcePreProcessors(Arrays.<ResourcePreProcessor> asList(processor));
+    final Injector injector = InjectorBuilder.create(new BaseWroManagerFactory()).build();
+
+    getChain(ResourceType.JS, true).inject(injector);
+    Assert.assertSame(Context.get(), processor.context);
+
+    processor.context = null;
+    getChain(ResourceType.JS, true).inject(injector);
+    Assert.assertNull(processor.context);
+
+    Context.set(Context.standaloneContext());
+    getChain(ResourceType.JS, true).inject(injector);
+    Assert.assertSame(Context.get(), processor.context);
+  }
+
+  private Chain<ResourcePreProcessor> getChain(final ResourceType type, final boolean minimize) {
+    return chains.get(processorsFactory.getPreProcessors(), type, minimize);
+  }
+
+  private static class ContextAwareProcessor
+      extends JSMinProcessor {
+    @Inject
+    private Context context;
+  }
+}
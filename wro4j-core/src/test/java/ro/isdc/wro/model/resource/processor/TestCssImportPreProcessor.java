@@ -3,16 +3,33 @@
  */
 package ro.isdc.wro.model.resource.processor;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.net.URL;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import junit.framework.Assert;
 
 import org.junit.Before;
 import org.junit.Test;
 
 import ro.isdc.wro.config.Context;
 import ro.isdc.wro.config.jmx.WroConfiguration;
+import ro.isdc.wro.manager.factory.BaseWroManagerFactory;
+import ro.isdc.wro.model.group.processor.InjectorBuilder;
+import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.ResourceType;
+import ro.isdc.wro.model.resource.locator.UriLocator;
+import ro.isdc.wro.model.resource.locator.factory.SimpleUriLocatorFactory;
+import ro.isdc.wro.model.resource.processor.factory.SimpleProcessorsFactory;
 import ro.isdc.wro.model.resource.processor.impl.css.CssImportPreProcessor;
+import ro.isdc.wro.model.resource.processor.support.ProcessingContext;
 import ro.isdc.wro.util.WroTestUtils;
 
 
@@ -43,8 +60,53 @@ public class TestCssImportPreProcessor {
     final File expectedFolder = new File(url.getFile(), "expected");
     WroTestUtils.compareFromDifferentFoldersByExtension(testFolder, expectedFolder, "css", processor);
   }
+
+
+  @Test
+  public void shouldProduceTheSameResultWhenPreProcessingInParallel()
+      throws Exception {
+    Context.get().getConfig().setParallelPreprocessing(true);
+    testFromFolder();
+  }
   
 
+  @Test
+  public void shouldReadAndPreProcessSharedImportOnlyOnce()
+      throws Exception {
+    final List<String> locatedUris = new CopyOnWriteArrayList<String>();
+    final BaseWroManagerFactory factory = new BaseWroManagerFactory().setUriLocatorFactory(
+        new SimpleUriLocatorFactory().addUriLocator(new UriLocator() {
+          public boolean accept(final String uri) {
+            return true;
+          }
+
+          public InputStream locate(final String uri)
+              throws IOException {
+            locatedUris.add(uri);
+            return new ByteArrayInputStream(".shared {color: red;}".getBytes());
+          }
+        }));
+    final CssImportPreProcessor cssImport = new CssImportPreProcessor();
+    factory.setProcessorsFactory(new SimpleProcessorsFactory().addPreProcessor(cssImport));
+    InjectorBuilder.create(factory).build().inject(cssImport);
+
+    final String first = process(cssImport, "/a.css", "@import url(shared.css);.a {}");
+    final String second = process(cssImport, "/b.css", "@import url(shared.css);.b {}");
+    Assert.assertEquals(".shared {color: red;}.a {}", first);
+    Assert.assertEquals(".shared {color: red;}.b {}", second);
+    Assert.assertEquals(Arrays.asList("/shared.css"), locatedUris);
+    Assert.assertFalse(ProcessingContext.isContextOpened());
+  }
+
+
+  private String process(final ResourcePreProcessor cssImport, final String uri, final String css)
+      throws IOException {
+    final StringWriter writer = new StringWriter();
+    cssImport.process(Resource.create(uri, ResourceType.CSS), new StringReader(css), writer);
+    return writer.toString();
+  }
+
+
   @Test
   public void shouldSupportCorrectResourceTypes() {
     WroTestUtils.assertProcessorSupportResourceTypes(processor, ResourceType.CSS);
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.model.resource.processor;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+
+import org.junit.Test;
+
+import ro.isdc.wro.model.resource.ResourceType;
+import ro.isdc.wro.model.resource.processor.impl.css.FastCssCompressorProcessor;
+import ro.isdc.wro.util.WroTestUtils;
+
+
+/**
+ * Uses the fixtures of {@link TestCssCompressorProcessor}, since the result must be the same.
+ */
+public class TestFastCssCompressorProcessor {
+  @Test
+  public void testFromFolder()
+    throws IOException {
+    final ResourcePostProcessor processor = new FastCssCompressorProcessor();
+
+    final URL url = getClass().getResource("cssCompressor");
+
+    final File testFolder = new File(url.getFile(), "test");
+    final File expectedFolder = new File(url.getFile(), "expected");
+    WroTestUtils.compareFromDifferentFoldersByExtension(testFolder, expectedFolder, "css", processor);
+  }
+
+  @Test
+  public void shouldSupportCorrectResourceTypes() {
+    WroTestUtils.assertProcessorSupportResourceTypes(new FastCssCompressorProcessor(), ResourceType.CSS);
+  }
+}
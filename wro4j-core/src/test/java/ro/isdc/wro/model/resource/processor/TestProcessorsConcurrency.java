@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.model.resource.processor;
+
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+
+import javax.servlet.FilterConfig;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import junit.framework.Assert;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import ro.isdc.wro.config.Context;
+import ro.isdc.wro.config.ContextPropagatingCallable;
+import ro.isdc.wro.model.resource.Resource;
+import ro.isdc.wro.model.resource.ResourceType;
+import ro.isdc.wro.model.resource.SupportedResourceType;
+import ro.isdc.wro.model.resource.locator.ClasspathUriLocator;
+import ro.isdc.wro.model.resource.processor.decorator.ProcessorDecorator;
+import ro.isdc.wro.util.WroTestUtils;
+
+
+/**
+ * Stress test checking that each built-in processor produces the same result when the same instance is used by many
+ * threads, as it happens when parallelPreprocessing is enabled.
+ */
+public class TestProcessorsConcurrency {
+  private static final String PROCESSOR_FOLDER = "classpath:ro/isdc/wro/model/resource/processor/";
+  private static final int TIMES = 200;
+  private final Resource[] resources = new Resource[] {
+    Resource.create(PROCESSOR_FOLDER + "duplicateAwareDataUri/test/testDuplicate.css", ResourceType.CSS),
+    Resource.create(PROCESSOR_FOLDER + "cssImport/test/test1.css", ResourceType.CSS),
+    Resource.create(PROCESSOR_FOLDER + "cssvariables/test/valid.css", ResourceType.CSS),
+    Resource.create(PROCESSOR_FOLDER + "jsmin/test/script1.js", ResourceType.JS)
+  };
+  @Mock
+  private HttpServletRequest mockRequest;
+  @Mock
+  private HttpServletResponse mockResponse;
+  @Mock
+  private FilterConfig mockFilterConfig;
+
+
+  @Before
+  public void setUp() {
+    initMocks(this);
+    when(mockRequest.getRequestURI()).thenReturn("/app/wro/all.css");
+    Context.set(Context.webContext(mockRequest, mockResponse, mockFilterConfig));
+  }
+
+
+  @After
+  public void tearDown() {
+    Context.unset();
+  }
+
+
+  @Test
+  public void shouldProduceTheSameResultWhenPreProcessorsAreUsedConcurrently()
+    throws Exception {
+    final Map<String, ResourcePreProcessor> processors = new TreeMap<String, ResourcePreProcessor>(
+      ProcessorsUtils.createPreProcessorsMap());
+    for (final Map.Entry<String, ResourcePreProcessor> entry : processors.entrySet()) {
+      final String alias = entry.getKey();
+      final ResourcePreProcessor processor = entry.getValue();
+      WroTestUtils.initProcessor(processor);
+      for (final Resource resource : resources) {
+        if (isSupported(processor, resource)) {
+          final String content = IOUtils.toString(new ClasspathUriLocator().locate(resource.getUri()));
+          final String expected = process(processor, resource, content);
+          WroTestUtils.runConcurrently(new ContextPropagatingCallable<Void>(new Callable<Void>() {
+            public Void call()
+              throws Exception {
+              Assert.assertEquals(alias + " processing " + resource.getUri(), expected,
+                process(processor, resource, content));
+              return null;
+            }
+          }), TIMES);
+        }
+      }
+    }
+  }
+
+
+  private boolean isSupported(final ResourcePreProcessor processor, final Resource resource) {
+    final SupportedResourceType supportedType = new ProcessorDecorator(processor).getSupportedResourceType();
+    return supportedType == null || supportedType.value() == resource.getType();
+  }
+
+
+  private String process(final ResourcePreProcessor processor, final Resource resource, final String content)
+    throws Exception {
+    final StringWriter writer = new StringWriter();
+    processor.process(resource, new StringReader(content), writer);
+    return writer.toString();
+  }
+}
@@ -5,8 +5,12 @@ package ro.isdc.wro.model.resource.processor;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.net.URL;
 
+import junit.framework.Assert;
+
 import org.junit.Test;
 
 import ro.isdc.wro.model.resource.ResourceType;
@@ -38,4 +42,19 @@ public class TestSemicolonAppenderPreProcessor {
   public void shouldSupportCorrectResourceTypes() {
     WroTestUtils.assertProcessorSupportResourceTypes(new SemicolonAppenderPreProcessor(), ResourceType.JS);
   }
+
+  @Test
+  public void shouldProduceSameResultWhenProcessingCharSequence()
+    throws IOException {
+    final SemicolonAppenderPreProcessor processor = new SemicolonAppenderPreProcessor();
+    for (final String script : new String[] {
+      "", " \n", "alert(1)", "alert(1);", "alert(1); \r\n\t", "alert(1)\n// comment;\n"
+    }) {
+      final StringWriter expected = new StringWriter();
+      processor.process(null, new StringReader(script), expected);
+      final StringWriter actual = new StringWriter();
+      processor.process(null, new StringBuilder(script), actual);
+      Assert.assertEquals(expected.toString(), actual.toString());
+    }
+  }
 }
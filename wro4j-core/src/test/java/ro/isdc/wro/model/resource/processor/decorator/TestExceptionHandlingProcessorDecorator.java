@@ -8,6 +8,7 @@ import java.io.Writer;
 
 import junit.framework.Assert;
 
+import org.apache.commons.io.output.StringBuilderWriter;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -92,4 +93,23 @@ public class TestExceptionHandlingProcessorDecorator {
         Mockito.any(Writer.class));
     Assert.assertEquals(resourceContent, writer.toString());
   }
+
+  @Test
+  public void shouldDiscardPartialResultWhenStreamingProcessingFails()
+      throws Exception {
+    Context.get().getConfig().setIgnoreFailingProcessor(true);
+    victim = new ExceptionHandlingProcessorDecorator(new ResourcePreProcessor() {
+      public void process(final Resource resource, final Reader reader, final Writer writer)
+          throws IOException {
+        writer.write("partial");
+        throw new IOException("BOOM");
+      }
+    });
+    WroTestUtils.createInjector().inject(victim);
+    final StringBuilderWriter writer = new StringBuilderWriter();
+    writer.write("previous;");
+
+    victim.process(mockResource, "alert(1);", writer);
+    Assert.assertEquals("previous;alert(1);", writer.toString());
+  }
 }
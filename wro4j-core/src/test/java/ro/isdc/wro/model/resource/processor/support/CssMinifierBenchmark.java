@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.model.resource.processor.support;
+
+import java.io.File;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+
+
+/**
+ * Compares the throughput and the allocations of the css minifiers: {@link CssCompressor}, {@link CSSMin},
+ * {@link JawrCssMinifier} and {@link FastCssCompressor}. It is not a unit test, run it using the main method. The
+ * arguments are the stylesheets to minify (ex: bootstrap.css). When no argument is provided, a framework sized
+ * stylesheet (about 1MB) is created by repeating the css compressor test stylesheet.
+ * <p/>
+ * The allocations are measured only on the JVMs supporting the thread allocated bytes (ex: HotSpot).
+ *
+ * @since 1.4.7
+ */
+public class CssMinifierBenchmark {
+  private static final String ENCODING = "UTF-8";
+  private static final int DEFAULT_SIZE = 1024 * 1024;
+  private static final int WARM_UP_ITERATIONS = 10;
+  private static final int ITERATIONS = 30;
+  private static final double MB = 1024d * 1024d;
+
+  private static abstract class MinifierTask {
+    private final String name;
+
+
+    MinifierTask(final String name) {
+      this.name = name;
+    }
+
+
+    abstract int minify(final String css)
+      throws Exception;
+  }
+
+
+  private static MinifierTask[] createTasks() {
+    return new MinifierTask[] {
+      new MinifierTask("CssCompressor") {
+        int minify(final String css)
+          throws Exception {
+          final StringWriter writer = new StringWriter();
+          new CssCompressor(new StringReader(css)).compress(writer, -1);
+          return writer.getBuffer().length();
+        }
+      }, new MinifierTask("CSSMin") {
+        int minify(final String css)
+          throws Exception {
+          final StringWriter writer = new StringWriter();
+          new CSSMin().formatFile(css, writer);
+          return writer.getBuffer().length();
+        }
+      }, new MinifierTask("JawrCssMinifier") {
+        int minify(final String css)
+          throws Exception {
+          return new JawrCssMinifier().minifyCSS(new StringBuffer(css)).length();
+        }
+      }, new MinifierTask("FastCssCompressor") {
+        private final FastCssCompressor compressor = new FastCssCompressor();
+
+        int minify(final String css)
+          throws Exception {
+          final StringWriter writer = new StringWriter();
+          compressor.compress(css, writer);
+          return writer.getBuffer().length();
+        }
+      }
+    };
+  }
+
+
+  private static String createDefaultStylesheet()
+    throws Exception {
+    final String css = IOUtils.toString(
+        CssMinifierBenchmark.class.getResourceAsStream("../cssCompressor/test/style1.css"), ENCODING);
+    final StringBuilder result = new StringBuilder(DEFAULT_SIZE + css.length());
+    while (result.length() < DEFAULT_SIZE) {
+      result.append(css).append('\n');
+    }
+    return result.toString();
+  }
+
+
+  /**
+   * @return the number of bytes allocated by the current thread or -1 if the JVM doesn't support it.
+   */
+  private static long getAllocatedBytes() {
+    final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    if (threadBean instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean) threadBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    return -1;
+  }
+
+
+  public static void main(final String[] args)
+    throws Exception {
+    final String[] names = args.length == 0 ? new String[] { "default" } : args;
+    System.out.println(String.format("%-25s %-18s %10s %10s %10s %16s", "stylesheet", "minifier", "size (KB)", "ms/op",
+        "MB/sec", "allocated MB/MB"));
+    for (final String name : names) {
+      final String css = args.length == 0 ? createDefaultStylesheet() : FileUtils.readFileToString(new File(name),
+          ENCODING);
+      final double sizeInMB = css.length() / MB;
+      for (final MinifierTask task : createTasks()) {
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+          task.minify(css);
+        }
+        final long allocatedBefore = getAllocatedBytes();
+        final long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+          task.minify(css);
+        }
+        final double millisPerOp = (System.nanoTime() - start) / (ITERATIONS * 1e6);
+        final double allocatedPerMB = allocatedBefore < 0 ? Double.NaN : (getAllocatedBytes() - allocatedBefore)
+            / (ITERATIONS * MB * sizeInMB);
+        System.out.println(String.format("%-25s %-18s %10d %10.2f %10.1f %16.1f", new File(name).getName(),
+            task.name, css.length() / 1024, millisPerOp, sizeInMB / (millisPerOp / 1000d), allocatedPerMB));
+      }
+    }
+  }
+}
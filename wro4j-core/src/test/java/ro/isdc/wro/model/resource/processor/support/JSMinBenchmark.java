@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.model.resource.processor.support;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+
+
+/**
+ * Compares the throughput of {@link JSMin} and {@link FastJSMin}. It is not a unit test, run it using the main method.
+ * The arguments are the scripts to minify (ex: jquery.js). When no argument is provided, a jQuery sized script (about
+ * 250KB) is created by repeating the jsmin test script.
+ *
+ * @since 1.4.7
+ */
+public class JSMinBenchmark {
+  private static final String ENCODING = "UTF-8";
+  private static final int DEFAULT_SIZE = 250 * 1024;
+  private static final int WARM_UP_ITERATIONS = 20;
+  private static final int ITERATIONS = 100;
+
+  private static abstract class MinifierTask {
+    private final String name;
+
+
+    MinifierTask(final String name) {
+      this.name = name;
+    }
+
+
+    abstract int minify(final String script)
+      throws Exception;
+  }
+
+
+  private static MinifierTask[] createTasks() {
+    return new MinifierTask[] {
+      new MinifierTask("JSMin") {
+        int minify(final String script)
+          throws Exception {
+          // the same streams as used by the JSMinProcessor before FastJSMin
+          final ByteArrayOutputStream out = new ByteArrayOutputStream();
+          new JSMin(new ByteArrayInputStream(script.getBytes(ENCODING)), out).jsmin();
+          return out.toString(ENCODING).length();
+        }
+      }, new MinifierTask("FastJSMin") {
+        private final FastJSMin jsMin = new FastJSMin();
+
+        int minify(final String script)
+          throws Exception {
+          return jsMin.minify(script).length();
+        }
+      }
+    };
+  }
+
+
+  private static String createDefaultScript()
+    throws Exception {
+    final String script = IOUtils.toString(JSMinBenchmark.class.getResourceAsStream("../jsmin/test/script1.js"),
+        ENCODING);
+    final StringBuilder result = new StringBuilder(DEFAULT_SIZE + script.length());
+    while (result.length() < DEFAULT_SIZE) {
+      result.append(script).append('\n');
+    }
+    return result.toString();
+  }
+
+
+  public static void main(final String[] args)
+    throws Exception {
+    final String[] names = args.length == 0 ? new String[] { "default" } : args;
+    System.out.println(String.format("%-30s %-10s %10s %12s %12s", "script", "minifier", "size (KB)", "ms/op", "MB/sec"));
+    for (final String name : names) {
+      final String script = args.length == 0 ? createDefaultScript() : FileUtils.readFileToString(new File(name),
+          ENCODING);
+      for (final MinifierTask task : createTasks()) {
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+          task.minify(script);
+        }
+        final long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+          task.minify(script);
+        }
+        final double millisPerOp = (System.nanoTime() - start) / (ITERATIONS * 1e6);
+        final double mbPerSecond = script.length() / (1024d * 1024d) / (millisPerOp / 1000d);
+        System.out.println(String.format("%-30s %-10s %10d %12.2f %12.1f", new File(name).getName(), task.name,
+            script.length() / 1024, millisPerOp, mbPerSecond));
+      }
+    }
+  }
+}
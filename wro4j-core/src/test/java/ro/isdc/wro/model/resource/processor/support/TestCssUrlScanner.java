@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.model.resource.processor.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import ro.isdc.wro.model.resource.processor.support.CssUrlScanner.UrlHandler;
+
+
+/**
+ * Tests the {@link CssUrlScanner} class.
+ */
+public class TestCssUrlScanner {
+  private final List<String> foundUrls = new ArrayList<String>();
+  /**
+   * Replaces the urls starting with "img" and keeps the others.
+   */
+  private final UrlHandler handler = new UrlHandler() {
+    public String replace(final String url) {
+      foundUrls.add(url);
+      return url.startsWith("img") ? "/new/" + url : null;
+    }
+  };
+
+  @Test(expected = NullPointerException.class)
+  public void cannotRewriteNullCss() {
+    CssUrlScanner.rewrite(null, handler);
+  }
+
+  @Test
+  public void shouldReplaceTheContentOfUrlDeclarations() {
+    final String css = ".a{background:url( 'img/a.png' ) no-repeat} .b{background:URL (\"img/b.png\")} "
+        + ".c{src:url(img/c.png)}";
+    Assert.assertEquals(".a{background:url(/new/img/a.png) no-repeat} .b{background:URL (/new/img/b.png)} "
+        + ".c{src:url(/new/img/c.png)}", CssUrlScanner.rewrite(css, handler));
+    Assert.assertEquals(Arrays.asList("img/a.png", "img/b.png", "img/c.png"), foundUrls);
+  }
+
+  @Test
+  public void shouldReplaceTheValueOfSrcAttributes() {
+    final String css = ".a{filter:progid:AlphaImageLoader(SRC = 'img/a.png', sizingMethod='crop')}";
+    Assert.assertEquals(".a{filter:progid:AlphaImageLoader(SRC = '/new/img/a.png', sizingMethod='crop')}",
+        CssUrlScanner.rewrite(css, handler));
+  }
+
+  @Test
+  public void shouldKeepTheUrlsNotReplacedByTheHandler() {
+    final String css = ".a{background:url(http://host/$1.png)} .b{background:url(\"data:image/png;base64,a)b\")}";
+    Assert.assertEquals(css, CssUrlScanner.rewrite(css, handler));
+    Assert.assertEquals(Arrays.asList("http://host/$1.png", "data:image/png;base64,a)b"), foundUrls);
+  }
+
+  @Test
+  public void shouldIgnoreUnterminatedUrls() {
+    final String css = ".a{background:url('img/a.png'";
+    Assert.assertEquals(css, CssUrlScanner.rewrite(css, handler));
+    Assert.assertTrue(foundUrls.isEmpty());
+  }
+
+  @Test(timeout = 5000)
+  public void shouldScanPathologicalCssInLinearTime() {
+    final StringBuilder css = new StringBuilder();
+    for (int i = 0; i < 100000; i++) {
+      css.append("url('src=\"x");
+    }
+    Assert.assertEquals(css.toString(), CssUrlScanner.rewrite(css, handler));
+  }
+}
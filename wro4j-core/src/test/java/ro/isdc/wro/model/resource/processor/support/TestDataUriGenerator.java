@@ -3,8 +3,13 @@
  */
 package ro.isdc.wro.model.resource.processor.support;
 
+import java.io.IOException;
+import java.io.StringWriter;
+
 import junit.framework.Assert;
 
+import org.apache.commons.io.IOUtils;
+
 import org.junit.Test;
 
 
@@ -23,4 +28,33 @@ public class TestDataUriGenerator {
       dataUriGenerator.generateDataURI(getClass().getResourceAsStream("../dataUri/test/btn_icons.png"), "btn_icons.png"));
 
   }
+
+  @Test
+  public void shouldWriteTheSameDataUriFromBytes()
+    throws Exception {
+    final byte[] bytes = IOUtils.toByteArray(getClass().getResourceAsStream("../dataUri/test/btn_icons.png"));
+    final StringWriter writer = new StringWriter();
+    dataUriGenerator.generateDataURI(bytes, writer, "btn_icons.png");
+    final String expected = dataUriGenerator.generateDataURI(
+      getClass().getResourceAsStream("../dataUri/test/btn_icons.png"), "btn_icons.png");
+    Assert.assertEquals(expected, writer.toString());
+  }
+
+  @Test
+  public void shouldComputeTheDataUriLengthWithoutEncoding()
+    throws Exception {
+    for (int length = 0; length < 10; length++) {
+      final StringWriter writer = new StringWriter();
+      dataUriGenerator.generateDataURI(new byte[length], writer, "image.png");
+      Assert.assertEquals(writer.toString().length(), dataUriGenerator.getDataUriLength(length, "image.png"));
+    }
+    Assert.assertEquals("data:text/css;charset=UTF-8;base64,".length() + 4,
+      dataUriGenerator.getDataUriLength(3, "style.css"));
+  }
+
+  @Test(expected = IOException.class)
+  public void cannotComputeTheDataUriLengthOfUnknownType()
+    throws Exception {
+    dataUriGenerator.getDataUriLength(3, "image.unknown");
+  }
 }
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.model.resource.processor.support;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import junit.framework.Assert;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+
+/**
+ * Tests the {@link FastCssCompressor} class.
+ */
+public class TestFastCssCompressor {
+  private final FastCssCompressor compressor = new FastCssCompressor();
+
+  private String cssCompressorOf(final String css)
+    throws Exception {
+    final StringWriter writer = new StringWriter();
+    new CssCompressor(new StringReader(css)).compress(writer, -1);
+    return writer.toString();
+  }
+
+  private void assertSameAsCssCompressor(final String css)
+    throws Exception {
+    Assert.assertEquals(cssCompressorOf(css), compressor.compress(css));
+  }
+
+  @Test
+  public void shouldProduceTheSameResultAsCssCompressor()
+    throws Exception {
+    assertSameAsCssCompressor(IOUtils.toString(getClass().getResourceAsStream("../cssCompressor/test/style1.css"),
+        "UTF-8"));
+  }
+
+  @Test
+  public void shouldCompressValuesAsCssCompressor()
+    throws Exception {
+    assertSameAsCssCompressor("a { margin : 0px 0em 0% 0in ; padding: 0 0 0 0; opacity: 0.5; line-height:00.75 }");
+    assertSameAsCssCompressor("b{background-position:0 0;border:1px 1px 1px 1px;margin:2em 2em 2em 2em}");
+    assertSameAsCssCompressor("c{color:rgb(51, 102, 153);background:#AABBCC;border-color:#aabbcd}");
+    assertSameAsCssCompressor(".d{filter:chroma(color=#FFFFFF);font:12px/1.5 Arial , sans-serif!important}");
+  }
+
+  @Test
+  public void shouldRemoveWhitespacesAndCommentsAsCssCompressor()
+    throws Exception {
+    assertSameAsCssCompressor("p :link { color : red } a:hover,a  >  b + c{color:red}");
+    assertSameAsCssCompressor("/*! keep  me */ .x{a:b} /* drop */ .y{a:b}");
+    assertSameAsCssCompressor("/* hack \\*/ .ie{a:b} /* end */ .z{c:d}");
+    assertSameAsCssCompressor("html>/**/body .k{a:b}");
+  }
+
+  @Test
+  public void shouldRemoveEmptyRulesAndMergeIdenticalRules()
+    throws Exception {
+    assertSameAsCssCompressor(".e{} .f{;} .g{ a:b;; c:d; }");
+    Assert.assertEquals(".h,.j{a:b}.i{c:d}", compressor.compress(".h{a:b}.i{c:d}.j{a:b}"));
+  }
+
+  @Test
+  public void shouldNotChangeStringsAndUrls()
+    throws Exception {
+    Assert.assertEquals(".l{background:url(img/a  0px.png) no-repeat;content:\"a  ;}  #ffffff\"}",
+        compressor.compress(".l{background:url( img/a  0px.png ) no-repeat;content:\"a  ;}  #ffffff\"}"));
+  }
+
+  @Test
+  public void shouldKeepRulesInsideAtRuleBlocks()
+    throws Exception {
+    final String css = ".a{color:red} @media screen and (max-width: 100px) { .b { color : red } .a:hover{margin:0px} }";
+    Assert.assertEquals(".a{color:red}@media screen and (max-width:100px){.b{color:red}.a:hover{margin:0}}",
+        compressor.compress(css));
+  }
+
+  @Test
+  public void shouldKeepAtRuleStatementsAndPlaceholders()
+    throws Exception {
+    Assert.assertEquals("@import url(a.css);@charset \"UTF-8\";.a{width:${width}px}",
+        compressor.compress("@import url( a.css ); @charset \"UTF-8\";\n.a { width: ${width}px; }"));
+  }
+
+  @Test
+  public void shouldReuseTheInstanceForManyStylesheets()
+    throws Exception {
+    Assert.assertEquals(".large{color:red;margin:0}",
+        compressor.compress(".large {\n  color: red;\n  margin: 0px;\n}\n"));
+    Assert.assertEquals(".a{b:c}", compressor.compress(".a{b:c}"));
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void cannotCompressNullStylesheet()
+    throws Exception {
+    compressor.compress(null, new StringWriter());
+  }
+}
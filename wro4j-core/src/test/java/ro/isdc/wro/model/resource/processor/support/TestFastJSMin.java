@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.model.resource.processor.support;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.CharBuffer;
+
+import junit.framework.Assert;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+
+/**
+ * Tests the {@link FastJSMin} class.
+ */
+public class TestFastJSMin {
+  private static final String ENCODING = "UTF-8";
+  private final FastJSMin jsMin = new FastJSMin();
+
+  private String jsMinOf(final String script)
+    throws Exception {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new JSMin(new ByteArrayInputStream(script.getBytes(ENCODING)), out).jsmin();
+    return out.toString(ENCODING);
+  }
+
+  @Test
+  public void shouldProduceTheSameResultAsJSMin()
+    throws Exception {
+    final String script = IOUtils.toString(getClass().getResourceAsStream("../jsmin/test/script1.js"), ENCODING);
+    Assert.assertEquals(jsMinOf(script), jsMin.minify(script).toString());
+  }
+
+  @Test
+  public void shouldKeepLiterals()
+    throws Exception {
+    final String script = "var a = 'it\\'s  //not a comment';\r\nvar re = /a  \\/ b/g;\n// comment\nvar b = \"é\" + a;";
+    Assert.assertEquals(jsMinOf(script), jsMin.minify(script).toString());
+    Assert.assertEquals("\nvar a='it\\'s  //not a comment';var re=/a  \\/ b/g;var b=\"é\"+a;", jsMin.toString());
+  }
+
+  @Test
+  public void shouldReuseTheInstanceForManyScripts()
+    throws Exception {
+    final String large = "function  large ( ) {\n  return   1;\n}\n";
+    Assert.assertEquals("\nfunction large(){return 1;}", jsMin.minify(large).toString());
+    Assert.assertEquals("\nvar a=1;", jsMin.minify("var a = 1;").toString());
+    Assert.assertEquals(9, jsMin.length());
+  }
+
+  @Test
+  public void shouldMinifyAnArrayRange()
+    throws Exception {
+    final char[] chars = "ignored var a = 1; ignored".toCharArray();
+    final StringWriter writer = new StringWriter();
+    jsMin.minify(chars, 8, 10).writeTo(writer);
+    Assert.assertEquals("\nvar a=1;", writer.toString());
+  }
+
+  @Test
+  public void shouldMinifyACharBuffer()
+    throws Exception {
+    final CharBuffer buffer = CharBuffer.wrap("ignored var a = 1;".toCharArray());
+    buffer.position(8);
+    Assert.assertEquals("\nvar a=1;", jsMin.minify(buffer).toString());
+  }
+
+  @Test(expected = IOException.class)
+  public void cannotMinifyUnterminatedComment()
+    throws Exception {
+    jsMin.minify("var a; /* comment");
+  }
+
+  @Test(expected = IOException.class)
+  public void cannotMinifyUnterminatedString()
+    throws Exception {
+    jsMin.minify("var a = 'string\n';");
+  }
+
+  @Test(expected = IOException.class)
+  public void cannotMinifyUnterminatedRegularExpression()
+    throws Exception {
+    jsMin.minify("var a = /regexp\\");
+  }
+}
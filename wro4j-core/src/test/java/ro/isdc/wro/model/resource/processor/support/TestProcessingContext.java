@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.model.resource.processor.support;
+
+import java.util.concurrent.Callable;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Test;
+
+import ro.isdc.wro.WroRuntimeException;
+import ro.isdc.wro.model.resource.Resource;
+import ro.isdc.wro.model.resource.ResourceType;
+import ro.isdc.wro.util.WroTestUtils;
+
+
+/**
+ * Tests the {@link ProcessingContext} class.
+ */
+public class TestProcessingContext {
+  @After
+  public void tearDown() {
+    while (ProcessingContext.isContextOpened()) {
+      ProcessingContext.get().close();
+    }
+  }
+
+  @Test(expected = WroRuntimeException.class)
+  public void cannotGetContextWhenNoneIsOpened() {
+    ProcessingContext.get();
+  }
+
+  @Test
+  public void shouldHoldAttributesUntilClosed() {
+    final Resource resource = Resource.create("/style.css", ResourceType.CSS);
+    final ProcessingContext context = ProcessingContext.open(resource);
+    context.setAttribute("name", "value");
+    Assert.assertSame(context, ProcessingContext.get());
+    Assert.assertSame(resource, ProcessingContext.get().getResource());
+    Assert.assertEquals("value", ProcessingContext.get().<String> getAttribute("name"));
+    context.close();
+    Assert.assertFalse(ProcessingContext.isContextOpened());
+    Assert.assertNull(context.getAttribute("name"));
+  }
+
+  @Test
+  public void shouldRestorePreviousContextWhenNestedContextIsClosed() {
+    final ProcessingContext outer = ProcessingContext.open(null);
+    outer.setAttribute("name", "outer");
+    final ProcessingContext inner = ProcessingContext.open(null);
+    Assert.assertNull(ProcessingContext.get().getAttribute("name"));
+    inner.close();
+    Assert.assertSame(outer, ProcessingContext.get());
+    Assert.assertEquals("outer", ProcessingContext.get().<String> getAttribute("name"));
+  }
+
+  @Test(expected = WroRuntimeException.class)
+  public void cannotCloseContextBeforeNestedContext() {
+    final ProcessingContext outer = ProcessingContext.open(null);
+    ProcessingContext.open(null);
+    outer.close();
+  }
+
+  @Test
+  public void shouldNotShareContextBetweenThreads()
+    throws Exception {
+    final ProcessingContext context = ProcessingContext.open(null);
+    context.setAttribute("name", "value");
+    WroTestUtils.runConcurrently(new Callable<Void>() {
+      public Void call()
+        throws Exception {
+        Assert.assertFalse(ProcessingContext.isContextOpened());
+        final ProcessingContext threadContext = ProcessingContext.open(null);
+        try {
+          Assert.assertNull(ProcessingContext.get().getAttribute("name"));
+          threadContext.setAttribute("name", Thread.currentThread().getName());
+          Assert.assertEquals(Thread.currentThread().getName(), ProcessingContext.get().<String> getAttribute("name"));
+        } finally {
+          threadContext.close();
+        }
+        return null;
+      }
+    });
+    Assert.assertEquals("value", ProcessingContext.get().<String> getAttribute("name"));
+  }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.util;
+
+import java.io.StringWriter;
+import java.util.Random;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+
+/**
+ * Tests the {@link Base64} class.
+ */
+public class TestBase64 {
+  @Test
+  public void shouldWriteTheSameEncodingAsEncodeBytes()
+    throws Exception {
+    final Random random = new Random(1);
+    for (final int length : new int[] { 0, 1, 2, 3, 4, 767, 768, 769, 10000 }) {
+      final byte[] bytes = new byte[length];
+      random.nextBytes(bytes);
+      final StringWriter writer = new StringWriter();
+      Base64.encode(bytes, 0, length, writer);
+      Assert.assertEquals(Base64.encodeBytes(bytes), writer.toString());
+      Assert.assertEquals(writer.toString().length(), Base64.encodedLength(length));
+    }
+  }
+
+  @Test
+  public void shouldEncodeAnArrayRange()
+    throws Exception {
+    final StringWriter writer = new StringWriter();
+    Base64.encode("ignored-Man-ignored".getBytes("UTF-8"), 8, 3, writer);
+    Assert.assertEquals("TWFu", writer.toString());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void cannotEncodeInvalidRange()
+    throws Exception {
+    Base64.encode(new byte[2], 1, 2, new StringWriter());
+  }
+}
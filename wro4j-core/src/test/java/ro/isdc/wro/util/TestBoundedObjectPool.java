@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.Assert;
+
+import org.junit.Before;
+import org.junit.Test;
+
+
+/**
+ * Tests the {@link BoundedObjectPool} class.
+ */
+public class TestBoundedObjectPool {
+  private AtomicInteger createdCount;
+  private BoundedObjectPool<Object> pool;
+
+  @Before
+  public void setUp() {
+    createdCount = new AtomicInteger();
+    pool = new BoundedObjectPool<Object>(new ObjectFactory<Object>() {
+      public Object create() {
+        createdCount.incrementAndGet();
+        return new Object();
+      }
+    }, 2);
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void cannotCreateWithNullFactory() {
+    new BoundedObjectPool<Object>(null, 1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void cannotCreateWithoutIdleObjects() {
+    new BoundedObjectPool<Object>(new ObjectFactory<Object>() {
+      public Object create() {
+        return new Object();
+      }
+    }, 0);
+  }
+
+  @Test
+  public void shouldReuseReturnedObject() {
+    final Object object = pool.getObject();
+    pool.returnObject(object);
+    Assert.assertSame(object, pool.getObject());
+    Assert.assertEquals(1, createdCount.get());
+  }
+
+  @Test
+  public void shouldCreateObjectWhenNoneIsIdle() {
+    Assert.assertNotSame(pool.getObject(), pool.getObject());
+    Assert.assertEquals(2, createdCount.get());
+  }
+
+  @Test
+  public void shouldDiscardObjectsExceedingMaxIdle() {
+    final Object[] objects = new Object[] {
+      pool.getObject(), pool.getObject(), pool.getObject()
+    };
+    for (final Object object : objects) {
+      pool.returnObject(object);
+    }
+    Assert.assertEquals(2, pool.getNumIdle());
+  }
+}
@@ -14,6 +14,8 @@ import junit.framework.Assert;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import ro.isdc.wro.model.resource.processor.impl.SingleLineCommentStripperProcessor;
+
 
 /**
  * Test {@link WroUtil} class.
@@ -96,6 +98,17 @@ public class TestWroUtil {
     request = mockRequestHeader("Accept-Encoding", "gzip,deflate,sdch");
     Assert.assertTrue(WroUtil.isGzipSupported(request));
   }
+
+  @Test
+  public void testDeflateSupport() {
+    Assert.assertFalse(WroUtil.isDeflateSupported(null));
+    Assert.assertFalse(WroUtil.isDeflateSupported(mockRequestHeader("Accept-Encoding", "gzip")));
+    Assert.assertFalse(WroUtil.isDeflateSupported(mockRequestHeader("Accept-Encoding", "deflate;q=0, gzip")));
+    Assert.assertFalse(WroUtil.isDeflateSupported(mockRequestHeader("X-cept-Encoding", "deflate")));
+    Assert.assertTrue(WroUtil.isDeflateSupported(mockRequestHeader("Accept-Encoding", "deflate")));
+    Assert.assertTrue(WroUtil.isDeflateSupported(mockRequestHeader("Accept-Encoding", "gzip, deflate")));
+    Assert.assertTrue(WroUtil.isDeflateSupported(mockRequestHeader("Accept-Encoding", "gzip;q=0, Deflate;q=0.5")));
+  }
   
   /**
    * @param request
@@ -139,4 +152,13 @@ public class TestWroUtil {
     Assert.assertFalse(WroUtil.matchesUrl(request, "wroApi/test"));
   }
   
+
+  @Test
+  public void shouldRemoveAllMatchesLikeReplaceAll()
+      throws Exception {
+    final String content = "a // one\n\n  b /* two */ c\n// three";
+    final StringBuilder result = new StringBuilder();
+    WroUtil.removeAll(SingleLineCommentStripperProcessor.PATTERN, content, result);
+    Assert.assertEquals(SingleLineCommentStripperProcessor.PATTERN.matcher(content).replaceAll(""), result.toString());
+  }
 }
@@ -7,21 +7,29 @@ package ro.isdc.wro.extensions.processor.css;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ro.isdc.wro.WroRuntimeException;
 import ro.isdc.wro.extensions.processor.support.ObjectPoolHelper;
 import ro.isdc.wro.extensions.processor.support.csslint.CssLint;
+import ro.isdc.wro.extensions.processor.support.csslint.CssLintError;
 import ro.isdc.wro.extensions.processor.support.csslint.CssLintException;
+import ro.isdc.wro.extensions.processor.support.linter.BatchLinter;
+import ro.isdc.wro.extensions.processor.support.linter.LintResultCache;
 import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.ResourceType;
 import ro.isdc.wro.model.resource.SupportedResourceType;
 import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.model.resource.processor.Uncacheable;
 import ro.isdc.wro.util.ObjectFactory;
 import ro.isdc.wro.util.WroUtil;
 
@@ -36,6 +44,7 @@ import ro.isdc.wro.util.WroUtil;
  * @created 19 Jun 2011
  */
 @SupportedResourceType(ResourceType.CSS)
+@Uncacheable
 public class CssLintProcessor
   implements ResourcePreProcessor, ResourcePostProcessor {
   private static final Logger LOG = LoggerFactory.getLogger(CssLintProcessor.class);
@@ -46,6 +55,7 @@ public class CssLintProcessor
   private String[] options;
 
   private ObjectPoolHelper<CssLint> enginePool;
+  private volatile LintResultCache<CssLintError> resultCache = new LintResultCache<CssLintError>();
 
   public CssLintProcessor() {
     enginePool = new ObjectPoolHelper<CssLint>(new ObjectFactory<CssLint>() {
@@ -64,36 +74,89 @@ public class CssLintProcessor
   }
 
 
+  /**
+   * @param resultCache
+   *          the cache holding the errors of the already linted css. Share the same cache between processors to avoid
+   *          linting the same css twice.
+   */
+  public CssLintProcessor setResultCache(final LintResultCache<CssLintError> resultCache) {
+    Validate.notNull(resultCache);
+    this.resultCache = resultCache;
+    return this;
+  }
+
+
   /**
    * {@inheritDoc}
    */
   public void process(final Resource resource, final Reader reader, final Writer writer)
     throws IOException {
     final String content = IOUtils.toString(reader);
-    final CssLint cssLint = enginePool.getObject();
     try {
-      cssLint.setOptions(options).validate(content);
-    } catch (final CssLintException e) {
-      try {
-        LOG.error("The following resource: " + resource + " has " + e.getErrors().size() + " errors.", e);
-        onCssLintException(e, resource);
-      } catch (final Exception ex) {
-        WroUtil.wrapWithWroRuntimeException(e);
-      }
-    } catch (final WroRuntimeException e) {
-      final String resourceUri = resource == null ? StringUtils.EMPTY : "[" + resource.getUri() + "]";
-      LOG.error("Exception while applying " + ALIAS + " processor on the " + resourceUri
-          + " resource, no processing applied...", e);
-      onException(e);
+      validate(Collections.singletonList(resource), Collections.singletonList(content));
     } finally {
       // don't change the processed content no matter what happens.
       writer.write(content);
       reader.close();
       writer.close();
-      enginePool.returnObject(cssLint);
     }
   }
 
+
+  /**
+   * Lints many css contents at once. The contents already linted with the same options are not linted again, the
+   * others are spread across the available processors. {@link #onCssLintException(CssLintException, Resource)} is
+   * invoked for each invalid content.
+   *
+   * @param resources
+   *          the linted resources, used only for reporting the errors (can contain null elements).
+   * @param contents
+   *          the content of each resource, in the same order as the resources.
+   * @return the errors found in each content (an empty list for a valid content), in the same order as the resources.
+   */
+  public List<List<CssLintError>> validate(final List<Resource> resources, final List<String> contents) {
+    Validate.notNull(resources);
+    Validate.notNull(contents);
+    Validate.isTrue(resources.size() == contents.size(), "Each resource must have a content");
+    final String optionsKey = options == null ? "" : Arrays.toString(options);
+    final BatchLinter<CssLintError> batchLinter = new BatchLinter<CssLintError>(resultCache, getClass().getName(),
+        optionsKey) {
+      @Override
+      protected List<List<CssLintError>> lintBatch(final List<String> batch) {
+        final CssLint cssLint = enginePool.getObject();
+        try {
+          return cssLint.setOptions(options).lint(batch);
+        } finally {
+          enginePool.returnObject(cssLint);
+        }
+      }
+    };
+    final List<List<CssLintError>> errors;
+    try {
+      errors = batchLinter.lint(contents);
+    } catch (final WroRuntimeException e) {
+      final String resourceUri = resources.size() == 1 && resources.get(0) != null ? "[" + resources.get(0).getUri()
+          + "]" : StringUtils.EMPTY;
+      LOG.error("Exception while applying " + ALIAS + " processor on the " + resourceUri
+          + " resource, no processing applied...", e);
+      onException(e);
+      return Collections.emptyList();
+    }
+    for (int i = 0; i < errors.size(); i++) {
+      if (!errors.get(i).isEmpty()) {
+        final CssLintException e = new CssLintException().setErrors(errors.get(i));
+        final Resource resource = resources.get(i);
+        try {
+          LOG.error("The following resource: " + resource + " has " + e.getErrors().size() + " errors.", e);
+          onCssLintException(e, resource);
+        } catch (final Exception ex) {
+          WroUtil.wrapWithWroRuntimeException(e);
+        }
+      }
+    }
+    return errors;
+  }
+
   /**
    * Invoked when an unexpected exception occurred during processing. By default the exception is thrown further.
    */
@@ -14,6 +14,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ro.isdc.wro.WroRuntimeException;
+import ro.isdc.wro.extensions.processor.support.ObjectPoolConfig;
 import ro.isdc.wro.extensions.processor.support.ObjectPoolHelper;
 import ro.isdc.wro.extensions.processor.support.less.LessCss;
 import ro.isdc.wro.model.resource.Resource;
@@ -120,6 +121,17 @@ public class LessCssProcessor
     });
   }
 
+  /**
+   * Configures the pool of engines used by this processor (size, exhausted action, prefill, JMX metrics).
+   *
+   * @param config
+   *          the {@link ObjectPoolConfig} to apply.
+   */
+  public LessCssProcessor setPoolConfig(final ObjectPoolConfig config) {
+    enginePool.configure(config);
+    return this;
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -66,9 +66,9 @@ public class RubySassCssProcessor
   }
   
   /**
-   * A getter used for lazy loading.
+   * A getter used for lazy loading. The engine is shared by all the threads using this processor.
    */
-  protected RubySassEngine getEngine() {
+  protected synchronized RubySassEngine getEngine() {
     if (engine == null) {
       engine = new RubySassEngine();
     }
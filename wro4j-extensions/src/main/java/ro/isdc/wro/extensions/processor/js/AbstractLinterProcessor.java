@@ -7,21 +7,30 @@ package ro.isdc.wro.extensions.processor.js;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ro.isdc.wro.WroRuntimeException;
+import ro.isdc.wro.extensions.processor.support.ObjectPoolConfig;
 import ro.isdc.wro.extensions.processor.support.ObjectPoolHelper;
 import ro.isdc.wro.extensions.processor.support.linter.AbstractLinter;
+import ro.isdc.wro.extensions.processor.support.linter.BatchLinter;
+import ro.isdc.wro.extensions.processor.support.linter.LintResultCache;
+import ro.isdc.wro.extensions.processor.support.linter.LinterError;
 import ro.isdc.wro.extensions.processor.support.linter.LinterException;
 import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.ResourceType;
 import ro.isdc.wro.model.resource.SupportedResourceType;
 import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.model.resource.processor.Uncacheable;
 import ro.isdc.wro.util.ObjectFactory;
 
 
@@ -34,10 +43,12 @@ import ro.isdc.wro.util.ObjectFactory;
  * @created 1 Mar 2011
  */
 @SupportedResourceType(ResourceType.JS)
+@Uncacheable
 public abstract class AbstractLinterProcessor
   implements ResourcePreProcessor, ResourcePostProcessor {
   private static final Logger LOG = LoggerFactory.getLogger(AbstractLinterProcessor.class);
   private ObjectPoolHelper<AbstractLinter> enginePool;
+  private volatile LintResultCache<LinterError> resultCache = new LintResultCache<LinterError>();
   /**
    * Options to use to configure the linter.
    */
@@ -52,37 +63,96 @@ public abstract class AbstractLinterProcessor
     });
   }
 
+  /**
+   * Configures the pool of engines used by this processor (size, exhausted action, prefill, JMX metrics).
+   *
+   * @param config
+   *          the {@link ObjectPoolConfig} to apply.
+   */
+  public AbstractLinterProcessor setPoolConfig(final ObjectPoolConfig config) {
+    enginePool.configure(config);
+    return this;
+  }
+
   public AbstractLinterProcessor setOptions(final String... options) {
     this.options = options;
     return this;
   }
 
+  /**
+   * @param resultCache
+   *          the cache holding the errors of the already linted scripts. Share the same cache between processors to
+   *          avoid linting the same script twice.
+   */
+  public AbstractLinterProcessor setResultCache(final LintResultCache<LinterError> resultCache) {
+    Validate.notNull(resultCache);
+    this.resultCache = resultCache;
+    return this;
+  }
+
   /**
    * {@inheritDoc}
    */
   public void process(final Resource resource, final Reader reader, final Writer writer)
     throws IOException {
     final String content = IOUtils.toString(reader);
-    final AbstractLinter linter = enginePool.getObject();
     try {
-      // TODO investigate why linter fails when trying to reuse the same instance twice
-      linter.setOptions(options).validate(content);
-    } catch (final LinterException e) {
-      onLinterException(e, resource);
-    } catch (final WroRuntimeException e) {
-      onException(e);
-      final String resourceUri = resource == null ? StringUtils.EMPTY : "[" + resource.getUri() + "]";
-      LOG.warn("Exception while applying " + getClass().getSimpleName() + " processor on the " + resourceUri
-          + " resource, no processing applied...", e);
+      validate(Collections.singletonList(resource), Collections.singletonList(content));
     } finally {
       // don't change the processed content no matter what happens.
       writer.write(content);
       reader.close();
       writer.close();
-      enginePool.returnObject(linter);
     }
   }
 
+  /**
+   * Lints many scripts at once. The scripts already linted with the same options are not linted again, the others are
+   * spread across the available processors. {@link #onLinterException(LinterException, Resource)} is invoked for each
+   * invalid script.
+   *
+   * @param resources
+   *          the linted resources, used only for reporting the errors (can contain null elements).
+   * @param contents
+   *          the content of each resource, in the same order as the resources.
+   * @return the errors found in each script (an empty list for a valid script), in the same order as the resources.
+   */
+  public List<List<LinterError>> validate(final List<Resource> resources, final List<String> contents) {
+    Validate.notNull(resources);
+    Validate.notNull(contents);
+    Validate.isTrue(resources.size() == contents.size(), "Each resource must have a content");
+    final String optionsKey = options == null ? "" : Arrays.toString(options);
+    final BatchLinter<LinterError> batchLinter = new BatchLinter<LinterError>(resultCache, getClass().getName(),
+        optionsKey) {
+      @Override
+      protected List<List<LinterError>> lintBatch(final List<String> batch) {
+        final AbstractLinter linter = enginePool.getObject();
+        try {
+          return linter.setOptions(options).lint(batch);
+        } finally {
+          enginePool.returnObject(linter);
+        }
+      }
+    };
+    final List<List<LinterError>> errors;
+    try {
+      errors = batchLinter.lint(contents);
+    } catch (final WroRuntimeException e) {
+      onException(e);
+      final String resourceUri = resources.size() == 1 && resources.get(0) != null ? "[" + resources.get(0).getUri()
+          + "]" : StringUtils.EMPTY;
+      LOG.warn("Exception while applying " + getClass().getSimpleName() + " processor on the " + resourceUri
+          + " resource, no processing applied...", e);
+      return Collections.emptyList();
+    }
+    for (int i = 0; i < errors.size(); i++) {
+      if (!errors.get(i).isEmpty()) {
+        onLinterException(new LinterException().setErrors(errors.get(i)), resources.get(i));
+      }
+    }
+    return errors;
+  }
+
   /**
    * Invoked when a processing exception occurs.
    */
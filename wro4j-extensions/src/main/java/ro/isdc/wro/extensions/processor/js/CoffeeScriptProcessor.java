@@ -14,6 +14,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ro.isdc.wro.WroRuntimeException;
+import ro.isdc.wro.extensions.processor.support.ObjectPoolConfig;
 import ro.isdc.wro.extensions.processor.support.ObjectPoolHelper;
 import ro.isdc.wro.extensions.processor.support.coffeescript.CoffeeScript;
 import ro.isdc.wro.model.resource.Resource;
@@ -49,6 +50,17 @@ public class CoffeeScriptProcessor
     });
   }
 
+  /**
+   * Configures the pool of engines used by this processor (size, exhausted action, prefill, JMX metrics).
+   *
+   * @param config
+   *          the {@link ObjectPoolConfig} to apply.
+   */
+  public CoffeeScriptProcessor setPoolConfig(final ObjectPoolConfig config) {
+    enginePool.configure(config);
+    return this;
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -7,11 +7,16 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.Validate;
 
+import ro.isdc.wro.WroRuntimeException;
+import ro.isdc.wro.cache.CacheStrategy;
+import ro.isdc.wro.cache.impl.LruMemoryCacheStrategy;
 import ro.isdc.wro.config.Context;
 import ro.isdc.wro.config.jmx.WroConfiguration;
 import ro.isdc.wro.model.group.Inject;
@@ -21,6 +26,8 @@ import ro.isdc.wro.model.resource.ResourceType;
 import ro.isdc.wro.model.resource.SupportedResourceType;
 import ro.isdc.wro.model.resource.processor.ResourcePostProcessor;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.model.resource.util.HashBuilder;
+import ro.isdc.wro.model.resource.util.SHA1HashBuilder;
 
 import com.google.javascript.jscomp.CheckLevel;
 import com.google.javascript.jscomp.ClosureCodingConvention;
@@ -35,6 +42,10 @@ import com.google.javascript.jscomp.Result;
 /**
  * Uses Google closure compiler for js minimization. <p/>
  * In order to make this class {@link Context} agnostic, set the encoding explicitly using {@link GoogleClosureCompressorProcessor#setEncoding(String)}.
+ * <p/>
+ * Each compilation uses its own copy of the {@link CompilerOptions}, so the processor can be used concurrently. When
+ * caching is enabled (see {@link #setCachingEnabled(boolean)}), the externs of each resource are created only once and
+ * the compiled output is reused for an unchanged content.
  *
  * @see http://blog.bolinfest.com/2009/11/calling-closure-compiler-from-java.html
  * @author Alex Objelean
@@ -45,11 +56,29 @@ public class GoogleClosureCompressorProcessor
   implements ResourcePostProcessor, ResourcePreProcessor {
   public static final String ALIAS_SIMPLE = "googleClosureSimple";
   public static final String ALIAS_ADVANCED = "googleClosureAdvanced";
+  /**
+   * System property defined by the Google App Engine runtime, which doesn't allow creating threads.
+   */
+  private static final String GAE_ENVIRONMENT_PROPERTY = "com.google.appengine.runtime.environment";
+  private static final int OUTPUT_CACHE_SIZE = 256;
+  private static final String DEFAULT_FILE_NAME = "wro4j-processed-file.js";
   /**
    * {@link CompilationLevel} to use for compression.
    */
-  private CompilationLevel compilationLevel;
-  private CompilerOptions compilerOptions;
+  private volatile CompilationLevel compilationLevel;
+  /**
+   * The options copied by each compilation.
+   */
+  private volatile CompilerOptions compilerOptions;
+  private volatile boolean cachingEnabled;
+  private volatile boolean threadsEnabled = true;
+  private final ConcurrentMap<String, JSSourceFile[]> externsCache = new ConcurrentHashMap<String, JSSourceFile[]>();
+  /**
+   * Compiled output mapped by compilation level, file name and content hash.
+   */
+  private final CacheStrategy<String, String> outputCache = new LruMemoryCacheStrategy<String, String>(
+    OUTPUT_CACHE_SIZE);
+  private final HashBuilder hashBuilder = new SHA1HashBuilder();
   @Inject
   private WroConfiguration config;
   private String encoding;
@@ -79,31 +108,20 @@ public class GoogleClosureCompressorProcessor
     throws IOException {
     final String content = IOUtils.toString(reader);
     try {
-      Compiler.setLoggingLevel(Level.SEVERE);
-      final Compiler compiler = new Compiler();
-      if (compilerOptions == null) {
-        compilerOptions = newCompilerOptions();
-      }
-      compilationLevel.setOptionsForCompilationLevel(compilerOptions);
-      //make it play nice with GAE
-      compiler.disableThreads();
-      compiler.initOptions(compilerOptions);
-
-      final String fileName = resource == null ? "wro4j-processed-file.js" : resource.getUri();
-      final JSSourceFile[] input = new JSSourceFile[] {
-        JSSourceFile.fromInputStream(fileName,
-        new ByteArrayInputStream(content.getBytes(getEncoding())))
-      };
-      JSSourceFile[] externs = getExterns(resource);
-      if (externs == null) {
-        //fallback to empty array when null is provided.
-        externs = new JSSourceFile[] {};
-      }
-      final Result result = compiler.compile(externs, input, compilerOptions);
-      if (result.success) {
-        writer.write(compiler.toSource());
+      final String fileName = resource == null ? DEFAULT_FILE_NAME : resource.getUri();
+      final byte[] bytes = content.getBytes(getEncoding());
+      final CompilationLevel level = compilationLevel;
+      if (cachingEnabled) {
+        final String cacheKey = level.name() + ":" + fileName + ":"
+          + hashBuilder.getHash(new ByteArrayInputStream(bytes));
+        String output = outputCache.get(cacheKey);
+        if (output == null) {
+          output = compile(resource, fileName, content, bytes, level);
+          outputCache.put(cacheKey, output);
+        }
+        writer.write(output);
       } else {
-        writer.write(content);
+        writer.write(compile(resource, fileName, content, bytes, level));
       }
     } finally {
       reader.close();
@@ -111,6 +129,79 @@ public class GoogleClosureCompressorProcessor
     }
   }
 
+  /**
+   * @return the compiled content or the original content if the compilation is not successful.
+   */
+  private String compile(final Resource resource, final String fileName, final String content, final byte[] bytes,
+    final CompilationLevel level)
+    throws IOException {
+    Compiler.setLoggingLevel(Level.SEVERE);
+    final Compiler compiler = new Compiler();
+    final CompilerOptions options = copyCompilerOptions();
+    level.setOptionsForCompilationLevel(options);
+    if (!isThreadsAllowed()) {
+      //make it play nice with GAE
+      compiler.disableThreads();
+    }
+    compiler.initOptions(options);
+
+    final JSSourceFile[] input = new JSSourceFile[] {
+      JSSourceFile.fromInputStream(fileName, new ByteArrayInputStream(bytes))
+    };
+    final Result result = compiler.compile(getExternsToUse(resource), input, options);
+    return result.success ? compiler.toSource() : content;
+  }
+
+  /**
+   * @return a copy of the configured {@link CompilerOptions}, this way the compilation level is applied to an object
+   *         not shared with other threads.
+   */
+  private CompilerOptions copyCompilerOptions() {
+    CompilerOptions options = compilerOptions;
+    if (options == null) {
+      synchronized (this) {
+        options = compilerOptions;
+        if (options == null) {
+          options = newCompilerOptions();
+          compilerOptions = options;
+        }
+      }
+    }
+    try {
+      return (CompilerOptions) options.clone();
+    } catch (final CloneNotSupportedException e) {
+      throw new WroRuntimeException("Cannot copy the compiler options", e);
+    }
+  }
+
+  /**
+   * @return the externs of the resource, created only once per resource when the caching is enabled.
+   */
+  private JSSourceFile[] getExternsToUse(final Resource resource) {
+    if (!cachingEnabled) {
+      return nullToEmpty(getExterns(resource));
+    }
+    final String key = resource == null ? DEFAULT_FILE_NAME : resource.getUri();
+    JSSourceFile[] externs = externsCache.get(key);
+    if (externs == null) {
+      externs = nullToEmpty(getExterns(resource));
+      final JSSourceFile[] existing = externsCache.putIfAbsent(key, externs);
+      if (existing != null) {
+        externs = existing;
+      }
+    }
+    return externs;
+  }
+
+  private JSSourceFile[] nullToEmpty(final JSSourceFile[] externs) {
+    //fallback to empty array when null is provided.
+    return externs == null ? new JSSourceFile[] {} : externs;
+  }
+
+  private boolean isThreadsAllowed() {
+    return threadsEnabled && System.getProperty(GAE_ENVIRONMENT_PROPERTY) == null;
+  }
+
   private String getEncoding() {
     if (encoding == null) {
       //use config is available to get encoding
@@ -144,6 +235,7 @@ public class GoogleClosureCompressorProcessor
    */
   public GoogleClosureCompressorProcessor setCompilerOptions(final CompilerOptions compilerOptions) {
     this.compilerOptions = compilerOptions;
+    outputCache.clear();
     return this;
   }
 
@@ -155,6 +247,31 @@ public class GoogleClosureCompressorProcessor
     return this;
   }
 
+  /**
+   * @param cachingEnabled
+   *          if true, the externs returned by {@link #getExterns(Resource)} are reused for all the compilations of the
+   *          same resource and the compiled output is cached by compilation level and content hash. Useful when the
+   *          same content is compiled many times (ex: advanced optimizations in a build).
+   */
+  public GoogleClosureCompressorProcessor setCachingEnabled(final boolean cachingEnabled) {
+    this.cachingEnabled = cachingEnabled;
+    if (!cachingEnabled) {
+      externsCache.clear();
+      outputCache.clear();
+    }
+    return this;
+  }
+
+  /**
+   * @param threadsEnabled
+   *          if false, the compiler runs in the calling thread. The compiler never uses threads on Google App Engine,
+   *          which doesn't allow it.
+   */
+  public GoogleClosureCompressorProcessor setThreadsEnabled(final boolean threadsEnabled) {
+    this.threadsEnabled = threadsEnabled;
+    return this;
+  }
+
   /**
    * @return default {@link CompilerOptions} object to be used by compressor.
    */
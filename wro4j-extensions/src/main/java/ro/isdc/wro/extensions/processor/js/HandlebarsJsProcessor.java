@@ -8,15 +8,12 @@ import java.io.Reader;
 import java.io.Writer;
 
 import org.apache.commons.io.FilenameUtils;
-import org.apache.commons.io.IOUtils;
 
-import ro.isdc.wro.extensions.processor.support.ObjectPoolHelper;
 import ro.isdc.wro.extensions.processor.support.handlebarsjs.HandlebarsJs;
+import ro.isdc.wro.extensions.processor.support.template.AbstractJsTemplateCompiler;
 import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.ResourceType;
 import ro.isdc.wro.model.resource.SupportedResourceType;
-import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
-import ro.isdc.wro.util.ObjectFactory;
 
 
 /**
@@ -27,37 +24,20 @@ import ro.isdc.wro.util.ObjectFactory;
  */
 @SupportedResourceType(ResourceType.JS)
 public class HandlebarsJsProcessor
-    implements ResourcePreProcessor {
+    extends JsTemplateCompilerProcessor {
   public static final String ALIAS = "handlebarsJs";
 
-  private final ObjectPoolHelper<HandlebarsJs> enginePool;
-
-  public HandlebarsJsProcessor() {
-    enginePool = new ObjectPoolHelper<HandlebarsJs>(new ObjectFactory<HandlebarsJs>() {
-      @Override
-      public HandlebarsJs create() {
-        return new HandlebarsJs();
-      }
-    });
+  @Override
+  protected AbstractJsTemplateCompiler createCompiler() {
+    return new HandlebarsJs();
   }
 
   /**
-   * {@inheritDoc}
+   * @return the name of the template, used to register the compiled template.
    */
   @Override
-  public void process(final Resource resource, final Reader reader, final Writer writer)
-      throws IOException {
-    final String content = IOUtils.toString(reader);
-    final HandlebarsJs handlebarsJs = enginePool.getObject();
-    final String name = resource == null ? "" : FilenameUtils.getBaseName(resource.getUri());
-
-    try {
-      writer.write(handlebarsJs.compile(content, name));
-    } finally {
-      enginePool.returnObject(handlebarsJs);
-      reader.close();
-      writer.close();
-    }
+  protected String getArgument(final Resource resource) {
+    return resource == null ? "" : FilenameUtils.getBaseName(resource.getUri());
   }
 
 
@@ -3,17 +3,25 @@ package ro.isdc.wro.extensions.processor.js;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.Validate;
 
+import ro.isdc.wro.extensions.processor.support.ObjectPoolConfig;
 import ro.isdc.wro.extensions.processor.support.ObjectPoolHelper;
 import ro.isdc.wro.extensions.processor.support.template.AbstractJsTemplateCompiler;
+import ro.isdc.wro.extensions.processor.support.template.CompiledTemplateCache;
 import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
 import ro.isdc.wro.util.ObjectFactory;
 
 /**
  * A base class for template processors like: dustJS or hoganJS.
+ * <p/>
+ * The compiled templates are cached by content hash (see {@link #setTemplateCache(CompiledTemplateCache)}), so a
+ * template is compiled again only when it changes.
  *  
  * @author Eivind Barstad Waaler
  * @since 1.4.7
@@ -21,6 +29,7 @@ import ro.isdc.wro.util.ObjectFactory;
  */
 public abstract class JsTemplateCompilerProcessor implements ResourcePreProcessor {
   private final ObjectPoolHelper<AbstractJsTemplateCompiler> enginePool;
+  private volatile CompiledTemplateCache templateCache = new CompiledTemplateCache();
 
   public JsTemplateCompilerProcessor() {
     enginePool = new ObjectPoolHelper<AbstractJsTemplateCompiler>(new ObjectFactory<AbstractJsTemplateCompiler>() {
@@ -31,22 +40,110 @@ public abstract class JsTemplateCompilerProcessor implements ResourcePreProcesso
     });
   }
 
+  /**
+   * Configures the pool of engines used by this processor (size, exhausted action, prefill, JMX metrics).
+   *
+   * @param config
+   *          the {@link ObjectPoolConfig} to apply.
+   */
+  public JsTemplateCompilerProcessor setPoolConfig(final ObjectPoolConfig config) {
+    enginePool.configure(config);
+    return this;
+  }
+
+  /**
+   * @param templateCache
+   *          the cache holding the compiled templates. Use a cache having a directory to keep the compiled templates
+   *          after a restart.
+   */
+  public JsTemplateCompilerProcessor setTemplateCache(final CompiledTemplateCache templateCache) {
+    Validate.notNull(templateCache);
+    this.templateCache = templateCache;
+    return this;
+  }
+
   /**
    * {@inheritDoc}
    */
   @Override
   public void process(Resource resource, Reader reader, Writer writer) throws IOException {
     final String content = IOUtils.toString(reader);
-    final AbstractJsTemplateCompiler jsCompiler = enginePool.getObject();
     try {
-      writer.write(jsCompiler.compile(content, getArgument(resource)));
+      final String argument = getArgument(resource);
+      final String key = getCacheKey(content, argument);
+      String compiled = templateCache.get(key);
+      if (compiled == null) {
+        final AbstractJsTemplateCompiler jsCompiler = enginePool.getObject();
+        try {
+          compiled = jsCompiler.compile(content, argument);
+        } finally {
+          enginePool.returnObject(jsCompiler);
+        }
+        templateCache.put(key, compiled);
+      }
+      writer.write(compiled);
     } finally {
-      enginePool.returnObject(jsCompiler);
       reader.close();
       writer.close();
     }
   }
 
+  /**
+   * Compiles many templates at once. The templates not found in the cache are compiled using a single engine
+   * invocation, which is much faster than processing each template separately when there are many small templates.
+   *
+   * @param resources
+   *          the template resources, used to compute the argument of each template (see
+   *          {@link #getArgument(Resource)}).
+   * @param contents
+   *          the content of each template, in the same order as the resources.
+   * @return the compiled javascript of each template, in the same order as the resources.
+   */
+  public List<String> compile(final List<Resource> resources, final List<String> contents) {
+    Validate.notNull(resources);
+    Validate.notNull(contents);
+    Validate.isTrue(resources.size() == contents.size(), "Each resource must have a content");
+    final List<String> result = new ArrayList<String>(contents.size());
+    final List<Integer> missingIndexes = new ArrayList<Integer>();
+    final List<String> missingContents = new ArrayList<String>();
+    final List<String> missingArguments = new ArrayList<String>();
+    final List<String> keys = new ArrayList<String>(contents.size());
+    for (int i = 0; i < contents.size(); i++) {
+      final String argument = getArgument(resources.get(i));
+      final String key = getCacheKey(contents.get(i), argument);
+      final String compiled = templateCache.get(key);
+      if (compiled == null) {
+        missingIndexes.add(i);
+        missingContents.add(contents.get(i));
+        missingArguments.add(argument);
+      }
+      keys.add(key);
+      result.add(compiled);
+    }
+    if (!missingContents.isEmpty()) {
+      final AbstractJsTemplateCompiler jsCompiler = enginePool.getObject();
+      final List<String> compiled;
+      try {
+        compiled = jsCompiler.compile(missingContents, missingArguments);
+      } finally {
+        enginePool.returnObject(jsCompiler);
+      }
+      for (int i = 0; i < compiled.size(); i++) {
+        final int index = missingIndexes.get(i);
+        templateCache.put(keys.get(index), compiled.get(i));
+        result.set(index, compiled.get(i));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * The processor class identifies the compiler, because the compiler is created by the processor.
+   */
+  private String getCacheKey(final String content, final String argument) {
+    return templateCache.getKey(getClass().getName(), String.valueOf(argument), content);
+  }
+
   /**
    * @param resource
    *          {@link Resource} being processed by compiler.
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.extensions.processor.support;
+
+import org.apache.commons.lang3.Validate;
+
+
+/**
+ * Sizing and behavior of the pool of engines used by a processor (see {@link ObjectPoolHelper}). The engines based on
+ * scripts (ex: less.js, uglify.js) are costly to create, so the pool should keep enough idle engines to serve the
+ * concurrent requests instead of creating and evicting them over and over.
+ *
+ * @since 1.4.7
+ */
+public class ObjectPoolConfig {
+  private static final long DEFAULT_MAX_WAIT = 5L * 1000L;
+  private static final long DEFAULT_EVICTABLE_IDLE_TIME = 30 * 1000L;
+
+  /**
+   * What happens when an object is requested and all the {@link #getMaxActive()} objects are in use.
+   */
+  public static enum ExhaustedAction {
+    /**
+     * A new object is created anyway. The number of objects is not limited.
+     */
+    GROW,
+    /**
+     * Wait at most {@link ObjectPoolConfig#getMaxWait()} milliseconds for an object to be returned to the pool.
+     */
+    BLOCK,
+    /**
+     * Fail immediately.
+     */
+    FAIL
+  }
+
+  private int minIdle = 0;
+  private int maxActive = Math.max(2, Runtime.getRuntime().availableProcessors());
+  private int maxIdle = maxActive;
+  private long maxWait = DEFAULT_MAX_WAIT;
+  /**
+   * Use GROW by default, otherwise the pool object retrieval can fail. More details here:
+   * <a>http://code.google.com/p/wro4j/issues/detail?id=364</a>
+   */
+  private ExhaustedAction exhaustedAction = ExhaustedAction.GROW;
+  private long evictableIdleTime = DEFAULT_EVICTABLE_IDLE_TIME;
+  private boolean prefill;
+  private String mbeanName;
+
+
+  /**
+   * @return the number of idle objects kept by the pool even when not used.
+   */
+  public int getMinIdle() {
+    return minIdle;
+  }
+
+
+  /**
+   * @param minIdle
+   *          the number of idle objects kept by the pool even when not used.
+   */
+  public ObjectPoolConfig setMinIdle(final int minIdle) {
+    Validate.isTrue(minIdle >= 0, "minIdle cannot be negative");
+    this.minIdle = minIdle;
+    return this;
+  }
+
+
+  /**
+   * @return the maximum number of idle objects. The objects returned to a pool having this number of idle objects are
+   *         discarded.
+   */
+  public int getMaxIdle() {
+    return maxIdle;
+  }
+
+
+  /**
+   * @param maxIdle
+   *          the maximum number of idle objects.
+   */
+  public ObjectPoolConfig setMaxIdle(final int maxIdle) {
+    Validate.isTrue(maxIdle > 0, "maxIdle must be positive");
+    this.maxIdle = maxIdle;
+    return this;
+  }
+
+
+  /**
+   * @return the maximum number of objects in use at the same time.
+   */
+  public int getMaxActive() {
+    return maxActive;
+  }
+
+
+  /**
+   * @param maxActive
+   *          the maximum number of objects in use at the same time.
+   */
+  public ObjectPoolConfig setMaxActive(final int maxActive) {
+    Validate.isTrue(maxActive > 0, "maxActive must be positive");
+    this.maxActive = maxActive;
+    return this;
+  }
+
+
+  /**
+   * @return the number of milliseconds to wait for an object when the pool is exhausted and the
+   *         {@link ExhaustedAction#BLOCK} action is used.
+   */
+  public long getMaxWait() {
+    return maxWait;
+  }
+
+
+  /**
+   * @param maxWait
+   *          the number of milliseconds to wait for an object when the pool is exhausted.
+   */
+  public ObjectPoolConfig setMaxWait(final long maxWait) {
+    Validate.isTrue(maxWait > 0, "maxWait must be positive");
+    this.maxWait = maxWait;
+    return this;
+  }
+
+
+  /**
+   * @return the action to take when the pool is exhausted.
+   */
+  public ExhaustedAction getExhaustedAction() {
+    return exhaustedAction;
+  }
+
+
+  /**
+   * @param exhaustedAction
+   *          the action to take when the pool is exhausted.
+   */
+  public ObjectPoolConfig setExhaustedAction(final ExhaustedAction exhaustedAction) {
+    Validate.notNull(exhaustedAction);
+    this.exhaustedAction = exhaustedAction;
+    return this;
+  }
+
+
+  /**
+   * @return the number of milliseconds after which an idle object can be evicted, as long as there are more than
+   *         {@link #getMinIdle()} idle objects. Zero means that the idle objects are never evicted.
+   */
+  public long getEvictableIdleTime() {
+    return evictableIdleTime;
+  }
+
+
+  /**
+   * @param evictableIdleTime
+   *          the number of milliseconds after which an idle object can be evicted or zero to never evict the idle
+   *          objects.
+   */
+  public ObjectPoolConfig setEvictableIdleTime(final long evictableIdleTime) {
+    Validate.isTrue(evictableIdleTime >= 0, "evictableIdleTime cannot be negative");
+    this.evictableIdleTime = evictableIdleTime;
+    return this;
+  }
+
+
+  /**
+   * @return true if the {@link #getMinIdle()} objects are created when the configuration is applied, instead of being
+   *         created by the first requests.
+   */
+  public boolean isPrefill() {
+    return prefill;
+  }
+
+
+  /**
+   * @param prefill
+   *          true to create the {@link #getMinIdle()} objects when the configuration is applied.
+   */
+  public ObjectPoolConfig setPrefill(final boolean prefill) {
+    this.prefill = prefill;
+    return this;
+  }
+
+
+  /**
+   * @return the name used to expose the pool metrics through JMX or null if the metrics are not exposed.
+   */
+  public String getMbeanName() {
+    return mbeanName;
+  }
+
+
+  /**
+   * @param mbeanName
+   *          the name used to expose the pool metrics through JMX (see {@link ObjectPoolHelperMBean}). When null, the
+   *          metrics are not exposed.
+   */
+  public ObjectPoolConfig setMbeanName(final String mbeanName) {
+    this.mbeanName = mbeanName;
+    return this;
+  }
+}
@@ -3,9 +3,18 @@
  */
 package ro.isdc.wro.extensions.processor.support;
 
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
 import org.apache.commons.lang3.Validate;
 import org.apache.commons.pool.BasePoolableObjectFactory;
 import org.apache.commons.pool.impl.GenericObjectPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import ro.isdc.wro.util.ObjectFactory;
 
@@ -14,17 +23,26 @@ import ro.isdc.wro.util.ObjectFactory;
  * A generic aware object pool wrapper. Probably not the best name, but it can be changed later. It helps you to avoid
  * the cast and hides the exception handling by throwing {@link RuntimeException} when borrowing or returning object to
  * the pool fails.
+ * <p/>
+ * The pool is configured using {@link #configure(ObjectPoolConfig)} and collects metrics which can be exposed through
+ * JMX (see {@link ObjectPoolHelperMBean}).
  *
  * @author Alex Objelean
  * @created 10 Nov 2011
  * @since 1.4.2
  */
-public class ObjectPoolHelper<T> {
-  private static final int MAX_IDLE = 2;
-  private static final long MAX_WAIT = 5L * 1000L;
-  private static final long EVICTABLE_IDLE_TIME = 30 * 1000L;
+public class ObjectPoolHelper<T> implements ObjectPoolHelperMBean {
+  private static final Logger LOG = LoggerFactory.getLogger(ObjectPoolHelper.class);
   // Allows using the objects from the pool in a thread-safe fashion.
   private GenericObjectPool<T> objectPool;
+  private final AtomicLong createdCount = new AtomicLong();
+  private final AtomicLong borrowCount = new AtomicLong();
+  private final AtomicLong borrowWaitNanos = new AtomicLong();
+  private final AtomicLong maxBorrowWaitNanos = new AtomicLong();
+  /**
+   * The name of the registered MBean or null if the metrics are not exposed.
+   */
+  private ObjectName mbeanName;
 
 
   public ObjectPoolHelper(final ObjectFactory<T> objectFactory) {
@@ -34,38 +52,148 @@ public class ObjectPoolHelper<T> {
   }
 
   /**
-   * Creates a {@link GenericObjectPool}. Override this method to set custom objectPool configurations.
+   * Creates a {@link GenericObjectPool} using the default {@link ObjectPoolConfig}. Override this method to set custom
+   * objectPool configurations.
    */
   protected GenericObjectPool<T> newObjectPool(final ObjectFactory<T> objectFactory) {
-    final int maxActive = Math.max(2, Runtime.getRuntime().availableProcessors());
     final GenericObjectPool<T> objectPool = new GenericObjectPool<T>(new BasePoolableObjectFactory<T>() {
       @Override
       public T makeObject()
         throws Exception {
+        createdCount.incrementAndGet();
         return objectFactory.create();
       }
+
+      @Override
+      public void destroyObject(final T obj)
+        throws Exception {
+        ObjectPoolHelper.this.destroyObject(obj);
+      }
     });
-    objectPool.setMaxActive(maxActive);
-    objectPool.setMaxIdle(MAX_IDLE);
-    objectPool.setMaxWait(MAX_WAIT);
-    /**
-     * Use WHEN_EXHAUSTED_GROW strategy, otherwise the pool object retrieval can fail. More details here:
-     * <a>http://code.google.com/p/wro4j/issues/detail?id=364</a>
-     */
-    objectPool.setWhenExhaustedAction(GenericObjectPool.WHEN_EXHAUSTED_GROW);
-    // make object elligible for eviction after a predefined amount of time.
-    objectPool.setSoftMinEvictableIdleTimeMillis(EVICTABLE_IDLE_TIME);
-    objectPool.setTimeBetweenEvictionRunsMillis(EVICTABLE_IDLE_TIME);
+    applyConfig(objectPool, new ObjectPoolConfig());
     return objectPool;
   }
 
 
+  /**
+   * Changes the configuration of the pool. Can be used while the pool is in use.
+   *
+   * @param config
+   *          the {@link ObjectPoolConfig} to apply.
+   */
+  public synchronized ObjectPoolHelper<T> configure(final ObjectPoolConfig config) {
+    Validate.notNull(config);
+    applyConfig(objectPool, config);
+    if (config.isPrefill()) {
+      prefill(config.getMinIdle());
+    }
+    unregisterMBean();
+    if (config.getMbeanName() != null) {
+      registerMBean(config.getMbeanName());
+    }
+    return this;
+  }
+
+
+  private static void applyConfig(final GenericObjectPool<?> objectPool, final ObjectPoolConfig config) {
+    objectPool.setMaxActive(config.getMaxActive());
+    objectPool.setMaxIdle(config.getMaxIdle());
+    objectPool.setMinIdle(config.getMinIdle());
+    objectPool.setMaxWait(config.getMaxWait());
+    objectPool.setWhenExhaustedAction(toWhenExhaustedAction(config.getExhaustedAction()));
+    // make object elligible for eviction after a predefined amount of time, keeping at least minIdle objects.
+    objectPool.setSoftMinEvictableIdleTimeMillis(config.getEvictableIdleTime());
+    // a non positive value doesn't run the evictor at all
+    objectPool.setTimeBetweenEvictionRunsMillis(config.getEvictableIdleTime() > 0 ? config.getEvictableIdleTime() : -1);
+  }
+
+
+  private static byte toWhenExhaustedAction(final ObjectPoolConfig.ExhaustedAction action) {
+    switch (action) {
+      case BLOCK:
+        return GenericObjectPool.WHEN_EXHAUSTED_BLOCK;
+      case FAIL:
+        return GenericObjectPool.WHEN_EXHAUSTED_FAIL;
+      default:
+        return GenericObjectPool.WHEN_EXHAUSTED_GROW;
+    }
+  }
+
+
+  /**
+   * Invoked when an object is discarded by the pool: evicted, not kept because there are already
+   * {@link ObjectPoolConfig#getMaxIdle()} idle objects, or cleared when the pool is destroyed. Does nothing by default.
+   * Override this method to release the resources held by the object.
+   */
+  protected void destroyObject(final T object) {
+  }
+
+
+  /**
+   * Creates the objects missing to have the provided number of idle objects, this way the first requests don't pay the
+   * creation cost.
+   */
+  private void prefill(final int idleCount) {
+    try {
+      for (int i = objectPool.getNumIdle(); i < idleCount; i++) {
+        objectPool.addObject();
+      }
+    } catch (final Exception e) {
+      throw new RuntimeException("Cannot prefill the pool", e);
+    }
+  }
+
+
+  private void registerMBean(final String name) {
+    try {
+      final MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+      final ObjectName objectName = new ObjectName(name, "type", ObjectPoolHelper.class.getSimpleName());
+      if (mbeanServer.isRegistered(objectName)) {
+        LOG.warn("Cannot expose the pool metrics, the name is already used: {}", objectName);
+      } else {
+        mbeanServer.registerMBean(this, objectName);
+        mbeanName = objectName;
+      }
+    } catch (final JMException e) {
+      LOG.error("Exception occured while registering MBean", e);
+    }
+  }
+
+
+  private void unregisterMBean() {
+    if (mbeanName != null) {
+      try {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(mbeanName);
+      } catch (final JMException e) {
+        LOG.error("Exception occured while unregistering MBean", e);
+      }
+      mbeanName = null;
+    }
+  }
+
+
   public T getObject() {
+    final long start = System.nanoTime();
     try {
       return objectPool.borrowObject();
+    } catch (final RuntimeException e) {
+      // ex: the object cannot be created or the pool is exhausted and the BLOCK or FAIL action is used.
+      throw e;
     } catch (final Exception e) {
       // should never happen
       throw new RuntimeException("Cannot get object from the pool", e);
+    } finally {
+      recordBorrowWait(System.nanoTime() - start);
+    }
+  }
+
+
+  private void recordBorrowWait(final long nanos) {
+    borrowCount.incrementAndGet();
+    borrowWaitNanos.addAndGet(nanos);
+    long max = maxBorrowWaitNanos.get();
+    while (nanos > max && !maxBorrowWaitNanos.compareAndSet(max, nanos)) {
+      max = maxBorrowWaitNanos.get();
     }
   }
 
@@ -79,12 +207,73 @@ public class ObjectPoolHelper<T> {
       throw new RuntimeException("Cannot get object from the pool", e);
     }
   }
-  
 
-  
+
+  /**
+   * Closes the pool and stops exposing its metrics.
+   */
+  public synchronized void destroy() {
+    unregisterMBean();
+    try {
+      objectPool.close();
+    } catch (final Exception e) {
+      LOG.error("Exception occured while closing the pool", e);
+    }
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  public int getNumActive() {
+    return objectPool.getNumActive();
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  public int getNumIdle() {
+    return objectPool.getNumIdle();
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  public long getCreatedCount() {
+    return createdCount.get();
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  public long getBorrowCount() {
+    return borrowCount.get();
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  public double getAverageBorrowWaitTime() {
+    final long count = borrowCount.get();
+    return count == 0 ? 0 : borrowWaitNanos.get() / (count * 1000000d);
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  public long getMaxBorrowWaitTime() {
+    return maxBorrowWaitNanos.get() / 1000000;
+  }
+
+
   /**
    * Use a custom {@link GenericObjectPool}.
-   * 
+   *
    * @param objectPool
    *          to use.
    */
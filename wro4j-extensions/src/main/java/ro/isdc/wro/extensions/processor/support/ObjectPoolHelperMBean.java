@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.extensions.processor.support;
+
+/**
+ * Exposes the metrics of a pool of engines through JMX.
+ *
+ * @since 1.4.7
+ */
+public interface ObjectPoolHelperMBean {
+  /**
+   * @return the number of objects currently borrowed from the pool.
+   */
+  int getNumActive();
+
+  /**
+   * @return the number of objects currently idle in the pool.
+   */
+  int getNumIdle();
+
+  /**
+   * @return the number of objects created by the pool since its creation.
+   */
+  long getCreatedCount();
+
+  /**
+   * @return the number of objects borrowed from the pool since its creation.
+   */
+  long getBorrowCount();
+
+  /**
+   * @return the average time in milliseconds spent waiting for an object (including its creation).
+   */
+  double getAverageBorrowWaitTime();
+
+  /**
+   * @return the longest time in milliseconds spent waiting for an object (including its creation).
+   */
+  long getMaxBorrowWaitTime();
+}
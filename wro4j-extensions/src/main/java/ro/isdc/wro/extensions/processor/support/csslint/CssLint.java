@@ -3,13 +3,17 @@
  */
 package ro.isdc.wro.extensions.processor.support.csslint;
 
-import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.lang3.Validate;
+import org.mozilla.javascript.NativeArray;
 import org.mozilla.javascript.RhinoException;
 import org.mozilla.javascript.ScriptableObject;
 import org.slf4j.Logger;
@@ -19,8 +23,8 @@ import ro.isdc.wro.WroRuntimeException;
 import ro.isdc.wro.extensions.processor.support.linter.OptionsBuilder;
 import ro.isdc.wro.extensions.script.RhinoScriptBuilder;
 import ro.isdc.wro.extensions.script.RhinoUtils;
+import ro.isdc.wro.extensions.script.SharedScopes;
 import ro.isdc.wro.util.StopWatch;
-import ro.isdc.wro.util.WroUtil;
 
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
@@ -40,27 +44,29 @@ public class CssLint {
    * The name of the csslint script to be used by default.
    */
   private static final String DEFAULT_CSSLINT_JS = "csslint.min.js";
+  /**
+   * The prefix of the variables holding the css to validate.
+   */
+  private static final String DATA_VARIABLE = "cssLintData";
   private final OptionsBuilder optionsBuilder = new OptionsBuilder();
   /**
    * Options to apply to js hint processing
    */
   private String[] options;
-  private ScriptableObject scope;
 
   /**
    * Initialize script builder for evaluation.
    */
   private RhinoScriptBuilder initScriptBuilder() {
     try {
-      RhinoScriptBuilder builder = null;
-      if (scope == null) {
-        builder = RhinoScriptBuilder.newChain().evaluateChain(getScriptAsStream(), DEFAULT_CSSLINT_JS);
-        scope = builder.getScope();
-      } else {
-        builder = RhinoScriptBuilder.newChain(scope);
-      }
-      return builder;
-    } catch (final IOException ex) {
+      final ScriptableObject scope = SharedScopes.get(getClass(), new Callable<RhinoScriptBuilder>() {
+        public RhinoScriptBuilder call()
+          throws Exception {
+          return RhinoScriptBuilder.newChain().addJSON().evaluateChain(getScriptAsStream(), DEFAULT_CSSLINT_JS);
+        }
+      });
+      return RhinoScriptBuilder.newChain(scope);
+    } catch (final Exception ex) {
       throw new IllegalStateException("Failed reading init script", ex);
     }
   }
@@ -82,6 +88,23 @@ public class CssLint {
    * @throws CssLintException when parsed css has some kind of problems.
    */
   public void validate(final String data) throws CssLintException {
+    final List<CssLintError> errors = lint(Collections.singletonList(data)).get(0);
+    if (!errors.isEmpty()) {
+      throw new CssLintException().setErrors(errors);
+    }
+  }
+
+
+  /**
+   * Lints many css contents using a single script evaluation. Unlike {@link #validate(String)}, no
+   * {@link CssLintException} is thrown for the invalid contents.
+   *
+   * @param contents
+   *          the css contents to process.
+   * @return the errors found in each content (an empty list for a valid content), in the same order.
+   */
+  public List<List<CssLintError>> lint(final List<String> contents) {
+    Validate.notNull(contents);
     try {
       final StopWatch watch = new StopWatch();
       watch.start("init");
@@ -89,29 +112,39 @@ public class CssLint {
       watch.stop();
       watch.start("cssLint");
       LOG.debug("options: {}", Arrays.toString(this.options));
-      final String script = buildCssLintScript(WroUtil.toJSMultiLineString(data), this.options);
+      final String optionsAsJson = optionsBuilder.build(this.options);
+      final StringBuilder script = new StringBuilder("[");
+      for (int i = 0; i < contents.size(); i++) {
+        final String variable = DATA_VARIABLE + i;
+        builder.addBinding(variable, RhinoUtils.toJSMultiLineValue(contents.get(i)));
+        if (i > 0) {
+          script.append(",");
+        }
+        script.append(buildCssLintScript(variable, optionsAsJson));
+      }
+      script.append("];");
       LOG.debug("script: {}", script);
-      builder.evaluate(script, "CSSLint.verify").toString();
-      final boolean valid = Boolean.parseBoolean(builder.evaluate("result.length == 0", "checkNoErrors").toString());
-      if (!valid) {
-        final String json = builder.addJSON().evaluate("JSON.stringify(result)", "CssLint messages").toString();
+      final NativeArray result = (NativeArray) builder.evaluate(script.toString(), "CSSLint.verify");
+      final Type type = new TypeToken<List<CssLintError>>() {}.getType();
+      final Gson gson = new Gson();
+      final List<List<CssLintError>> errors = new ArrayList<List<CssLintError>>(contents.size());
+      for (int i = 0; i < contents.size(); i++) {
+        final String json = (String) result.get(i, result);
         LOG.debug("json {}", json);
-        final Type type = new TypeToken<List<CssLintError>>() {}.getType();
-        final List<CssLintError> errors = new Gson().fromJson(json, type);
-        LOG.debug("Errors: {}", errors);
-        throw new CssLintException().setErrors(errors);
+        errors.add(gson.<List<CssLintError>> fromJson(json, type));
       }
-      LOG.debug("isValid: {}", valid);
+      LOG.debug("Errors: {}", errors);
       watch.stop();
       LOG.debug(watch.prettyPrint());
+      return errors;
     } catch (final RhinoException e) {
       throw new WroRuntimeException(RhinoUtils.createExceptionMessage(e), e);
     }
   }
 
 
-  private String buildCssLintScript(final String data, final String... options) {
-    return String.format("var result = CSSLint.verify(%s,%s).messages", data, optionsBuilder.build(options));
+  private String buildCssLintScript(final String dataVariable, final String optionsAsJson) {
+    return String.format("JSON.stringify(CSSLint.verify(%s,%s).messages)", dataVariable, optionsAsJson);
   }
 
 
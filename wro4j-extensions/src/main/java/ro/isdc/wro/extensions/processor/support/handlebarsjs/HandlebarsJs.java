@@ -1,12 +1,8 @@
 package ro.isdc.wro.extensions.processor.support.handlebarsjs;
 
-import java.io.IOException;
 import java.io.InputStream;
 
-import org.mozilla.javascript.ScriptableObject;
-
-import ro.isdc.wro.extensions.script.RhinoScriptBuilder;
-import ro.isdc.wro.util.WroUtil;
+import ro.isdc.wro.extensions.processor.support.template.AbstractJsTemplateCompiler;
 
 
 /**
@@ -15,7 +11,7 @@ import ro.isdc.wro.util.WroUtil;
  *
  * @author heldeen
  */
-public class HandlebarsJs {
+public class HandlebarsJs extends AbstractJsTemplateCompiler {
 
   /**
    * visible for testing, the init of a HandlebarsJs template
@@ -24,31 +20,32 @@ public class HandlebarsJs {
       + "templates = Handlebars.templates = Handlebars.templates || {};";
 
   private static final String DEFAULT_HANDLEBARS_JS = "handlebars-1.0.0.beta.6.js";
-  private ScriptableObject scope;
 
-  public String compile(final String content, final String name) {
-    final RhinoScriptBuilder builder = initScriptBuilder();
-    final String compileScript = String.format("Handlebars.precompile(%s);", WroUtil.toJSMultiLineString(content));
-    return HANDLEBARS_JS_TEMPLATES_INIT + "templates['" + name + "'] = template("
-        + (String) builder.evaluate(compileScript, "Handlebars.precompile") + " ); })();";
+  /**
+   * The name of the template is not passed to the compiler, it is used to register the compiled template (see
+   * {@link #postProcess(String, String)}).
+   */
+  @Override
+  protected String createCompileCall(final String contentVariable, final String name) {
+    return super.createCompileCall(contentVariable, null);
   }
 
-  protected InputStream getHandlebarsJsAsStream() {
-    return HandlebarsJs.class.getResourceAsStream(DEFAULT_HANDLEBARS_JS);
+  @Override
+  protected String postProcess(final String compiled, final String name) {
+    return HANDLEBARS_JS_TEMPLATES_INIT + "templates['" + name + "'] = template(" + compiled + " ); })();";
   }
 
-  private RhinoScriptBuilder initScriptBuilder() {
-    try {
-      RhinoScriptBuilder builder;
-      if (scope == null) {
-        builder = RhinoScriptBuilder.newChain().evaluateChain(getHandlebarsJsAsStream(), DEFAULT_HANDLEBARS_JS);
-        scope = builder.getScope();
-      } else {
-        builder = RhinoScriptBuilder.newChain(scope);
-      }
-      return builder;
-    } catch (final IOException ex) {
-      throw new IllegalStateException("Failed reading init script", ex);
-    }
+  @Override
+  protected String getCompileCommand() {
+    return "Handlebars.precompile";
+  }
+
+  @Override
+  protected InputStream getCompilerAsStream() {
+    return getHandlebarsJsAsStream();
+  }
+
+  protected InputStream getHandlebarsJsAsStream() {
+    return HandlebarsJs.class.getResourceAsStream(DEFAULT_HANDLEBARS_JS);
   }
 }
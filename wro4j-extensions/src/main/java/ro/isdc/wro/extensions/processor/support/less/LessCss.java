@@ -5,6 +5,7 @@ package ro.isdc.wro.extensions.processor.support.less;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.concurrent.Callable;
 
 import org.mozilla.javascript.RhinoException;
 import org.mozilla.javascript.ScriptableObject;
@@ -14,8 +15,8 @@ import org.slf4j.LoggerFactory;
 import ro.isdc.wro.WroRuntimeException;
 import ro.isdc.wro.extensions.script.RhinoScriptBuilder;
 import ro.isdc.wro.extensions.script.RhinoUtils;
+import ro.isdc.wro.extensions.script.SharedScopes;
 import ro.isdc.wro.util.StopWatch;
-import ro.isdc.wro.util.WroUtil;
 
 
 /**
@@ -34,24 +35,22 @@ public class LessCss {
   public static final String DEFAULT_LESS_JS = "less-1.3.0.min.js";
   private static final String SCRIPT_RUN = "run.js";
   private static final String SCRIPT_INIT = "init.js";
-  private ScriptableObject scope;
 
   /**
    * Initialize script builder for evaluation.
    */
   private RhinoScriptBuilder initScriptBuilder() {
     try {
-      RhinoScriptBuilder builder = null;
-      if (scope == null) {
-        final InputStream initStream = LessCss.class.getResourceAsStream(SCRIPT_INIT);
-        final InputStream runStream = getRunScriptAsStream();
-        builder = RhinoScriptBuilder.newClientSideAwareChain().evaluateChain(initStream, SCRIPT_INIT).evaluateChain(
-          getScriptAsStream(), DEFAULT_LESS_JS).evaluateChain(runStream, SCRIPT_RUN);
-        scope = builder.getScope();
-      } else {
-        builder = RhinoScriptBuilder.newChain(scope);
-      }
-      return builder;
+      final ScriptableObject scope = SharedScopes.get(getClass(), new Callable<RhinoScriptBuilder>() {
+        public RhinoScriptBuilder call()
+          throws Exception {
+          final InputStream initStream = LessCss.class.getResourceAsStream(SCRIPT_INIT);
+          final InputStream runStream = getRunScriptAsStream();
+          return RhinoScriptBuilder.newClientSideAwareChain().evaluateChain(initStream, SCRIPT_INIT).evaluateChain(
+            getScriptAsStream(), DEFAULT_LESS_JS).evaluateChain(runStream, SCRIPT_RUN);
+        }
+      });
+      return RhinoScriptBuilder.newChain(scope);
     } catch (final IOException ex) {
       throw new IllegalStateException("Failed reading javascript less.js", ex);
     } catch (final Exception e) {
@@ -87,8 +86,7 @@ public class LessCss {
 
     stopWatch.start("lessify");
     try {
-      final String execute = "lessIt(" + WroUtil.toJSMultiLineString(data) + ");";
-      final Object result = builder.evaluate(execute, "lessIt");
+      final Object result = builder.invokeFunction("lessIt", RhinoUtils.toJSMultiLineValue(data));
       return String.valueOf(result);
     } catch (final RhinoException e) {
       throw new WroRuntimeException(RhinoUtils.createExceptionMessage(e));
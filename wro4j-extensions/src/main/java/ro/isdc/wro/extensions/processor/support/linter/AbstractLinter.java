@@ -6,20 +6,22 @@ package ro.isdc.wro.extensions.processor.support.linter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.lang3.Validate;
+import org.mozilla.javascript.NativeArray;
 import org.mozilla.javascript.RhinoException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ro.isdc.wro.WroRuntimeException;
-import ro.isdc.wro.extensions.processor.support.csslint.CssLint;
 import ro.isdc.wro.extensions.script.RhinoScriptBuilder;
 import ro.isdc.wro.extensions.script.RhinoUtils;
 import ro.isdc.wro.util.StopWatch;
-import ro.isdc.wro.util.WroUtil;
 
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
@@ -34,6 +36,10 @@ import com.google.gson.reflect.TypeToken;
  */
 public abstract class AbstractLinter {
   private static final Logger LOG = LoggerFactory.getLogger(AbstractLinter.class);
+  /**
+   * The prefix of the variables holding the scripts to lint.
+   */
+  private static final String DATA_VARIABLE = "lintData";
   private OptionsBuilder optionsBuilder = new OptionsBuilder();
   /**
    * Options to apply to js hint processing
@@ -49,7 +55,7 @@ public abstract class AbstractLinter {
       // reusing the scope doesn't work here. Get the following error: TypeError: Cannot find function create in object
       // function Object() { [native code for Object.Object, arity=1] }
       // TODO investigate why
-      builder = RhinoScriptBuilder.newChain().evaluateChain(getScriptAsStream(), "linter.js");
+      builder = RhinoScriptBuilder.newChain().addJSON().evaluateChain(getScriptAsStream(), "linter.js");
       return builder;
     } catch (final IOException e) {
       throw new WroRuntimeException("Failed reading init script", e);
@@ -69,6 +75,22 @@ public abstract class AbstractLinter {
    * @param data js content to process.
    */
   public void validate(final String data) throws LinterException {
+    final List<LinterError> errors = lint(Collections.singletonList(data)).get(0);
+    if (!errors.isEmpty()) {
+      throw new LinterException().setErrors(errors);
+    }
+  }
+
+  /**
+   * Lints many scripts using a single script evaluation, this way the linter script is loaded only once for all of
+   * them. Unlike {@link #validate(String)}, no {@link LinterException} is thrown for the invalid scripts.
+   *
+   * @param contents
+   *          the js contents to process.
+   * @return the errors found in each script (an empty list for a valid script), in the same order.
+   */
+  public List<List<LinterError>> lint(final List<String> contents) {
+    Validate.notNull(contents);
     try {
       final StopWatch watch = new StopWatch();
       watch.start("init");
@@ -76,20 +98,31 @@ public abstract class AbstractLinter {
       watch.stop();
       watch.start("lint");
       LOG.debug("options: {}", Arrays.toString(this.options));
-      final String packIt = buildLinterScript(WroUtil.toJSMultiLineString(data), this.options);
-      final boolean valid = Boolean.parseBoolean(builder.evaluate(packIt, "check").toString());
-      if (!valid) {
-        final String json = builder.addJSON().evaluate(String.format("JSON.stringify(%s.errors)", getLinterName()),
-            "stringify errors").toString();
+      final String optionsAsJson = optionsBuilder.build(this.options);
+      final StringBuilder script = new StringBuilder("[");
+      for (int i = 0; i < contents.size(); i++) {
+        final String variable = DATA_VARIABLE + i;
+        builder.addBinding(variable, RhinoUtils.toJSMultiLineValue(contents.get(i)));
+        if (i > 0) {
+          script.append(",");
+        }
+        script.append(buildLinterScript(variable, optionsAsJson));
+      }
+      script.append("];");
+      final NativeArray result = (NativeArray) builder.evaluate(script.toString(), "check");
+      final Type type = new TypeToken<List<LinterError>>() {}.getType();
+      final Gson gson = new Gson();
+      final List<List<LinterError>> errors = new ArrayList<List<LinterError>>(contents.size());
+      for (int i = 0; i < contents.size(); i++) {
+        final Object json = result.get(i, result);
         LOG.debug("json {}", json);
-        final Type type = new TypeToken<List<LinterError>>() {}.getType();
-        final List<LinterError> errors = new Gson().fromJson(json, type);
-        LOG.debug("errors {}", errors);
-        throw new LinterException().setErrors(errors);
+        errors.add(json instanceof String ? gson.<List<LinterError>> fromJson((String) json, type)
+            : Collections.<LinterError> emptyList());
       }
-      LOG.debug("result: {}", valid);
+      LOG.debug("errors {}", errors);
       watch.stop();
       LOG.debug(watch.prettyPrint());
+      return errors;
     } catch (final RhinoException e) {
       throw new WroRuntimeException(RhinoUtils.createExceptionMessage(e), e);
     }
@@ -101,17 +134,15 @@ public abstract class AbstractLinter {
   protected abstract String getLinterName();
 
   /**
-   * TODO this method is duplicated in {@link CssLint}. Extract and reuse it.
-   *
-   * @param data
-   *          script to process.
-   * @param options
-   *          options to set as true
-   * @return Script used to pack and return the packed result.
+   * @param dataVariable
+   *          the name of the variable holding the script to process.
+   * @param optionsAsJson
+   *          the options to apply.
+   * @return the expression evaluated to null for a valid script or to the errors serialized as json.
    */
-  private String buildLinterScript(final String data, final String... options) {
-    final String script = String.format("%s(%s,%s);", getLinterName(), data, optionsBuilder.build(options));
-    return script;
+  private String buildLinterScript(final String dataVariable, final String optionsAsJson) {
+    return String.format("%1$s(%2$s,%3$s) ? null : JSON.stringify(%1$s.errors)", getLinterName(), dataVariable,
+        optionsAsJson);
   }
 
   /**
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.extensions.processor.support.linter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ro.isdc.wro.WroRuntimeException;
+import ro.isdc.wro.util.WroUtil;
+
+
+/**
+ * Lints many contents at once. The contents found in the {@link LintResultCache} are skipped, the others are split in
+ * one batch per available processor and each batch is linted by a single engine invocation (see
+ * {@link #lintBatch(List)}).
+ *
+ * @since 1.4.7
+ * @param <E>
+ *          the type of the error reported by the linter.
+ */
+public abstract class BatchLinter<E> {
+  private static final Logger LOG = LoggerFactory.getLogger(BatchLinter.class);
+  private final LintResultCache<E> resultCache;
+  private final String[] keyParts;
+
+
+  /**
+   * @param resultCache
+   *          the cache holding the errors of the already linted contents.
+   * @param keyParts
+   *          everything else the lint result depends on (ex: the linter, the options).
+   */
+  public BatchLinter(final LintResultCache<E> resultCache, final String... keyParts) {
+    Validate.notNull(resultCache);
+    this.resultCache = resultCache;
+    this.keyParts = keyParts;
+  }
+
+
+  /**
+   * @param contents
+   *          the contents to lint.
+   * @return the errors found in each content (an empty list for a valid content), in the same order.
+   */
+  public List<List<E>> lint(final List<String> contents) {
+    Validate.notNull(contents);
+    final List<List<E>> result = new ArrayList<List<E>>(contents.size());
+    final List<String> keys = new ArrayList<String>(contents.size());
+    final List<Integer> missingIndexes = new ArrayList<Integer>();
+    final List<String> missingContents = new ArrayList<String>();
+    for (int i = 0; i < contents.size(); i++) {
+      final String key = getKey(contents.get(i));
+      final List<E> errors = resultCache.get(key);
+      if (errors == null) {
+        missingIndexes.add(i);
+        missingContents.add(contents.get(i));
+      }
+      keys.add(key);
+      result.add(errors);
+    }
+    LOG.debug("{} of {} contents to lint", missingContents.size(), contents.size());
+    if (!missingContents.isEmpty()) {
+      final List<List<E>> errors = lintInParallel(missingContents);
+      for (int i = 0; i < errors.size(); i++) {
+        final int index = missingIndexes.get(i);
+        resultCache.put(keys.get(index), errors.get(i));
+        result.set(index, errors.get(i));
+      }
+    }
+    return result;
+  }
+
+
+  private String getKey(final String content) {
+    final String[] parts = new String[keyParts.length + 1];
+    System.arraycopy(keyParts, 0, parts, 0, keyParts.length);
+    parts[keyParts.length] = content;
+    return resultCache.getKey(parts);
+  }
+
+
+  private List<List<E>> lintInParallel(final List<String> contents) {
+    final int batchCount = Math.min(Runtime.getRuntime().availableProcessors(), contents.size());
+    if (batchCount <= 1) {
+      return lintBatch(contents);
+    }
+    final int batchSize = (contents.size() + batchCount - 1) / batchCount;
+    final ExecutorService executor = Executors.newFixedThreadPool(batchCount,
+        WroUtil.createDaemonThreadFactory("batchLinter"));
+    try {
+      final List<Future<List<List<E>>>> futures = new ArrayList<Future<List<List<E>>>>();
+      for (int from = 0; from < contents.size(); from += batchSize) {
+        final List<String> batch = contents.subList(from, Math.min(from + batchSize, contents.size()));
+        futures.add(executor.submit(new Callable<List<List<E>>>() {
+          public List<List<E>> call() {
+            return lintBatch(batch);
+          }
+        }));
+      }
+      final List<List<E>> result = new ArrayList<List<E>>(contents.size());
+      for (final Future<List<List<E>>> future : futures) {
+        result.addAll(future.get());
+      }
+      return result;
+    } catch (final ExecutionException e) {
+      // propagate original cause
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new WroRuntimeException("Problem during parallel linting", e.getCause());
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new WroRuntimeException("Interrupted during parallel linting", e);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+
+  /**
+   * Lints the contents using a single engine invocation. Invoked concurrently, so each invocation must use its own
+   * engine.
+   *
+   * @param contents
+   *          the contents to lint.
+   * @return the errors found in each content (an empty list for a valid content), in the same order.
+   */
+  protected abstract List<List<E>> lintBatch(List<String> contents);
+}
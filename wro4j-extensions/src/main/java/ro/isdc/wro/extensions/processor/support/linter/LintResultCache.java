@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.extensions.processor.support.linter;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.SerializationException;
+import org.apache.commons.lang3.SerializationUtils;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ro.isdc.wro.WroRuntimeException;
+import ro.isdc.wro.cache.CacheStrategy;
+import ro.isdc.wro.cache.impl.LruMemoryCacheStrategy;
+import ro.isdc.wro.model.resource.util.HashBuilder;
+import ro.isdc.wro.model.resource.util.SHA1HashBuilder;
+
+
+/**
+ * Holds the errors found by a linter, identified by the hash of the linted content and of the options used (see
+ * {@link #getKey(String...)}). Most of the files don't change between two lint runs, so they don't have to be linted
+ * again. An empty list of errors is cached for valid files.
+ * <p/>
+ * The lint results are kept in memory and, when a directory is provided, also stored on disk (the errors must be
+ * {@link Serializable}). This way a build doesn't lint again the files linted by the previous build. The directory must
+ * be cleared when the linter is upgraded.
+ *
+ * @since 1.4.7
+ * @param <E>
+ *          the type of the error reported by the linter.
+ */
+public class LintResultCache<E> {
+  private static final Logger LOG = LoggerFactory.getLogger(LintResultCache.class);
+  private static final int DEFAULT_SIZE = 1024;
+  private static final String ENCODING = "UTF-8";
+  private static final String EXTENSION = ".lint";
+  private final CacheStrategy<String, List<E>> cache;
+  private final HashBuilder hashBuilder = new SHA1HashBuilder();
+  private final File directory;
+
+
+  /**
+   * Creates a cache keeping the lint results only in memory.
+   */
+  public LintResultCache() {
+    this(DEFAULT_SIZE);
+  }
+
+
+  /**
+   * Creates a cache keeping the lint results only in memory.
+   *
+   * @param size
+   *          the maximum number of lint results to keep in memory.
+   */
+  public LintResultCache(final int size) {
+    cache = new LruMemoryCacheStrategy<String, List<E>>(size);
+    directory = null;
+  }
+
+
+  /**
+   * @param directory
+   *          the folder where the lint results are stored. It is created if it doesn't exist.
+   */
+  public LintResultCache(final File directory) {
+    Validate.notNull(directory);
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new WroRuntimeException("Cannot create the lint result cache directory: " + directory);
+    }
+    cache = new LruMemoryCacheStrategy<String, List<E>>(DEFAULT_SIZE);
+    this.directory = directory;
+  }
+
+
+  /**
+   * @param parts
+   *          the linted content and everything else the lint result depends on (ex: the linter, the options).
+   * @return the key identifying the lint result.
+   */
+  public String getKey(final String... parts) {
+    final StringBuilder data = new StringBuilder();
+    for (final String part : parts) {
+      // the separator makes ("ab", "c") and ("a", "bc") different
+      data.append(part).append('\0');
+    }
+    try {
+      return hashBuilder.getHash(new ByteArrayInputStream(data.toString().getBytes(ENCODING)));
+    } catch (final IOException e) {
+      throw new WroRuntimeException("Cannot compute the lint result hash", e);
+    }
+  }
+
+
+  /**
+   * @param key
+   *          the key created by {@link #getKey(String...)}.
+   * @return the errors found for the content identified by the key or null if the content was not linted yet.
+   */
+  public List<E> get(final String key) {
+    List<E> errors = cache.get(key);
+    if (errors == null && directory != null) {
+      final File file = getFile(key);
+      if (file.isFile()) {
+        try {
+          errors = Collections.unmodifiableList(SerializationUtils.<List<E>> deserialize(
+              FileUtils.readFileToByteArray(file)));
+          cache.put(key, errors);
+        } catch (final IOException e) {
+          LOG.warn("Cannot read the lint result: {}", file, e);
+        } catch (final SerializationException e) {
+          // ex: the file was stored by another version of the linter
+          LOG.warn("Cannot read the lint result: {}", file, e);
+        }
+      }
+    }
+    return errors;
+  }
+
+
+  /**
+   * @param key
+   *          the key created by {@link #getKey(String...)}.
+   * @param errors
+   *          the errors found by the linter (empty if the content is valid).
+   */
+  public void put(final String key, final List<E> errors) {
+    Validate.notNull(errors);
+    cache.put(key, Collections.unmodifiableList(errors));
+    if (directory != null) {
+      final File file = getFile(key);
+      // write to a temporary file first, this way a concurrent read never sees an incomplete file.
+      final File tempFile = new File(directory, key + "." + Thread.currentThread().getId() + ".tmp");
+      try {
+        FileUtils.writeByteArrayToFile(tempFile, SerializationUtils.serialize(new ArrayList<E>(errors)));
+        if (!tempFile.renameTo(file)) {
+          FileUtils.deleteQuietly(file);
+          if (!tempFile.renameTo(file)) {
+            LOG.warn("Cannot store the lint result: {}", file);
+          }
+        }
+      } catch (final IOException e) {
+        LOG.warn("Cannot store the lint result: {}", file, e);
+      } catch (final SerializationException e) {
+        LOG.warn("Cannot store the lint result: {}", file, e);
+      } finally {
+        FileUtils.deleteQuietly(tempFile);
+      }
+    }
+  }
+
+
+  private File getFile(final String key) {
+    return new File(directory, key + EXTENSION);
+  }
+
+
+  /**
+   * Removes all the lint results, including the ones stored on disk.
+   */
+  public void clear() {
+    cache.clear();
+    if (directory != null) {
+      try {
+        FileUtils.cleanDirectory(directory);
+      } catch (final IOException e) {
+        LOG.warn("Cannot clear the lint result cache directory: {}", directory, e);
+      }
+    }
+  }
+}
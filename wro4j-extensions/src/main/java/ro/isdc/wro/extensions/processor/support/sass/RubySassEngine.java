@@ -4,58 +4,97 @@ import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.LinkedHashSet;
 
-import javax.script.ScriptEngine;
-import javax.script.ScriptEngineManager;
-import javax.script.ScriptException;
-
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
+import org.jruby.embed.EvalFailedException;
+import org.jruby.embed.InvokeFailedException;
+import org.jruby.embed.LocalContextScope;
+import org.jruby.embed.ScriptingContainer;
+import org.jruby.exceptions.RaiseException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ro.isdc.wro.WroRuntimeException;
+import ro.isdc.wro.extensions.processor.support.ObjectPoolConfig;
+import ro.isdc.wro.extensions.processor.support.ObjectPoolHelper;
+import ro.isdc.wro.util.ObjectFactory;
 import ro.isdc.wro.util.StopWatch;
 
 
 /**
  * A Sass processor using ruby gems.
- * 
+ * <p/>
+ * Loading the ruby gems takes seconds, so the engine keeps a pool of JRuby runtimes having the gems already loaded.
+ * Each runtime is used by a single thread at a time, so the content can be processed concurrently.
+ *
  * @author Dmitry Erman
  * @created 12 Feb 2012
  * @since 1.4.4
  */
 public class RubySassEngine {
-  
+
   private static final Logger LOG = LoggerFactory.getLogger(RubySassEngine.class);
-  
+
   private static final String RUBY_GEM_REQUIRE = "rubygems";
   private static final String SASS_PLUGIN_REQUIRE = "sass/plugin";
   private static final String SASS_ENGINE_REQUIRE = "sass/engine";
-  
+  /**
+   * The method of the renderer object created by the init script.
+   */
+  private static final String RENDER_METHOD = "render";
+
   private LinkedHashSet<String> requires;
-  
+  /**
+   * Warmed runtimes, created lazily because the requires can be changed after the engine creation.
+   */
+  private volatile ObjectPoolHelper<SassRuntime> runtimePool;
+  /**
+   * The warmed runtimes are kept until the engine is changed (see {@link #addRequire(String)}), since a runtime takes
+   * seconds to create.
+   */
+  private ObjectPoolConfig poolConfig = new ObjectPoolConfig().setEvictableIdleTime(0);
+
   public RubySassEngine() {
     requires = new LinkedHashSet<String>();
     requires.add(RUBY_GEM_REQUIRE);
     requires.add(SASS_PLUGIN_REQUIRE);
     requires.add(SASS_ENGINE_REQUIRE);
   }
-  
+
   /**
    * Adds a ruby require to the ruby script to be run by this RubySassEngine. It's safe to add the same require twice.
-   * 
+   * The existing runtimes don't have the new require loaded, so they are terminated.
+   *
    * @param require
    *          The name of the require, e.g. bourbon
    */
-  public void addRequire(String require) {
+  public synchronized void addRequire(String require) {
     if (require != null && require.trim().length() > 0) {
-      requires.add(require.trim());
+      if (requires.add(require.trim())) {
+        // the existing runtimes don't have the new require loaded.
+        destroyRuntimePool();
+      }
     }
   }
-  
+
+  /**
+   * Configures the pool of JRuby runtimes.
+   *
+   * @param poolConfig
+   *          the {@link ObjectPoolConfig} to apply.
+   */
+  public synchronized RubySassEngine setPoolConfig(final ObjectPoolConfig poolConfig) {
+    Validate.notNull(poolConfig);
+    this.poolConfig = poolConfig;
+    if (runtimePool != null) {
+      runtimePool.configure(poolConfig);
+    }
+    return this;
+  }
+
   /**
    * Transforms a sass content into css using Sass ruby engine.
-   * 
+   *
    * @param content
    *          the Sass content to process.
    */
@@ -63,39 +102,82 @@ public class RubySassEngine {
     if (StringUtils.isEmpty(content)) {
       return StringUtils.EMPTY;
     }
+    final ObjectPoolHelper<SassRuntime> pool = getRuntimePool();
+    final SassRuntime runtime = pool.getObject();
     try {
       final StopWatch stopWatch = new StopWatch();
       stopWatch.start("process SCSS");
-      final ScriptEngine rubyEngine = new ScriptEngineManager().getEngineByName("jruby");
-      String result = rubyEngine.eval(buildUpdateScript(content)).toString();
+      final String result = runtime.render(content);
       stopWatch.stop();
       LOG.debug(stopWatch.prettyPrint());
       return result;
-    } catch (final ScriptException e) {
-      throw new WroRuntimeException(e.getMessage(), e);
+    } finally {
+      pool.returnObject(runtime);
+    }
+  }
+
+  private ObjectPoolHelper<SassRuntime> getRuntimePool() {
+    ObjectPoolHelper<SassRuntime> pool = runtimePool;
+    if (pool == null) {
+      synchronized (this) {
+        pool = runtimePool;
+        if (pool == null) {
+          pool = newRuntimePool(buildInitScript());
+          runtimePool = pool;
+        }
+      }
+    }
+    return pool;
+  }
+
+  private ObjectPoolHelper<SassRuntime> newRuntimePool(final String initScript) {
+    final ObjectPoolHelper<SassRuntime> pool = new ObjectPoolHelper<SassRuntime>(new ObjectFactory<SassRuntime>() {
+      public SassRuntime create() {
+        return new SassRuntime(initScript);
+      }
+    }) {
+      @Override
+      protected void destroyObject(final SassRuntime runtime) {
+        runtime.terminate();
+      }
+    };
+    pool.configure(poolConfig);
+    return pool;
+  }
+
+  /**
+   * Terminates the idle runtimes. The runtimes in use are terminated when returned to the destroyed pool.
+   */
+  private void destroyRuntimePool() {
+    if (runtimePool != null) {
+      runtimePool.destroy();
+      runtimePool = null;
     }
   }
-  
-  private String buildUpdateScript(final String content) {
-    Validate.notNull(content);
+
+  /**
+   * @return the script loading the requires and returning the object used to render the content.
+   */
+  private String buildInitScript() {
     final StringWriter raw = new StringWriter();
     final PrintWriter script = new PrintWriter(raw);
-    final StringBuilder sb = new StringBuilder();
-    sb.append(":syntax => :scss");
-    
+
     for (String require : requires) {
       script.println("  require '" + require + "'                                   ");
     }
     // if (LOG.isDebugEnabled()) {
     // debugRubyEnvironment(script);
     // }
-    script.println("  source = '" + content.replace("'", "\"") + "'                 ");
-    script.println("  engine = Sass::Engine.new(source, {" + sb.toString() + "})    ");
-    script.println("  result = engine.render                                        ");
+    script.println("  class Wro4jSassRenderer                                       ");
+    script.println("    def " + RENDER_METHOD + "(source)                           ");
+    script.println("      Sass::Engine.new(source, {:syntax => :scss}).render       ");
+    script.println("    end                                                         ");
+    script.println("  end                                                           ");
+    script.println("  Wro4jSassRenderer.new                                         ");
     script.flush();
     return raw.toString();
   }
-  
+
   private void debugRubyEnvironment(PrintWriter script) {
     script.println("  dir_contents = Dir.entries(Dir.pwd)    ");
     script.println("  puts dir_contents   ");
@@ -106,4 +188,51 @@ public class RubySassEngine {
     script.println("  puts Dir.pwd  ");
     script.println(" puts '--working dir--'  ");
   }
+
+  /**
+   * A JRuby runtime having the requires loaded. The content is passed as an argument of the render method, so it
+   * doesn't need to be escaped and no script is parsed for each call.
+   */
+  private static final class SassRuntime {
+    private final ScriptingContainer container;
+    private final Object renderer;
+
+    SassRuntime(final String initScript) {
+      final StopWatch stopWatch = new StopWatch();
+      stopWatch.start("init JRuby runtime");
+      // each container has its own runtime, used by a single thread at a time.
+      container = new ScriptingContainer(LocalContextScope.SINGLETHREAD);
+      try {
+        renderer = container.runScriptlet(initScript);
+      } catch (final EvalFailedException e) {
+        throw new WroRuntimeException(e.getMessage(), e);
+      } catch (final RaiseException e) {
+        throw new WroRuntimeException(e.getMessage(), e);
+      } finally {
+        stopWatch.stop();
+        LOG.debug(stopWatch.prettyPrint());
+      }
+    }
+
+    String render(final String content) {
+      try {
+        return container.callMethod(renderer, RENDER_METHOD, content, String.class);
+      } catch (final InvokeFailedException e) {
+        throw new WroRuntimeException(e.getMessage(), e);
+      } catch (final RaiseException e) {
+        throw new WroRuntimeException(e.getMessage(), e);
+      }
+    }
+
+    /**
+     * Releases the JRuby runtime, which is not garbage collected otherwise.
+     */
+    void terminate() {
+      try {
+        container.terminate();
+      } catch (final RuntimeException e) {
+        LOG.warn("Cannot terminate the JRuby runtime", e);
+      }
+    }
+  }
 }
@@ -1,13 +1,18 @@
 package ro.isdc.wro.extensions.processor.support.template;
 
-import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+import org.mozilla.javascript.NativeArray;
 import org.mozilla.javascript.ScriptableObject;
 
 import ro.isdc.wro.extensions.script.RhinoScriptBuilder;
-import ro.isdc.wro.util.WroUtil;
+import ro.isdc.wro.extensions.script.RhinoUtils;
+import ro.isdc.wro.extensions.script.SharedScopes;
 
 
 /**
@@ -18,7 +23,10 @@ import ro.isdc.wro.util.WroUtil;
  * @created 11 May 2012
  */
 public abstract class AbstractJsTemplateCompiler {
-  private ScriptableObject scope;
+  /**
+   * The name of the variable holding the template to compile.
+   */
+  private static final String CONTENT_VARIABLE = "templateContent";
   
   /**
    * Compiles the javascript template into plain javascript.
@@ -31,10 +39,67 @@ public abstract class AbstractJsTemplateCompiler {
    */
   public String compile(final String content, final String optionalArgument) {
     final RhinoScriptBuilder builder = initScriptBuilder();
+    builder.addBinding(CONTENT_VARIABLE, RhinoUtils.toJSMultiLineValue(content));
+    final String compileScript = createCompileCall(CONTENT_VARIABLE, optionalArgument) + ";";
+    return postProcess((String) builder.evaluate(compileScript, getCompileCommand()), optionalArgument);
+  }
+
+  /**
+   * Compiles many templates using a single script evaluation, which is much faster than compiling each template
+   * separately when there are many small templates.
+   *
+   * @param contents
+   *          the templates to be compiled.
+   * @param optionalArguments
+   *          the additional argument of each template (can contain null elements).
+   * @return the compiled javascript of each template, in the same order.
+   */
+  public List<String> compile(final List<String> contents, final List<String> optionalArguments) {
+    Validate.notNull(contents);
+    Validate.notNull(optionalArguments);
+    Validate.isTrue(contents.size() == optionalArguments.size(), "Each template must have an argument");
+    final RhinoScriptBuilder builder = initScriptBuilder();
+    final StringBuilder compileScript = new StringBuilder("[");
+    for (int i = 0; i < contents.size(); i++) {
+      final String variable = CONTENT_VARIABLE + i;
+      builder.addBinding(variable, RhinoUtils.toJSMultiLineValue(contents.get(i)));
+      if (i > 0) {
+        compileScript.append(",");
+      }
+      compileScript.append(createCompileCall(variable, optionalArguments.get(i)));
+    }
+    compileScript.append("];");
+    final NativeArray compiled = (NativeArray) builder.evaluate(compileScript.toString(), getCompileCommand());
+    final List<String> result = new ArrayList<String>(contents.size());
+    for (int i = 0; i < contents.size(); i++) {
+      result.add(postProcess((String) compiled.get(i, compiled), optionalArguments.get(i)));
+    }
+    return result;
+  }
+
+  /**
+   * @param contentVariable
+   *          the name of the variable holding the template.
+   * @param optionalArgument
+   *          any additional arguments used by template script.
+   * @return the js expression compiling the template.
+   */
+  protected String createCompileCall(final String contentVariable, final String optionalArgument) {
     final String argStr = createArgStr(optionalArgument) + createArgStr(getArguments());
-    final String compileScript =
-      String.format("%s(%s%s);", getCompileCommand(), WroUtil.toJSMultiLineString(content), argStr);
-    return (String) builder.evaluate(compileScript, getCompileCommand());
+    return String.format("%s(%s%s)", getCompileCommand(), contentVariable, argStr);
+  }
+
+  /**
+   * Invoked with the result of the compile command. The default implementation returns it unchanged.
+   *
+   * @param compiled
+   *          the result of the compile command.
+   * @param optionalArgument
+   *          the additional argument of the compiled template.
+   * @return the compiled javascript.
+   */
+  protected String postProcess(final String compiled, final String optionalArgument) {
+    return compiled;
   }
 
   /**
@@ -60,15 +125,14 @@ public abstract class AbstractJsTemplateCompiler {
 
   private RhinoScriptBuilder initScriptBuilder() {
     try {
-      RhinoScriptBuilder builder;
-      if (scope == null) {
-        builder = RhinoScriptBuilder.newChain().evaluateChain(getCompilerAsStream(), "templateCompiler.js");
-        scope = builder.getScope();
-      } else {
-        builder = RhinoScriptBuilder.newChain(scope);
-      }
-      return builder;
-    } catch (final IOException ex) {
+      final ScriptableObject scope = SharedScopes.get(getClass(), new Callable<RhinoScriptBuilder>() {
+        public RhinoScriptBuilder call()
+          throws Exception {
+          return RhinoScriptBuilder.newChain().evaluateChain(getCompilerAsStream(), "templateCompiler.js");
+        }
+      });
+      return RhinoScriptBuilder.newChain(scope);
+    } catch (final Exception ex) {
       throw new IllegalStateException("Failed reading init script", ex);
     }
   }
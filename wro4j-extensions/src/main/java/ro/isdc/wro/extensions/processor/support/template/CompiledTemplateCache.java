@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.extensions.processor.support.template;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ro.isdc.wro.WroRuntimeException;
+import ro.isdc.wro.cache.CacheStrategy;
+import ro.isdc.wro.cache.impl.LruMemoryCacheStrategy;
+import ro.isdc.wro.model.resource.util.HashBuilder;
+import ro.isdc.wro.model.resource.util.SHA1HashBuilder;
+
+
+/**
+ * Holds the compiled templates identified by the hash of the template and of everything else the compiled output
+ * depends on (see {@link #getKey(String...)}). Most templates don't change between two builds of a group, so they don't
+ * have to be compiled again.
+ * <p/>
+ * The compiled templates are kept in memory and, when a directory is provided, also stored on disk. This way they
+ * survive a restart. The directory must be cleared when the template library is upgraded.
+ *
+ * @since 1.4.7
+ */
+public class CompiledTemplateCache {
+  private static final Logger LOG = LoggerFactory.getLogger(CompiledTemplateCache.class);
+  private static final int DEFAULT_SIZE = 1024;
+  private static final String ENCODING = "UTF-8";
+  private static final String EXTENSION = ".js";
+  private final CacheStrategy<String, String> memoryCache = new LruMemoryCacheStrategy<String, String>(DEFAULT_SIZE);
+  private final HashBuilder hashBuilder = new SHA1HashBuilder();
+  private final File directory;
+
+
+  /**
+   * Creates a cache keeping the compiled templates only in memory.
+   */
+  public CompiledTemplateCache() {
+    this.directory = null;
+  }
+
+
+  /**
+   * @param directory
+   *          the folder where the compiled templates are stored. It is created if it doesn't exist.
+   */
+  public CompiledTemplateCache(final File directory) {
+    Validate.notNull(directory);
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new WroRuntimeException("Cannot create the template cache directory: " + directory);
+    }
+    this.directory = directory;
+  }
+
+
+  /**
+   * @param parts
+   *          the template and everything else the compiled output depends on (ex: the compiler, the template name).
+   * @return the key identifying the compiled template.
+   */
+  public String getKey(final String... parts) {
+    final StringBuilder data = new StringBuilder();
+    for (final String part : parts) {
+      // the separator makes ("ab", "c") and ("a", "bc") different
+      data.append(part).append('\0');
+    }
+    try {
+      return hashBuilder.getHash(new ByteArrayInputStream(data.toString().getBytes(ENCODING)));
+    } catch (final IOException e) {
+      throw new WroRuntimeException("Cannot compute the template hash", e);
+    }
+  }
+
+
+  /**
+   * @param key
+   *          the key created by {@link #getKey(String...)}.
+   * @return the compiled template or null if it is not cached.
+   */
+  public String get(final String key) {
+    String compiled = memoryCache.get(key);
+    if (compiled == null && directory != null) {
+      final File file = getFile(key);
+      if (file.isFile()) {
+        try {
+          compiled = FileUtils.readFileToString(file, ENCODING);
+          memoryCache.put(key, compiled);
+        } catch (final IOException e) {
+          LOG.warn("Cannot read the compiled template: {}", file, e);
+        }
+      }
+    }
+    return compiled;
+  }
+
+
+  /**
+   * @param key
+   *          the key created by {@link #getKey(String...)}.
+   * @param compiled
+   *          the compiled template.
+   */
+  public void put(final String key, final String compiled) {
+    Validate.notNull(compiled);
+    memoryCache.put(key, compiled);
+    if (directory != null) {
+      final File file = getFile(key);
+      // write to a temporary file first, this way a concurrent read never sees an incomplete file.
+      final File tempFile = new File(directory, key + "." + Thread.currentThread().getId() + ".tmp");
+      try {
+        FileUtils.writeStringToFile(tempFile, compiled, ENCODING);
+        if (!tempFile.renameTo(file)) {
+          FileUtils.deleteQuietly(file);
+          if (!tempFile.renameTo(file)) {
+            LOG.warn("Cannot store the compiled template: {}", file);
+          }
+        }
+      } catch (final IOException e) {
+        LOG.warn("Cannot store the compiled template: {}", file, e);
+      } finally {
+        FileUtils.deleteQuietly(tempFile);
+      }
+    }
+  }
+
+
+  private File getFile(final String key) {
+    return new File(directory, key + EXTENSION);
+  }
+
+
+  /**
+   * Removes all the compiled templates, including the ones stored on disk.
+   */
+  public void clear() {
+    memoryCache.clear();
+    if (directory != null) {
+      try {
+        FileUtils.cleanDirectory(directory);
+      } catch (final IOException e) {
+        LOG.warn("Cannot clear the template cache directory: {}", directory, e);
+      }
+    }
+  }
+}
@@ -7,6 +7,7 @@ import static ro.isdc.wro.extensions.processor.support.uglify.UglifyJs.Type.UGLI
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.concurrent.Callable;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.Validate;
@@ -18,8 +19,8 @@ import org.slf4j.LoggerFactory;
 import ro.isdc.wro.WroRuntimeException;
 import ro.isdc.wro.extensions.script.RhinoScriptBuilder;
 import ro.isdc.wro.extensions.script.RhinoUtils;
+import ro.isdc.wro.extensions.script.SharedScopes;
 import ro.isdc.wro.util.StopWatch;
-import ro.isdc.wro.util.WroUtil;
 
 
 /**
@@ -38,7 +39,10 @@ public class UglifyJs {
    * The name of the uglify script to be used by default.
    */
   public static final String DEFAULT_UGLIFY_JS = "uglifyJs.min.js";
-  private String invokeScript;
+  /**
+   * Defines the function invoked for each processed script.
+   */
+  private static final String SCRIPT_INVOKE = "invoke.js";
   private String defaultOptionsAsJson;
   /**
    * If true, the script is uglified, otherwise it is beautified.
@@ -48,7 +52,6 @@ public class UglifyJs {
    * Comma delimited variable names to have uglify not mangle
    */
   private String reservedNames;
-  private ScriptableObject scope;
   
   /**
    * The type of processing supported by UglifyJs library. This enum replaces ugly boolean constructor parameter.
@@ -57,17 +60,6 @@ public class UglifyJs {
     BEAUTIFY, UGLIFY
   }
   
-  /**
-   * @return the script responsible for invoking the uglifyJs script.
-   */
-  private String getInvokeScript()
-      throws IOException {
-    if (invokeScript == null) {
-      invokeScript = IOUtils.toString(UglifyJs.class.getResourceAsStream("invoke.js"));
-    }
-    return invokeScript;
-  }
-  
   /**
    * @param uglify
    *          if true the code will be uglified (compressed and minimized), otherwise it will be beautified (nice
@@ -115,17 +107,16 @@ public class UglifyJs {
    * Initialize script builder for evaluation.
    */
   private RhinoScriptBuilder initScriptBuilder() {
-    // TODO: Find a way to encapsulate this code
-    RhinoScriptBuilder builder = null;
     try {
-      if (scope == null) {
-        builder = RhinoScriptBuilder.newChain().addJSON().evaluateChain(UglifyJs.class.getResourceAsStream("init.js"),
-            "initScript").evaluateChain(getScriptAsStream(), DEFAULT_UGLIFY_JS);
-        scope = builder.getScope();
-      } else {
-        builder = RhinoScriptBuilder.newChain(scope);
-      }
-      return builder;
+      final ScriptableObject scope = SharedScopes.get(getClass(), new Callable<RhinoScriptBuilder>() {
+        public RhinoScriptBuilder call()
+            throws Exception {
+          return RhinoScriptBuilder.newChain().addJSON().evaluateChain(UglifyJs.class.getResourceAsStream("init.js"),
+              "initScript").evaluateChain(getScriptAsStream(), DEFAULT_UGLIFY_JS).evaluateChain(
+              UglifyJs.class.getResourceAsStream(SCRIPT_INVOKE), SCRIPT_INVOKE);
+        }
+      });
+      return RhinoScriptBuilder.newChain(scope);
     } catch (final Exception ex) {
       throw new IllegalStateException("Failed initializing js", ex);
     }
@@ -150,13 +141,11 @@ public class UglifyJs {
       watch.start("init " + filename);
       final RhinoScriptBuilder builder = initScriptBuilder();
       watch.stop();
-      final String originalCode = WroUtil.toJSMultiLineString(code);
       // TODO handle reservedNames
       final String optionsAsJson = createOptionsAsJson();
       Validate.notNull(optionsAsJson);
-      final String invokeScript = String.format(getInvokeScript(), originalCode, optionsAsJson);
       watch.start(uglify ? "uglify" : "beautify");
-      final Object result = builder.evaluate(invokeScript.toString(), "uglifyIt");
+      final Object result = builder.invokeFunction("uglifyIt", RhinoUtils.toJSMultiLineValue(code), optionsAsJson);
       
       watch.stop();
       LOG.debug(watch.prettyPrint());
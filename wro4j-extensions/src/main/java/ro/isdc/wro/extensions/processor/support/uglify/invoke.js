@@ -50,11 +50,14 @@ function ast_squeeze_more(ast) {
 
 exports.ast_squeeze_more = ast_squeeze_more;
 
-(function() {
-  var orig_code = %s;
+/**
+ * Invoked for each processed script: the code and the options are passed as arguments.
+ */
+function uglifyIt(orig_code, optionsAsJson) {
   // the second argument is true for uglify and false for beautify.
   //compressed code here
-  var options = %s;
+  var options;
+  eval("options = " + optionsAsJson);
 
   //parse code and get the initial AST
   var ast = jsp.parse(orig_code);
@@ -69,4 +72,4 @@ exports.ast_squeeze_more = ast_squeeze_more;
 	  ast = exports.ast_squeeze_more(ast);
   }
   return exports.gen_code(ast,  options.codegen_options);
-})();
+}
@@ -5,19 +5,22 @@ package ro.isdc.wro.extensions.script;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.Reader;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.Validate;
 import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Function;
 import org.mozilla.javascript.JavaScriptException;
 import org.mozilla.javascript.RhinoException;
+import org.mozilla.javascript.Scriptable;
 import org.mozilla.javascript.ScriptableObject;
 import org.mozilla.javascript.tools.ToolErrorReporter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import ro.isdc.wro.WroRuntimeException;
+
 
 /**
  * Used to evaluate javascript on the serverside using rhino javascript engine. Encapsulate and hides all implementation
@@ -36,8 +39,8 @@ public class RhinoScriptBuilder {
   }
 
 
-  private RhinoScriptBuilder(final ScriptableObject scope) {
-    this.scope = createContext(scope);
+  private RhinoScriptBuilder(final ScriptableObject sharedScope) {
+    this.scope = sharedScope == null ? createContext(null) : createChildScope(sharedScope);
   }
 
 
@@ -54,23 +57,28 @@ public class RhinoScriptBuilder {
    */
   private ScriptableObject createContext(final ScriptableObject initialScope) {
     initContext();
-    context.setOptimizationLevel(-1);
-    // TODO redirect errors from System.err to LOG.error()
-    context.setErrorReporter(new ToolErrorReporter(false));
-    context.setLanguageVersion(Context.VERSION_1_8);
-    InputStream script = null;
     final ScriptableObject scope = (ScriptableObject) context.initStandardObjects(initialScope);
     try {
-      script = getClass().getResourceAsStream("commons.js");
-      context.evaluateReader(scope, new InputStreamReader(script), "commons.js", 1, null);
+      RhinoScriptRegistry.getInstance().getScript(getClass().getResource("commons.js"), "commons.js").exec(context,
+        scope);
     } catch (final IOException e) {
       throw new RuntimeException("Problem while evaluationg commons script.", e);
-    } finally {
-      IOUtils.closeQuietly(script);
     }
     return scope;
   }
 
+  /**
+   * Creates an empty scope which inherits all the variables of the shared scope. The variables declared by the
+   * evaluated scripts are stored in the new scope, so the shared scope is not changed.
+   */
+  private ScriptableObject createChildScope(final ScriptableObject sharedScope) {
+    initContext();
+    final ScriptableObject childScope = (ScriptableObject) context.newObject(sharedScope);
+    childScope.setPrototype(sharedScope);
+    childScope.setParentScope(null);
+    return childScope;
+  }
+
   /**
    * Add a clinet side environment to the script context (client-side aware).
    *
@@ -80,9 +88,7 @@ public class RhinoScriptBuilder {
   public RhinoScriptBuilder addClientSideEnvironment() {
     try {
       final String SCRIPT_ENV = "env.rhino.min.js";
-      final InputStream script = getClass().getResourceAsStream(SCRIPT_ENV);
-      evaluateChain(script, SCRIPT_ENV);
-      return this;
+      return evaluateBundledScript(SCRIPT_ENV);
     } catch (final IOException e) {
       throw new RuntimeException("Couldn't initialize env.rhino script", e);
     }
@@ -92,9 +98,7 @@ public class RhinoScriptBuilder {
   public RhinoScriptBuilder addJSON() {
     try {
       final String SCRIPT_ENV = "json2.min.js";
-      final InputStream script = getClass().getResourceAsStream(SCRIPT_ENV);
-      evaluateChain(script, SCRIPT_ENV);
-      return this;
+      return evaluateBundledScript(SCRIPT_ENV);
     } catch (final IOException e) {
       throw new RuntimeException("Couldn't initialize json2.min.js script", e);
     }
@@ -102,7 +106,20 @@ public class RhinoScriptBuilder {
 
 
   /**
-   * Evaluates a script and return {@link RhinoScriptBuilder} for a chained script evaluation.
+   * Evaluates a script bundled with this class. The script is read and compiled only once (see
+   * {@link RhinoScriptRegistry}).
+   */
+  private RhinoScriptBuilder evaluateBundledScript(final String sourceName)
+    throws IOException {
+    initContext();
+    RhinoScriptRegistry.getInstance().getScript(getClass().getResource(sourceName), sourceName).exec(context, scope);
+    return this;
+  }
+
+
+  /**
+   * Evaluates a script and return {@link RhinoScriptBuilder} for a chained script evaluation. The script is compiled
+   * only once and reused by all the {@link RhinoScriptBuilder} instances (see {@link RhinoScriptRegistry}).
    *
    * @param stream {@link InputStream} of the script to evaluate.
    * @param sourceName the name of the evaluated script.
@@ -114,7 +131,7 @@ public class RhinoScriptBuilder {
     Validate.notNull(stream);
     initContext();
     try {
-      context.evaluateReader(scope, new InputStreamReader(stream), sourceName, 1, null);
+      RhinoScriptRegistry.getInstance().getScript(stream, sourceName).exec(context, scope);
       return this;
     } catch (final RuntimeException e) {
       LOG.error("Exception caught", e);
@@ -128,9 +145,19 @@ public class RhinoScriptBuilder {
   }
 
 
+  /**
+   * Makes sure a context is associated with the current thread. A new context is created when the builder is used by
+   * another thread or after the context was exited, so it is configured each time it is entered. The scripts evaluated
+   * as strings are usually different on each call (and can be large), so they are interpreted. The library scripts are
+   * compiled by {@link RhinoScriptRegistry}.
+   */
   public void initContext() {
-    if (context == null) {
+    if (context == null || Context.getCurrentContext() != context) {
       context = Context.enter();
+      context.setOptimizationLevel(RhinoScriptRegistry.INTERPRETED_MODE);
+      // TODO redirect errors from System.err to LOG.error()
+      context.setErrorReporter(new ToolErrorReporter(false));
+      context.setLanguageVersion(Context.VERSION_1_8);
     }
   }
 
@@ -195,6 +222,62 @@ public class RhinoScriptBuilder {
     }
   }
 
+  /**
+   * Binds a java object as a variable of the scope. This way, a value (ex: the content to process) is available to the
+   * scripts without being converted to javascript source code and parsed.
+   *
+   * @param name the name of the variable.
+   * @param value the value of the variable.
+   * @return {@link RhinoScriptBuilder} chain with the variable defined.
+   */
+  public RhinoScriptBuilder addBinding(final String name, final Object value) {
+    Validate.notNull(name);
+    initContext();
+    ScriptableObject.putProperty(scope, name, Context.javaToJS(value, scope));
+    return this;
+  }
+
+
+  /**
+   * Invokes a function defined by the already evaluated scripts.
+   *
+   * @param functionName the name of the function, optionally prefixed by the object holding it (ex: dust.compile).
+   * @param args the arguments passed to the function.
+   * @return the result of the invocation.
+   */
+  public Object invokeFunction(final String functionName, final Object... args) {
+    Validate.notNull(functionName);
+    initContext();
+    try {
+      Scriptable owner = scope;
+      final String[] names = functionName.split("\\.");
+      Object function = owner;
+      for (final String name : names) {
+        if (!(function instanceof Scriptable)) {
+          break;
+        }
+        owner = (Scriptable) function;
+        function = ScriptableObject.getProperty(owner, name);
+      }
+      if (!(function instanceof Function)) {
+        throw new WroRuntimeException("No function found with name: " + functionName);
+      }
+      final Object[] jsArgs = new Object[args.length];
+      for (int i = 0; i < args.length; i++) {
+        jsArgs[i] = Context.javaToJS(args[i], scope);
+      }
+      return ((Function) function).call(context, scope, owner, jsArgs);
+    } catch (final JavaScriptException e) {
+      LOG.error("JavaScriptException occured: " + e.getMessage());
+      throw e;
+    } finally {
+      // Rhino throws an exception when trying to exit twice. Make sure we don't get any exception
+      if (Context.getCurrentContext() != null) {
+        Context.exit();
+      }
+    }
+  }
+
   /**
    * @return default {@link RhinoScriptBuilder} for script evaluation chaining.
    */
@@ -203,8 +286,14 @@ public class RhinoScriptBuilder {
   }
 
 
-  public static RhinoScriptBuilder newChain(final ScriptableObject scope) {
-    return new RhinoScriptBuilder(scope);
+  /**
+   * @param sharedScope
+   *          the scope containing the already evaluated scripts, usually obtained using {@link SharedScopes}.
+   * @return {@link RhinoScriptBuilder} evaluating the scripts in a child of the shared scope.
+   */
+  public static RhinoScriptBuilder newChain(final ScriptableObject sharedScope) {
+    Validate.notNull(sharedScope);
+    return new RhinoScriptBuilder(sharedScope);
   }
 
 
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.extensions.script;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.Validate;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.EvaluatorException;
+import org.mozilla.javascript.Script;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ro.isdc.wro.model.resource.util.SHA1HashBuilder;
+import ro.isdc.wro.util.StopWatch;
+
+
+/**
+ * Holds the library scripts (ex: commons.js, less.js, uglify.js) compiled into Rhino {@link Script} objects. Each
+ * script is compiled only once and the compiled version is shared by all {@link RhinoScriptBuilder} instances, instead
+ * of being parsed again for each new engine. A compiled {@link Script} doesn't hold any state, so it can be executed
+ * concurrently in different scopes.
+ * <p/>
+ * By default the scripts are compiled to java bytecode (see {@link #DEFAULT_OPTIMIZATION_LEVEL}), which is much faster
+ * to execute than the interpreted mode. When a script cannot be compiled (ex: the generated method exceeds the 64K
+ * limit), it falls back to interpreted mode.
+ *
+ * @since 1.4.7
+ */
+public final class RhinoScriptRegistry {
+  private static final Logger LOG = LoggerFactory.getLogger(RhinoScriptRegistry.class);
+  /**
+   * The optimization level used to compile the scripts by default.
+   */
+  public static final int DEFAULT_OPTIMIZATION_LEVEL = 9;
+  /**
+   * Optimization level for the interpreted mode.
+   */
+  public static final int INTERPRETED_MODE = -1;
+  private static final RhinoScriptRegistry INSTANCE = new RhinoScriptRegistry();
+  private static final String UTF_8 = "UTF-8";
+  /**
+   * Compiled scripts mapped by the source name, the optimization level and the hash of the content (or the url) of the
+   * script.
+   */
+  private final ConcurrentMap<String, Script> scripts = new ConcurrentHashMap<String, Script>();
+  private volatile int optimizationLevel = DEFAULT_OPTIMIZATION_LEVEL;
+
+
+  private RhinoScriptRegistry() {
+  }
+
+
+  /**
+   * @return the registry shared by all {@link RhinoScriptBuilder} instances.
+   */
+  public static RhinoScriptRegistry getInstance() {
+    return INSTANCE;
+  }
+
+
+  /**
+   * Returns the compiled version of the script, compiling it only if it wasn't compiled before. A script is identified
+   * by its source name and the hash of its content, this way different scripts having the same name (ex: the library
+   * of each template compiler) or a different version of a library (provided by overriding the method returning the
+   * stream of the script) are compiled separately. The content is decoded only when the script is compiled.
+   *
+   * @param stream
+   *          {@link InputStream} of the script to compile, encoded with UTF-8. It is closed by this method.
+   * @param sourceName
+   *          the name of the script.
+   * @return the compiled {@link Script}.
+   */
+  public Script getScript(final InputStream stream, final String sourceName)
+    throws IOException {
+    Validate.notNull(stream);
+    Validate.notNull(sourceName);
+    final byte[] content;
+    try {
+      content = IOUtils.toByteArray(stream);
+    } finally {
+      stream.close();
+    }
+    final int level = optimizationLevel;
+    final String key = getKey(sourceName, new SHA1HashBuilder().getHash(new ByteArrayInputStream(content)), level);
+    Script script = scripts.get(key);
+    if (script == null) {
+      script = register(key, compile(new String(content, UTF_8), sourceName, level));
+    }
+    return script;
+  }
+
+
+  /**
+   * Same as {@link #getScript(InputStream, String)} for a script identified by its url (ex: a script bundled with the
+   * application). The script is read only when it is compiled.
+   *
+   * @param url
+   *          the location of the script, encoded with UTF-8.
+   * @param sourceName
+   *          the name of the script.
+   * @return the compiled {@link Script}.
+   */
+  public Script getScript(final URL url, final String sourceName)
+    throws IOException {
+    Validate.notNull(url);
+    Validate.notNull(sourceName);
+    final int level = optimizationLevel;
+    final String key = getKey(sourceName, url.toExternalForm(), level);
+    Script script = scripts.get(key);
+    if (script == null) {
+      final InputStream stream = url.openStream();
+      try {
+        script = register(key, compile(IOUtils.toString(stream, UTF_8), sourceName, level));
+      } finally {
+        stream.close();
+      }
+    }
+    return script;
+  }
+
+
+  /**
+   * @return the script registered for the key, the provided one unless a concurrent caller registered it first.
+   */
+  private Script register(final String key, final Script script) {
+    final Script registered = scripts.putIfAbsent(key, script);
+    return registered == null ? script : registered;
+  }
+
+
+  private String getKey(final String sourceName, final String identity, final int level) {
+    return sourceName + "|" + level + "|" + identity;
+  }
+
+
+  private Script compile(final String source, final String sourceName, final int level) {
+    final StopWatch watch = new StopWatch();
+    watch.start("compile " + sourceName);
+    final Context context = Context.enter();
+    final int originalLevel = context.getOptimizationLevel();
+    try {
+      context.setOptimizationLevel(level);
+      try {
+        return context.compileString(source, sourceName, 1, null);
+      } catch (final EvaluatorException e) {
+        if (level == INTERPRETED_MODE) {
+          throw e;
+        }
+        LOG.warn("Cannot compile {}, using interpreted mode instead. Reason: {}", sourceName, e.getMessage());
+        context.setOptimizationLevel(INTERPRETED_MODE);
+        return context.compileString(source, sourceName, 1, null);
+      }
+    } finally {
+      context.setOptimizationLevel(originalLevel);
+      Context.exit();
+      watch.stop();
+      LOG.debug(watch.prettyPrint());
+    }
+  }
+
+
+  /**
+   * Changes the optimization level used to compile the scripts. The scripts already compiled with a different level are
+   * compiled again when used.
+   *
+   * @param optimizationLevel
+   *          {@link #INTERPRETED_MODE} for interpreted mode or a value between 0 and 9 for compiled mode.
+   */
+  public RhinoScriptRegistry setOptimizationLevel(final int optimizationLevel) {
+    Validate.isTrue(Context.isValidOptimizationLevel(optimizationLevel), "Invalid optimization level: "
+      + optimizationLevel);
+    this.optimizationLevel = optimizationLevel;
+    return this;
+  }
+
+
+  /**
+   * @return the optimization level used to compile the scripts.
+   */
+  public int getOptimizationLevel() {
+    return optimizationLevel;
+  }
+
+
+  /**
+   * Removes all the compiled scripts.
+   */
+  public void clear() {
+    scripts.clear();
+  }
+}
@@ -53,6 +53,42 @@ public class RhinoUtils {
     return message;
   }
 
+  /**
+   * Returns the value of the javascript string created by
+   * {@link ro.isdc.wro.util.WroUtil#toJSMultiLineString(String)}, without creating and parsing its source: the carriage
+   * returns and the trailing new lines are removed and a single line always ends with a new line. Used to bind the
+   * content to process directly as a variable of the scope (see {@link RhinoScriptBuilder#addBinding(String, Object)}).
+   *
+   * @param data
+   *          the content to process.
+   * @return the normalized content.
+   */
+  public static String toJSMultiLineValue(final String data) {
+    int end = data.length();
+    while (end > 0 && data.charAt(end - 1) == '\n') {
+      end--;
+    }
+    if (end == 0) {
+      return data.length() == 0 ? "\n" : "";
+    }
+    final StringBuilder result = new StringBuilder(end + 1);
+    boolean multiLine = false;
+    for (int i = 0; i < end; i++) {
+      final char c = data.charAt(i);
+      if (c == '\n') {
+        multiLine = true;
+      }
+      if (c != '\r') {
+        result.append(c);
+      }
+    }
+    if (!multiLine) {
+      //this is used to force a single line to have at least one new line (otherwise cssLint fails).
+      result.append('\n');
+    }
+    return result.toString();
+  }
+
   /**
    * Recursively convert from native Rhino to JSON.
    * <p>
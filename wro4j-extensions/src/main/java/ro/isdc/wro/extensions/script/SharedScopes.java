@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.extensions.script;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.lang3.Validate;
+import org.mozilla.javascript.ScriptableObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Holds the scopes containing the library scripts of the rhino based engines (ex: less.js, uglify.js), one for each
+ * engine class. The scope is created only once, sealed and shared by all the instances of the engine, instead of
+ * loading the library for each instance. Each invocation runs in a child scope (see
+ * {@link RhinoScriptBuilder#newChain(ScriptableObject)}), so the shared scope is never modified and can be used
+ * concurrently.
+ * <p/>
+ * The scope is identified by the engine class, because a different version of a library is provided by overriding the
+ * method returning the stream of the script.
+ *
+ * @since 1.4.7
+ */
+public final class SharedScopes {
+  private static final Logger LOG = LoggerFactory.getLogger(SharedScopes.class);
+  private static final ConcurrentMap<Class<?>, ScriptableObject> SCOPES =
+    new ConcurrentHashMap<Class<?>, ScriptableObject>();
+
+
+  private SharedScopes() {
+  }
+
+
+  /**
+   * @param engineClass
+   *          the class of the engine using the scope.
+   * @param initializer
+   *          evaluates the library scripts, invoked only when the scope of the engine class doesn't exist yet.
+   * @return the sealed scope containing the library scripts.
+   */
+  public static ScriptableObject get(final Class<?> engineClass, final Callable<RhinoScriptBuilder> initializer)
+    throws Exception {
+    Validate.notNull(engineClass);
+    Validate.notNull(initializer);
+    ScriptableObject scope = SCOPES.get(engineClass);
+    if (scope == null) {
+      LOG.debug("Creating shared scope for: {}", engineClass.getName());
+      final ScriptableObject created = initializer.call().getScope();
+      // no variable can be added or changed from now on
+      created.sealObject();
+      scope = SCOPES.putIfAbsent(engineClass, created);
+      if (scope == null) {
+        scope = created;
+      }
+    }
+    return scope;
+  }
+
+
+  /**
+   * Removes all the shared scopes. They are created again when used.
+   */
+  public static void clear() {
+    SCOPES.clear();
+  }
+}
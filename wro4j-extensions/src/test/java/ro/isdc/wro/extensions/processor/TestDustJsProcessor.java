@@ -1,5 +1,6 @@
 package ro.isdc.wro.extensions.processor;
 
+import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertTrue;
 
 import java.io.File;
@@ -7,6 +8,8 @@ import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.net.URL;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.Callable;
 
 import org.junit.After;
@@ -15,6 +18,7 @@ import org.junit.Test;
 
 import ro.isdc.wro.config.Context;
 import ro.isdc.wro.extensions.processor.js.DustJsProcessor;
+import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.ResourceType;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
 import ro.isdc.wro.util.WroTestUtils;
@@ -73,6 +77,23 @@ public class TestDustJsProcessor {
     WroTestUtils.runConcurrently(task);
   }
 
+  @Test
+  public void shouldCompileManyTemplatesAtOnce() throws Exception {
+    final List<Resource> resources = Arrays.asList(Resource.create("/first.js", ResourceType.JS),
+      Resource.create("/second.js", ResourceType.JS));
+    final List<String> contents = Arrays.asList("Hello {name}!", "Bye {name}!");
+    // the first template is already cached
+    final StringWriter writer = new StringWriter();
+    processor.process(resources.get(0), new StringReader(contents.get(0)), writer);
+
+    final List<String> result = ((DustJsProcessor) processor).compile(resources, contents);
+    assertEquals(2, result.size());
+    assertEquals(writer.toString(), result.get(0));
+    final StringWriter secondWriter = new StringWriter();
+    new DustJsProcessor().process(resources.get(1), new StringReader(contents.get(1)), secondWriter);
+    assertEquals(secondWriter.toString(), result.get(1));
+  }
+
   @Test
   public void shouldSupportCorrectResourceTypes() {
     WroTestUtils.assertProcessorSupportResourceTypes(processor, ResourceType.JS);
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.extensions.processor;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.Callable;
+
+import junit.framework.Assert;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ro.isdc.wro.config.Context;
+import ro.isdc.wro.config.ContextPropagatingCallable;
+import ro.isdc.wro.extensions.processor.css.RubySassCssProcessor;
+import ro.isdc.wro.extensions.processor.js.GoogleClosureCompressorProcessor;
+import ro.isdc.wro.model.resource.Resource;
+import ro.isdc.wro.model.resource.ResourceType;
+import ro.isdc.wro.model.resource.locator.ClasspathUriLocator;
+import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
+import ro.isdc.wro.util.WroTestUtils;
+
+import com.google.javascript.jscomp.CompilationLevel;
+
+
+/**
+ * Stress test checking that the extension processors keeping per invocation state produce the same result when the
+ * same instance is used by many threads, as it happens when parallelPreprocessing is enabled.
+ */
+public class TestExtensionProcessorsConcurrency {
+  private static final int TIMES = 50;
+  private static final Resource JS_RESOURCE = Resource.create("classpath:test/forstatement.js", ResourceType.JS);
+  private static final Resource SCSS_RESOURCE = Resource.create(
+    "classpath:ro/isdc/wro/extensions/processor/rubysasscss/test/variables.scss", ResourceType.CSS);
+
+  @Before
+  public void setUp() {
+    Context.set(Context.standaloneContext());
+  }
+
+  @After
+  public void tearDown() {
+    Context.unset();
+  }
+
+  @Test
+  public void closureCompressorShouldProduceTheSameResultWhenUsedConcurrently()
+    throws Exception {
+    for (final CompilationLevel level : CompilationLevel.values()) {
+      assertSameResultWhenUsedConcurrently(new GoogleClosureCompressorProcessor(level), JS_RESOURCE);
+    }
+  }
+
+  @Test
+  public void closureCompressorWithCachingShouldProduceTheSameResultWhenUsedConcurrently()
+    throws Exception {
+    for (final CompilationLevel level : CompilationLevel.values()) {
+      assertSameResultWhenUsedConcurrently(new GoogleClosureCompressorProcessor(level).setCachingEnabled(true),
+        JS_RESOURCE);
+    }
+  }
+
+  @Test
+  public void rubySassShouldProduceTheSameResultWhenUsedConcurrently()
+    throws Exception {
+    assertSameResultWhenUsedConcurrently(new RubySassCssProcessor(), SCSS_RESOURCE);
+  }
+
+  private void assertSameResultWhenUsedConcurrently(final ResourcePreProcessor processor, final Resource resource)
+    throws Exception {
+    WroTestUtils.createInjector().inject(processor);
+    final String content = IOUtils.toString(new ClasspathUriLocator().locate(resource.getUri()));
+    final String expected = process(processor, resource, content);
+    WroTestUtils.runConcurrently(new ContextPropagatingCallable<Void>(new Callable<Void>() {
+      public Void call()
+        throws Exception {
+        Assert.assertEquals(processor.getClass().getSimpleName() + " processing " + resource.getUri(), expected,
+          process(processor, resource, content));
+        return null;
+      }
+    }), TIMES);
+  }
+
+  private String process(final ResourcePreProcessor processor, final Resource resource, final String content)
+    throws Exception {
+    final StringWriter writer = new StringWriter();
+    processor.process(resource, new StringReader(content), writer);
+    return writer.toString();
+  }
+}
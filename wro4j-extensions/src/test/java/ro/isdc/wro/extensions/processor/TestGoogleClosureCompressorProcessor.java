@@ -8,6 +8,8 @@ import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.net.URL;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import junit.framework.Assert;
 
@@ -125,6 +127,43 @@ public class TestGoogleClosureCompressorProcessor {
   }
   
 
+  @Test
+  public void shouldReuseExternsAndOutputWhenCachingIsEnabled()
+      throws IOException {
+    final AtomicInteger externsCount = new AtomicInteger();
+    processor = new GoogleClosureCompressorProcessor(CompilationLevel.SIMPLE_OPTIMIZATIONS) {
+      @Override
+      protected JSSourceFile[] getExterns(final Resource resource) {
+        externsCount.incrementAndGet();
+        return super.getExterns(resource);
+      }
+    }.setCachingEnabled(true);
+    WroTestUtils.createInjector().inject(processor);
+    final Resource resource = Resource.create("/test.js", ResourceType.JS);
+    final StringWriter first = new StringWriter();
+    processor.process(resource, new StringReader("function test( ) { alert(1); }"), first);
+    final StringWriter second = new StringWriter();
+    processor.process(resource, new StringReader("function test( ) { alert(1); }"), second);
+    Assert.assertEquals(first.toString(), second.toString());
+    processor.process(resource, new StringReader("alert(2);"), new StringWriter());
+    Assert.assertEquals(1, externsCount.get());
+  }
+
+  @Test
+  public void shouldCompileConcurrently()
+      throws Exception {
+    processor.setCompilationLevel(CompilationLevel.ADVANCED_OPTIMIZATIONS);
+    WroTestUtils.runConcurrently(new Callable<Void>() {
+      public Void call()
+          throws Exception {
+        final StringWriter sw = new StringWriter();
+        processor.process(new StringReader("function test( ) {}"), sw);
+        Assert.assertEquals("", sw.toString());
+        return null;
+      }
+    });
+  }
+
   @Test
   public void shouldSupportCorrectResourceTypes() {
     WroTestUtils.assertProcessorSupportResourceTypes(new GoogleClosureCompressorProcessor(), ResourceType.JS);
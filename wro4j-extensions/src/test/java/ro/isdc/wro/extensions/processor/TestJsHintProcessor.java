@@ -5,13 +5,21 @@ package ro.isdc.wro.extensions.processor;
 
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import junit.framework.Assert;
 
 import org.junit.Test;
 
 import ro.isdc.wro.extensions.processor.js.JsHintProcessor;
+import ro.isdc.wro.extensions.processor.support.linter.AbstractLinter;
+import ro.isdc.wro.extensions.processor.support.linter.JsHint;
+import ro.isdc.wro.extensions.processor.support.linter.LinterError;
 import ro.isdc.wro.extensions.processor.support.linter.LinterException;
 import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.ResourceType;
@@ -77,6 +85,46 @@ public class TestJsHintProcessor extends AbstractTestLinterProcessor {
     WroTestUtils.runConcurrently(task);
   }
   
+  @Test
+  public void shouldLintManyScriptsAtOnceAndSkipTheLintedOnes() {
+    final AtomicInteger lintedCount = new AtomicInteger();
+    final List<Resource> invalidResources = Collections.synchronizedList(new ArrayList<Resource>());
+    final JsHintProcessor processor = new JsHintProcessor() {
+      @Override
+      protected AbstractLinter newLinter() {
+        return new JsHint() {
+          @Override
+          public List<List<LinterError>> lint(final List<String> contents) {
+            lintedCount.addAndGet(contents.size());
+            return super.lint(contents);
+          }
+        };
+      }
+
+      @Override
+      protected void onLinterException(final LinterException e, final Resource resource) {
+        invalidResources.add(resource);
+      }
+    };
+    final Resource valid = Resource.create("valid.js", ResourceType.JS);
+    final Resource invalid = Resource.create("invalid.js", ResourceType.JS);
+    final List<Resource> resources = Arrays.asList(valid, invalid, valid);
+    final List<String> contents = Arrays.asList("alert(1);", "al ert(1)", "alert(1);");
+
+    List<List<LinterError>> errors = processor.validate(resources, contents);
+    Assert.assertEquals(3, errors.size());
+    Assert.assertTrue(errors.get(0).isEmpty());
+    Assert.assertFalse(errors.get(1).isEmpty());
+    Assert.assertEquals(Arrays.asList(invalid), invalidResources);
+    Assert.assertEquals(3, lintedCount.get());
+
+    errors = processor.validate(resources, contents);
+    Assert.assertFalse(errors.get(1).isEmpty());
+    // the errors of the unchanged scripts are reported again, without linting them.
+    Assert.assertEquals(Arrays.asList(invalid, invalid), invalidResources);
+    Assert.assertEquals(3, lintedCount.get());
+  }
+
   @Test
   public void shouldSupportCorrectResourceTypes() {
     WroTestUtils.assertProcessorSupportResourceTypes(new JsHintProcessor(), ResourceType.JS);
@@ -3,12 +3,20 @@
  */
 package ro.isdc.wro.extensions.processor.support;
 
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.management.ObjectName;
+
 import junit.framework.Assert;
 
 import org.apache.commons.pool.impl.GenericObjectPool;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import ro.isdc.wro.extensions.processor.support.ObjectPoolConfig.ExhaustedAction;
 import ro.isdc.wro.util.ObjectFactory;
 
 
@@ -75,4 +83,85 @@ public class TestObjectPoolHelper {
     pool.getObject();
     Mockito.verify(mockObjectPool, Mockito.times(1)).borrowObject();
   }
+  
+  private ObjectPoolHelper<Integer> createPool() {
+    return new ObjectPoolHelper<Integer>(new ObjectFactory<Integer>() {
+      @Override
+      public Integer create() {
+        return 3;
+      }
+    });
+  }
+  
+  @Test
+  public void shouldCountCreatedAndBorrowedObjects() {
+    final ObjectPoolHelper<Integer> pool = createPool();
+    pool.returnObject(pool.getObject());
+    pool.returnObject(pool.getObject());
+    Assert.assertEquals(1, pool.getCreatedCount());
+    Assert.assertEquals(2, pool.getBorrowCount());
+    Assert.assertEquals(0, pool.getNumActive());
+    Assert.assertEquals(1, pool.getNumIdle());
+  }
+  
+  @Test
+  public void shouldDestroyIdleObjectsWhenPoolIsDestroyed() {
+    final List<Integer> destroyed = new ArrayList<Integer>();
+    final ObjectPoolHelper<Integer> pool = new ObjectPoolHelper<Integer>(new ObjectFactory<Integer>() {
+      @Override
+      public Integer create() {
+        return 3;
+      }
+    }) {
+      @Override
+      protected void destroyObject(final Integer object) {
+        destroyed.add(object);
+      }
+    };
+    pool.configure(new ObjectPoolConfig().setEvictableIdleTime(0));
+    pool.returnObject(pool.getObject());
+    Assert.assertTrue(destroyed.isEmpty());
+    pool.destroy();
+    Assert.assertEquals(Arrays.asList(3), destroyed);
+  }
+  
+  @Test
+  public void shouldPrefillPool() {
+    final ObjectPoolHelper<Integer> pool = createPool();
+    pool.configure(new ObjectPoolConfig().setMinIdle(2).setPrefill(true));
+    Assert.assertEquals(2, pool.getCreatedCount());
+    Assert.assertEquals(2, pool.getNumIdle());
+  }
+  
+  @Test(expected = RuntimeException.class)
+  public void cannotGetObjectFromExhaustedPoolWhenFailActionIsUsed() {
+    final ObjectPoolHelper<Integer> pool = createPool();
+    pool.configure(new ObjectPoolConfig().setMaxActive(1).setExhaustedAction(ExhaustedAction.FAIL));
+    pool.getObject();
+    pool.getObject();
+  }
+  
+  @Test
+  public void shouldGrowWhenPoolIsExhaustedByDefault() {
+    final ObjectPoolHelper<Integer> pool = createPool();
+    pool.configure(new ObjectPoolConfig().setMaxActive(1));
+    pool.getObject();
+    pool.getObject();
+    Assert.assertEquals(2, pool.getNumActive());
+  }
+  
+  @Test
+  public void shouldExposeMetricsThroughJmx()
+      throws Exception {
+    final ObjectPoolHelper<Integer> pool = createPool();
+    final ObjectName name = new ObjectName("wro4j-test", "type", ObjectPoolHelper.class.getSimpleName());
+    pool.configure(new ObjectPoolConfig().setMbeanName("wro4j-test"));
+    try {
+      pool.returnObject(pool.getObject());
+      Assert.assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "CreatedCount"));
+    } finally {
+      pool.destroy();
+    }
+    Assert.assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+  }
 }
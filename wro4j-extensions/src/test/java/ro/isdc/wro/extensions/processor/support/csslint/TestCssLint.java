@@ -5,6 +5,8 @@ package ro.isdc.wro.extensions.processor.support.csslint;
 
 import java.io.FileInputStream;
 import java.net.URL;
+import java.util.Arrays;
+import java.util.List;
 
 import junit.framework.Assert;
 
@@ -87,6 +89,18 @@ public class TestCssLint {
   }
 
 
+  @Test
+  public void shouldLintManyContentsAtOnce() {
+    cssLint.setOptions("box-model");
+    final List<List<CssLintError>> errors = cssLint.lint(Arrays.asList("h1 { left: 0; }",
+        ".foo { width: 100px; padding: 10px; }", ""));
+    Assert.assertEquals(3, errors.size());
+    Assert.assertTrue(errors.get(0).isEmpty());
+    Assert.assertFalse(errors.get(1).isEmpty());
+    Assert.assertTrue(errors.get(2).isEmpty());
+  }
+
+
   @Test
   public void shouldHaveNoErrorWhenNoOptions()
     throws Exception {
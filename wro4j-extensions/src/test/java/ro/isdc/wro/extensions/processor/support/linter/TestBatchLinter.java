@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.extensions.processor.support.linter;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.Assert;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+
+/**
+ * Tests the {@link BatchLinter} class.
+ */
+public class TestBatchLinter {
+  private LintResultCache<String> resultCache;
+  private AtomicInteger lintedCount;
+  private File directory;
+
+  @Before
+  public void setUp() {
+    resultCache = new LintResultCache<String>();
+    lintedCount = new AtomicInteger();
+    directory = new File(FileUtils.getTempDirectory(), "wro4j-lint-" + System.nanoTime());
+  }
+
+  @After
+  public void tearDown() {
+    FileUtils.deleteQuietly(directory);
+  }
+
+  /**
+   * Reports the content itself as error when it contains "error".
+   */
+  private BatchLinter<String> createBatchLinter(final String... keyParts) {
+    return new BatchLinter<String>(resultCache, keyParts) {
+      @Override
+      protected List<List<String>> lintBatch(final List<String> contents) {
+        lintedCount.addAndGet(contents.size());
+        final List<List<String>> result = new ArrayList<List<String>>();
+        for (final String content : contents) {
+          result.add(content.contains("error") ? Arrays.asList(content) : Collections.<String> emptyList());
+        }
+        return result;
+      }
+    };
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void cannotUseNullCache() {
+    new BatchLinter<String>(null) {
+      @Override
+      protected List<List<String>> lintBatch(final List<String> contents) {
+        return null;
+      }
+    };
+  }
+
+  @Test
+  public void shouldKeepTheOrderOfTheContents() {
+    final List<String> contents = new ArrayList<String>();
+    for (int i = 0; i < 100; i++) {
+      contents.add(i % 3 == 0 ? "error" + i : "valid" + i);
+    }
+    final List<List<String>> errors = createBatchLinter().lint(contents);
+    Assert.assertEquals(100, errors.size());
+    for (int i = 0; i < 100; i++) {
+      Assert.assertEquals(i % 3 == 0 ? Arrays.asList("error" + i) : Collections.emptyList(), errors.get(i));
+    }
+    Assert.assertEquals(100, lintedCount.get());
+  }
+
+  @Test
+  public void shouldNotLintTheSameContentTwice() {
+    final List<String> contents = Arrays.asList("valid", "error");
+    createBatchLinter("options").lint(contents);
+    final List<List<String>> errors = createBatchLinter("options").lint(Arrays.asList("error", "valid", "changed"));
+    Assert.assertEquals(Arrays.asList("error"), errors.get(0));
+    Assert.assertTrue(errors.get(1).isEmpty());
+    Assert.assertEquals(3, lintedCount.get());
+  }
+
+  @Test
+  public void shouldLintAgainWhenOptionsAreChanged() {
+    final List<String> contents = Arrays.asList("valid", "error");
+    createBatchLinter("options").lint(contents);
+    createBatchLinter("otherOptions").lint(contents);
+    Assert.assertEquals(4, lintedCount.get());
+  }
+
+  @Test
+  public void shouldNotLintAgainContentsPersistedByPreviousRun() {
+    final List<String> contents = Arrays.asList("valid", "error");
+    resultCache = new LintResultCache<String>(directory);
+    createBatchLinter("options").lint(contents);
+    // a new cache using the same directory, like the next build does
+    resultCache = new LintResultCache<String>(directory);
+    final List<List<String>> errors = createBatchLinter("options").lint(contents);
+    Assert.assertTrue(errors.get(0).isEmpty());
+    Assert.assertEquals(Arrays.asList("error"), errors.get(1));
+    Assert.assertEquals(2, lintedCount.get());
+  }
+
+  @Test
+  public void shouldLintAgainWhenPersistedResultsAreCleared() {
+    final List<String> contents = Arrays.asList("valid", "error");
+    resultCache = new LintResultCache<String>(directory);
+    createBatchLinter().lint(contents);
+    resultCache.clear();
+    resultCache = new LintResultCache<String>(directory);
+    createBatchLinter().lint(contents);
+    Assert.assertEquals(4, lintedCount.get());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void shouldPropagateLintFailure() {
+    new BatchLinter<String>(resultCache) {
+      @Override
+      protected List<List<String>> lintBatch(final List<String> contents) {
+        throw new IllegalStateException();
+      }
+    }.lint(Arrays.asList("a", "b", "c", "d"));
+  }
+}
@@ -3,6 +3,11 @@
  */
 package ro.isdc.wro.extensions.processor.support.linter;
 
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.Assert;
+
 import org.junit.Test;
 
 
@@ -79,4 +84,13 @@ public class TestJsHint {
     jsHint.setOptions("eqeqeq");
     jsHint.validate("if (text == 0) {win.location.href = link; }");
   }
+
+  @Test
+  public void shouldLintManyScriptsAtOnce() {
+    final List<List<LinterError>> errors = jsHint.lint(Arrays.asList("al ert(1)", "$(function(){})(jQuery);", ""));
+    Assert.assertEquals(3, errors.size());
+    Assert.assertFalse(errors.get(0).isEmpty());
+    Assert.assertTrue(errors.get(1).isEmpty());
+    Assert.assertTrue(errors.get(2).isEmpty());
+  }
 }
@@ -1,6 +1,7 @@
 package ro.isdc.wro.extensions.processor.support.sass;
 
 import java.io.IOException;
+import java.util.concurrent.Callable;
 
 import junit.framework.Assert;
 
@@ -9,6 +10,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import ro.isdc.wro.WroRuntimeException;
+import ro.isdc.wro.util.WroTestUtils;
 
 
 /**
@@ -53,4 +55,23 @@ public class TestRubySassEngine {
     throws IOException {
     Assert.assertNotNull(engine.process("#element { #child {color: red;}}"));
   }
+
+  @Test
+  public void shouldNotAlterQuotesOfProcessedContent() {
+    final String result = engine.process("#element { background: url('image.png'); content: \"text\"; }");
+    Assert.assertTrue(result, result.contains("'image.png'"));
+    Assert.assertTrue(result, result.contains("\"text\""));
+  }
+
+  @Test
+  public void shouldProcessConcurrently()
+    throws Exception {
+    WroTestUtils.runConcurrently(new Callable<Void>() {
+      public Void call()
+        throws Exception {
+        Assert.assertTrue(engine.process("#element { #child {color: red;}}").contains("#element #child"));
+        return null;
+      }
+    });
+  }
 }
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.extensions.processor.support.template;
+
+import java.io.File;
+
+import junit.framework.Assert;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+
+/**
+ * Tests the {@link CompiledTemplateCache} class.
+ */
+public class TestCompiledTemplateCache {
+  private File directory;
+
+  @Before
+  public void setUp() {
+    directory = new File(FileUtils.getTempDirectory(), "wro4j-templates-" + System.nanoTime());
+  }
+
+  @After
+  public void tearDown() {
+    FileUtils.deleteQuietly(directory);
+  }
+
+  @Test
+  public void shouldCreateDifferentKeysForDifferentParts() {
+    final CompiledTemplateCache cache = new CompiledTemplateCache();
+    Assert.assertEquals(cache.getKey("a", "b"), cache.getKey("a", "b"));
+    Assert.assertFalse(cache.getKey("ab", "c").equals(cache.getKey("a", "bc")));
+  }
+
+  @Test
+  public void shouldReturnNullWhenTemplateIsNotCached() {
+    Assert.assertNull(new CompiledTemplateCache().get("missing"));
+  }
+
+  @Test
+  public void shouldKeepCompiledTemplateInMemory() {
+    final CompiledTemplateCache cache = new CompiledTemplateCache();
+    final String key = cache.getKey("template");
+    cache.put(key, "compiled");
+    Assert.assertEquals("compiled", cache.get(key));
+    cache.clear();
+    Assert.assertNull(cache.get(key));
+  }
+
+  @Test
+  public void shouldPersistCompiledTemplateOnDisk() {
+    final CompiledTemplateCache cache = new CompiledTemplateCache(directory);
+    final String key = cache.getKey("template");
+    cache.put(key, "compiled");
+    Assert.assertEquals("compiled", new CompiledTemplateCache(directory).get(key));
+    Assert.assertEquals(1, directory.list().length);
+  }
+}
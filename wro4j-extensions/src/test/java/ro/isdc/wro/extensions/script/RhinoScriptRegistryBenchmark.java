@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.extensions.script;
+
+import ro.isdc.wro.extensions.processor.support.coffeescript.CoffeeScript;
+import ro.isdc.wro.extensions.processor.support.less.LessCss;
+import ro.isdc.wro.extensions.processor.support.linter.JsHint;
+import ro.isdc.wro.extensions.processor.support.uglify.UglifyJs;
+
+
+/**
+ * Compares the throughput of the rhino based engines when the library scripts are interpreted and when they are
+ * compiled by {@link RhinoScriptRegistry}. It is not a unit test, run it using the main method.
+ *
+ * @since 1.4.7
+ */
+public class RhinoScriptRegistryBenchmark {
+  private static final int WARM_UP_ITERATIONS = 10;
+  private static final int ITERATIONS = 50;
+  private static final String JS = "function sum(first, second) {\n  var result = first + second;\n  return result;\n}\n"
+    + "var values = [1, 2, 3];\nfor (var i = 0; i < values.length; i++) {\n  sum(values[i], i);\n}\n";
+  private static final String LESS = "@color: #4D926F;\n.mixin(@radius: 4px) {\n  border-radius: @radius;\n}\n"
+    + "#header {\n  color: @color;\n  .mixin(6px);\n  h2 { color: darken(@color, 10%); }\n}\n";
+  private static final String COFFEE = "square = (x) -> x * x\nlist = [1, 2, 3, 4, 5]\n"
+    + "cubes = (math.cube num for num in list)\nrace = (winner, runners...) ->\n  print winner, runners\n";
+
+  /**
+   * An engine to benchmark. A new engine is created for each optimization level, in order to load the library scripts
+   * using that level.
+   */
+  private static abstract class EngineTask {
+    private final String name;
+
+
+    EngineTask(final String name) {
+      this.name = name;
+    }
+
+
+    /**
+     * Creates the engine used by the following {@link #execute()} calls.
+     */
+    abstract void init();
+
+
+    abstract void execute()
+      throws Exception;
+  }
+
+
+  private static EngineTask[] createTasks() {
+    return new EngineTask[] {
+      new EngineTask("UglifyJs") {
+        private UglifyJs engine;
+
+        void init() {
+          engine = UglifyJs.uglifyJs();
+        }
+
+        void execute()
+          throws Exception {
+          engine.process("benchmark.js", JS);
+        }
+      }, new EngineTask("LessCss") {
+        private LessCss engine;
+
+        void init() {
+          engine = new LessCss();
+        }
+
+        void execute() {
+          engine.less(LESS);
+        }
+      }, new EngineTask("CoffeeScript") {
+        private CoffeeScript engine;
+
+        void init() {
+          engine = new CoffeeScript();
+        }
+
+        void execute() {
+          engine.compile(COFFEE);
+        }
+      }, new EngineTask("JsHint") {
+        private JsHint engine;
+
+        void init() {
+          engine = new JsHint();
+        }
+
+        void execute()
+          throws Exception {
+          engine.validate(JS);
+        }
+      }
+    };
+  }
+
+
+  public static void main(final String[] args)
+    throws Exception {
+    final RhinoScriptRegistry registry = RhinoScriptRegistry.getInstance();
+    final int[] levels = new int[] {
+      RhinoScriptRegistry.INTERPRETED_MODE, RhinoScriptRegistry.DEFAULT_OPTIMIZATION_LEVEL
+    };
+    System.out.println(String.format("%-14s %10s %12s %12s", "engine", "level", "first (ms)", "ops/sec"));
+    for (final EngineTask task : createTasks()) {
+      for (final int level : levels) {
+        registry.setOptimizationLevel(level);
+        registry.clear();
+        long start = System.nanoTime();
+        task.init();
+        task.execute();
+        final long firstMillis = (System.nanoTime() - start) / 1000000;
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+          task.execute();
+        }
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+          task.execute();
+        }
+        final double opsPerSecond = ITERATIONS * 1e9 / (System.nanoTime() - start);
+        System.out.println(String.format("%-14s %10d %12d %12.1f", task.name, level, firstMillis, opsPerSecond));
+      }
+    }
+    registry.setOptimizationLevel(RhinoScriptRegistry.DEFAULT_OPTIMIZATION_LEVEL);
+  }
+}
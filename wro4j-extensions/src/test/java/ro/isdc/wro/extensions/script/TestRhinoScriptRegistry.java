@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.extensions.script;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+
+import junit.framework.Assert;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mozilla.javascript.Script;
+
+
+/**
+ * Tests the {@link RhinoScriptRegistry} class.
+ */
+public class TestRhinoScriptRegistry {
+  private RhinoScriptRegistry registry;
+
+  @Before
+  public void setUp() {
+    registry = RhinoScriptRegistry.getInstance();
+    registry.clear();
+  }
+
+  @After
+  public void tearDown() {
+    registry.setOptimizationLevel(RhinoScriptRegistry.DEFAULT_OPTIMIZATION_LEVEL);
+    registry.clear();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void cannotSetInvalidOptimizationLevel() {
+    registry.setOptimizationLevel(10);
+  }
+
+  @Test
+  public void shouldCompileSameScriptOnlyOnce()
+    throws Exception {
+    final Script script = registry.getScript(asStream("var a = 1;"), "a.js");
+    Assert.assertSame(script, registry.getScript(asStream("var a = 1;"), "a.js"));
+  }
+
+  @Test
+  public void shouldCompileAgainWhenContentChanges()
+    throws Exception {
+    final Script script = registry.getScript(asStream("var a = 1;"), "a.js");
+    Assert.assertNotSame(script, registry.getScript(asStream("var a = 2;"), "a.js"));
+  }
+
+  @Test
+  public void shouldCompileAgainWhenOptimizationLevelChanges()
+    throws Exception {
+    final Script script = registry.getScript(asStream("var a = 1;"), "a.js");
+    registry.setOptimizationLevel(RhinoScriptRegistry.INTERPRETED_MODE);
+    Assert.assertNotSame(script, registry.getScript(asStream("var a = 1;"), "a.js"));
+  }
+
+  @Test
+  public void shouldKeepScriptsWithSameNameAndDifferentContent()
+    throws Exception {
+    final Script first = registry.getScript(asStream("var a = 1;"), "linter.js");
+    final Script second = registry.getScript(asStream("var b = 1;"), "linter.js");
+    Assert.assertNotSame(first, second);
+    Assert.assertSame(first, registry.getScript(asStream("var a = 1;"), "linter.js"));
+    Assert.assertSame(second, registry.getScript(asStream("var b = 1;"), "linter.js"));
+  }
+
+  @Test
+  public void shouldReadScriptFromUrlOnlyOnce()
+    throws Exception {
+    final File file = File.createTempFile("script", ".js");
+    try {
+      FileUtils.writeStringToFile(file, "var a = 1;");
+      final URL url = file.toURI().toURL();
+      final Script script = registry.getScript(url, "a.js");
+      FileUtils.deleteQuietly(file);
+      Assert.assertSame(script, registry.getScript(url, "a.js"));
+    } finally {
+      FileUtils.deleteQuietly(file);
+    }
+  }
+
+  @Test
+  public void shouldDecodeScriptUsingUtf8()
+    throws Exception {
+    final Object result = RhinoScriptBuilder.newChain().evaluateChain(asStream("var a = '\u0103\u00ee';"),
+      "utf8.js").evaluate("a", "utf8");
+    Assert.assertEquals("\u0103\u00ee", result);
+  }
+
+  @Test
+  public void shouldEvaluateCompiledScriptInDifferentScopes()
+    throws Exception {
+    final String script = "function square(x) { return x * x; }";
+    final Object first = RhinoScriptBuilder.newChain().evaluateChain(asStream(script), "square.js").evaluate(
+      "square(3)", "first");
+    final Object second = RhinoScriptBuilder.newChain().evaluateChain(asStream(script), "square.js").evaluate(
+      "square(4)", "second");
+    Assert.assertEquals(9, ((Number) first).intValue());
+    Assert.assertEquals(16, ((Number) second).intValue());
+  }
+
+  private InputStream asStream(final String script)
+    throws IOException {
+    return new ByteArrayInputStream(script.getBytes("UTF-8"));
+  }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.extensions.script;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import ro.isdc.wro.WroRuntimeException;
+import ro.isdc.wro.util.WroUtil;
+
+
+/**
+ * Tests the {@link RhinoUtils} class and the bindings of {@link RhinoScriptBuilder}.
+ */
+public class TestRhinoUtils {
+  @Test
+  public void shouldCreateSameValueAsMultiLineString() {
+    final String[] values = new String[] {
+      "", "\n", "\n\n", "a", "a\n", "\na", "a\r\nb", "a\nb\n\n", "\"quoted\" \\ back\\slash", "line1\nline2\r\n"
+    };
+    for (final String value : values) {
+      final Object expected = RhinoScriptBuilder.newChain().evaluate(WroUtil.toJSMultiLineString(value), "expected");
+      Assert.assertEquals(expected, RhinoUtils.toJSMultiLineValue(value));
+    }
+  }
+
+  @Test
+  public void shouldEvaluateBoundVariable() {
+    final Object result = RhinoScriptBuilder.newChain().addBinding("content", "a\"b").evaluate("content.length",
+      "length");
+    Assert.assertEquals(3, ((Number) result).intValue());
+  }
+
+  @Test
+  public void shouldInvokeFunctionWithArguments() {
+    final RhinoScriptBuilder builder = RhinoScriptBuilder.newChain().evaluateChain(
+      "var util = { join: function(a, b) { return a + '-' + b; } };", "util.js");
+    Assert.assertEquals("x-y", builder.invokeFunction("util.join", "x", "y"));
+  }
+
+  @Test(expected = WroRuntimeException.class)
+  public void cannotInvokeUndefinedFunction() {
+    RhinoScriptBuilder.newChain().invokeFunction("undefinedFunction");
+  }
+}
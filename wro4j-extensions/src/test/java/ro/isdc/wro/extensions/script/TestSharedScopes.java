@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.extensions.script;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mozilla.javascript.ScriptableObject;
+
+
+/**
+ * Tests the {@link SharedScopes} class.
+ */
+public class TestSharedScopes {
+  private AtomicInteger initializationsCount;
+  private Callable<RhinoScriptBuilder> initializer;
+
+  @Before
+  public void setUp() {
+    SharedScopes.clear();
+    initializationsCount = new AtomicInteger();
+    initializer = new Callable<RhinoScriptBuilder>() {
+      public RhinoScriptBuilder call()
+        throws Exception {
+        initializationsCount.incrementAndGet();
+        return RhinoScriptBuilder.newChain().evaluateChain("function square(x) { return x * x; }", "square.js");
+      }
+    };
+  }
+
+  @After
+  public void tearDown() {
+    SharedScopes.clear();
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void cannotGetScopeOfNullClass()
+    throws Exception {
+    SharedScopes.get(null, initializer);
+  }
+
+  @Test
+  public void shouldInitializeScopeOnlyOncePerClass()
+    throws Exception {
+    final ScriptableObject scope = SharedScopes.get(getClass(), initializer);
+    Assert.assertSame(scope, SharedScopes.get(getClass(), initializer));
+    Assert.assertEquals(1, initializationsCount.get());
+    Assert.assertTrue(scope.isSealed());
+  }
+
+  @Test
+  public void shouldNotShareVariablesBetweenInvocations()
+    throws Exception {
+    final ScriptableObject scope = SharedScopes.get(getClass(), initializer);
+    final Object result = RhinoScriptBuilder.newChain(scope).evaluate("var local = square(3); local", "first");
+    Assert.assertEquals(9, ((Number) result).intValue());
+    Assert.assertEquals("undefined", RhinoScriptBuilder.newChain(scope).evaluate("typeof local", "second"));
+  }
+
+  /**
+   * A large script would exceed the size limit of a compiled method, so it must be interpreted even when evaluated by a
+   * thread which has no context entered yet.
+   */
+  @Test
+  public void shouldEvaluateLargeScriptInChildScope()
+    throws Exception {
+    final ScriptableObject scope = SharedScopes.get(getClass(), initializer);
+    final StringBuilder script = new StringBuilder("var total = 0;\n");
+    for (int i = 0; i < 20000; i++) {
+      script.append("total += square(").append(i % 10).append(");\n");
+    }
+    script.append("total");
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      final Object result = executor.submit(new Callable<Object>() {
+        public Object call() {
+          return RhinoScriptBuilder.newChain(scope).evaluate(script.toString(), "large.js");
+        }
+      }).get();
+      Assert.assertEquals(570000, ((Number) result).intValue());
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
@@ -4,6 +4,7 @@
 package ro.isdc.wro.maven.plugin;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.util.Collection;
 
 import javax.servlet.FilterConfig;
@@ -42,6 +43,14 @@ public abstract class AbstractSingleProcessorMojo extends AbstractWro4jMojo {
    * @optional
    */
   private boolean failNever;
+  /**
+   * Folder where the processor stores its results between two builds, when the processor supports it (ex: the linters
+   * don't lint again the files which didn't change). When not set, the results are not kept between builds.
+   *
+   * @parameter expression="${cacheFolder}"
+   * @optional
+   */
+  private File cacheFolder;
 
   /**
    * {@inheritDoc}
@@ -59,6 +68,15 @@ public abstract class AbstractSingleProcessorMojo extends AbstractWro4jMojo {
         processGroup(groupWithExtension);
       }
     }
+    onGroupsProcessed();
+  }
+
+  /**
+   * Invoked after all the target groups are processed. Allows the processor to handle all the collected resources at
+   * once. Does nothing by default.
+   */
+  protected void onGroupsProcessed()
+    throws Exception {
   }
 
   /**
@@ -118,6 +136,21 @@ public abstract class AbstractSingleProcessorMojo extends AbstractWro4jMojo {
     this.options = options;
   }
 
+  /**
+   * @return the folder where the processor stores its results between builds or null if the results are not kept.
+   */
+  public File getCacheFolder() {
+    return cacheFolder;
+  }
+
+  /**
+   * Used for tests only.
+   * @param cacheFolder the cacheFolder to set
+   */
+  void setCacheFolder(final File cacheFolder) {
+    this.cacheFolder = cacheFolder;
+  }
+
   /**
    * @param failNever the failFast to set
    */
@@ -7,10 +7,14 @@ import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.maven.plugin.MojoExecutionException;
 
 import ro.isdc.wro.extensions.processor.css.CssLintProcessor;
+import ro.isdc.wro.extensions.processor.support.csslint.CssLintError;
 import ro.isdc.wro.extensions.processor.support.csslint.CssLintException;
+import ro.isdc.wro.extensions.processor.support.linter.LintResultCache;
+import ro.isdc.wro.maven.plugin.support.CollectedResources;
 import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
 
@@ -27,18 +31,39 @@ import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
  * @created 20 Jun 2011
  */
 public class CssLintMojo extends AbstractSingleProcessorMojo {
+  private final CollectedResources collectedResources = new CollectedResources();
+  /**
+   * The same processor lints the resources of all the groups.
+   */
+  private CssLintProcessor processor;
+
   /**
    * {@inheritDoc}
    */
   @Override
   protected ResourcePreProcessor createResourceProcessor() {
-    final ResourcePreProcessor processor = new CssLintProcessor() {
+    if (processor == null) {
+      processor = newProcessor();
+    }
+    return processor;
+  }
+
+  private CssLintProcessor newProcessor() {
+    final CssLintProcessor linter = new CssLintProcessor() {
       @Override
       public void process(final Resource resource, final Reader reader, final Writer writer) throws IOException {
-        if (resource != null) {
-          getLog().info("processing resource: " + resource.getUri());
+        // the resources are linted at once, after all the groups are processed.
+        final String content = IOUtils.toString(reader);
+        try {
+          if (resource != null) {
+            getLog().info("processing resource: " + resource.getUri());
+            collectedResources.add(resource, content);
+          }
+          writer.write(content);
+        } finally {
+          reader.close();
+          writer.close();
         }
-        super.process(resource, reader, writer);
       }
 
       @Override
@@ -50,7 +75,26 @@ public class CssLintMojo extends AbstractSingleProcessorMojo {
             throw new MojoExecutionException("Errors found when validating resource: " + resource);
           }
       };
-    }.setOptions(getOptions());
-    return processor;
+    };
+    linter.setOptions(getOptions());
+    if (getCacheFolder() != null) {
+      linter.setResultCache(new LintResultCache<CssLintError>(getCacheFolder()));
+    }
+    return linter;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected void onGroupsProcessed() {
+    try {
+      if (processor != null) {
+        processor.validate(collectedResources.getResources(), collectedResources.getContents());
+      }
+    } finally {
+      collectedResources.clear();
+      processor = null;
+    }
   }
 }
@@ -7,9 +7,14 @@ import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
 
+import org.apache.commons.io.IOUtils;
+
 import ro.isdc.wro.WroRuntimeException;
 import ro.isdc.wro.extensions.processor.js.JsHintProcessor;
+import ro.isdc.wro.extensions.processor.support.linter.LintResultCache;
+import ro.isdc.wro.extensions.processor.support.linter.LinterError;
 import ro.isdc.wro.extensions.processor.support.linter.LinterException;
+import ro.isdc.wro.maven.plugin.support.CollectedResources;
 import ro.isdc.wro.model.resource.Resource;
 import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
 
@@ -25,20 +30,41 @@ import ro.isdc.wro.model.resource.processor.ResourcePreProcessor;
  */
 public class JsHintMojo
     extends AbstractSingleProcessorMojo {
+  private final CollectedResources collectedResources = new CollectedResources();
+  /**
+   * The same processor lints the resources of all the groups.
+   */
+  private JsHintProcessor processor;
+
   /**
    * {@inheritDoc}
    */
   @Override
   protected ResourcePreProcessor createResourceProcessor() {
-    final ResourcePreProcessor processor = new JsHintProcessor() {
+    if (processor == null) {
+      processor = newProcessor();
+    }
+    return processor;
+  }
+
+  private JsHintProcessor newProcessor() {
+    final JsHintProcessor linter = new JsHintProcessor() {
       @Override
       public void process(final Resource resource, final Reader reader, final Writer writer)
           throws IOException {
         getLog().info("processing resource: " + resource);
-        if (resource != null) {
-          getLog().info("processing resource: " + resource.getUri());
+        // the resources are linted at once, after all the groups are processed.
+        final String content = IOUtils.toString(reader);
+        try {
+          if (resource != null) {
+            getLog().info("processing resource: " + resource.getUri());
+            collectedResources.add(resource, content);
+          }
+          writer.write(content);
+        } finally {
+          reader.close();
+          writer.close();
         }
-        super.process(resource, reader, writer);
       }
 
       @Override
@@ -56,8 +82,27 @@ public class JsHintMojo
           throw new WroRuntimeException("Errors found when validating resource: " + resource);
         }
       };
-    }.setOptions(getOptions());
-    return processor;
+    };
+    linter.setOptions(getOptions());
+    if (getCacheFolder() != null) {
+      linter.setResultCache(new LintResultCache<LinterError>(getCacheFolder()));
+    }
+    return linter;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected void onGroupsProcessed() {
+    try {
+      if (processor != null) {
+        processor.validate(collectedResources.getResources(), collectedResources.getContents());
+      }
+    } finally {
+      collectedResources.clear();
+      processor = null;
+    }
   }
 
   /**
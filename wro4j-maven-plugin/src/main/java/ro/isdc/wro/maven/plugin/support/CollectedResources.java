@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2012. All rights reserved.
+ */
+package ro.isdc.wro.maven.plugin.support;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+
+import ro.isdc.wro.model.resource.Resource;
+
+
+/**
+ * Holds the resources processed by a mojo and their content, in the order they were processed. This way all the
+ * resources of the target groups can be handled at once (ex: linted in parallel batches) instead of one by one. A
+ * resource contained by many groups is collected only once.
+ *
+ * @since 1.4.7
+ */
+public class CollectedResources {
+  private final Map<Resource, String> contents = new LinkedHashMap<Resource, String>();
+
+
+  /**
+   * @param resource
+   *          the processed resource.
+   * @param content
+   *          the content of the resource.
+   */
+  public synchronized void add(final Resource resource, final String content) {
+    Validate.notNull(resource);
+    Validate.notNull(content);
+    contents.put(resource, content);
+  }
+
+
+  /**
+   * @return the collected resources.
+   */
+  public synchronized List<Resource> getResources() {
+    return new ArrayList<Resource>(contents.keySet());
+  }
+
+
+  /**
+   * @return the content of each collected resource, in the same order as the resources.
+   */
+  public synchronized List<String> getContents() {
+    return new ArrayList<String>(contents.values());
+  }
+
+
+  /**
+   * Removes all the collected resources.
+   */
+  public synchronized void clear() {
+    contents.clear();
+  }
+}